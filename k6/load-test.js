@@ -10,6 +10,7 @@ const authenticationTime = new Trend('authentication_time');
 // Configuration
 const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
 const TEST_TYPE = __ENV.TEST_TYPE || 'load'; // smoke, load, spike
+const SUMMARY_FILE = __ENV.SUMMARY_FILE || 'results/summary.json';
 
 // Test user credentials (will be created during setup)
 const TEST_USER = {
@@ -485,7 +486,7 @@ export function handleSummary(data) {
     
     return {
         'stdout': textSummary(data, { indent: '  ', enableColors: true }),
-        'results/summary.json': JSON.stringify(summary, null, 2),
+        [SUMMARY_FILE]: JSON.stringify(summary, null, 2),
     };
 }
 
@@ -0,0 +1,142 @@
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Counter, Rate, Trend } from 'k6/metrics';
+
+// Renders a catalog results page and its star ratings two ways, side by side:
+//   per_item - one GET /api/reviews/item/{id}/average per card, fired in
+//              parallel the way a browser would
+//   batch    - one POST /api/reviews/averages for the whole page
+//
+// Usage:
+//   k6 run k6/rating-batch-test.js
+//   k6 run --env BASE_URL=http://localhost:8080 --env PAGE_SIZE=50 k6/rating-batch-test.js
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const PAGE_SIZE = parseInt(__ENV.PAGE_SIZE || '50', 10);
+const VUS = parseInt(__ENV.VUS || '10', 10);
+const DURATION = __ENV.DURATION || '2m';
+const SUMMARY_FILE = __ENV.SUMMARY_FILE || 'results/rating_batch_summary.json';
+
+// Whole page: catalog search plus every rating it needs, in ms
+const pageRenderTime = new Trend('page_render_time', true);
+// HTTP requests spent on one page
+const pageRequests = new Trend('page_requests');
+const pagesRendered = new Counter('pages_rendered');
+const errorRate = new Rate('errors');
+
+const TEST_USER = {
+    username: `k6ratings_${Date.now()}`,
+    password: 'TestPassword123!',
+    email: `k6ratings_${Date.now()}@test.com`,
+    name: 'K6 Ratings User',
+};
+
+export const options = {
+    scenarios: {
+        per_item: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+            env: { RATING_MODE: 'per_item' },
+            tags: { mode: 'per_item' },
+        },
+        batch: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+            startTime: DURATION, // after per_item, so the two never compete
+            env: { RATING_MODE: 'batch' },
+            tags: { mode: 'batch' },
+        },
+    },
+    thresholds: {
+        errors: ['rate<0.01'],
+        // Sub-metrics per mode, so both show up in the summary
+        'page_render_time{mode:per_item}': ['p(95)<5000'],
+        'page_render_time{mode:batch}': ['p(95)<1000'],
+        'page_requests{mode:per_item}': ['avg>=1'],
+        'page_requests{mode:batch}': ['avg>=1'],
+    },
+};
+
+export function setup() {
+    const signupRes = http.post(`${BASE_URL}/api/auth/signup`, JSON.stringify(TEST_USER), {
+        headers: { 'Content-Type': 'application/json' },
+    });
+    if (signupRes.status !== 200) {
+        throw new Error(`Could not create test user: ${signupRes.status}`);
+    }
+    return { token: JSON.parse(signupRes.body).token };
+}
+
+export default function (data) {
+    const headers = {
+        'Content-Type': 'application/json',
+        'Authorization': `Bearer ${data.token}`,
+    };
+    const started = Date.now();
+
+    const searchRes = http.get(`${BASE_URL}/api/catalog/search?size=${PAGE_SIZE}`, { headers });
+    const searchOk = check(searchRes, { 'search: status is 200': (r) => r.status === 200 });
+    errorRate.add(!searchOk);
+    if (!searchOk) {
+        return;
+    }
+    const ids = JSON.parse(searchRes.body).content.map((hit) => hit.id);
+
+    let requests = 1;
+    let ratingsOk = true;
+    if (ids.length > 0 && __ENV.RATING_MODE === 'per_item') {
+        const responses = http.batch(ids.map((id) => ['GET', `${BASE_URL}/api/reviews/item/${id}/average`, null, { headers }]));
+        requests += responses.length;
+        ratingsOk = responses.every((r) => r.status === 200);
+    } else if (ids.length > 0) {
+        const batchRes = http.post(`${BASE_URL}/api/reviews/averages`, JSON.stringify({ ids }), { headers });
+        requests += 1;
+        ratingsOk = batchRes.status === 200 && JSON.parse(batchRes.body).length === ids.length;
+    }
+    check(ratingsOk, { 'ratings: every card rated': (ok) => ok });
+    errorRate.add(!ratingsOk);
+
+    pageRenderTime.add(Date.now() - started);
+    pageRequests.add(requests);
+    pagesRendered.add(1);
+
+    sleep(0.5);
+}
+
+export function handleSummary(data) {
+    const modeMetrics = (mode) => {
+        const render = data.metrics[`page_render_time{mode:${mode}}`];
+        const requests = data.metrics[`page_requests{mode:${mode}}`];
+        return {
+            page_render_avg: render ? render.values.avg : 0,
+            page_render_p95: render ? render.values['p(95)'] : 0,
+            requests_per_page: requests ? requests.values.avg : 0,
+        };
+    };
+    const summary = {
+        timestamp: new Date().toISOString(),
+        pageSize: PAGE_SIZE,
+        vus: VUS,
+        per_item: modeMetrics('per_item'),
+        batch: modeMetrics('batch'),
+        pages_rendered: data.metrics.pages_rendered ? data.metrics.pages_rendered.values.count : 0,
+        error_rate: data.metrics.errors ? data.metrics.errors.values.rate : 0,
+    };
+
+    let output = '\n========== Rating Lookup Comparison ==========\n';
+    output += `Page size: ${PAGE_SIZE}, VUs: ${VUS}\n`;
+    for (const mode of ['per_item', 'batch']) {
+        const m = summary[mode];
+        output += `${mode.padEnd(9)} requests/page=${m.requests_per_page.toFixed(1)} `
+            + `avg=${m.page_render_avg.toFixed(2)}ms p(95)=${m.page_render_p95.toFixed(2)}ms\n`;
+    }
+    output += `Error Rate: ${(summary.error_rate * 100).toFixed(2)}%\n`;
+    output += '==============================================\n';
+
+    return {
+        'stdout': output,
+        [SUMMARY_FILE]: JSON.stringify(summary, null, 2),
+    };
+}
@@ -2,16 +2,19 @@ package com.example.OLSHEETS.boundary;
 
 import com.example.OLSHEETS.data.Booking;
 import com.example.OLSHEETS.data.BookingStatus;
-import com.example.OLSHEETS.data.User;
-import com.example.OLSHEETS.exception.UserNotFoundException;
-import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.dto.BookingSummary;
+import com.example.OLSHEETS.dto.BookingView;
+import com.example.OLSHEETS.dto.CursorPage;
+import com.example.OLSHEETS.security.AuthenticatedUser;
 import com.example.OLSHEETS.service.AdminService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,38 +23,103 @@ import java.util.Map;
 @RequestMapping("/api/admin")
 public class AdminController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final AdminService adminService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ObjectMapper objectMapper;
 
     public AdminController(AdminService adminService) {
         this.adminService = adminService;
     }
 
     /**
-     * Get all bookings in the system
+     * Get bookings in the system as a bare array, at most MAX_PAGE_SIZE per
+     * call; X-Next-Cursor and X-Has-More say where the next call starts.
+     *
+     * @deprecated use {@code /bookings/cursor}, which carries the cursor in the body
      */
+    @Deprecated
     @GetMapping("/bookings")
-    public List<Booking> getAllBookings() {
-        return adminService.getAllBookings();
+    public ResponseEntity<List<BookingView>> getAllBookings(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int size) {
+        return ArrayPageResponses.of(adminService.getAllBookings(after, clampPageSize(size)));
+    }
+
+    /**
+     * Keyset page over all bookings, optionally filtered by status
+     */
+    @GetMapping("/bookings/cursor")
+    public ResponseEntity<?> getBookingsByCursor(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(adminService.getBookingSummaries(parseStatus(status), after, clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream all bookings as NDJSON, optionally filtered by status
+     */
+    @GetMapping(value = "/bookings/stream", produces = "application/x-ndjson")
+    public ResponseEntity<?> streamBookings(@RequestParam(required = false) String status) {
+        BookingStatus bookingStatus;
+        try {
+            bookingStatus = parseStatus(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", e.getMessage()));
+        }
+        return NdjsonResponses.<BookingSummary>stream(objectMapper,
+                sink -> adminService.streamBookingSummaries(bookingStatus, sink));
     }
 
     /**
-     * Get bookings filtered by status
+     * Get bookings filtered by status, paged like {@link #getAllBookings}
+     *
+     * @deprecated use {@code /bookings/cursor?status=}
      */
+    @Deprecated
     @GetMapping("/bookings/status/{status}")
-    public List<Booking> getBookingsByStatus(@PathVariable String status) {
-        BookingStatus bookingStatus = BookingStatus.valueOf(status.toUpperCase());
-        return adminService.getBookingsByStatus(bookingStatus);
+    public ResponseEntity<?> getBookingsByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ArrayPageResponses.of(adminService.getBookingsByStatus(parseStatus(status), after, clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
-     * Get all bookings for a specific renter
+     * Get a renter's bookings, paged like {@link #getAllBookings}
+     *
+     * @deprecated use {@code /bookings/renter/{renterId}/cursor}
      */
+    @Deprecated
     @GetMapping("/bookings/renter/{renterId}")
-    public List<Booking> getBookingsByRenter(@PathVariable Long renterId) {
-        return adminService.getBookingsByRenter(renterId);
+    public ResponseEntity<List<BookingView>> getBookingsByRenter(
+            @PathVariable Long renterId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int size) {
+        return ArrayPageResponses.of(adminService.getBookingsByRenter(renterId, after, clampPageSize(size)));
+    }
+
+    /**
+     * Keyset page over a renter's bookings
+     */
+    @GetMapping("/bookings/renter/{renterId}/cursor")
+    public CursorPage<BookingSummary> getBookingsByRenterCursor(
+            @PathVariable Long renterId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size) {
+        return adminService.getBookingSummariesByRenter(renterId, after, clampPageSize(size));
     }
 
     /**
@@ -59,17 +127,11 @@ public class AdminController {
      * Only the owner or renter can cancel
      */
     @PutMapping("/bookings/{bookingId}/cancel")
-    public ResponseEntity<?> cancelBooking(@PathVariable Long bookingId) {
+    public ResponseEntity<?> cancelBooking(AuthenticatedUser currentUser, @PathVariable Long bookingId) {
         try {
-            // Extract username from JWT token
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            // Get user from database
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UserNotFoundException("User not found"));
+            Long userId = AuthenticatedUser.requireId(currentUser);
 
-            Booking cancelled = adminService.cancelBooking(bookingId, user.getId());
+            Booking cancelled = adminService.cancelBooking(bookingId, userId);
             return ResponseEntity.ok(cancelled);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -115,7 +177,7 @@ public class AdminController {
      */
     @GetMapping("/revenue/owner/{ownerId}")
     public Map<String, Object> getRevenueByOwner(@PathVariable Long ownerId) {
-        Double revenue = adminService.getRevenueByOwner(ownerId);
+        BigDecimal revenue = adminService.getRevenueByOwner(ownerId);
         Map<String, Object> response = new HashMap<>();
         response.put("ownerId", ownerId);
         response.put("revenue", revenue);
@@ -126,10 +188,43 @@ public class AdminController {
      * Get total system revenue
      */
     @GetMapping("/revenue/total")
-    public Map<String, Double> getTotalRevenue() {
-        Double totalRevenue = adminService.getTotalRevenue();
-        Map<String, Double> response = new HashMap<>();
+    public Map<String, BigDecimal> getTotalRevenue() {
+        BigDecimal totalRevenue = adminService.getTotalRevenue();
+        Map<String, BigDecimal> response = new HashMap<>();
         response.put("totalRevenue", totalRevenue);
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * Recompute statistics and revenue rollups from raw bookings. Only users
+     * listed in security.admin-usernames may call it; 409 if the rebuild kept
+     * racing with booking writes
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildRollups() {
+        try {
+            long bookings = adminService.rebuildRollups();
+            Map<String, Long> response = new HashMap<>();
+            response.put("bookingsProcessed", bookings);
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Case-insensitive; an unknown value is the client's mistake, so callers answer 400
+    private static BookingStatus parseStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return BookingStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown booking status: " + status);
+        }
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.OLSHEETS.boundary;
+
+import com.example.OLSHEETS.dto.CursorPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Serves a keyset page as a bare JSON array for the deprecated list
+ * endpoints, whose clients expect one. The cursor moves to headers so those
+ * clients can still walk the rest with ?after=.
+ */
+final class ArrayPageResponses {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    static final String HAS_MORE = "X-Has-More";
+
+    private ArrayPageResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> of(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HAS_MORE, String.valueOf(page.isHasMore()));
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR, String.valueOf(page.getNextCursor()));
+        }
+        return response.body(page.getContent());
+    }
+}
@@ -4,12 +4,15 @@ import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.dto.AuthResponse;
 import com.example.OLSHEETS.dto.LoginRequest;
 import com.example.OLSHEETS.dto.SignupRequest;
+import com.example.OLSHEETS.exception.ServiceOverloadedException;
 import com.example.OLSHEETS.exception.UserAlreadyExistsException;
 import com.example.OLSHEETS.security.JwtUtil;
+import com.example.OLSHEETS.security.VerifiedToken;
 import com.example.OLSHEETS.service.UserService;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -42,7 +45,7 @@ public class AuthController {
     public ResponseEntity<?> signup(@RequestBody SignupRequest request) {
         try {
             User user = userService.registerUser(request);
-            String token = jwtUtil.generateToken(user.getUsername());
+            String token = jwtUtil.generateToken(user.getUsername(), user.getId());
 
             AuthResponse response = new AuthResponse(token, user.getUsername(), user.getName());
             return ResponseEntity.ok(response);
@@ -50,6 +53,8 @@ public class AuthController {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         }
     }
 
@@ -60,7 +65,7 @@ public class AuthController {
 
             if (userOpt.isPresent()) {
                 User user = userOpt.get();
-                String token = jwtUtil.generateToken(user.getUsername());
+                String token = jwtUtil.generateToken(user.getUsername(), user.getId());
 
                 AuthResponse response = new AuthResponse(token, user.getUsername(), user.getName());
                 if (loginSuccessCounter != null) {
@@ -77,10 +82,14 @@ public class AuthController {
             }
         };
 
-        if (authenticationTimer != null) {
-            return authenticationTimer.record(loginSupplier);
-        } else {
-            return loginSupplier.get();
+        try {
+            if (authenticationTimer != null) {
+                return authenticationTimer.record(loginSupplier);
+            } else {
+                return loginSupplier.get();
+            }
+        } catch (ServiceOverloadedException e) {
+            return overloaded(e);
         }
     }
 
@@ -88,10 +97,10 @@ public class AuthController {
     public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String authHeader) {
         try {
             String token = authHeader.substring(7); // Remove "Bearer " prefix
-            String username = jwtUtil.extractUsername(token);
+            Optional<VerifiedToken> verified = jwtUtil.verifyToken(token);
 
-            if (jwtUtil.validateToken(token, username)) {
-                Optional<User> userOpt = userService.findByUsername(username);
+            if (verified.isPresent()) {
+                Optional<User> userOpt = userService.findByUsername(verified.get().getUsername());
                 if (userOpt.isPresent()) {
                     User user = userOpt.get();
                     Map<String, String> response = new HashMap<>();
@@ -136,4 +145,11 @@ public class AuthController {
                 .body(Map.of("error", "Error retrieving user information"));
         }
     }
+
+    // Password hashing pool is saturated: tell the client when to come back
+    private static ResponseEntity<Map<String, String>> overloaded(ServiceOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
 }
@@ -1,17 +1,32 @@
 package com.example.OLSHEETS.boundary;
 
+import com.example.OLSHEETS.config.QueryBudget;
 import com.example.OLSHEETS.data.Booking;
-import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.BookingSummary;
+import com.example.OLSHEETS.dto.BookingView;
+import com.example.OLSHEETS.dto.CursorPage;
+import com.example.OLSHEETS.dto.PagedResponse;
+import com.example.OLSHEETS.exception.ServiceOverloadedException;
 import com.example.OLSHEETS.exception.UserNotFoundException;
-import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.security.AuthenticatedUser;
 import com.example.OLSHEETS.service.BookingService;
+import com.example.OLSHEETS.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,53 +36,97 @@ import java.util.Map;
 @RequestMapping("/api/bookings")
 public class BookingController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ObjectMapper objectMapper;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, IdempotencyService idempotencyService) {
         this.bookingService = bookingService;
+        this.idempotencyService = idempotencyService;
     }
 
+    /**
+     * Book an item. With an Idempotency-Key header the booking is created at
+     * most once per key and user, and a retry gets the first response back
+     * unchanged. The key lookup and claim take up to three extra statements.
+     */
     @PostMapping
-    public ResponseEntity<?> createBooking(@RequestParam Long itemId,
+    @QueryBudget(15)
+    public ResponseEntity<?> createBooking(AuthenticatedUser currentUser, @RequestParam Long itemId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        try {
-            // Extract username from JWT token
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null || currentUser == null || currentUser.getId() == null) {
+            return book(currentUser, itemId, startDate, endDate);
+        }
+        String fingerprint = itemId + "|" + startDate + "|" + endDate;
+        return IdempotentResponses.execute(idempotencyService, objectMapper, "booking:" + currentUser.getId(),
+                idempotencyKey, fingerprint, () -> book(currentUser, itemId, startDate, endDate));
+    }
 
-            // Get user from database
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UserNotFoundException("User not found"));
+    private ResponseEntity<?> book(AuthenticatedUser currentUser, Long itemId, LocalDate startDate, LocalDate endDate) {
+        try {
+            Long userId = AuthenticatedUser.requireId(currentUser);
 
-            Booking booking = bookingService.createBooking(itemId, user.getId(), startDate, endDate);
+            Booking booking = bookingService.createBooking(itemId, userId, startDate, endDate);
             return ResponseEntity.ok(booking);
+        } catch (ServiceOverloadedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage()));
+        } catch (TransientDataAccessException | CannotCreateTransactionException e) {
+            // Lock timeouts, deadlocks and an unreachable database: worth retrying as is
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Booking could not be completed, please try again"));
+        } catch (DataAccessException | TransactionException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Booking could not be completed"));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Bookings as a bare array, at most MAX_PAGE_SIZE per call; X-Next-Cursor
+     * and X-Has-More say where the next call starts.
+     *
+     * @deprecated use {@code /api/bookings/cursor}, which carries the cursor in the body
+     */
+    @Deprecated
     @GetMapping
-    public List<Booking> listBookings() {
-        return bookingService.listBookings();
+    @QueryBudget(1)
+    public ResponseEntity<List<BookingView>> listBookings(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int size) {
+        return ArrayPageResponses.of(bookingService.listBookings(after, clampPageSize(size)));
+    }
+
+    @GetMapping("/cursor")
+    @QueryBudget(1)
+    public CursorPage<BookingSummary> listBookingsByCursor(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size) {
+        return bookingService.listBookingSummaries(after, clampPageSize(size));
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamBookings() {
+        return NdjsonResponses.<BookingSummary>stream(objectMapper, bookingService::streamBookingSummaries);
     }
 
     @GetMapping("/my-bookings")
-    public ResponseEntity<?> getMyBookings() {
+    @QueryBudget(2)
+    public ResponseEntity<?> getMyBookings(AuthenticatedUser currentUser) {
         try {
-            // Extract username from JWT token
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            // Get user from database
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UserNotFoundException("User not found"));
+            Long userId = AuthenticatedUser.requireId(currentUser);
 
             // Get bookings where this user is the renter
-            List<Booking> bookings = bookingService.getBookingsByRenterId(user.getId());
+            List<BookingView> bookings = bookingService.getBookingsByRenterId(userId);
             return ResponseEntity.ok(bookings);
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
@@ -76,19 +135,30 @@ public class BookingController {
         }
     }
 
-    @GetMapping("/my-instrument-bookings")
-    public ResponseEntity<?> getMyInstrumentBookings() {
+    @GetMapping("/my-bookings/cursor")
+    public ResponseEntity<?> getMyBookingsByCursor(
+            AuthenticatedUser currentUser,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            // Extract username from JWT token
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
+            Long userId = AuthenticatedUser.requireId(currentUser);
+
+            return ResponseEntity.ok(bookingService.getBookingSummariesByRenterId(userId, after, clampPageSize(size)));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 
-            // Get user from database
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UserNotFoundException("User not found"));
+    @GetMapping("/my-instrument-bookings")
+    @QueryBudget(2)
+    public ResponseEntity<?> getMyInstrumentBookings(AuthenticatedUser currentUser) {
+        try {
+            Long userId = AuthenticatedUser.requireId(currentUser);
 
             // Get all bookings for instruments owned by this user
-            List<Booking> bookings = bookingService.getBookingsByOwnerId(user.getId());
+            List<BookingView> bookings = bookingService.getBookingsByOwnerId(userId);
             return ResponseEntity.ok(bookings);
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
@@ -97,15 +167,48 @@ public class BookingController {
         }
     }
 
+    @GetMapping("/my-instrument-bookings/summary")
+    @QueryBudget(3)
+    public ResponseEntity<?> getMyInstrumentBookingSummaries(
+            AuthenticatedUser currentUser,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Long userId = AuthenticatedUser.requireId(currentUser);
+
+            Pageable pageable = PageRequest.of(page, clampPageSize(size), Sort.by(Sort.Direction.DESC, "id"));
+            Page<BookingSummary> summaries = bookingService.getBookingSummariesByOwnerId(userId, pageable);
+            return ResponseEntity.ok(PagedResponse.of(summaries));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/my-instrument-bookings/cursor")
+    public ResponseEntity<?> getMyInstrumentBookingsByCursor(
+            AuthenticatedUser currentUser,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Long userId = AuthenticatedUser.requireId(currentUser);
+
+            return ResponseEntity.ok(bookingService.getBookingSummariesByOwnerId(userId, after, clampPageSize(size)));
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{bookingId}/approve")
-    public ResponseEntity<?> approveBooking(@PathVariable Long bookingId) {
+    @QueryBudget(13)
+    public ResponseEntity<?> approveBooking(AuthenticatedUser currentUser, @PathVariable Long bookingId) {
         try {
-            // Extract authenticated user from JWT token
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+            Long userId = AuthenticatedUser.requireId(currentUser);
             
-            Booking approved = bookingService.approveBooking(bookingId, user.getId().intValue());
+            Booking approved = bookingService.approveBooking(bookingId, userId.intValue());
             return ResponseEntity.ok(approved);
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
@@ -117,14 +220,12 @@ public class BookingController {
     }
 
     @PutMapping("/{bookingId}/reject")
-    public ResponseEntity<?> rejectBooking(@PathVariable Long bookingId) {
+    @QueryBudget(12)
+    public ResponseEntity<?> rejectBooking(AuthenticatedUser currentUser, @PathVariable Long bookingId) {
         try {
-            // Extract authenticated user from JWT token
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+            Long userId = AuthenticatedUser.requireId(currentUser);
             
-            Booking rejected = bookingService.rejectBooking(bookingId, user.getId().intValue());
+            Booking rejected = bookingService.rejectBooking(bookingId, userId.intValue());
             return ResponseEntity.ok(rejected);
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
@@ -134,4 +235,8 @@ public class BookingController {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         }
     }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.OLSHEETS.boundary;
+
+import com.example.OLSHEETS.config.QueryBudget;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.Suggestion;
+import com.example.OLSHEETS.search.CatalogQuery;
+import com.example.OLSHEETS.service.CatalogSearchService;
+import com.example.OLSHEETS.service.RankingService;
+import com.example.OLSHEETS.service.SuggestService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/catalog")
+public class CatalogController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final CatalogSearchService catalogSearchService;
+    private final SuggestService suggestService;
+    private final RankingService rankingService;
+
+    public CatalogController(CatalogSearchService catalogSearchService, SuggestService suggestService,
+                             RankingService rankingService) {
+        this.catalogSearchService = catalogSearchService;
+        this.suggestService = suggestService;
+        this.rankingService = rankingService;
+    }
+
+    /**
+     * Faceted search over instruments and music sheets. The text query is
+     * optional; type, instrumentType, family and category may each be
+     * repeated to match any of the values. The response carries facet counts
+     * for the whole result set alongside the page.
+     */
+    @GetMapping("/search")
+    @QueryBudget(1)
+    public ResponseEntity<?> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) ItemKind type,
+            @RequestParam(required = false) List<InstrumentType> instrumentType,
+            @RequestParam(required = false) List<InstrumentFamily> family,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate availableFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate availableTo,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            return ResponseEntity.badRequest().body(Map.of("error", "minPrice must not be greater than maxPrice"));
+        }
+        if (availableFrom == null && availableTo != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "availableTo requires availableFrom"));
+        }
+        LocalDate to = availableTo != null ? availableTo : availableFrom;
+        if (availableFrom != null && to.isBefore(availableFrom)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "availableTo must not be before availableFrom"));
+        }
+
+        CatalogQuery query = CatalogQuery.builder()
+                .text(q)
+                .fuzzy(fuzzy)
+                .kind(type)
+                .instrumentTypes(instrumentType)
+                .instrumentFamilies(family)
+                .categories(category)
+                .priceBetween(minPrice, maxPrice)
+                .itemFilter(availableFrom == null ? null : catalogSearchService.availableBetween(availableFrom, to))
+                .build();
+        return ResponseEntity.ok(catalogSearchService.search(query, page, clampPageSize(size)));
+    }
+
+    /**
+     * Autocomplete item names, composers and categories, most booked first,
+     * over one item kind or, without kind, the whole catalog
+     */
+    @GetMapping("/suggest")
+    public List<Suggestion> suggest(
+            @RequestParam String prefix,
+            @RequestParam(required = false) ItemKind kind,
+            @RequestParam(defaultValue = "8") int limit) {
+        return suggestService.suggest(prefix, kind, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * Best items by smoothed rating (TOP_RATED) or by recent bookings
+     * (TRENDING), overall or within one item kind, instrument type or sheet
+     * category. Served from rankings refreshed in the background, so a new
+     * review or booking shows up after the next refresh.
+     */
+    @GetMapping("/top")
+    @QueryBudget(0)
+    public ResponseEntity<?> top(
+            @RequestParam(defaultValue = "TOP_RATED") RankingService.Ranking ranking,
+            @RequestParam(required = false) ItemKind type,
+            @RequestParam(required = false) InstrumentType instrumentType,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (instrumentType != null && category != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "instrumentType and category cannot be combined"));
+        }
+        if ((instrumentType != null && type == ItemKind.MUSIC_SHEET) || (category != null && type == ItemKind.INSTRUMENT)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "type does not match instrumentType or category"));
+        }
+        return ResponseEntity.ok(rankingService.top(ranking, type, instrumentType, category, clampPageSize(limit)));
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.OLSHEETS.boundary;
+
+import com.example.OLSHEETS.exception.IdempotencyKeyInUseException;
+import com.example.OLSHEETS.exception.IdempotencyKeyMismatchException;
+import com.example.OLSHEETS.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs a controller method under an Idempotency-Key. Its response is
+ * serialized once and the same bytes are sent for the first request and
+ * every retry; replays are marked with an Idempotent-Replayed header.
+ *
+ * Only final outcomes are kept: 2xx and 4xx responses. A 5xx, 408 or 429,
+ * like an exception from the handler, releases the key instead, so a retry
+ * after a lock timeout or a database outage is a fresh attempt.
+ */
+final class IdempotentResponses {
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private IdempotentResponses() {
+    }
+
+    static ResponseEntity<?> execute(IdempotencyService idempotencyService, ObjectMapper objectMapper,
+                                     String scope, String key, String fingerprint,
+                                     Supplier<ResponseEntity<?>> handler) {
+        try {
+            IdempotencyService.StoredResponse response = idempotencyService.execute(scope, key, fingerprint,
+                    () -> serialize(objectMapper, storable(handler.get())));
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.getStatus());
+            if (response.isReplayed()) {
+                builder.header(REPLAYED_HEADER, "true");
+            }
+            if (response.getBody().length == 0) {
+                return builder.build();
+            }
+            return builder.contentType(MediaType.APPLICATION_JSON).body(response.getBody());
+        } catch (TransientResponse e) {
+            return e.response;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of("error", e.getMessage()));
+        } catch (IdempotencyKeyInUseException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static ResponseEntity<?> storable(ResponseEntity<?> response) {
+        int status = response.getStatusCode().value();
+        if (response.getStatusCode().is5xxServerError()
+                || status == HttpStatus.REQUEST_TIMEOUT.value() || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            // Thrown so IdempotencyService releases the claim rather than storing it
+            throw new TransientResponse(response);
+        }
+        return response;
+    }
+
+    private static IdempotencyService.StoredResponse serialize(ObjectMapper objectMapper, ResponseEntity<?> response) {
+        try {
+            byte[] body = response.getBody() == null ? null : objectMapper.writeValueAsBytes(response.getBody());
+            return new IdempotencyService.StoredResponse(response.getStatusCode().value(), body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Carries a response that must not be stored out of the idempotent action
+     */
+    private static final class TransientResponse extends RuntimeException {
+
+        private final transient ResponseEntity<?> response;
+
+        TransientResponse(ResponseEntity<?> response) {
+            super(null, null, false, false);
+            this.response = response;
+        }
+    }
+}
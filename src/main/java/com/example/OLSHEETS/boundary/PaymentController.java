@@ -3,7 +3,10 @@ package com.example.OLSHEETS.boundary;
 import com.example.OLSHEETS.data.Payment;
 import com.example.OLSHEETS.dto.PaymentRequest;
 import com.example.OLSHEETS.dto.PaymentResponse;
+import com.example.OLSHEETS.security.AuthenticatedUser;
+import com.example.OLSHEETS.service.IdempotencyService;
 import com.example.OLSHEETS.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,13 +20,45 @@ import java.util.Optional;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Pay for a booking. With an Idempotency-Key header the payment runs at
+     * most once per key and user, and a retry gets the first response back
+     * unchanged. Payments do not require a sign-in, so without a user the
+     * key is scoped to the booking being paid instead. Only the last four
+     * card digits go into the request fingerprint, so the stored hash cannot
+     * be reversed to a card number.
+     */
     @PostMapping
-    public ResponseEntity<?> processPayment(@RequestBody PaymentRequest request) {
+    public ResponseEntity<?> processPayment(AuthenticatedUser currentUser, @RequestBody PaymentRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return pay(request);
+        }
+        String scope;
+        if (currentUser != null && currentUser.getId() != null) {
+            scope = "payment:" + currentUser.getId();
+        } else if (request.getBookingId() != null) {
+            scope = "payment:booking:" + request.getBookingId();
+        } else {
+            return ResponseEntity.badRequest().body(Map.of("error", "Booking id is required"));
+        }
+        String fingerprint = request.getBookingId() + "|" + request.getPaymentMethod() + "|"
+                + lastFour(request.getCardNumber());
+        return IdempotentResponses.execute(idempotencyService, objectMapper, scope,
+                idempotencyKey, fingerprint, () -> pay(request));
+    }
+
+    private ResponseEntity<?> pay(PaymentRequest request) {
         try {
             Payment payment = paymentService.initiateAndProcessPayment(request.getBookingId(), request);
             return ResponseEntity.ok(new PaymentResponse(payment));
@@ -34,6 +69,14 @@ public class PaymentController {
         }
     }
 
+    private static String lastFour(String cardNumber) {
+        if (cardNumber == null) {
+            return "";
+        }
+        String digits = cardNumber.replaceAll("\\D", "");
+        return digits.substring(Math.max(0, digits.length() - 4));
+    }
+
     @GetMapping("/{paymentId}")
     public ResponseEntity<?> getPayment(@PathVariable Long paymentId) {
         Optional<Payment> payment = paymentService.getPaymentById(paymentId);
@@ -1,17 +1,12 @@
 package com.example.OLSHEETS.boundary;
 
 import com.example.OLSHEETS.data.Item;
-import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.dto.PriceUpdateRequest;
 import com.example.OLSHEETS.dto.PriceUpdateResponse;
 import com.example.OLSHEETS.dto.PriceResponse;
-import com.example.OLSHEETS.exception.UserNotFoundException;
-import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.security.AuthenticatedUser;
 import com.example.OLSHEETS.service.ProductsService;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -22,9 +17,6 @@ public class PricingController {
 
     private final ProductsService productsService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     public PricingController(ProductsService productsService) {
         this.productsService = productsService;
     }
@@ -35,18 +27,13 @@ public class PricingController {
      */
     @PutMapping("/price/{itemId}")
     public ResponseEntity<?> updatePrice(
+            AuthenticatedUser currentUser,
             @PathVariable Long itemId,
             @RequestBody PriceUpdateRequest request) {
         try {
-            // Extract username from JWT token
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            // Get user from database
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UserNotFoundException("User not found"));
+            Long userId = AuthenticatedUser.requireId(currentUser);
 
-            Item updatedItem = productsService.updateItemPrice(itemId, request.getNewPrice(), user.getId());
+            Item updatedItem = productsService.updateItemPrice(itemId, request.getNewPrice(), userId);
             return ResponseEntity.ok(new PriceUpdateResponse(
                 updatedItem.getId(), 
                 updatedItem.getName(), 
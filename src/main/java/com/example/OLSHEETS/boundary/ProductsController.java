@@ -1,20 +1,24 @@
 package com.example.OLSHEETS.boundary;
 
+import com.example.OLSHEETS.config.QueryBudget;
 import com.example.OLSHEETS.data.Instrument;
 import com.example.OLSHEETS.data.InstrumentType;
 import com.example.OLSHEETS.data.InstrumentFamily;
-import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.data.ItemKind;
 import com.example.OLSHEETS.dto.ErrorResponse;
+import com.example.OLSHEETS.dto.InstrumentListing;
 import com.example.OLSHEETS.dto.InstrumentRegistrationRequest;
 import com.example.OLSHEETS.exception.UserNotFoundException;
-import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.security.AuthenticatedUser;
+import com.example.OLSHEETS.service.ItemDetailCache;
 import com.example.OLSHEETS.service.ProductsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,51 +29,72 @@ public class ProductsController {
     @Autowired
     private ProductsService productsService;
 
-    @Autowired
-    private UserRepository userRepository;
+    @Autowired(required = false)
+    private ItemDetailCache itemDetailCache;
 
+    /**
+     * Detail view, served from pre-serialized JSON when the detail cache is
+     * enabled. Answers 304 when If-None-Match carries the current ETag.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getInstrumentById(@PathVariable Long id) {
+    @QueryBudget(2)
+    public ResponseEntity<Object> getInstrumentById(@PathVariable Long id, WebRequest request) {
         try {
-            Instrument instrument = productsService.getInstrumentById(id);
-            return ResponseEntity.ok(instrument);
+            if (itemDetailCache == null) {
+                Instrument instrument = productsService.getInstrumentById(id);
+                return ResponseEntity.ok(instrument);
+            }
+            ItemDetailCache.CachedJson json = itemDetailCache.get(ItemKind.INSTRUMENT, id, () -> productsService.getInstrumentById(id));
+            if (request.checkNotModified(json.getEtag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(json.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(json.getBody());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    /**
+     * Substring search on the name, or typo-tolerant ranked search over the
+     * catalog index with fuzzy=true
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<Instrument>> searchInstruments(@RequestParam String name) {
-        List<Instrument> instruments = productsService.searchInstrumentsByName(name);
+    @QueryBudget(2)
+    public ResponseEntity<List<InstrumentListing>> searchInstruments(@RequestParam String name,
+                                                                     @RequestParam(defaultValue = "false") boolean fuzzy) {
+        List<InstrumentListing> instruments = fuzzy
+                ? productsService.fuzzySearchInstruments(name)
+                : productsService.searchInstrumentsByName(name);
         return ResponseEntity.ok(instruments);
     }
 
     @GetMapping("/filter/type")
-    public ResponseEntity<List<Instrument>> filterByType(@RequestParam InstrumentType type) {
-        List<Instrument> instruments = productsService.filterInstrumentsByType(type);
+    @QueryBudget(2)
+    public ResponseEntity<List<InstrumentListing>> filterByType(@RequestParam InstrumentType type) {
+        List<InstrumentListing> instruments = productsService.filterInstrumentsByType(type);
         return ResponseEntity.ok(instruments);
 
     }
 
     @GetMapping("/filter/family")
-    public ResponseEntity<List<Instrument>> filterByFamily(@RequestParam InstrumentFamily family) {
-        List<Instrument> instruments = productsService.filterInstrumentsByFamily(family);
+    @QueryBudget(2)
+    public ResponseEntity<List<InstrumentListing>> filterByFamily(@RequestParam InstrumentFamily family) {
+        List<InstrumentListing> instruments = productsService.filterInstrumentsByFamily(family);
         return ResponseEntity.ok(instruments);
     }
 
     @GetMapping("/my-instruments")
-    public ResponseEntity<Object> getMyInstruments() {
+    @QueryBudget(3)
+    public ResponseEntity<Object> getMyInstruments(AuthenticatedUser currentUser) {
         try {
-            // Extract username from JWT token
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            // Get user from database
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UserNotFoundException("User not found"));
+            Long userId = AuthenticatedUser.requireId(currentUser);
 
             // Get instruments owned by this user
-            List<Instrument> instruments = productsService.getInstrumentsByOwnerId(user.getId());
+            List<InstrumentListing> instruments = productsService.getInstrumentsByOwnerId(userId);
             return ResponseEntity.ok(instruments);
         } catch (UserNotFoundException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErrorResponse(e.getMessage()));
@@ -79,18 +104,12 @@ public class ProductsController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<Object> registerInstrument(@RequestBody InstrumentRegistrationRequest request) {
+    public ResponseEntity<Object> registerInstrument(AuthenticatedUser currentUser, @RequestBody InstrumentRegistrationRequest request) {
         try {
-            // Extract username from JWT token
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-
-            // Get user from database
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new UserNotFoundException("User not found"));
+            Long userId = AuthenticatedUser.requireId(currentUser);
 
             // Set ownerId from authenticated user
-            request.setOwnerId(user.getId());
+            request.setOwnerId(userId);
 
             Instrument registeredInstrument = productsService.registerInstrument(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(registeredInstrument);
@@ -1,5 +1,9 @@
 package com.example.OLSHEETS.boundary;
 
+import com.example.OLSHEETS.config.QueryBudget;
+import com.example.OLSHEETS.dto.KeysetPage;
+import com.example.OLSHEETS.dto.RatingAverage;
+import com.example.OLSHEETS.dto.RatingBatchRequest;
 import com.example.OLSHEETS.dto.ReviewRequest;
 import com.example.OLSHEETS.dto.ReviewResponse;
 import com.example.OLSHEETS.service.ReviewService;
@@ -14,6 +18,8 @@ import java.util.Map;
 @RequestMapping("/api/reviews")
 public class ReviewController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ReviewService reviewService;
 
     public ReviewController(ReviewService reviewService) {
@@ -56,16 +62,57 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
 
+    /**
+     * Get one page of an item's reviews, newest first
+     * GET /api/reviews/item/{itemId}/feed?cursor={nextCursor}&size=20
+     *
+     * Omit cursor for the first page, then pass back the nextCursor of the
+     * previous page until hasMore is false.
+     */
+    @GetMapping("/item/{itemId}/feed")
+    @QueryBudget(1)
+    public ResponseEntity<KeysetPage<ReviewResponse>> getReviewFeedByItem(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(reviewService.getReviewFeedByItemId(itemId, cursor, clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Get average score for an item
      * GET /api/reviews/item/{itemId}/average
      */
     @GetMapping("/item/{itemId}/average")
+    @QueryBudget(1)
     public ResponseEntity<Map<String, Double>> getAverageScore(@PathVariable Long itemId) {
         Double average = reviewService.getAverageScoreByItemId(itemId);
         return ResponseEntity.ok(Map.of("averageScore", average));
     }
 
+    /**
+     * Get review count and average score for up to 100 items in one call,
+     * e.g. every card on a search results page
+     * POST /api/reviews/averages
+     *
+     * Request body:
+     * {
+     *   "ids": [1, 2, 3]
+     * }
+     */
+    @PostMapping("/averages")
+    @QueryBudget(1)
+    public ResponseEntity<List<RatingAverage>> getAverageScores(@RequestBody RatingBatchRequest request) {
+        try {
+            return ResponseEntity.ok(reviewService.getAverageScoresByItemIds(request.getIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Get review for a specific booking
      * GET /api/reviews/booking/{bookingId}
@@ -91,4 +138,8 @@ public class ReviewController {
         boolean canReview = reviewService.canReviewBooking(bookingId, renterId);
         return ResponseEntity.ok(Map.of("canReview", canReview));
     }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
 }
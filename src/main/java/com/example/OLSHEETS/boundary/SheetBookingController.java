@@ -1,6 +1,7 @@
 package com.example.OLSHEETS.boundary;
 
 import com.example.OLSHEETS.data.SheetBooking;
+import com.example.OLSHEETS.dto.SheetBookingView;
 import com.example.OLSHEETS.service.SheetBookingService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -36,8 +37,8 @@ public class SheetBookingController {
     }
 
     @GetMapping("/renter/{renterId}")
-    public ResponseEntity<List<SheetBooking>> getBookingsByRenter(@PathVariable Long renterId) {
-        List<SheetBooking> bookings = bookingService.getBookingsByRenter(renterId);
+    public ResponseEntity<List<SheetBookingView>> getBookingsByRenter(@PathVariable Long renterId) {
+        List<SheetBookingView> bookings = bookingService.getBookingsByRenter(renterId);
         return ResponseEntity.ok(bookings);
     }
 
@@ -49,15 +50,15 @@ public class SheetBookingController {
     }
 
     @GetMapping
-    public ResponseEntity<List<SheetBooking>> getAllBookings() {
-        List<SheetBooking> bookings = bookingService.getAllBookings();
+    public ResponseEntity<List<SheetBookingView>> getAllBookings() {
+        List<SheetBookingView> bookings = bookingService.getAllBookings();
         return ResponseEntity.ok(bookings);
     }
 
     @GetMapping("/sheet/{sheetId}")
-    public ResponseEntity<List<SheetBooking>> getBookingsBySheet(@PathVariable Long sheetId) {
+    public ResponseEntity<List<SheetBookingView>> getBookingsBySheet(@PathVariable Long sheetId) {
         try {
-            List<SheetBooking> bookings = bookingService.getBookingsBySheet(sheetId);
+            List<SheetBookingView> bookings = bookingService.getBookingsBySheet(sheetId);
             return ResponseEntity.ok(bookings);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
@@ -1,18 +1,21 @@
 package com.example.OLSHEETS.boundary;
 
+import com.example.OLSHEETS.config.QueryBudget;
+import com.example.OLSHEETS.data.ItemKind;
 import com.example.OLSHEETS.data.MusicSheet;
-import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.dto.ErrorResponse;
+import com.example.OLSHEETS.dto.MusicSheetListing;
 import com.example.OLSHEETS.dto.MusicSheetRegistrationRequest;
-import com.example.OLSHEETS.exception.UserNotFoundException;
-import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.security.AuthenticatedUser;
+import com.example.OLSHEETS.service.ItemDetailCache;
 import com.example.OLSHEETS.service.ProductsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,46 +26,65 @@ public class SheetsController {
     @Autowired
     private ProductsService productsService;
 
-    @Autowired
-    private UserRepository userRepository;
+    @Autowired(required = false)
+    private ItemDetailCache itemDetailCache;
 
+    /**
+     * Detail view, served from pre-serialized JSON when the detail cache is
+     * enabled. Answers 304 when If-None-Match carries the current ETag.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getMusicSheetById(@PathVariable Long id) {
+    @QueryBudget(2)
+    public ResponseEntity<Object> getMusicSheetById(@PathVariable Long id, WebRequest request) {
         try {
-            MusicSheet musicSheet = productsService.getMusicSheetById(id);
-            return ResponseEntity.ok(musicSheet);
+            if (itemDetailCache == null) {
+                MusicSheet musicSheet = productsService.getMusicSheetById(id);
+                return ResponseEntity.ok(musicSheet);
+            }
+            ItemDetailCache.CachedJson json = itemDetailCache.get(ItemKind.MUSIC_SHEET, id, () -> productsService.getMusicSheetById(id));
+            if (request.checkNotModified(json.getEtag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(json.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(json.getBody());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
 
+    /**
+     * Substring search on the name, or typo-tolerant ranked search over the
+     * catalog index with fuzzy=true
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<MusicSheet>> searchSheets(@RequestParam String name) {
-        List<MusicSheet> sheets = productsService.searchMusicSheetsByName(name);
+    @QueryBudget(2)
+    public ResponseEntity<List<MusicSheetListing>> searchSheets(@RequestParam String name,
+                                                                @RequestParam(defaultValue = "false") boolean fuzzy) {
+        List<MusicSheetListing> sheets = fuzzy
+                ? productsService.fuzzySearchMusicSheets(name)
+                : productsService.searchMusicSheetsByName(name);
         return ResponseEntity.ok(sheets);
     }
 
     @GetMapping("/filter/category")
-    public ResponseEntity<List<MusicSheet>> filterByCategory(@RequestParam String category) {
-        List<MusicSheet> sheets = productsService.filterMusicSheetsByCategory(category);
+    @QueryBudget(2)
+    public ResponseEntity<List<MusicSheetListing>> filterByCategory(@RequestParam String category) {
+        List<MusicSheetListing> sheets = productsService.filterMusicSheetsByCategory(category);
         return ResponseEntity.ok(sheets);
     }
 
     @PostMapping("/register")
-    public ResponseEntity<Object> registerMusicSheet(@RequestBody MusicSheetRegistrationRequest request) {
+    public ResponseEntity<Object> registerMusicSheet(AuthenticatedUser currentUser, @RequestBody MusicSheetRegistrationRequest request) {
         try {
             // If ownerId is not already set in request, extract from authentication
             if (request.getOwnerId() == null) {
-                // Extract username from JWT token
-                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-                String username = authentication.getName();
-
-                // Get user from database
-                User user = userRepository.findByUsername(username)
-                        .orElseThrow(() -> new UserNotFoundException("User not found"));
+                Long userId = AuthenticatedUser.requireId(currentUser);
 
                 // Set ownerId from authenticated user
-                request.setOwnerId(user.getId());
+                request.setOwnerId(userId);
             }
 
             MusicSheet registeredMusicSheet = productsService.registerMusicSheet(request);
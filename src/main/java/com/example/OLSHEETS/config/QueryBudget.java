@@ -0,0 +1,21 @@
+package com.example.OLSHEETS.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements one request to this endpoint may issue. Checked by
+ * QueryCountFilter when olsheets.query-count.enabled is set; a request over
+ * budget is logged and reported as a violation, which integration tests
+ * assert never happens.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
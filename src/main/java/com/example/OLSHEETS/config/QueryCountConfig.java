@@ -0,0 +1,42 @@
+package com.example.OLSHEETS.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Per-request SQL statement counting, enabled with
+ * olsheets.query-count.enabled=true. Always on in tests so endpoint query
+ * budgets are enforced; in production it costs a thread-local increment per
+ * statement and can be switched on to find N+1 patterns from the metrics.
+ */
+@Configuration
+@ConditionalOnProperty(name = "olsheets.query-count.enabled", havingValue = "true")
+public class QueryCountConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, QueryCountInspector.INSTANCE);
+    }
+
+    @Bean
+    public QueryCountFilter queryCountFilter(@Value("${olsheets.query-count.default-budget:0}") int defaultBudget,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        return new QueryCountFilter(meterRegistry.getIfAvailable(), defaultBudget);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilterRegistration(QueryCountFilter queryCountFilter) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(queryCountFilter);
+        // Ahead of security so token and user lookups are counted with the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
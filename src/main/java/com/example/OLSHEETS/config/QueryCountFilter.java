@@ -0,0 +1,131 @@
+package com.example.OLSHEETS.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Counts the SQL statements each HTTP request issues and attributes them to
+ * the controller method that handled it, as "BookingController.listBookings".
+ *
+ * Runs ahead of the security filters, so token and user lookups count too,
+ * as do lazy loads during JSON serialization. Counts are published as the
+ * http.server.requests.queries distribution summary tagged by handler. A
+ * request over its @QueryBudget, or over the default budget when the method
+ * declares none, is logged and kept as a violation until drained.
+ *
+ * Only the request thread is counted: the part of a streaming or async
+ * response written on another thread is not included.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    // Violations kept for drainViolations; older ones are dropped
+    private static final int MAX_VIOLATIONS = 100;
+
+    private final MeterRegistry registry;
+    private final int defaultBudget;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    private final Map<String, Integer> lastCounts = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param registry      where to publish counts, or null for none
+     * @param defaultBudget budget for methods without @QueryBudget; 0 leaves
+     *                      them unchecked
+     */
+    public QueryCountFilter(MeterRegistry registry, int defaultBudget) {
+        this.registry = registry;
+        this.defaultBudget = defaultBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean opened = QueryCountInspector.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (opened) {
+                int count = QueryCountInspector.close();
+                if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+                    record(handler, count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Statements issued by the most recent request to the handler, named
+     * like "ProductsController.searchInstruments"
+     */
+    public OptionalInt lastCount(String handler) {
+        Integer count = lastCounts.get(handler);
+        return count == null ? OptionalInt.empty() : OptionalInt.of(count);
+    }
+
+    /**
+     * Budget violations since the last call, oldest first
+     */
+    public List<String> drainViolations() {
+        List<String> drained = new ArrayList<>();
+        String violation;
+        while ((violation = violations.poll()) != null) {
+            drained.add(violation);
+        }
+        return drained;
+    }
+
+    private void record(HandlerMethod handler, int count) {
+        String name = handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+        lastCounts.put(name, count);
+        if (registry != null) {
+            summaries.computeIfAbsent(name, this::summary).record(count);
+        }
+
+        QueryBudget declared = handler.getMethodAnnotation(QueryBudget.class);
+        int budget = declared != null ? declared.value() : defaultBudget;
+        if ((declared != null || budget > 0) && count > budget) {
+            String violation = name + " issued " + count + " statements, budget is " + budget;
+            log.warn("Query budget exceeded: {}", violation);
+            violations.add(violation);
+            while (violations.size() > MAX_VIOLATIONS) {
+                violations.poll();
+            }
+            if (registry != null) {
+                Counter.builder("http.server.requests.queries.over.budget")
+                        .tag("handler", name)
+                        .description("Requests that issued more statements than their query budget")
+                        .register(registry)
+                        .increment();
+            }
+        }
+    }
+
+    private DistributionSummary summary(String handler) {
+        return DistributionSummary.builder("http.server.requests.queries")
+                .tag("handler", handler)
+                .description("SQL statements issued per request")
+                .baseUnit("statements")
+                .serviceLevelObjectives(1, 2, 5, 10, 25)
+                .register(registry);
+    }
+}
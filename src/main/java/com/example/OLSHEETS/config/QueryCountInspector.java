@@ -0,0 +1,53 @@
+package com.example.OLSHEETS.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a
+ * count is open. QueryCountFilter opens one around each request; statements
+ * outside a request, such as startup seeding or scheduled jobs, are not
+ * counted. The SQL itself is passed through unchanged.
+ */
+public final class QueryCountInspector implements StatementInspector {
+
+    public static final QueryCountInspector INSTANCE = new QueryCountInspector();
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private QueryCountInspector() {
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * Start counting on this thread; false if a count is already open, in
+     * which case the caller must not close it
+     */
+    static boolean open() {
+        if (COUNT.get() != null) {
+            return false;
+        }
+        COUNT.set(new int[1]);
+        return true;
+    }
+
+    /**
+     * Statements counted since open, closing the count
+     */
+    static int close() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    private Object readResolve() {
+        return INSTANCE;
+    }
+}
@@ -38,6 +38,8 @@ public class SecurityConfig {
                         .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
                         // Actuator endpoints for monitoring (consider restricting in production)
                         .requestMatchers("/actuator/**").permitAll()
+                        // Rebuilds read every booking, so only configured operators may start one
+                        .requestMatchers("/api/admin/rollups/**").hasRole("ADMIN")
                         // Only API endpoints require authentication
                         .requestMatchers("/api/**").authenticated()
                         .anyRequest().permitAll() // Allow other static resources
@@ -77,7 +79,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("*")); // NOSONAR java:S5122
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "X-Next-Cursor", "X-Has-More"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
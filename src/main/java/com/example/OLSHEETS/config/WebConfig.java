@@ -0,0 +1,25 @@
+package com.example.OLSHEETS.config;
+
+import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.security.AuthenticatedUserArgumentResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<UserRepository> userRepository;
+
+    public WebConfig(ObjectProvider<UserRepository> userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new AuthenticatedUserArgumentResolver(userRepository));
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.OLSHEETS.controller;
 
+import com.example.OLSHEETS.config.QueryBudget;
+import com.example.OLSHEETS.dto.KeysetPage;
+import com.example.OLSHEETS.dto.RatingAverage;
+import com.example.OLSHEETS.dto.RatingBatchRequest;
 import com.example.OLSHEETS.dto.RenterReviewRequest;
 import com.example.OLSHEETS.dto.RenterReviewResponse;
 import com.example.OLSHEETS.service.RenterReviewService;
@@ -13,6 +17,8 @@ import java.util.List;
 @RequestMapping("/api/renter-reviews")
 public class RenterReviewController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final RenterReviewService renterReviewService;
 
     public RenterReviewController(RenterReviewService renterReviewService) {
@@ -45,16 +51,48 @@ public class RenterReviewController {
         return ResponseEntity.ok(reviews);
     }
 
+    /**
+     * Get one page of a renter's reviews, newest first
+     * GET /api/renter-reviews/renter/{renterId}/feed?cursor={nextCursor}&size=20
+     */
+    @GetMapping("/renter/{renterId}/feed")
+    @QueryBudget(1)
+    public ResponseEntity<KeysetPage<RenterReviewResponse>> getReviewFeedByRenterId(
+            @PathVariable Long renterId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(renterReviewService.getReviewFeedByRenterId(renterId, cursor, clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Get average score for a renter
      * GET /api/renter-reviews/renter/{renterId}/average
      */
     @GetMapping("/renter/{renterId}/average")
+    @QueryBudget(1)
     public ResponseEntity<Double> getAverageScoreByRenterId(@PathVariable Long renterId) {
         Double average = renterReviewService.getAverageScoreByRenterId(renterId);
         return ResponseEntity.ok(average);
     }
 
+    /**
+     * Get review count and average score for up to 100 renters in one call
+     * POST /api/renter-reviews/averages
+     */
+    @PostMapping("/averages")
+    @QueryBudget(1)
+    public ResponseEntity<List<RatingAverage>> getAverageScores(@RequestBody RatingBatchRequest request) {
+        try {
+            return ResponseEntity.ok(renterReviewService.getAverageScoresByRenterIds(request.getIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Get a renter review by booking ID
      * GET /api/renter-reviews/booking/{bookingId}
@@ -80,4 +118,8 @@ public class RenterReviewController {
         boolean canReview = renterReviewService.canReviewRenter(bookingId, ownerId);
         return ResponseEntity.ok(canReview);
     }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
 }
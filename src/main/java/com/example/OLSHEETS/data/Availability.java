@@ -1,9 +1,11 @@
 package com.example.OLSHEETS.data;
 
+import com.example.OLSHEETS.service.ItemIntervalIndexListener;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners(ItemIntervalIndexListener.class)
 public class Availability {
 
     @Id
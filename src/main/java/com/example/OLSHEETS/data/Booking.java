@@ -1,9 +1,18 @@
 package com.example.OLSHEETS.data;
 
+import com.example.OLSHEETS.service.ItemIntervalIndexListener;
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 
 @Entity
+// Item and renter lookups, including the review feeds' join path; PostgreSQL does not index foreign keys itself
+@Table(indexes = {
+    @Index(name = "idx_booking_item", columnList = "item_id"),
+    @Index(name = "idx_booking_renter", columnList = "renter_id")
+})
+@EntityListeners(ItemIntervalIndexListener.class)
 public class Booking {
 
     @Id
@@ -25,6 +34,13 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    // Price per day * days at creation; frozen so revenue rollups never see a later price change
+    @Column(precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    // Day the booking was made; trending weight decays from here, whenever the booking starts
+    private LocalDate createdOn;
+
     public Booking(){}
 
     public Booking(Item item, User renter, LocalDate startDate, LocalDate endDate) {
@@ -82,4 +98,41 @@ public class Booking {
     public void setStatus(BookingStatus status) {
         this.status = status;
     }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDate getCreatedOn() {
+        return createdOn;
+    }
+
+    public void setCreatedOn(LocalDate createdOn) {
+        this.createdOn = createdOn;
+    }
+
+    @PrePersist
+    void beforeInsert() {
+        if (amount == null && item != null && startDate != null && endDate != null) {
+            amount = valueOf(item.getPrice(), startDate, endDate);
+        }
+        if (createdOn == null) {
+            createdOn = LocalDate.now();
+        }
+    }
+
+    /**
+     * Value of a booking at the given price per day; zero for an unpriced item
+     */
+    public static BigDecimal valueOf(Double pricePerDay, LocalDate startDate, LocalDate endDate) {
+        if (pricePerDay == null) {
+            return BigDecimal.ZERO;
+        }
+        long days = ChronoUnit.DAYS.between(startDate, endDate);
+        return BigDecimal.valueOf(pricePerDay).multiply(BigDecimal.valueOf(days));
+    }
 }
\ No newline at end of file
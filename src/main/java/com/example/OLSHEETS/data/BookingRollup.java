@@ -0,0 +1,118 @@
+package com.example.OLSHEETS.data;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Pre-aggregated booking counts and revenue per (booking start date, item owner, status).
+ * Revenue is the booking value (price per day * days) whatever the status,
+ * so a status change just moves a booking from one bucket to another.
+ */
+@Entity
+@Table(name = "booking_rollup")
+@IdClass(BookingRollup.Key.class)
+public class BookingRollup implements Persistable<BookingRollup.Key> {
+
+    @Id
+    private LocalDate startDate;
+
+    @Id
+    private Long ownerId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    private long bookingCount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    // Ids are assigned, so tell Spring Data to persist new buckets instead of merging
+    @Transient
+    private boolean isNew = true;
+
+    public BookingRollup() {}
+
+    public BookingRollup(LocalDate startDate, Long ownerId, BookingStatus status, long bookingCount, BigDecimal revenue) {
+        this.startDate = startDate;
+        this.ownerId = ownerId;
+        this.status = status;
+        this.bookingCount = bookingCount;
+        this.revenue = revenue;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public long getBookingCount() {
+        return bookingCount;
+    }
+
+    public void setBookingCount(long bookingCount) {
+        this.bookingCount = bookingCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(startDate, ownerId, status);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public static class Key implements Serializable {
+        private LocalDate startDate;
+        private Long ownerId;
+        private BookingStatus status;
+
+        public Key() {}
+
+        public Key(LocalDate startDate, Long ownerId, BookingStatus status) {
+            this.startDate = startDate;
+            this.ownerId = ownerId;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(startDate, key.startDate) && Objects.equals(ownerId, key.ownerId) && status == key.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(startDate, ownerId, status);
+        }
+    }
+}
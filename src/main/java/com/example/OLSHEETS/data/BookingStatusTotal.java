@@ -0,0 +1,97 @@
+package com.example.OLSHEETS.data;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * System-wide booking count and revenue per status, kept next to the
+ * per-(day, owner, status) rollups so admin totals read a fixed number of
+ * rows however many days and owners there are. Each status is split over a
+ * few slots, picked by booking id, so concurrent bookings rarely update the
+ * same row; a total is the sum of its status's slots.
+ */
+@Entity
+@Table(name = "booking_status_total")
+@IdClass(BookingStatusTotal.Key.class)
+public class BookingStatusTotal {
+
+    public static final int SLOTS = 16;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    @Id
+    private int slot;
+
+    private long bookingCount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    public BookingStatusTotal() {}
+
+    public BookingStatusTotal(BookingStatus status, int slot, long bookingCount, BigDecimal revenue) {
+        this.status = status;
+        this.slot = slot;
+        this.bookingCount = bookingCount;
+        this.revenue = revenue;
+    }
+
+    /**
+     * Slot a booking's deltas go to; bookings not yet stored share slot 0
+     */
+    public static int slotOf(Long bookingId) {
+        return bookingId == null ? 0 : (int) Math.floorMod(bookingId, (long) SLOTS);
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public long getBookingCount() {
+        return bookingCount;
+    }
+
+    public void setBookingCount(long bookingCount) {
+        this.bookingCount = bookingCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public static class Key implements Serializable {
+        private BookingStatus status;
+        private int slot;
+
+        public Key() {}
+
+        public Key(BookingStatus status, int slot) {
+            this.status = status;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return slot == key.slot && status == key.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, slot);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.OLSHEETS.data;
 
+import com.example.OLSHEETS.search.CatalogIndexListener;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
@@ -10,6 +11,7 @@ import jakarta.persistence.*;
 @Table(name = "item")
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "item_type")
+@EntityListeners(CatalogIndexListener.class)
 @JsonTypeInfo(
     use = JsonTypeInfo.Id.NAME,
     include = JsonTypeInfo.As.PROPERTY,
@@ -0,0 +1,10 @@
+package com.example.OLSHEETS.data;
+
+/**
+ * Concrete item type of a catalog entry, named after the item table's
+ * discriminator values
+ */
+public enum ItemKind {
+    INSTRUMENT,
+    MUSIC_SHEET
+}
@@ -0,0 +1,10 @@
+package com.example.OLSHEETS.data;
+
+/**
+ * What a rating summary aggregates: reviews of an item, written by renters,
+ * or reviews of a renter, written by item owners.
+ */
+public enum RatingSubject {
+    ITEM,
+    RENTER
+}
@@ -0,0 +1,142 @@
+package com.example.OLSHEETS.data;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Running review count, score sum and 1-5 star histogram of one item or
+ * renter, kept up to date as reviews are written so averages never have to
+ * scan reviews.
+ */
+@Entity
+@Table(name = "rating_summary")
+@IdClass(RatingSummary.Key.class)
+public class RatingSummary implements Persistable<RatingSummary.Key> {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private RatingSubject subjectType;
+
+    @Id
+    private Long subjectId;
+
+    private long reviewCount;
+
+    private long scoreSum;
+
+    private long oneStar;
+
+    private long twoStars;
+
+    private long threeStars;
+
+    private long fourStars;
+
+    private long fiveStars;
+
+    // Ids are assigned, so tell Spring Data to persist new summaries instead of merging
+    @Transient
+    private boolean isNew = true;
+
+    public RatingSummary() {}
+
+    public RatingSummary(RatingSubject subjectType, Long subjectId) {
+        this.subjectType = subjectType;
+        this.subjectId = subjectId;
+    }
+
+    public RatingSubject getSubjectType() {
+        return subjectType;
+    }
+
+    public Long getSubjectId() {
+        return subjectId;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public long getScoreSum() {
+        return scoreSum;
+    }
+
+    /**
+     * Number of reviews that gave the score, 1 to 5
+     */
+    public long getStars(int score) {
+        return switch (score) {
+            case 1 -> oneStar;
+            case 2 -> twoStars;
+            case 3 -> threeStars;
+            case 4 -> fourStars;
+            case 5 -> fiveStars;
+            default -> throw new IllegalArgumentException("Score must be between 1 and 5");
+        };
+    }
+
+    /**
+     * Mean score, or 0.0 when there are no reviews
+     */
+    public double getAverage() {
+        return reviewCount == 0 ? 0.0 : (double) scoreSum / reviewCount;
+    }
+
+    /**
+     * Add count reviews with the given score
+     */
+    public void add(int score, long count) {
+        switch (score) {
+            case 1 -> oneStar += count;
+            case 2 -> twoStars += count;
+            case 3 -> threeStars += count;
+            case 4 -> fourStars += count;
+            case 5 -> fiveStars += count;
+            default -> throw new IllegalArgumentException("Score must be between 1 and 5");
+        }
+        reviewCount += count;
+        scoreSum += score * count;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(subjectType, subjectId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public static class Key implements Serializable {
+        private RatingSubject subjectType;
+        private Long subjectId;
+
+        public Key() {}
+
+        public Key(RatingSubject subjectType, Long subjectId) {
+            this.subjectType = subjectType;
+            this.subjectId = subjectId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return subjectType == key.subjectType && Objects.equals(subjectId, key.subjectId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subjectType, subjectId);
+        }
+    }
+}
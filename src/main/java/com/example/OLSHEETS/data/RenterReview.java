@@ -1,14 +1,24 @@
 package com.example.OLSHEETS.data;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 
 /**
  * RenterReview entity for owners rating renters
  * after a booking has been completed.
  */
 @Entity
+// Serves a renter's review feed, newest first, straight from the index
+@Table(indexes = @Index(name = "idx_renter_review_renter_created", columnList = "renter_id, created_at DESC, id DESC"))
 public class RenterReview extends BaseReview {
 
+    // Copy of booking.renter.id, so the feed filters and sorts on this table alone
+    @Column(name = "renter_id", updatable = false)
+    private Long renterId;
+
     public RenterReview() {
         super();
     }
@@ -16,4 +26,15 @@ public class RenterReview extends BaseReview {
     public RenterReview(Booking booking, Integer score, String comment) {
         super(booking, score, comment);
     }
+
+    public Long getRenterId() {
+        return renterId;
+    }
+
+    @PrePersist
+    void captureRenter() {
+        if (renterId == null && getBooking() != null && getBooking().getRenter() != null) {
+            renterId = getBooking().getRenter().getId();
+        }
+    }
 }
@@ -1,14 +1,24 @@
 package com.example.OLSHEETS.data;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 
 /**
  * Review entity for renters rating items (instruments/music sheets)
  * after completing a booking.
  */
 @Entity
+// Serves an item's review feed, newest first, straight from the index
+@Table(indexes = @Index(name = "idx_review_item_created", columnList = "item_id, created_at DESC, id DESC"))
 public class Review extends BaseReview {
 
+    // Copy of booking.item.id, so the feed filters and sorts on this table alone
+    @Column(name = "item_id", updatable = false)
+    private Long itemId;
+
     public Review() {
         super();
     }
@@ -16,4 +26,15 @@ public class Review extends BaseReview {
     public Review(Booking booking, Integer score, String comment) {
         super(booking, score, comment);
     }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    @PrePersist
+    void captureItem() {
+        if (itemId == null && getBooking() != null && getBooking().getItem() != null) {
+            itemId = getBooking().getItem().getId();
+        }
+    }
 }
@@ -22,6 +22,9 @@ public class SheetBooking {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    // Day the booking was made; trending weight decays from here, whenever the booking starts
+    private LocalDate createdOn;
+
     public SheetBooking() {}
 
     public SheetBooking(MusicSheet musicSheet, User renter, LocalDate startDate, LocalDate endDate) {
@@ -80,4 +83,19 @@ public class SheetBooking {
     public void setStatus(BookingStatus status) {
         this.status = status;
     }
+
+    public LocalDate getCreatedOn() {
+        return createdOn;
+    }
+
+    public void setCreatedOn(LocalDate createdOn) {
+        this.createdOn = createdOn;
+    }
+
+    @PrePersist
+    void beforeInsert() {
+        if (createdOn == null) {
+            createdOn = LocalDate.now();
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package com.example.OLSHEETS.data;
+import com.example.OLSHEETS.service.OwnerProfileListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(OwnerProfileListener.class)
 public class User {
 
     @Id
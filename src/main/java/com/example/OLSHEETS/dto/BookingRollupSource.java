@@ -0,0 +1,29 @@
+package com.example.OLSHEETS.dto;
+
+import com.example.OLSHEETS.data.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The booking columns needed to recompute rollups, read in keyset batches
+ * during a rebuild. amount is the value captured at creation; price is only
+ * used for bookings stored before amounts were captured.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingRollupSource {
+    private Long bookingId;
+    private Long ownerId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BookingStatus status;
+    private Double price;
+    private BigDecimal amount;
+}
@@ -0,0 +1,28 @@
+package com.example.OLSHEETS.dto;
+
+import com.example.OLSHEETS.data.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Flat view of a booking for listing endpoints, built directly by a JPQL
+ * constructor expression so no Item or User entities are hydrated.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSummary {
+    private Long bookingId;
+    private Long itemId;
+    private String itemName;
+    private Long renterId;
+    private String renterUsername;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BookingStatus status;
+}
@@ -0,0 +1,40 @@
+package com.example.OLSHEETS.dto;
+
+import com.example.OLSHEETS.data.BookingStatus;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Booking as returned by the list endpoints, built by a JPQL constructor
+ * expression in one query. Same nesting as the Booking entity's JSON
+ * (item.owner, renter) so clients keep working, but only the fields a
+ * booking card needs.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookingView {
+    private Long id;
+    private ItemRef item;
+    private UserRef renter;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BookingStatus status;
+
+    public BookingView(Long id, Long itemId, Class<?> itemClass, String itemName, Double itemPrice,
+                       Long ownerId, String ownerUsername, String ownerName,
+                       Long renterId, String renterUsername, String renterName,
+                       LocalDate startDate, LocalDate endDate, BookingStatus status) {
+        this.id = id;
+        this.item = itemId == null ? null
+                : new ItemRef(ItemRef.itemTypeOf(itemClass), itemId, itemName, itemPrice,
+                        UserRef.of(ownerId, ownerUsername, ownerName));
+        this.renter = UserRef.of(renterId, renterUsername, renterName);
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.status = status;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.OLSHEETS.dto;
+
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * Per-value hit counts for each catalog search facet. Values with no hits
+ * are left out.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogFacets {
+    private Map<ItemKind, Long> itemType;
+    private Map<InstrumentType, Long> instrumentType;
+    private Map<InstrumentFamily, Long> instrumentFamily;
+    private Map<String, Long> category;
+}
@@ -0,0 +1,34 @@
+package com.example.OLSHEETS.dto;
+
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One ranked catalog search result, served from the in-memory catalog index
+ * plus the item's rating summary. Instrument-only and sheet-only fields are
+ * null for the other kind; averageRating is null for items without reviews.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogHit {
+    private Long id;
+    private ItemKind itemType;
+    private String name;
+    private String description;
+    private Double price;
+    private InstrumentType instrumentType;
+    private InstrumentFamily instrumentFamily;
+    private String composer;
+    private String instrumentation;
+    private String category;
+    private float score;
+    private Double averageRating;
+    private long reviewCount;
+}
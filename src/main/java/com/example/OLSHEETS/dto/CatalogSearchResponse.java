@@ -0,0 +1,23 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A page of catalog hits with the facet counts for the whole result set
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class CatalogSearchResponse extends PagedResponse<CatalogHit> {
+    private CatalogFacets facets;
+
+    public CatalogSearchResponse(List<CatalogHit> content, int page, int size, long totalElements, int totalPages,
+                                 CatalogFacets facets) {
+        super(content, page, size, totalElements, totalPages);
+        this.facets = facets;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset-paginated listing. Pass nextCursor back as the "after" parameter
+ * to fetch the following page; it is null once the last page is reached.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private Long nextCursor;
+    private boolean hasMore;
+
+    /**
+     * Build a page from a query that fetched up to size + 1 rows; the extra
+     * row only signals that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> idOf) {
+        boolean hasMore = rows.size() > size;
+        List<T> content = hasMore ? rows.subList(0, size) : rows;
+        Long nextCursor = hasMore ? idOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(content, nextCursor, hasMore);
+    }
+}
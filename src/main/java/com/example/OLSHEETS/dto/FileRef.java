@@ -0,0 +1,24 @@
+package com.example.OLSHEETS.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * File reference as embedded in listing views, loaded for a whole page of
+ * items in one IN query. Same fields as the FileReference entity's JSON.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileRef {
+    // Only used to group the rows by item
+    @JsonIgnore
+    private Long itemId;
+    private Long id;
+    private String type;
+    private String path;
+}
@@ -0,0 +1,48 @@
+package com.example.OLSHEETS.dto;
+
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Instrument card for search and filter results, built by a JPQL constructor
+ * expression in one query. Keeps the field names of the Instrument entity's
+ * JSON, minus the owner's private fields; file references are attached by
+ * ProductsService from a second IN query.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class InstrumentListing {
+    private Long id;
+    private String name;
+    private String description;
+    private Double price;
+    private UserRef owner;
+    private List<FileRef> fileReferences = List.of();
+    private Integer age;
+    private InstrumentType type;
+    private InstrumentFamily family;
+
+    public InstrumentListing(Long id, String name, String description, Double price,
+                             Long ownerId, String ownerUsername, String ownerName,
+                             Integer age, InstrumentType type, InstrumentFamily family) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.owner = UserRef.of(ownerId, ownerUsername, ownerName);
+        this.age = age;
+        this.type = type;
+        this.family = family;
+    }
+
+    // Same discriminator the entity serializes with
+    public String getItemType() {
+        return "INSTRUMENT";
+    }
+}
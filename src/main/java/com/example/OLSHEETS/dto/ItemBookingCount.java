@@ -0,0 +1,18 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One row of a "count bookings grouped by item" aggregate.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBookingCount {
+    private Long itemId;
+    private Long count;
+}
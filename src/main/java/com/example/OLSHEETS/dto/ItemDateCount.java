@@ -0,0 +1,21 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * One row of a "count bookings grouped by item and day" aggregate.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemDateCount {
+    private Long itemId;
+    private LocalDate date;
+    private Long count;
+}
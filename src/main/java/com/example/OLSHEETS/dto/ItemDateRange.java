@@ -0,0 +1,23 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Lightweight (id, itemId, startDate, endDate) projection of a Booking or
+ * Availability row, used to warm the in-memory interval index.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemDateRange {
+    private Long id;
+    private Long itemId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,32 @@
+package com.example.OLSHEETS.dto;
+
+import com.example.OLSHEETS.data.MusicSheet;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The booked item as embedded in BookingView and SheetBookingView: enough
+ * for a booking card and the owner check, without description or files. Carries the same itemType discriminator as
+ * the Item entity's JSON so clients deserializing into Item keep working.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRef {
+    private String itemType;
+    private Long id;
+    private String name;
+    private Double price;
+    private UserRef owner;
+
+    // Maps the class selected by type(i) to the discriminator Item serializes with
+    public static String itemTypeOf(Class<?> itemClass) {
+        if (itemClass == null) {
+            return null;
+        }
+        return MusicSheet.class.isAssignableFrom(itemClass) ? "MUSICSHEET" : "INSTRUMENT";
+    }
+}
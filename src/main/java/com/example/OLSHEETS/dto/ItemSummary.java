@@ -0,0 +1,21 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Lightweight (id, name, price, ownerId) projection of an instrument or music
+ * sheet, cached by ItemSummaryCache for price and ownership reads.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSummary {
+    private Long id;
+    private String name;
+    private Double price;
+    private Long ownerId;
+}
@@ -0,0 +1,35 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset-paginated listing whose sort key spans several columns. Pass
+ * nextCursor back as the "cursor" parameter to fetch the following page;
+ * it is null once the last page is reached.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasMore;
+
+    /**
+     * Build a page from a query that fetched up to size + 1 rows; the extra
+     * row only signals that another page exists and is not returned.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<T> content = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new KeysetPage<>(content, nextCursor, hasMore);
+    }
+}
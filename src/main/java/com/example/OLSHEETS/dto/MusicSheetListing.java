@@ -0,0 +1,56 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Music sheet card for search and filter results, built by a JPQL
+ * constructor expression in one query. Keeps the field names of the
+ * MusicSheet entity's JSON, minus the owner's private fields; file
+ * references are attached by ProductsService from a second IN query.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class MusicSheetListing {
+    private Long id;
+    private String name;
+    private String description;
+    private Double price;
+    private UserRef owner;
+    private List<FileRef> fileReferences = List.of();
+    private String composer;
+    private String instrumentation;
+    private String category;
+    private Float duration;
+
+    public MusicSheetListing(Long id, String name, String description, Double price,
+                             Long ownerId, String ownerUsername, String ownerName,
+                             String composer, String instrumentation, String category, Float duration) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.owner = UserRef.of(ownerId, ownerUsername, ownerName);
+        this.composer = composer;
+        this.instrumentation = instrumentation;
+        this.category = category;
+        this.duration = duration;
+    }
+
+    // Same discriminator the entity serializes with
+    public String getItemType() {
+        return "MUSICSHEET";
+    }
+
+    public String getTitle() {
+        return name;
+    }
+
+    public Long getOwnerId() {
+        return owner != null ? owner.getId() : null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Review count and average score of one item or renter; 0 and 0.0 when it
+ * has no reviews
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingAverage {
+    private Long id;
+    private long reviewCount;
+    private double averageScore;
+}
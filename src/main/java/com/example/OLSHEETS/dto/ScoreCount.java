@@ -0,0 +1,19 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One row of a "count reviews grouped by subject and score" aggregate.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreCount {
+    private Long subjectId;
+    private Integer score;
+    private Long count;
+}
@@ -0,0 +1,38 @@
+package com.example.OLSHEETS.dto;
+
+import com.example.OLSHEETS.data.BookingStatus;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Sheet booking as returned by the list endpoints, built by a JPQL
+ * constructor expression in one query. Same nesting as the SheetBooking
+ * entity's JSON (musicSheet.owner, renter).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class SheetBookingView {
+    private Long id;
+    private ItemRef musicSheet;
+    private UserRef renter;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BookingStatus status;
+
+    public SheetBookingView(Long id, Long sheetId, String sheetName, Double sheetPrice,
+                            Long ownerId, String ownerUsername, String ownerName,
+                            Long renterId, String renterUsername, String renterName,
+                            LocalDate startDate, LocalDate endDate, BookingStatus status) {
+        this.id = id;
+        this.musicSheet = sheetId == null ? null
+                : new ItemRef("MUSICSHEET", sheetId, sheetName, sheetPrice, UserRef.of(ownerId, ownerUsername, ownerName));
+        this.renter = UserRef.of(renterId, renterUsername, renterName);
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.status = status;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.OLSHEETS.dto;
+
+import com.example.OLSHEETS.data.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One row of a "count bookings grouped by status" aggregate.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusCount {
+    private BookingStatus status;
+    private Long count;
+}
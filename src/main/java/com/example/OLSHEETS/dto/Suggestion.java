@@ -0,0 +1,27 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One autocomplete entry: an item name, composer or category, with the
+ * number of bookings behind it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+
+    public enum Field {
+        NAME,
+        COMPOSER,
+        CATEGORY
+    }
+
+    private String text;
+    private Field field;
+    private long popularity;
+}
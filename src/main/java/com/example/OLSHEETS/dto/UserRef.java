@@ -0,0 +1,26 @@
+package com.example.OLSHEETS.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Public part of a user embedded in listing views: no email, no role.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRef {
+    private Long id;
+    private String username;
+    private String name;
+
+    /**
+     * Reference built from left-joined columns; null when there was no user
+     */
+    public static UserRef of(Long id, String username, String name) {
+        return id == null ? null : new UserRef(id, username, name);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.OLSHEETS.exception;
+
+/**
+ * Thrown when the first request with an Idempotency-Key is still running
+ * somewhere this instance cannot wait on. Controllers map it to 409 with a
+ * Retry-After header.
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+    public IdempotencyKeyInUseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.OLSHEETS.exception;
+
+/**
+ * Thrown when an Idempotency-Key is sent again with a different request than
+ * the one it was first used for. Controllers map it to 422.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.example.OLSHEETS.data.Availability;
+import com.example.OLSHEETS.dto.ItemDateRange;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -14,5 +15,11 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
     @Query("select a from Availability a where a.instrumentId = :instrumentId and a.startDate <= :endDate and a.endDate >= :startDate")
     List<Availability> findOverlapping(@Param("instrumentId") Long instrumentId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    @Query("select case when count(a) > 0 then true else false end from Availability a where a.instrumentId = :instrumentId and a.startDate <= :endDate and a.endDate >= :startDate")
+    boolean existsOverlapping(@Param("instrumentId") Long instrumentId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("select new com.example.OLSHEETS.dto.ItemDateRange(a.id, a.instrumentId, a.startDate, a.endDate) from Availability a")
+    List<ItemDateRange> findAllDateRanges();
+
     List<Availability> findByInstrumentId(Long instrumentId);
 }
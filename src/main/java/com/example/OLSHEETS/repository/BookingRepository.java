@@ -1,21 +1,63 @@
 package com.example.OLSHEETS.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.OLSHEETS.data.Booking;
 import com.example.OLSHEETS.data.BookingStatus;
-import com.example.OLSHEETS.data.Item;
+import com.example.OLSHEETS.dto.ItemBookingCount;
+import com.example.OLSHEETS.dto.ItemDateCount;
+import com.example.OLSHEETS.dto.ItemDateRange;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import com.example.OLSHEETS.dto.BookingSummary;
+import com.example.OLSHEETS.dto.BookingView;
+import com.example.OLSHEETS.dto.BookingRollupSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     @Query("select b from Booking b where b.item.id = :itemId and b.startDate <= :endDate and b.endDate >= :startDate")
     List<Booking> findOverlapping(@Param("itemId") Long itemId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    @Query("select case when count(b) > 0 then true else false end from Booking b where b.item.id = :itemId and b.startDate <= :endDate and b.endDate >= :startDate")
+    boolean existsOverlapping(@Param("itemId") Long itemId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("select new com.example.OLSHEETS.dto.ItemDateRange(b.id, b.item.id, b.startDate, b.endDate) from Booking b")
+    List<ItemDateRange> findAllDateRanges();
+
+    // Popularity per item for autocomplete ranking; rejected and cancelled bookings don't count
+    @Query("select new com.example.OLSHEETS.dto.ItemBookingCount(b.item.id, count(b)) from Booking b "
+            + "where b.status <> com.example.OLSHEETS.data.BookingStatus.REJECTED "
+            + "and b.status <> com.example.OLSHEETS.data.BookingStatus.CANCELLED group by b.item.id")
+    List<ItemBookingCount> countGroupedByItem();
+
+    @Query("select max(b.id) from Booking b")
+    Long findMaxId();
+
+    // Bookings with after < id <= upTo per item and creation day, for the trending ranking
+    @Query("select new com.example.OLSHEETS.dto.ItemDateCount(b.item.id, b.createdOn, count(b)) from Booking b "
+            + "where b.id > :after and b.id <= :upTo "
+            + "and b.status <> com.example.OLSHEETS.data.BookingStatus.REJECTED "
+            + "and b.status <> com.example.OLSHEETS.data.BookingStatus.CANCELLED group by b.item.id, b.createdOn")
+    List<ItemDateCount> countByItemAndCreatedOnBetweenIds(@Param("after") Long after, @Param("upTo") Long upTo);
+
+    // Gives bookings stored before creation days were recorded their start date, or today if that is still ahead
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.createdOn = case when b.startDate < :today then b.startDate else :today end "
+            + "where b.createdOn is null")
+    int backfillCreatedOn(@Param("today") LocalDate today);
+
     // Admin oversight query methods
     List<Booking> findByStatus(BookingStatus status);
     
@@ -25,11 +67,71 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     
     Long countByRenterId(Long renterId);
     
-    Long countByItemIn(List<Item> items);
-    
-    List<Booking> findByItemIn(List<Item> items);
-    
-    List<Booking> findByItemInAndStatus(List<Item> items, BookingStatus status);
+    // Owner lookups join on item.owner directly instead of passing the owner's items as an IN-list
+    @Query("select b from Booking b where b.item.owner.id = :ownerId")
+    List<Booking> findByItemOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("select count(b) from Booking b where b.item.owner.id = :ownerId")
+    Long countByItemOwnerId(@Param("ownerId") Long ownerId);
+
+    String SUMMARY_SELECT = "select new com.example.OLSHEETS.dto.BookingSummary(b.id, i.id, i.name, r.id, r.username, b.startDate, b.endDate, b.status) "
+            + "from Booking b join b.item i join b.renter r ";
+
+    @Query(value = SUMMARY_SELECT + "where i.owner.id = :ownerId",
+           countQuery = "select count(b) from Booking b where b.item.owner.id = :ownerId")
+    Page<BookingSummary> findOwnerBookingSummaries(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    // Keyset pagination on id: callers pass the last id they saw and a Pageable sized one past the page
+    @Query(SUMMARY_SELECT + "where b.id > :after order by b.id")
+    List<BookingSummary> findSummariesAfter(@Param("after") Long after, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "where r.id = :renterId and b.id > :after order by b.id")
+    List<BookingSummary> findSummariesByRenterAfter(@Param("renterId") Long renterId, @Param("after") Long after, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "where i.owner.id = :ownerId and b.id > :after order by b.id")
+    List<BookingSummary> findSummariesByOwnerAfter(@Param("ownerId") Long ownerId, @Param("after") Long after, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "where b.status = :status and b.id > :after order by b.id")
+    List<BookingSummary> findSummariesByStatusAfter(@Param("status") BookingStatus status, @Param("after") Long after, Pageable limit);
+
+    // Nested views for the list endpoints; left joins so a booking whose item or renter is gone still shows
+    String VIEW_SELECT = "select new com.example.OLSHEETS.dto.BookingView(b.id, i.id, type(i), i.name, i.price, o.id, o.username, o.name, "
+            + "r.id, r.username, r.name, b.startDate, b.endDate, b.status) "
+            + "from Booking b left join b.item i left join i.owner o left join b.renter r ";
+
+    @Query(VIEW_SELECT + "where b.id > :after order by b.id")
+    List<BookingView> findViewsAfter(@Param("after") Long after, Pageable limit);
+
+    @Query(VIEW_SELECT + "where r.id = :renterId order by b.id")
+    List<BookingView> findViewsByRenterId(@Param("renterId") Long renterId);
+
+    @Query(VIEW_SELECT + "where o.id = :ownerId order by b.id")
+    List<BookingView> findViewsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query(VIEW_SELECT + "where r.id = :renterId and b.id > :after order by b.id")
+    List<BookingView> findViewsByRenterIdAfter(@Param("renterId") Long renterId, @Param("after") Long after, Pageable limit);
+
+    @Query(VIEW_SELECT + "where b.status = :status and b.id > :after order by b.id")
+    List<BookingView> findViewsByStatusAfter(@Param("status") BookingStatus status, @Param("after") Long after, Pageable limit);
+
+    // Values bookings stored before amounts were captured at their item's current price per day
+    @Modifying
+    @Query("update Booking b set b.amount = coalesce((select cast(i.price as BigDecimal) from Item i where i.id = b.item.id), 0) "
+            + "* ((b.endDate - b.startDate) by day) where b.amount is null")
+    int backfillAmounts();
+
+    @Query("select new com.example.OLSHEETS.dto.BookingRollupSource(b.id, i.owner.id, b.startDate, b.endDate, b.status, i.price, b.amount) "
+            + "from Booking b join b.item i where b.id > :after order by b.id")
+    List<BookingRollupSource> findRollupSourcesAfter(@Param("after") Long after, Pageable limit);
+
+    // Streaming variants; must be consumed inside a read-only transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "order by b.id")
+    Stream<BookingSummary> streamSummaries();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "where b.status = :status order by b.id")
+    Stream<BookingSummary> streamSummariesByStatus(@Param("status") BookingStatus status);
 
 }
 
@@ -0,0 +1,35 @@
+package com.example.OLSHEETS.repository;
+
+import com.example.OLSHEETS.data.BookingRollup;
+import com.example.OLSHEETS.data.BookingStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface BookingRollupRepository extends JpaRepository<BookingRollup, BookingRollup.Key> {
+
+    // Delta to a bucket that already exists; returns 0 when it does not yet
+    @Modifying
+    @Query("update BookingRollup r set r.bookingCount = r.bookingCount + :count, r.revenue = r.revenue + :revenue "
+            + "where r.startDate = :startDate and r.ownerId = :ownerId and r.status = :status")
+    int addToBucket(@Param("startDate") LocalDate startDate, @Param("ownerId") Long ownerId, @Param("status") BookingStatus status,
+                    @Param("count") long count, @Param("revenue") BigDecimal revenue);
+
+    // Delta that creates the bucket if it is still missing, as a single insert ... on conflict
+    // (a MERGE on H2). H2's MERGE can still fail against a racing insert of the same key,
+    // so callers creating a bucket hold the owner's row lock
+    @Modifying
+    @Query("insert into BookingRollup (startDate, ownerId, status, bookingCount, revenue) "
+            + "values (:startDate, :ownerId, :status, :count, :revenue) "
+            + "on conflict (startDate, ownerId, status) do update "
+            + "set bookingCount = bookingCount + excluded.bookingCount, revenue = revenue + excluded.revenue")
+    int upsert(@Param("startDate") LocalDate startDate, @Param("ownerId") Long ownerId, @Param("status") BookingStatus status,
+               @Param("count") long count, @Param("revenue") BigDecimal revenue);
+
+    @Query("select sum(r.revenue) from BookingRollup r where r.ownerId = :ownerId and r.status = :status")
+    BigDecimal sumRevenueByOwnerIdAndStatus(@Param("ownerId") Long ownerId, @Param("status") BookingStatus status);
+}
@@ -0,0 +1,31 @@
+package com.example.OLSHEETS.repository;
+
+import com.example.OLSHEETS.data.BookingStatus;
+import com.example.OLSHEETS.data.BookingStatusTotal;
+import com.example.OLSHEETS.dto.StatusCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface BookingStatusTotalRepository extends JpaRepository<BookingStatusTotal, BookingStatusTotal.Key> {
+
+    // Same single-statement delta as BookingRollupRepository.upsert, on one slot of the status
+    @Modifying
+    @Query("insert into BookingStatusTotal (status, slot, bookingCount, revenue) "
+            + "values (:status, :slot, :count, :revenue) "
+            + "on conflict (status, slot) do update "
+            + "set bookingCount = bookingCount + excluded.bookingCount, revenue = revenue + excluded.revenue")
+    int upsert(@Param("status") BookingStatus status, @Param("slot") int slot,
+               @Param("count") long count, @Param("revenue") BigDecimal revenue);
+
+    // At most SLOTS rows per status
+    @Query("select new com.example.OLSHEETS.dto.StatusCount(t.status, sum(t.bookingCount)) from BookingStatusTotal t group by t.status")
+    List<StatusCount> countGroupedByStatus();
+
+    @Query("select sum(t.revenue) from BookingStatusTotal t where t.status = :status")
+    BigDecimal sumRevenueByStatus(@Param("status") BookingStatus status);
+}
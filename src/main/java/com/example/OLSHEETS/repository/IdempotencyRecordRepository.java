@@ -0,0 +1,41 @@
+package com.example.OLSHEETS.repository;
+
+import com.example.OLSHEETS.data.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, IdempotencyRecord.Key> {
+
+    // Store the response of a claimed key; returns 0 when the claim is gone
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.responseStatus = :status, r.responseBody = :body "
+            + "where r.scope = :scope and r.idempotencyKey = :key and r.responseStatus is null")
+    int complete(@Param("scope") String scope, @Param("key") String key,
+                 @Param("status") int status, @Param("body") byte[] body);
+
+    // Drop an unfinished claim so the request can be retried
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r "
+            + "where r.scope = :scope and r.idempotencyKey = :key and r.responseStatus is null")
+    int release(@Param("scope") String scope, @Param("key") String key);
+
+    // Drop the key if it expired, or was claimed before claimedBefore and never completed
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.scope = :scope and r.idempotencyKey = :key "
+            + "and (r.expiresAt <= :now or (r.responseStatus is null and r.createdAt <= :claimedBefore))")
+    int deleteStale(@Param("scope") String scope, @Param("key") String key,
+                    @Param("now") Instant now, @Param("claimedBefore") Instant claimedBefore);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
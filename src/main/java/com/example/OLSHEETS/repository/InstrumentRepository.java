@@ -3,9 +3,15 @@ package com.example.OLSHEETS.repository;
 import com.example.OLSHEETS.data.Instrument;
 import com.example.OLSHEETS.data.InstrumentType;
 import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.dto.InstrumentListing;
+import com.example.OLSHEETS.search.CatalogDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,4 +24,28 @@ public interface InstrumentRepository extends JpaRepository<Instrument, Long> {
     List<Instrument> findByFamily(InstrumentFamily family);
     
     List<Instrument> findByOwnerId(Long ownerId);
+
+    // Listing projections: one query each, owner columns joined in, file references left out
+    String LISTING_SELECT = "select new com.example.OLSHEETS.dto.InstrumentListing(i.id, i.name, i.description, i.price, "
+            + "o.id, o.username, o.name, i.age, i.type, i.family) from Instrument i left join i.owner o ";
+
+    @Query(LISTING_SELECT + "where upper(i.name) like upper(concat('%', :name, '%')) order by i.id")
+    List<InstrumentListing> findListingsByName(@Param("name") String name);
+
+    @Query(LISTING_SELECT + "where i.type = :type order by i.id")
+    List<InstrumentListing> findListingsByType(@Param("type") InstrumentType type);
+
+    @Query(LISTING_SELECT + "where i.family = :family order by i.id")
+    List<InstrumentListing> findListingsByFamily(@Param("family") InstrumentFamily family);
+
+    @Query(LISTING_SELECT + "where o.id = :ownerId order by i.id")
+    List<InstrumentListing> findListingsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query(LISTING_SELECT + "where i.id in :ids")
+    List<InstrumentListing> findListingsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset batches of search snapshots for the catalog index, without loading owners
+    @Query("select new com.example.OLSHEETS.search.CatalogDocument(i.id, i.name, i.description, i.price, i.type, i.family) "
+            + "from Instrument i where i.id > :after order by i.id")
+    List<CatalogDocument> findCatalogDocumentsAfter(@Param("after") Long after, Pageable limit);
 }
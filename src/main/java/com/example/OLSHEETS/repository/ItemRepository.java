@@ -1,12 +1,37 @@
 package com.example.OLSHEETS.repository;
 
 import com.example.OLSHEETS.data.Item;
+import com.example.OLSHEETS.dto.FileRef;
+import com.example.OLSHEETS.dto.ItemSummary;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByOwnerId(Long ownerId);
-}
\ No newline at end of file
+
+    /**
+     * Load an item and take a row lock on it (SELECT ... FOR UPDATE) so that
+     * concurrent bookings for the same item serialize across nodes
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select new com.example.OLSHEETS.dto.ItemSummary(i.id, i.name, i.price, o.id) "
+            + "from Item i left join i.owner o where i.id = :id")
+    Optional<ItemSummary> findSummaryById(@Param("id") Long id);
+
+    // File references of a page of listings, one statement for all of them
+    @Query("select new com.example.OLSHEETS.dto.FileRef(i.id, f.id, f.type, f.path) "
+            + "from FileReference f join f.item i where i.id in :itemIds order by f.id")
+    List<FileRef> findFileRefsByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+}
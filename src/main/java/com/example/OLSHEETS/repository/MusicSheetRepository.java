@@ -1,14 +1,38 @@
 package com.example.OLSHEETS.repository;
 
 import com.example.OLSHEETS.data.MusicSheet;
+import com.example.OLSHEETS.dto.MusicSheetListing;
+import com.example.OLSHEETS.search.CatalogDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MusicSheetRepository extends JpaRepository<MusicSheet, Long> {
     List<MusicSheet> findByCategory(String category);
     List<MusicSheet> findByNameContainingIgnoreCase(String name);
+
+    // Listing projections: one query each, owner columns joined in, file references left out
+    String LISTING_SELECT = "select new com.example.OLSHEETS.dto.MusicSheetListing(m.id, m.name, m.description, m.price, "
+            + "o.id, o.username, o.name, m.composer, m.instrumentation, m.category, m.duration) from MusicSheet m left join m.owner o ";
+
+    @Query(LISTING_SELECT + "where upper(m.name) like upper(concat('%', :name, '%')) order by m.id")
+    List<MusicSheetListing> findListingsByName(@Param("name") String name);
+
+    @Query(LISTING_SELECT + "where m.category = :category order by m.id")
+    List<MusicSheetListing> findListingsByCategory(@Param("category") String category);
+
+    @Query(LISTING_SELECT + "where m.id in :ids")
+    List<MusicSheetListing> findListingsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset batches of search snapshots for the catalog index, without loading owners
+    @Query("select new com.example.OLSHEETS.search.CatalogDocument(m.id, m.name, m.description, m.price, m.composer, m.instrumentation, m.category) "
+            + "from MusicSheet m where m.id > :after order by m.id")
+    List<CatalogDocument> findCatalogDocumentsAfter(@Param("after") Long after, Pageable limit);
 }
 
@@ -0,0 +1,51 @@
+package com.example.OLSHEETS.repository;
+
+import com.example.OLSHEETS.data.RatingSubject;
+import com.example.OLSHEETS.data.RatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface RatingSummaryRepository extends JpaRepository<RatingSummary, RatingSummary.Key> {
+
+    // Atomic in-place increment; returns 0 when the summary does not exist yet
+    @Modifying
+    @Query("update RatingSummary r set r.reviewCount = r.reviewCount + 1, r.scoreSum = r.scoreSum + :score, "
+            + "r.oneStar = r.oneStar + case when :score = 1 then 1 else 0 end, "
+            + "r.twoStars = r.twoStars + case when :score = 2 then 1 else 0 end, "
+            + "r.threeStars = r.threeStars + case when :score = 3 then 1 else 0 end, "
+            + "r.fourStars = r.fourStars + case when :score = 4 then 1 else 0 end, "
+            + "r.fiveStars = r.fiveStars + case when :score = 5 then 1 else 0 end "
+            + "where r.subjectType = :subjectType and r.subjectId = :subjectId")
+    int increment(@Param("subjectType") RatingSubject subjectType, @Param("subjectId") Long subjectId,
+                  @Param("score") int score);
+
+    // Same delta, creating the summary if it is still missing, as a single insert ... on conflict
+    // (a MERGE on H2) rather than a separate insert that a concurrent creator could beat
+    @Modifying
+    @Query("insert into RatingSummary (subjectType, subjectId, reviewCount, scoreSum, "
+            + "oneStar, twoStars, threeStars, fourStars, fiveStars) "
+            + "values (:subjectType, :subjectId, 1, :score, "
+            + "case when :score = 1 then 1 else 0 end, case when :score = 2 then 1 else 0 end, "
+            + "case when :score = 3 then 1 else 0 end, case when :score = 4 then 1 else 0 end, "
+            + "case when :score = 5 then 1 else 0 end) "
+            + "on conflict (subjectType, subjectId) do update set reviewCount = reviewCount + excluded.reviewCount, "
+            + "scoreSum = scoreSum + excluded.scoreSum, oneStar = oneStar + excluded.oneStar, "
+            + "twoStars = twoStars + excluded.twoStars, threeStars = threeStars + excluded.threeStars, "
+            + "fourStars = fourStars + excluded.fourStars, fiveStars = fiveStars + excluded.fiveStars")
+    int upsert(@Param("subjectType") RatingSubject subjectType, @Param("subjectId") Long subjectId,
+               @Param("score") int score);
+
+    Optional<RatingSummary> findBySubjectTypeAndSubjectId(RatingSubject subjectType, Long subjectId);
+
+    List<RatingSummary> findBySubjectTypeAndSubjectIdIn(RatingSubject subjectType, Collection<Long> subjectIds);
+
+    @Modifying
+    @Query("delete from RatingSummary r")
+    int deleteAllRows();
+}
@@ -2,11 +2,17 @@ package com.example.OLSHEETS.repository;
 
 import com.example.OLSHEETS.data.Booking;
 import com.example.OLSHEETS.data.RenterReview;
+import com.example.OLSHEETS.dto.RenterReviewResponse;
+import com.example.OLSHEETS.dto.ScoreCount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,15 +29,37 @@ public interface RenterReviewRepository extends JpaRepository<RenterReview, Long
      */
     Optional<RenterReview> findByBooking(Booking booking);
     
+    // Responses built in the query, so booking, item and renter come back in the same round trip
+    String RESPONSE_SELECT = "SELECT new com.example.OLSHEETS.dto.RenterReviewResponse(r.id, b.id, u.id, u.username, "
+            + "i.id, i.name, i.owner.id, r.score, r.comment, r.createdAt) "
+            + "FROM RenterReview r JOIN r.booking b JOIN b.item i JOIN b.renter u ";
+
+    String FEED_ORDER = " ORDER BY r.createdAt DESC, r.id DESC";
+
     /**
-     * Find all reviews for a specific renter (by renter ID)
+     * Reviews of a renter, newest first
      */
-    @Query("SELECT r FROM RenterReview r WHERE r.booking.renter.id = :renterId")
-    List<RenterReview> findByRenterId(@Param("renterId") Long renterId);
+    @Query(RESPONSE_SELECT + "WHERE r.renterId = :renterId" + FEED_ORDER)
+    List<RenterReviewResponse> findFeedByRenterId(@Param("renterId") Long renterId, Pageable limit);
+
+    // Keyset pagination on (createdAt, id): callers pass the last review they saw and a Pageable sized one past the page
+    @Query(RESPONSE_SELECT + "WHERE r.renterId = :renterId "
+            + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id))" + FEED_ORDER)
+    List<RenterReviewResponse> findFeedByRenterIdBefore(@Param("renterId") Long renterId,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") Long id, Pageable limit);
     
+    // Copies the renter id onto reviews stored before it was kept on the review itself
+    @Transactional
+    @Modifying
+    @Query("UPDATE RenterReview r SET r.renterId = (SELECT b.renter.id FROM Booking b WHERE b.id = r.booking.id) "
+            + "WHERE r.renterId IS NULL")
+    int backfillRenterIds();
+
     /**
-     * Get average score for a renter
+     * Count reviews per renter and score, for rebuilding rating summaries
      */
-    @Query("SELECT AVG(r.score) FROM RenterReview r WHERE r.booking.renter.id = :renterId")
-    Double getAverageScoreByRenterId(@Param("renterId") Long renterId);
+    @Query("SELECT new com.example.OLSHEETS.dto.ScoreCount(r.booking.renter.id, r.score, COUNT(r)) "
+            + "FROM RenterReview r GROUP BY r.booking.renter.id, r.score")
+    List<ScoreCount> countScoresByRenter();
 }
@@ -2,11 +2,17 @@ package com.example.OLSHEETS.repository;
 
 import com.example.OLSHEETS.data.Booking;
 import com.example.OLSHEETS.data.Review;
+import com.example.OLSHEETS.dto.ReviewResponse;
+import com.example.OLSHEETS.dto.ScoreCount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,15 +29,46 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      */
     Optional<Review> findByBooking(Booking booking);
     
+    // Responses built in the query, so booking, item and renter come back in the same round trip
+    String RESPONSE_SELECT = "SELECT new com.example.OLSHEETS.dto.ReviewResponse(r.id, b.id, i.id, i.name, u.id, u.username, "
+            + "r.score, r.comment, r.createdAt) "
+            + "FROM Review r JOIN r.booking b JOIN b.item i JOIN b.renter u ";
+
+    String FEED_ORDER = " ORDER BY r.createdAt DESC, r.id DESC";
+
     /**
-     * Find all reviews for a specific item (instrument or music sheet)
+     * Reviews of an item (instrument or music sheet), newest first
      */
-    @Query("SELECT r FROM Review r WHERE r.booking.item.id = :itemId")
-    List<Review> findByItemId(@Param("itemId") Long itemId);
+    @Query(RESPONSE_SELECT + "WHERE r.itemId = :itemId" + FEED_ORDER)
+    List<ReviewResponse> findFeedByItemId(@Param("itemId") Long itemId, Pageable limit);
+
+    // Keyset pagination on (createdAt, id): callers pass the last review they saw and a Pageable sized one past the page
+    @Query(RESPONSE_SELECT + "WHERE r.itemId = :itemId "
+            + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id))" + FEED_ORDER)
+    List<ReviewResponse> findFeedByItemIdBefore(@Param("itemId") Long itemId, @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id, Pageable limit);
     
     /**
-     * Get average score for an item
+     * Count reviews per item and score, for rebuilding rating summaries
+     */
+    @Query("SELECT new com.example.OLSHEETS.dto.ScoreCount(r.booking.item.id, r.score, COUNT(r)) "
+            + "FROM Review r GROUP BY r.booking.item.id, r.score")
+    List<ScoreCount> countScoresByItem();
+
+    // Copies the item id onto reviews stored before it was kept on the review itself
+    @Transactional
+    @Modifying
+    @Query("UPDATE Review r SET r.itemId = (SELECT b.item.id FROM Booking b WHERE b.id = r.booking.id) "
+            + "WHERE r.itemId IS NULL")
+    int backfillItemIds();
+
+    @Query("SELECT MAX(r.id) FROM Review r")
+    Long findMaxId();
+
+    /**
+     * Count reviews with after < id <= upTo per item and score, for the top rated ranking
      */
-    @Query("SELECT AVG(r.score) FROM Review r WHERE r.booking.item.id = :itemId")
-    Double getAverageScoreByItemId(@Param("itemId") Long itemId);
+    @Query("SELECT new com.example.OLSHEETS.dto.ScoreCount(r.booking.item.id, r.score, COUNT(r)) "
+            + "FROM Review r WHERE r.id > :after AND r.id <= :upTo GROUP BY r.booking.item.id, r.score")
+    List<ScoreCount> countScoresByItemBetweenIds(@Param("after") Long after, @Param("upTo") Long upTo);
 }
@@ -2,10 +2,15 @@ package com.example.OLSHEETS.repository;
 
 import com.example.OLSHEETS.data.SheetBooking;
 import com.example.OLSHEETS.data.MusicSheet;
+import com.example.OLSHEETS.dto.ItemBookingCount;
+import com.example.OLSHEETS.dto.ItemDateCount;
+import com.example.OLSHEETS.dto.SheetBookingView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -15,6 +20,20 @@ public interface SheetBookingRepository extends JpaRepository<SheetBooking, Long
     List<SheetBooking> findByRenterId(Long renterId);
     List<SheetBooking> findByMusicSheet(MusicSheet musicSheet);
 
+    // Nested views for the list endpoints, one query each
+    String VIEW_SELECT = "SELECT new com.example.OLSHEETS.dto.SheetBookingView(sb.id, s.id, s.name, s.price, o.id, o.username, o.name, " +
+           "r.id, r.username, r.name, sb.startDate, sb.endDate, sb.status) " +
+           "FROM SheetBooking sb LEFT JOIN sb.musicSheet s LEFT JOIN s.owner o LEFT JOIN sb.renter r ";
+
+    @Query(VIEW_SELECT + "ORDER BY sb.id")
+    List<SheetBookingView> findAllViews();
+
+    @Query(VIEW_SELECT + "WHERE r.id = :renterId ORDER BY sb.id")
+    List<SheetBookingView> findViewsByRenterId(@Param("renterId") Long renterId);
+
+    @Query(VIEW_SELECT + "WHERE s.id = :sheetId ORDER BY sb.id")
+    List<SheetBookingView> findViewsBySheetId(@Param("sheetId") Long sheetId);
+
     @Query("SELECT sb FROM SheetBooking sb WHERE sb.musicSheet.id = :sheetId " +
            "AND sb.status != 'REJECTED' AND sb.status != 'CANCELLED' " +
            "AND ((sb.startDate <= :endDate) AND (sb.endDate >= :startDate))")
@@ -23,5 +42,26 @@ public interface SheetBookingRepository extends JpaRepository<SheetBooking, Long
         @Param("startDate") LocalDate startDate,
         @Param("endDate") LocalDate endDate
     );
+
+    // Popularity per sheet for autocomplete ranking; rejected and cancelled bookings don't count
+    @Query("SELECT new com.example.OLSHEETS.dto.ItemBookingCount(sb.musicSheet.id, count(sb)) FROM SheetBooking sb " +
+           "WHERE sb.status != 'REJECTED' AND sb.status != 'CANCELLED' GROUP BY sb.musicSheet.id")
+    List<ItemBookingCount> countGroupedByMusicSheet();
+
+    @Query("SELECT max(sb.id) FROM SheetBooking sb")
+    Long findMaxId();
+
+    // Sheet bookings with after < id <= upTo per sheet and creation day, for the trending ranking
+    @Query("SELECT new com.example.OLSHEETS.dto.ItemDateCount(sb.musicSheet.id, sb.createdOn, count(sb)) FROM SheetBooking sb " +
+           "WHERE sb.id > :after AND sb.id <= :upTo " +
+           "AND sb.status != 'REJECTED' AND sb.status != 'CANCELLED' GROUP BY sb.musicSheet.id, sb.createdOn")
+    List<ItemDateCount> countByMusicSheetAndCreatedOnBetweenIds(@Param("after") Long after, @Param("upTo") Long upTo);
+
+    // Gives sheet bookings stored before creation days were recorded their start date, or today if that is still ahead
+    @Transactional
+    @Modifying
+    @Query("UPDATE SheetBooking sb SET sb.createdOn = CASE WHEN sb.startDate < :today THEN sb.startDate ELSE :today END " +
+           "WHERE sb.createdOn IS NULL")
+    int backfillCreatedOn(@Param("today") LocalDate today);
 }
 
@@ -0,0 +1,108 @@
+package com.example.OLSHEETS.search;
+
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.Item;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.data.MusicSheet;
+
+/**
+ * Immutable snapshot of the searchable fields of one item. Built either from
+ * an entity after it is saved or directly by the JPQL constructor expressions
+ * in InstrumentRepository and MusicSheetRepository, which pick the
+ * instrument or music sheet constructor by argument count.
+ */
+public final class CatalogDocument {
+
+    private final Long id;
+    private final ItemKind kind;
+    private final String name;
+    private final String description;
+    private final Double price;
+    private final InstrumentType instrumentType;
+    private final InstrumentFamily instrumentFamily;
+    private final String composer;
+    private final String instrumentation;
+    private final String category;
+
+    public CatalogDocument(Long id, String name, String description, Double price,
+                           InstrumentType instrumentType, InstrumentFamily instrumentFamily) {
+        this(id, ItemKind.INSTRUMENT, name, description, price, instrumentType, instrumentFamily, null, null, null);
+    }
+
+    public CatalogDocument(Long id, String name, String description, Double price,
+                           String composer, String instrumentation, String category) {
+        this(id, ItemKind.MUSIC_SHEET, name, description, price, null, null, composer, instrumentation, category);
+    }
+
+    private CatalogDocument(Long id, ItemKind kind, String name, String description, Double price,
+                            InstrumentType instrumentType, InstrumentFamily instrumentFamily,
+                            String composer, String instrumentation, String category) {
+        this.id = id;
+        this.kind = kind;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.instrumentType = instrumentType;
+        this.instrumentFamily = instrumentFamily;
+        this.composer = composer;
+        this.instrumentation = instrumentation;
+        this.category = category;
+    }
+
+    /**
+     * Snapshot of a saved item, or null for item types the catalog does not index
+     */
+    public static CatalogDocument of(Item item) {
+        if (item instanceof Instrument instrument) {
+            return new CatalogDocument(instrument.getId(), instrument.getName(), instrument.getDescription(),
+                    instrument.getPrice(), instrument.getType(), instrument.getFamily());
+        }
+        if (item instanceof MusicSheet sheet) {
+            return new CatalogDocument(sheet.getId(), sheet.getName(), sheet.getDescription(), sheet.getPrice(),
+                    sheet.getComposer(), sheet.getInstrumentation(), sheet.getCategory());
+        }
+        return null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ItemKind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public InstrumentType getInstrumentType() {
+        return instrumentType;
+    }
+
+    public InstrumentFamily getInstrumentFamily() {
+        return instrumentFamily;
+    }
+
+    public String getComposer() {
+        return composer;
+    }
+
+    public String getInstrumentation() {
+        return instrumentation;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+}
@@ -0,0 +1,479 @@
+package com.example.OLSHEETS.search;
+
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.CatalogHit;
+import com.example.OLSHEETS.repository.InstrumentRepository;
+import com.example.OLSHEETS.repository.MusicSheetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * In-process full-text index over the item catalog.
+ *
+ * Name, description, composer, instrumentation and category are analyzed with
+ * TextAnalyzer and ranked with BM25, with matches in the name weighted above
+ * composer and category, and those above free-text fields. The index is loaded
+ * from the item table once the application is up and then kept current by
+ * CatalogIndexListener after each committed item write, so register and price
+ * updates are searchable immediately without re-reading the table. Fuzzy
+ * searches expand misspelled query terms through the index's trigram
+ * vocabulary before ranking.
+ */
+@Component
+public class CatalogIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIndex.class);
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    static final float NAME_WEIGHT = 3.0f;
+    static final float COMPOSER_WEIGHT = 2.0f;
+    static final float CATEGORY_WEIGHT = 1.5f;
+    static final float INSTRUMENTATION_WEIGHT = 1.0f;
+    static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Minimum trigram similarity for a fuzzy match, pg_trgm's default threshold
+    static final float FUZZY_MIN_SIMILARITY = 0.3f;
+
+    private final InstrumentRepository instrumentRepository;
+    private final MusicSheetRepository musicSheetRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Segment segment = new Segment();
+    // Writes that arrive while a rebuild is loading, replayed onto the new segment
+    private List<Consumer<Segment>> pendingWrites;
+
+    public CatalogIndex(InstrumentRepository instrumentRepository, MusicSheetRepository musicSheetRepository) {
+        this.instrumentRepository = instrumentRepository;
+        this.musicSheetRepository = musicSheetRepository;
+    }
+
+    /**
+     * Load the index from the database once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * Reload every item into a fresh segment and swap it in. Searches keep
+     * using the old segment until the swap, and writes made during the load
+     * are replayed so none are lost.
+     *
+     * @return the number of documents indexed
+     */
+    public int rebuild() {
+        rebuildLock.lock();
+        try {
+            withWriteLock(() -> pendingWrites = new ArrayList<>());
+            Segment fresh = new Segment();
+            try {
+                loadBatches(fresh, after -> instrumentRepository.findCatalogDocumentsAfter(after, PageRequest.ofSize(LOAD_BATCH_SIZE)));
+                loadBatches(fresh, after -> musicSheetRepository.findCatalogDocumentsAfter(after, PageRequest.ofSize(LOAD_BATCH_SIZE)));
+            } catch (RuntimeException e) {
+                withWriteLock(() -> pendingWrites = null);
+                throw e;
+            }
+
+            withWriteLock(() -> {
+                pendingWrites.forEach(write -> write.accept(fresh));
+                pendingWrites = null;
+                segment = fresh;
+            });
+            log.info("Catalog index loaded with {} items", fresh.size());
+            return fresh.size();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Add or replace the entry for one item
+     */
+    public void index(CatalogDocument document) {
+        if (document == null || document.getId() == null) {
+            return;
+        }
+        write(s -> s.upsert(document));
+    }
+
+    public void remove(Long itemId) {
+        if (itemId == null) {
+            return;
+        }
+        write(s -> s.remove(itemId));
+    }
+
+    /**
+     * The indexed snapshot of one item, or null when it is not in the catalog
+     */
+    public CatalogDocument document(Long itemId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = segment.ordinals.get(itemId);
+            return ordinal == null ? null : segment.docs.get(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One item as a hit with the given score, or null when it is not in the catalog
+     */
+    public CatalogHit hit(Long itemId, float score) {
+        CatalogDocument document = document(itemId);
+        return document == null ? null : toHit(document, score);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank items matching any term of the query exactly (after folding).
+     *
+     * @param kind   restrict to one item kind, or null for both
+     * @param offset number of top hits to skip
+     * @param limit  page size
+     */
+    public CatalogSearchResult search(String query, ItemKind kind, int offset, int limit) {
+        return search(query, kind, offset, limit, false);
+    }
+
+    /**
+     * Rank items matching any term of the query. In fuzzy mode each query
+     * term also matches indexed terms spelled like it, scored down by their
+     * trigram similarity, so "chopan" finds Chopin.
+     */
+    public CatalogSearchResult search(String query, ItemKind kind, int offset, int limit, boolean fuzzy) {
+        List<String> terms = TextAnalyzer.tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new CatalogSearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            IntPredicate accept = ordinal -> current.accepts(ordinal, kind);
+            Map<String, Float> boosts = fuzzy
+                    ? current.text.expand(terms, FUZZY_MIN_SIMILARITY)
+                    : InvertedIndex.unboosted(terms);
+            InvertedIndex.SearchResult result = current.text.search(boosts, accept, offset + limit);
+
+            List<CatalogHit> hits = new ArrayList<>(limit);
+            for (int i = offset; i < result.ranked.size(); i++) {
+                InvertedIndex.ScoredDoc scored = result.ranked.get(i);
+                hits.add(toHit(current.docs.get(scored.ordinal), scored.score));
+            }
+            return new CatalogSearchResult(hits, current.countMatching(boosts.keySet(), kind));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filter, rank and page items, and count facet values over the matches.
+     * With query text the page is ranked by BM25; without it items come in
+     * index order. The counts for one facet ignore that facet's own filter,
+     * so they tell the client how many items each alternative value would
+     * give. All filtering and counting is done on per-value bitsets.
+     */
+    public FacetedSearchResult search(CatalogQuery query, int offset, int limit) {
+        List<String> terms = TextAnalyzer.tokenize(query.getText());
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            BitSet base = (BitSet) current.live.clone();
+            Map<String, Float> boosts = null;
+            if (!terms.isEmpty()) {
+                boosts = query.isFuzzy()
+                        ? current.text.expand(terms, FUZZY_MIN_SIMILARITY)
+                        : InvertedIndex.unboosted(terms);
+                base.and(current.text.matching(boosts.keySet()));
+            }
+            current.retainPriceRange(base, query.getMinPrice(), query.getMaxPrice());
+            if (query.getItemFilter() != null) {
+                current.retainItems(base, query.getItemFilter());
+            }
+
+            BitSet kindMask = query.getKind() == null ? null : union(current.byKind, Set.of(query.getKind()));
+            BitSet typeMask = union(current.byType, query.getInstrumentTypes());
+            BitSet familyMask = union(current.byFamily, query.getInstrumentFamilies());
+            BitSet categoryMask = union(current.byCategory, query.getCategories());
+
+            Map<ItemKind, Long> kindCounts = count(current.byKind,
+                    intersect(base, typeMask, familyMask, categoryMask), new EnumMap<>(ItemKind.class));
+            Map<InstrumentType, Long> typeCounts = count(current.byType,
+                    intersect(base, kindMask, familyMask, categoryMask), new EnumMap<>(InstrumentType.class));
+            Map<InstrumentFamily, Long> familyCounts = count(current.byFamily,
+                    intersect(base, kindMask, typeMask, categoryMask), new EnumMap<>(InstrumentFamily.class));
+            Map<String, Long> categoryCounts = count(current.byCategory,
+                    intersect(base, kindMask, typeMask, familyMask), new TreeMap<>());
+
+            BitSet matches = intersect(base, kindMask, typeMask, familyMask, categoryMask);
+            List<CatalogHit> hits = new ArrayList<>(Math.max(0, limit));
+            if (limit > 0 && boosts != null) {
+                InvertedIndex.SearchResult ranked = current.text.search(boosts, matches::get, offset + limit);
+                for (int i = offset; i < ranked.ranked.size(); i++) {
+                    InvertedIndex.ScoredDoc scored = ranked.ranked.get(i);
+                    hits.add(toHit(current.docs.get(scored.ordinal), scored.score));
+                }
+            } else if (limit > 0) {
+                int skipped = 0;
+                for (int ordinal = matches.nextSetBit(0); ordinal >= 0 && hits.size() < limit;
+                     ordinal = matches.nextSetBit(ordinal + 1)) {
+                    if (skipped++ >= offset) {
+                        hits.add(toHit(current.docs.get(ordinal), 0f));
+                    }
+                }
+            }
+            return new FacetedSearchResult(hits, matches.cardinality(), kindCounts, typeCounts, familyCounts,
+                    categoryCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <K> BitSet union(Map<K, BitSet> byValue, Set<K> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (K value : selected) {
+            BitSet bits = byValue.get(value);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    // Base set narrowed by every non-null mask
+    private static BitSet intersect(BitSet base, BitSet... masks) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) {
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private static <K> Map<K, Long> count(Map<K, BitSet> byValue, BitSet mask, Map<K, Long> counts) {
+        for (Map.Entry<K, BitSet> entry : byValue.entrySet()) {
+            BitSet bits = (BitSet) entry.getValue().clone();
+            bits.and(mask);
+            int count = bits.cardinality();
+            if (count > 0) {
+                counts.put(entry.getKey(), (long) count);
+            }
+        }
+        return counts;
+    }
+
+    private void write(Consumer<Segment> write) {
+        withWriteLock(() -> {
+            write.accept(segment);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+            if (segment.needsCompaction()) {
+                segment = segment.compacted();
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void loadBatches(Segment target, Function<Long, List<CatalogDocument>> nextBatch) {
+        Long after = 0L;
+        List<CatalogDocument> batch;
+        do {
+            batch = nextBatch.apply(after);
+            for (CatalogDocument document : batch) {
+                target.upsert(document);
+                after = document.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+    }
+
+    static CatalogHit toHit(CatalogDocument document, float score) {
+        return new CatalogHit(document.getId(), document.getKind(), document.getName(), document.getDescription(),
+                document.getPrice(), document.getInstrumentType(), document.getInstrumentFamily(),
+                document.getComposer(), document.getInstrumentation(), document.getCategory(), score, null, 0);
+    }
+
+    /**
+     * Weighted term frequencies and weighted length of one document
+     */
+    static final class Analyzed {
+        final Map<String, Float> termWeights = new HashMap<>();
+        float length;
+
+        static Analyzed of(CatalogDocument document) {
+            Analyzed analyzed = new Analyzed();
+            analyzed.addField(document.getName(), NAME_WEIGHT);
+            analyzed.addField(document.getComposer(), COMPOSER_WEIGHT);
+            analyzed.addField(document.getCategory(), CATEGORY_WEIGHT);
+            analyzed.addField(document.getInstrumentation(), INSTRUMENTATION_WEIGHT);
+            analyzed.addField(document.getDescription(), DESCRIPTION_WEIGHT);
+            return analyzed;
+        }
+
+        private void addField(String text, float weight) {
+            for (String term : TextAnalyzer.tokenize(text)) {
+                termWeights.merge(term, weight, Float::sum);
+                length += weight;
+            }
+        }
+    }
+
+    /**
+     * One generation of the index. Documents get increasing ordinals; updating
+     * an item retires its old ordinal and appends a new one. Once retired
+     * ordinals outnumber live ones the segment is rebuilt compactly.
+     */
+    static final class Segment {
+        private static final int COMPACTION_MIN_RETIRED = 1024;
+
+        final List<CatalogDocument> docs = new ArrayList<>();
+        final Map<Long, Integer> ordinals = new HashMap<>();
+        final InvertedIndex text = new InvertedIndex();
+        // Facet postings; retired ordinals keep their bits and are masked out by live
+        final BitSet live = new BitSet();
+        final Map<ItemKind, BitSet> byKind = new EnumMap<>(ItemKind.class);
+        final Map<InstrumentType, BitSet> byType = new EnumMap<>(InstrumentType.class);
+        final Map<InstrumentFamily, BitSet> byFamily = new EnumMap<>(InstrumentFamily.class);
+        final Map<String, BitSet> byCategory = new HashMap<>();
+        private double[] prices = new double[1024];
+        private int retired;
+
+        void upsert(CatalogDocument document) {
+            remove(document.getId());
+            int ordinal = docs.size();
+            docs.add(document);
+            ordinals.put(document.getId(), ordinal);
+            Analyzed analyzed = Analyzed.of(document);
+            text.add(ordinal, analyzed.termWeights, analyzed.length);
+
+            live.set(ordinal);
+            addFacet(byKind, document.getKind(), ordinal);
+            addFacet(byType, document.getInstrumentType(), ordinal);
+            addFacet(byFamily, document.getInstrumentFamily(), ordinal);
+            addFacet(byCategory, CatalogQuery.categoryKey(document.getCategory()), ordinal);
+            if (ordinal >= prices.length) {
+                prices = Arrays.copyOf(prices, prices.length * 2);
+            }
+            prices[ordinal] = document.getPrice() == null ? Double.NaN : document.getPrice();
+        }
+
+        private static <K> void addFacet(Map<K, BitSet> byValue, K value, int ordinal) {
+            if (value != null) {
+                byValue.computeIfAbsent(value, v -> new BitSet()).set(ordinal);
+            }
+        }
+
+        void retainPriceRange(BitSet candidates, Double minPrice, Double maxPrice) {
+            if (minPrice == null && maxPrice == null) {
+                return;
+            }
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                double price = prices[ordinal];
+                if (Double.isNaN(price) || (minPrice != null && price < minPrice) || (maxPrice != null && price > maxPrice)) {
+                    candidates.clear(ordinal);
+                }
+            }
+        }
+
+        void retainItems(BitSet candidates, LongPredicate itemFilter) {
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                if (!itemFilter.test(docs.get(ordinal).getId())) {
+                    candidates.clear(ordinal);
+                }
+            }
+        }
+
+        void remove(Long itemId) {
+            Integer ordinal = ordinals.remove(itemId);
+            if (ordinal == null) {
+                return;
+            }
+            CatalogDocument previous = docs.set(ordinal, null);
+            live.clear(ordinal);
+            Analyzed analyzed = Analyzed.of(previous);
+            text.remove(analyzed.termWeights, analyzed.length);
+            retired++;
+        }
+
+        // Ranking skips documents that cannot reach the page, so the total is counted on bitsets
+        long countMatching(Collection<String> terms, ItemKind kind) {
+            BitSet matches = text.matching(terms);
+            matches.and(live);
+            if (kind != null) {
+                matches.and(byKind.getOrDefault(kind, new BitSet()));
+            }
+            return matches.cardinality();
+        }
+
+        boolean accepts(int ordinal, ItemKind kind) {
+            CatalogDocument document = docs.get(ordinal);
+            return document != null && (kind == null || document.getKind() == kind);
+        }
+
+        int size() {
+            return ordinals.size();
+        }
+
+        boolean needsCompaction() {
+            return retired > COMPACTION_MIN_RETIRED && retired > ordinals.size();
+        }
+
+        Segment compacted() {
+            Segment compacted = new Segment();
+            for (CatalogDocument document : docs) {
+                if (document != null) {
+                    compacted.upsert(document);
+                }
+            }
+            return compacted;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.OLSHEETS.search;
+
+import com.example.OLSHEETS.data.Item;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps CatalogIndex in sync with item writes
+ * (registration, price and detail updates, deletes). The item is snapshotted
+ * when the event fires and applied after commit, so a rolled-back write never
+ * shows up in search.
+ */
+public class CatalogIndexListener {
+
+    @Autowired(required = false)
+    private CatalogIndex catalogIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Item item) {
+        if (catalogIndex == null) {
+            return;
+        }
+        CatalogDocument document = CatalogDocument.of(item);
+        afterCommit(() -> catalogIndex.index(document));
+    }
+
+    @PostRemove
+    public void onRemove(Item item) {
+        if (catalogIndex == null) {
+            return;
+        }
+        Long itemId = item.getId();
+        afterCommit(() -> catalogIndex.remove(itemId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.OLSHEETS.search;
+
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Filters for a faceted catalog search. Every filter is optional; values
+ * within one facet are OR-ed and different facets are AND-ed.
+ */
+public final class CatalogQuery {
+
+    private final String text;
+    private final boolean fuzzy;
+    private final ItemKind kind;
+    private final Set<InstrumentType> instrumentTypes;
+    private final Set<InstrumentFamily> instrumentFamilies;
+    private final Set<String> categories;
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final LongPredicate itemFilter;
+
+    private CatalogQuery(Builder builder) {
+        this.text = builder.text;
+        this.fuzzy = builder.fuzzy;
+        this.kind = builder.kind;
+        this.instrumentTypes = builder.instrumentTypes;
+        this.instrumentFamilies = builder.instrumentFamilies;
+        this.categories = builder.categories;
+        this.minPrice = builder.minPrice;
+        this.maxPrice = builder.maxPrice;
+        this.itemFilter = builder.itemFilter;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isFuzzy() {
+        return fuzzy;
+    }
+
+    public ItemKind getKind() {
+        return kind;
+    }
+
+    public Set<InstrumentType> getInstrumentTypes() {
+        return instrumentTypes;
+    }
+
+    public Set<InstrumentFamily> getInstrumentFamilies() {
+        return instrumentFamilies;
+    }
+
+    public Set<String> getCategories() {
+        return categories;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Extra per-item condition, such as availability, tested by item id
+     */
+    public LongPredicate getItemFilter() {
+        return itemFilter;
+    }
+
+    /**
+     * Facet key for a free-text sheet category: trimmed and upper-cased so
+     * "Jazz" and "JAZZ" count together
+     */
+    public static String categoryKey(String category) {
+        return category == null ? null : category.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public static final class Builder {
+        private String text;
+        private boolean fuzzy;
+        private ItemKind kind;
+        private Set<InstrumentType> instrumentTypes = EnumSet.noneOf(InstrumentType.class);
+        private Set<InstrumentFamily> instrumentFamilies = EnumSet.noneOf(InstrumentFamily.class);
+        private Set<String> categories = new LinkedHashSet<>();
+        private Double minPrice;
+        private Double maxPrice;
+        private LongPredicate itemFilter;
+
+        public Builder text(String text) {
+            this.text = text;
+            return this;
+        }
+
+        public Builder fuzzy(boolean fuzzy) {
+            this.fuzzy = fuzzy;
+            return this;
+        }
+
+        public Builder kind(ItemKind kind) {
+            this.kind = kind;
+            return this;
+        }
+
+        public Builder instrumentTypes(Collection<InstrumentType> types) {
+            if (types != null) {
+                this.instrumentTypes.addAll(types);
+            }
+            return this;
+        }
+
+        public Builder instrumentFamilies(Collection<InstrumentFamily> families) {
+            if (families != null) {
+                this.instrumentFamilies.addAll(families);
+            }
+            return this;
+        }
+
+        public Builder categories(Collection<String> categories) {
+            if (categories != null) {
+                for (String category : categories) {
+                    this.categories.add(categoryKey(category));
+                }
+            }
+            return this;
+        }
+
+        public Builder priceBetween(Double minPrice, Double maxPrice) {
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            return this;
+        }
+
+        public Builder itemFilter(LongPredicate itemFilter) {
+            this.itemFilter = itemFilter;
+            return this;
+        }
+
+        public CatalogQuery build() {
+            return new CatalogQuery(this);
+        }
+    }
+}
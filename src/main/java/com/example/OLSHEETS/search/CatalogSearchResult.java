@@ -0,0 +1,27 @@
+package com.example.OLSHEETS.search;
+
+import com.example.OLSHEETS.dto.CatalogHit;
+
+import java.util.List;
+
+/**
+ * One page of ranked hits plus the number of documents that matched in total
+ */
+public final class CatalogSearchResult {
+
+    private final List<CatalogHit> hits;
+    private final long totalHits;
+
+    public CatalogSearchResult(List<CatalogHit> hits, long totalHits) {
+        this.hits = hits;
+        this.totalHits = totalHits;
+    }
+
+    public List<CatalogHit> getHits() {
+        return hits;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.OLSHEETS.search;
+
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.CatalogHit;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of hits plus, for each facet, how many matching items carry each
+ * value when every other facet's filter is applied
+ */
+public final class FacetedSearchResult {
+
+    private final List<CatalogHit> hits;
+    private final long totalHits;
+    private final Map<ItemKind, Long> kindCounts;
+    private final Map<InstrumentType, Long> instrumentTypeCounts;
+    private final Map<InstrumentFamily, Long> instrumentFamilyCounts;
+    private final Map<String, Long> categoryCounts;
+
+    public FacetedSearchResult(List<CatalogHit> hits, long totalHits, Map<ItemKind, Long> kindCounts,
+                               Map<InstrumentType, Long> instrumentTypeCounts,
+                               Map<InstrumentFamily, Long> instrumentFamilyCounts,
+                               Map<String, Long> categoryCounts) {
+        this.hits = hits;
+        this.totalHits = totalHits;
+        this.kindCounts = kindCounts;
+        this.instrumentTypeCounts = instrumentTypeCounts;
+        this.instrumentFamilyCounts = instrumentFamilyCounts;
+        this.categoryCounts = categoryCounts;
+    }
+
+    public List<CatalogHit> getHits() {
+        return hits;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public Map<ItemKind, Long> getKindCounts() {
+        return kindCounts;
+    }
+
+    public Map<InstrumentType, Long> getInstrumentTypeCounts() {
+        return instrumentTypeCounts;
+    }
+
+    public Map<InstrumentFamily, Long> getInstrumentFamilyCounts() {
+        return instrumentFamilyCounts;
+    }
+
+    public Map<String, Long> getCategoryCounts() {
+        return categoryCounts;
+    }
+}
@@ -0,0 +1,425 @@
+package com.example.OLSHEETS.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Term -> postings index with BM25 ranking over dense document ordinals.
+ *
+ * Each document contributes one weighted term frequency per term, where the
+ * weight comes from the field the term appeared in (see CatalogIndex). Postings
+ * are kept sorted by ordinal because ordinals only ever grow, so a query walks
+ * its terms' postings in lockstep and never allocates per-document state.
+ * Removed documents stay in the postings until the owner rebuilds; callers
+ * filter them out through the accept predicate. The vocabulary is also kept
+ * in a TrigramIndex so misspelled query terms can be expanded to indexed
+ * terms before ranking. Not thread-safe.
+ */
+final class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Closest spellings kept per misspelled query term
+    private static final int MAX_EXPANSIONS = 8;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final TrigramIndex vocabulary = new TrigramIndex();
+    private float[] lengths = new float[1024];
+    private double totalLength;
+    private int liveDocs;
+
+    void add(int ordinal, Map<String, Float> termWeights, float length) {
+        for (Map.Entry<String, Float> entry : termWeights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), this::newPostings).add(ordinal, entry.getValue(), length);
+        }
+        if (ordinal >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(ordinal + 1, lengths.length * 2));
+        }
+        lengths[ordinal] = length;
+        totalLength += length;
+        liveDocs++;
+    }
+
+    /**
+     * Drop a document from the collection statistics. Its postings entries are
+     * left in place and must be rejected by the query's accept predicate.
+     */
+    void remove(Map<String, Float> termWeights, float length) {
+        for (String term : termWeights.keySet()) {
+            Postings list = postings.get(term);
+            if (list != null) {
+                list.live--;
+            }
+        }
+        totalLength -= length;
+        liveDocs--;
+    }
+
+    int liveDocs() {
+        return liveDocs;
+    }
+
+    /**
+     * Map each query term to the indexed terms spelled like it, weighted by
+     * trigram similarity. A term that is indexed as typed keeps weight 1, and
+     * only the closest MAX_EXPANSIONS spellings of each term are kept.
+     */
+    Map<String, Float> expand(List<String> queryTerms, float minSimilarity) {
+        Map<String, Float> expanded = new HashMap<>();
+        for (String term : new LinkedHashSet<>(queryTerms)) {
+            List<Map.Entry<String, Float>> matches = new ArrayList<>();
+            for (Map.Entry<String, Float> match : vocabulary.similar(term, minSimilarity).entrySet()) {
+                Postings list = postings.get(match.getKey());
+                if (list != null && list.live > 0) {
+                    matches.add(match);
+                }
+            }
+            matches.sort(Map.Entry.<String, Float>comparingByValue().reversed());
+            for (Map.Entry<String, Float> match : matches.subList(0, Math.min(MAX_EXPANSIONS, matches.size()))) {
+                expanded.merge(match.getKey(), match.getValue(), Math::max);
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * Ordinals of documents containing any of the terms, removed ones
+     * included; callers intersect with their live set
+     */
+    BitSet matching(Collection<String> terms) {
+        BitSet matches = new BitSet();
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null || list.live == 0) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                matches.set(list.docs[i]);
+            }
+        }
+        return matches;
+    }
+
+    static Map<String, Float> unboosted(List<String> queryTerms) {
+        Map<String, Float> boosts = new HashMap<>();
+        for (String term : queryTerms) {
+            boosts.put(term, 1.0f);
+        }
+        return boosts;
+    }
+
+    /**
+     * Rank documents containing any query term, scaling each term's BM25
+     * contribution by its boost.
+     *
+     * Uses MaxScore pruning: every term has an upper bound on what it can add
+     * to a document's score, from the best weight and length pairs in its
+     * postings (see Impacts).
+     * With terms sorted by bound, once the top-k heap is full the cheapest
+     * terms whose bounds together cannot beat the current k-th score become
+     * non-essential. Only the essential terms' postings are walked; the
+     * non-essential ones are probed by galloping search for the candidates the
+     * essential terms produce, and a candidate is dropped as soon as its
+     * partial score plus the remaining bounds cannot beat the k-th score.
+     * The essential lists also skip whole runs of documents when the
+     * per-block bounds of the blocks they are in cannot beat it either.
+     * Because skipped documents are never scored, the result carries no hit
+     * count; callers count matches on bitsets (see matching).
+     *
+     * @param accept rejects removed or filtered-out ordinals
+     * @param limit  how many top documents to keep
+     */
+    SearchResult search(Map<String, Float> termBoosts, IntPredicate accept, int limit) {
+        List<Postings> found = new ArrayList<>();
+        List<Float> boosts = new ArrayList<>();
+        for (Map.Entry<String, Float> term : termBoosts.entrySet()) {
+            Postings list = postings.get(term.getKey());
+            if (list != null && list.live > 0) {
+                found.add(list);
+                boosts.add(idf(list.live) * term.getValue());
+            }
+        }
+        if (found.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of());
+        }
+
+        double avgLength = liveDocs > 0 ? totalLength / liveDocs : 1.0;
+        int n = found.size();
+        Integer[] order = new Integer[n];
+        float[] unsortedBounds = new float[n];
+        for (int t = 0; t < n; t++) {
+            order[t] = t;
+            Postings list = found.get(t);
+            unsortedBounds[t] = list.impacts.bound(boosts.get(t), avgLength);
+        }
+        Arrays.sort(order, Comparator.comparingDouble(t -> unsortedBounds[t]));
+
+        // Terms in ascending bound order, with running sums of the bounds
+        Postings[] lists = new Postings[n];
+        float[] idfs = new float[n];
+        float[] prefixBounds = new float[n];
+        for (int i = 0; i < n; i++) {
+            lists[i] = found.get(order[i]);
+            idfs[i] = boosts.get(order[i]);
+            // Summed in the same order as document scores, so rounding never puts a score above its bound
+            prefixBounds[i] = (i == 0 ? 0 : prefixBounds[i - 1]) + unsortedBounds[order[i]];
+        }
+
+        int[] cursors = new int[n];
+        float[] contributions = new float[n];
+        PriorityQueue<ScoredDoc> top = new PriorityQueue<>(limit + 1, ScoredDoc.WORST_FIRST);
+        // Lists below this index are non-essential; documents only they contain cannot enter the top k
+        int firstEssential = 0;
+        float threshold = Float.NEGATIVE_INFINITY;
+
+        int[] boundedBlocks = new int[n];
+        float[] blockBounds = new float[n];
+        Arrays.fill(boundedBlocks, -1);
+
+        while (firstEssential < n) {
+            if (top.size() == limit) {
+                // Block-max: skip the essential lists past a window whose current blocks cannot beat the k-th score
+                int windowEnd = Integer.MAX_VALUE;
+                for (int t = firstEssential; t < n; t++) {
+                    if (cursors[t] < lists[t].size) {
+                        windowEnd = Math.min(windowEnd, lists[t].blockLastDoc(cursors[t]));
+                    }
+                }
+                float windowBound = firstEssential > 0 ? prefixBounds[firstEssential - 1] : 0;
+                for (int t = firstEssential; t < n; t++) {
+                    Postings list = lists[t];
+                    if (cursors[t] < list.size && list.docs[cursors[t]] <= windowEnd) {
+                        int block = cursors[t] >> Postings.BLOCK_SHIFT;
+                        if (boundedBlocks[t] != block) {
+                            boundedBlocks[t] = block;
+                            blockBounds[t] = list.blockImpacts[block].bound(idfs[t], avgLength);
+                        }
+                        windowBound += blockBounds[t];
+                    }
+                }
+                if (windowEnd != Integer.MAX_VALUE && windowBound <= threshold) {
+                    for (int t = firstEssential; t < n; t++) {
+                        cursors[t] = lists[t].advance(cursors[t], windowEnd + 1);
+                    }
+                    continue;
+                }
+            }
+
+            int doc = Integer.MAX_VALUE;
+            for (int t = firstEssential; t < n; t++) {
+                if (cursors[t] < lists[t].size) {
+                    doc = Math.min(doc, lists[t].docs[cursors[t]]);
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            float norm = norm(lengths[doc], avgLength);
+            float partial = 0;
+            for (int t = firstEssential; t < n; t++) {
+                Postings list = lists[t];
+                contributions[t] = 0;
+                if (cursors[t] < list.size && list.docs[cursors[t]] == doc) {
+                    contributions[t] = bm25(idfs[t], list.weights[cursors[t]], norm);
+                    partial += contributions[t];
+                    cursors[t]++;
+                }
+            }
+
+            // Ties lose to the earlier, lower ordinal, so only a strictly higher score can enter a full heap
+            boolean competitive = true;
+            for (int t = firstEssential - 1; t >= 0; t--) {
+                contributions[t] = 0;
+                // Partial sums run in a different order than the final score, so leave a margin for rounding
+                if ((partial + prefixBounds[t]) * 1.0001f <= threshold) {
+                    competitive = false;
+                    break;
+                }
+                Postings list = lists[t];
+                cursors[t] = list.advance(cursors[t], doc);
+                if (cursors[t] < list.size && list.docs[cursors[t]] == doc) {
+                    contributions[t] = bm25(idfs[t], list.weights[cursors[t]], norm);
+                    partial += contributions[t];
+                }
+            }
+            // The accept check reads the document itself, so it runs only for candidates that could rank
+            if (!competitive || !accept.test(doc)) {
+                continue;
+            }
+            // Summed in one fixed order so equal documents get bit-identical scores however they were reached
+            float score = 0;
+            for (int t = 0; t < n; t++) {
+                score += contributions[t];
+            }
+            if (top.size() == limit && score <= threshold) {
+                continue;
+            }
+
+            top.offer(new ScoredDoc(doc, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+            if (top.size() == limit) {
+                threshold = top.peek().score;
+                while (firstEssential < n && prefixBounds[firstEssential] <= threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+
+        List<ScoredDoc> ranked = new ArrayList<>(top);
+        ranked.sort(ScoredDoc.WORST_FIRST.reversed());
+        return new SearchResult(ranked);
+    }
+
+    private static float norm(float length, double avgLength) {
+        return (float) (K1 * (1 - B + B * length / avgLength));
+    }
+
+    private static float bm25(float idf, float tf, float norm) {
+        return idf * tf * (K1 + 1) / (tf + norm);
+    }
+
+    private Postings newPostings(String term) {
+        vocabulary.add(term);
+        return new Postings();
+    }
+
+    private float idf(int docFrequency) {
+        return (float) Math.log(1 + (liveDocs - docFrequency + 0.5) / (docFrequency + 0.5));
+    }
+
+    private static final class Postings {
+        // Entries per block of the block-max bounds
+        static final int BLOCK_SHIFT = 7;
+
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+        private int live;
+        // Score bound inputs, for the whole list and per block; removed documents
+        // keep counting, which only loosens the bounds
+        private final Impacts impacts = new Impacts();
+        private Impacts[] blockImpacts = new Impacts[1];
+
+        void add(int doc, float weight, float length) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            int block = size >> BLOCK_SHIFT;
+            if (block == blockImpacts.length) {
+                blockImpacts = Arrays.copyOf(blockImpacts, block * 2);
+            }
+            if (blockImpacts[block] == null) {
+                blockImpacts[block] = new Impacts();
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+            live++;
+            impacts.add(weight, length);
+            blockImpacts[block].add(weight, length);
+        }
+
+        // Ordinal of the last entry in the block holding the given entry
+        int blockLastDoc(int index) {
+            return docs[Math.min(size, ((index >> BLOCK_SHIFT) + 1) << BLOCK_SHIFT) - 1];
+        }
+
+        /**
+         * Index of the first entry at or after from whose ordinal is at least
+         * target, or size when there is none
+         */
+        int advance(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            // Gallop first: targets come in ascending order and are usually close by
+            int low = from;
+            int step = 1;
+            while (low + step < size && docs[low + step] < target) {
+                low += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(docs, low + 1, Math.min(low + step + 1, size), target);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+
+    /**
+     * The (weight, length) pairs of a run of postings that no other pair in
+     * the run beats on both, which is all a BM25 upper bound needs whatever
+     * the average length is at query time. Field weights take few values, so
+     * the set stays small.
+     */
+    private static final class Impacts {
+        private float[] pairs = new float[4];
+        private int size;
+
+        void add(float weight, float length) {
+            for (int i = 0; i < size; i += 2) {
+                if (pairs[i] >= weight && pairs[i + 1] <= length) {
+                    return;
+                }
+            }
+            int kept = 0;
+            for (int i = 0; i < size; i += 2) {
+                if (weight < pairs[i] || length > pairs[i + 1]) {
+                    pairs[kept] = pairs[i];
+                    pairs[kept + 1] = pairs[i + 1];
+                    kept += 2;
+                }
+            }
+            if (kept == pairs.length) {
+                pairs = Arrays.copyOf(pairs, kept * 2);
+            }
+            pairs[kept] = weight;
+            pairs[kept + 1] = length;
+            size = kept + 2;
+        }
+
+        float bound(float idf, double avgLength) {
+            float bound = 0;
+            for (int i = 0; i < size; i += 2) {
+                bound = Math.max(bound, bm25(idf, pairs[i], norm(pairs[i + 1], avgLength)));
+            }
+            return bound;
+        }
+    }
+
+    static final class ScoredDoc {
+
+        // Lowest score first; on ties the higher ordinal counts as worse, so older items win
+        static final Comparator<ScoredDoc> WORST_FIRST = (a, b) -> {
+            int byScore = Float.compare(a.score, b.score);
+            return byScore != 0 ? byScore : Integer.compare(b.ordinal, a.ordinal);
+        };
+
+        final int ordinal;
+        final float score;
+
+        ScoredDoc(int ordinal, float score) {
+            this.ordinal = ordinal;
+            this.score = score;
+        }
+    }
+
+    static final class SearchResult {
+        final List<ScoredDoc> ranked;
+
+        SearchResult(List<ScoredDoc> ranked) {
+            this.ranked = ranked;
+        }
+    }
+}
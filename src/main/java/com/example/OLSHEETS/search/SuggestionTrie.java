@@ -0,0 +1,363 @@
+package com.example.OLSHEETS.search;
+
+import com.example.OLSHEETS.dto.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable prefix index from folded phrases to weighted suggestions.
+ *
+ * Every suggestion is reachable from the start of its text and from the start
+ * of each later word, so "sonata" completes to "Moonlight Sonata". Keys are
+ * stored as a path-compressed trie laid out breadth-first in flat arrays: a
+ * node's children are contiguous and sorted by first character, and edge
+ * labels are slices of one shared char buffer, so there is no object per node.
+ * Each node also records the best weight in its subtree, which lets a lookup
+ * pull the top suggestions for a prefix best-first without visiting the rest
+ * of the subtree.
+ */
+public final class SuggestionTrie {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int ROOT = 0;
+
+    private final char[] chars;
+    private final int[] labelStart;
+    private final int[] labelEnd;
+    private final int[] firstChild;
+    private final int[] firstTerminal;
+    private final int[] terminals;
+    private final long[] best;
+
+    private final String[] texts;
+    private final Suggestion.Field[] fields;
+    private final long[] weights;
+
+    private SuggestionTrie(char[] chars, int[] labelStart, int[] labelEnd, int[] firstChild, int[] firstTerminal,
+                           int[] terminals, long[] best, String[] texts, Suggestion.Field[] fields, long[] weights) {
+        this.chars = chars;
+        this.labelStart = labelStart;
+        this.labelEnd = labelEnd;
+        this.firstChild = firstChild;
+        this.firstTerminal = firstTerminal;
+        this.terminals = terminals;
+        this.best = best;
+        this.texts = texts;
+        this.fields = fields;
+        this.weights = weights;
+    }
+
+    public static SuggestionTrie empty() {
+        return new Builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Highest-weighted suggestions whose text, or one of its words, starts
+     * with the prefix
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<Suggestion> suggestions = new ArrayList<>();
+        if (key.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        int node = find(key);
+        if (node < 0) {
+            return suggestions;
+        }
+
+        // Entries are encoded as ~id so nodes and entries share one queue. On
+        // equal weight entries come first, then the deepest node, so ties dive
+        // towards an entry instead of widening across the subtree.
+        PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator
+                .<long[]>comparingLong(c -> -c[0])
+                .thenComparingLong(c -> c[1] < 0 ? ~c[1] : Long.MAX_VALUE)
+                .thenComparingLong(c -> -c[1]));
+        queue.add(new long[]{best[node], node});
+        BitSet seen = new BitSet(texts.length);
+        while (!queue.isEmpty() && suggestions.size() < limit) {
+            long[] candidate = queue.poll();
+            if (candidate[1] < 0) {
+                int entry = (int) ~candidate[1];
+                if (!seen.get(entry)) {
+                    seen.set(entry);
+                    suggestions.add(new Suggestion(texts[entry], fields[entry], weights[entry]));
+                }
+                continue;
+            }
+            int current = (int) candidate[1];
+            for (int t = firstTerminal[current]; t < firstTerminal[current + 1]; t++) {
+                queue.add(new long[]{weights[terminals[t]], ~terminals[t]});
+            }
+            for (int child = firstChild[current]; child < firstChild[current + 1]; child++) {
+                queue.add(new long[]{best[child], child});
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    public int nodeCount() {
+        return labelStart.length;
+    }
+
+    /**
+     * Approximate heap footprint of the trie arrays and suggestion texts
+     */
+    public long estimatedBytes() {
+        long bytes = 2L * chars.length
+                + 4L * (labelStart.length + labelEnd.length + firstChild.length + firstTerminal.length + terminals.length)
+                + 8L * (best.length + weights.length)
+                + 4L * fields.length;
+        for (String text : texts) {
+            bytes += 40 + text.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Node whose path spells the key, or a child whose edge label the key ends
+     * inside of; -1 when nothing starts with the key
+     */
+    private int find(String key) {
+        int node = ROOT;
+        int depth = 0;
+        while (depth < key.length()) {
+            int child = childStartingWith(node, key.charAt(depth));
+            if (child < 0) {
+                return -1;
+            }
+            for (int i = labelStart[child]; i < labelEnd[child] && depth < key.length(); i++, depth++) {
+                if (chars[i] != key.charAt(depth)) {
+                    return -1;
+                }
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private int childStartingWith(int node, char c) {
+        int low = firstChild[node];
+        int high = firstChild[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = chars[labelStart[mid]];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    static String normalize(String text) {
+        return WHITESPACE.matcher(TextAnalyzer.fold(text)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Collects suggestions; the same text and field added twice is merged and
+     * its weights summed
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> entryIds = new HashMap<>();
+        private final List<String> texts = new ArrayList<>();
+        private final List<String> normalizedTexts = new ArrayList<>();
+        private final List<Suggestion.Field> fields = new ArrayList<>();
+        private final List<Long> weights = new ArrayList<>();
+
+        public Builder add(String text, Suggestion.Field field, long weight) {
+            String key = normalize(text);
+            if (key.isEmpty()) {
+                return this;
+            }
+            Integer existing = entryIds.putIfAbsent(field + "\u0000" + key, texts.size());
+            if (existing != null) {
+                weights.set(existing, weights.get(existing) + weight);
+            } else {
+                texts.add(text.trim());
+                normalizedTexts.add(key);
+                fields.add(field);
+                weights.add(weight);
+            }
+            return this;
+        }
+
+        public SuggestionTrie build() {
+            int entryCount = texts.size();
+            Integer[] order = new Integer[entryCount];
+            for (int i = 0; i < entryCount; i++) {
+                order[i] = i;
+            }
+            // Alphabetical entry ids make equal-weight entries come out alphabetically
+            Arrays.sort(order, Comparator.comparing(normalizedTexts::get).thenComparing(fields::get));
+            String[] sortedTexts = new String[entryCount];
+            Suggestion.Field[] sortedFields = new Suggestion.Field[entryCount];
+            long[] sortedWeights = new long[entryCount];
+            List<Key> keys = new ArrayList<>();
+            for (int id = 0; id < entryCount; id++) {
+                int source = order[id];
+                sortedTexts[id] = texts.get(source);
+                sortedFields[id] = fields.get(source);
+                sortedWeights[id] = weights.get(source);
+                String normalized = normalizedTexts.get(source);
+                keys.add(new Key(normalized, id));
+                for (int i = 1; i < normalized.length(); i++) {
+                    if (normalized.charAt(i - 1) == ' ') {
+                        keys.add(new Key(normalized.substring(i), id));
+                    }
+                }
+            }
+            keys.sort(Comparator.comparing((Key k) -> k.text).thenComparingInt(k -> k.entry));
+            return new Layout(keys, sortedWeights).toTrie(sortedTexts, sortedFields);
+        }
+    }
+
+    private static final class Key {
+        final String text;
+        final int entry;
+
+        Key(String text, int entry) {
+            this.text = text;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Breadth-first construction over the sorted keys. A node covers a range
+     * of keys sharing its path; keys that end at the node become its
+     * terminals and the rest are split into children by their next character.
+     */
+    private static final class Layout {
+
+        private final List<Key> keys;
+        private final long[] weights;
+        private final StringBuilder labels = new StringBuilder();
+
+        private final IntList labelStart = new IntList();
+        private final IntList labelEnd = new IntList();
+        private final IntList firstChild = new IntList();
+        private final IntList firstTerminal = new IntList();
+        private final IntList terminals = new IntList();
+
+        Layout(List<Key> keys, long[] weights) {
+            this.keys = keys;
+            this.weights = weights;
+        }
+
+        SuggestionTrie toTrie(String[] texts, Suggestion.Field[] fields) {
+            // Per node: first key, end key (exclusive), depth
+            IntList rangeStart = new IntList();
+            IntList rangeEnd = new IntList();
+            IntList depth = new IntList();
+            rangeStart.add(0);
+            rangeEnd.add(keys.size());
+            depth.add(0);
+            labelStart.add(0);
+            labelEnd.add(0);
+
+            for (int node = 0; node < rangeStart.size(); node++) {
+                int start = rangeStart.get(node);
+                int end = rangeEnd.get(node);
+                int d = depth.get(node);
+                firstChild.add(rangeStart.size());
+                firstTerminal.add(terminals.size());
+
+                int k = start;
+                while (k < end && keys.get(k).text.length() == d) {
+                    terminals.add(keys.get(k).entry);
+                    k++;
+                }
+                while (k < end) {
+                    char c = keys.get(k).text.charAt(d);
+                    int groupEnd = k + 1;
+                    while (groupEnd < end && keys.get(groupEnd).text.charAt(d) == c) {
+                        groupEnd++;
+                    }
+                    int childDepth = d + commonPrefix(keys.get(k).text, keys.get(groupEnd - 1).text, d);
+                    rangeStart.add(k);
+                    rangeEnd.add(groupEnd);
+                    depth.add(childDepth);
+                    labelStart.add(labels.length());
+                    labels.append(keys.get(k).text, d, childDepth);
+                    labelEnd.add(labels.length());
+                    k = groupEnd;
+                }
+            }
+            int nodeCount = rangeStart.size();
+            firstChild.add(nodeCount);
+            firstTerminal.add(terminals.size());
+
+            int[] children = firstChild.toArray();
+            int[] terminalStarts = firstTerminal.toArray();
+            int[] terminalEntries = terminals.toArray();
+            long[] best = new long[nodeCount];
+            Arrays.fill(best, Long.MIN_VALUE);
+            // Children always come after their parent, so a reverse sweep sees them first
+            for (int node = nodeCount - 1; node >= 0; node--) {
+                for (int t = terminalStarts[node]; t < terminalStarts[node + 1]; t++) {
+                    best[node] = Math.max(best[node], weights[terminalEntries[t]]);
+                }
+                for (int child = children[node]; child < children[node + 1]; child++) {
+                    best[node] = Math.max(best[node], best[child]);
+                }
+            }
+            char[] chars = new char[labels.length()];
+            labels.getChars(0, labels.length(), chars, 0);
+            return new SuggestionTrie(chars, labelStart.toArray(), labelEnd.toArray(), children, terminalStarts,
+                    terminalEntries, best, texts, fields, weights);
+        }
+
+        private static int commonPrefix(String a, String b, int from) {
+            int i = from;
+            int max = Math.min(a.length(), b.length());
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i - from;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.OLSHEETS.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram -> term index over the vocabulary of an InvertedIndex, used to find
+ * indexed terms that are spelled like a (possibly misspelled) query term.
+ *
+ * Terms are padded the way pg_trgm pads words (two leading blanks, one
+ * trailing) so prefixes weigh more than suffixes, and similarity is the
+ * Jaccard ratio of the two trigram sets. Candidates are only the terms that
+ * share at least one trigram with the query term, so lookup cost depends on
+ * the vocabulary touched by those trigrams rather than on the catalog size.
+ * Not thread-safe.
+ */
+final class TrigramIndex {
+
+    private final List<String> terms = new ArrayList<>();
+    private final Map<String, TermList> postings = new HashMap<>();
+    private int[] trigramCounts = new int[1024];
+
+    void add(String term) {
+        int termId = terms.size();
+        terms.add(term);
+        Set<String> trigrams = trigrams(term);
+        if (termId >= trigramCounts.length) {
+            trigramCounts = Arrays.copyOf(trigramCounts, trigramCounts.length * 2);
+        }
+        trigramCounts[termId] = trigrams.size();
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, t -> new TermList()).add(termId);
+        }
+    }
+
+    /**
+     * Indexed terms whose trigram similarity to the given term is at least
+     * minSimilarity, mapped to that similarity
+     */
+    Map<String, Float> similar(String term, float minSimilarity) {
+        Set<String> trigrams = trigrams(term);
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String trigram : trigrams) {
+            TermList list = postings.get(trigram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                shared.merge(list.ids[i], 1, Integer::sum);
+            }
+        }
+
+        Map<String, Float> matches = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+            int common = entry.getValue();
+            float similarity = (float) common / (trigrams.size() + trigramCounts[entry.getKey()] - common);
+            if (similarity >= minSimilarity) {
+                matches.put(terms.get(entry.getKey()), similarity);
+            }
+        }
+        return matches;
+    }
+
+    static Set<String> trigrams(String term) {
+        String padded = "  " + term + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static final class TermList {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.OLSHEETS.security;
+
+import com.example.OLSHEETS.exception.UserNotFoundException;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.io.Serializable;
+
+/**
+ * Principal placed in the SecurityContext by JwtAuthenticationFilter. The user
+ * id comes from the token's uid claim, so controllers get it without a
+ * per-request user lookup. Declare it as a controller method parameter to
+ * have it resolved by AuthenticatedUserArgumentResolver.
+ *
+ * Deliberately not a java.security.Principal: Spring MVC resolves Principal
+ * parameters itself from request.getUserPrincipal(), ahead of any custom
+ * resolver, and that is the Authentication rather than this class.
+ */
+public final class AuthenticatedUser implements AuthenticatedPrincipal, Serializable {
+
+    private final Long id;
+    private final String username;
+
+    public AuthenticatedUser(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    /**
+     * Id of the resolved user, or UserNotFoundException when the request has
+     * no authenticated user
+     */
+    public static Long requireId(AuthenticatedUser user) {
+        if (user == null || user.getId() == null) {
+            throw new UserNotFoundException("User not found");
+        }
+        return user.getId();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{id=" + id + ", username='" + username + "'}";
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.OLSHEETS.security;
+
+import com.example.OLSHEETS.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves AuthenticatedUser controller parameters from the SecurityContext.
+ * Tokens issued before the uid claim existed have no id, so those fall back to
+ * a single lookup by username. Resolves to null when nobody is authenticated.
+ */
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final ObjectProvider<UserRepository> userRepository;
+
+    public AuthenticatedUserArgumentResolver(ObjectProvider<UserRepository> userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user && user.getId() != null) {
+            return user;
+        }
+
+        UserRepository repository = userRepository.getIfAvailable();
+        if (repository == null) {
+            return null;
+        }
+        return repository.findByUsername(authentication.getName())
+                .map(found -> new AuthenticatedUser(found.getId(), found.getUsername()))
+                .orElse(null);
+    }
+}
@@ -5,22 +5,38 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    private final JwtUtil jwtUtil;
+    // Operators allowed to run maintenance endpoints such as rollup rebuilds
+    private final Set<String> adminUsernames;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+        this(jwtUtil, Set.of());
+    }
+
     @Autowired
-    private JwtUtil jwtUtil;
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, @Value("${security.admin-usernames:}") Set<String> adminUsernames) {
+        this.jwtUtil = jwtUtil;
+        this.adminUsernames = adminUsernames;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -28,35 +44,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
-        // Extract JWT from Authorization header
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+        // Extract JWT from Authorization header and verify it with a single parse
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
+            Optional<VerifiedToken> verified = Optional.empty();
             try {
-                username = jwtUtil.extractUsername(jwt);
+                verified = jwtUtil.verifyToken(jwt);
             } catch (Exception e) {
                 // Invalid token, continue without authentication
             }
-        }
 
-        // Validate token and set authentication
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwt, username)) {
-                // Create UserDetails from username
-                UserDetails userDetails = User.builder()
-                        .username(username)
-                        .password("") // Password not needed for JWT auth
-                        .authorities(new ArrayList<>())
-                        .build();
+            verified.ifPresent(token -> {
+                // Principal carries the user id from the token so controllers skip the user lookup
+                AuthenticatedUser principal = new AuthenticatedUser(token.getUserId(), token.getUsername());
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,
-                        null, userDetails.getAuthorities());
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(principal,
+                        null, adminUsernames.contains(token.getUsername()) ? ADMIN_AUTHORITIES : List.of());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            });
         }
 
         chain.doFilter(request, response);
@@ -1,15 +1,20 @@
 package com.example.OLSHEETS.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Component
@@ -22,8 +27,48 @@ public class JwtUtil {
     
     private static final long JWT_TOKEN_VALIDITY = 1L * 60 * 60 * 1000; // 1 hour
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes()); // NOSONAR java:S4784
+    // Claim carrying the user's database id, so requests need no user lookup
+    public static final String USER_ID_CLAIM = "uid";
+
+    // Key and parser are immutable and thread-safe, so both are built once
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes()); // NOSONAR java:S4784
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    private final VerifiedTokenCache verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.verified-cache.max-entries:10000}") int verifiedCacheSize) {
+        this.verifiedTokens = new VerifiedTokenCache(verifiedCacheSize);
+    }
+
+    /**
+     * Parse and verify a token once: signature, expiry and subject. Recently
+     * verified tokens are served from a bounded cache until they expire.
+     *
+     * @return the token's claims, or empty if the token is malformed, forged or expired
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        Instant now = Instant.now();
+        VerifiedToken cached = verifiedTokens.get(token, now);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return Optional.empty();
+        }
+
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), userIdOf(claims), claims.getExpiration().toInstant());
+        if (verified.isExpiredAt(now)) {
+            return Optional.empty();
+        }
+        verifiedTokens.put(token, verified);
+        return Optional.of(verified);
     }
 
     // Extract username from token
@@ -31,6 +76,11 @@ public class JwtUtil {
         return extractClaim(token, Claims::getSubject);
     }
 
+    // Extract user id from token; null for tokens issued without the claim
+    public Long extractUserId(String token) {
+        return extractClaim(token, JwtUtil::userIdOf);
+    }
+
     // Extract expiration date from token
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
@@ -42,16 +92,12 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static Long userIdOf(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId != null ? userId.longValue() : null;
     }
 
     // Generate token for user
@@ -60,19 +106,29 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    // Generate token for user, carrying the user id as a claim
+    public String generateToken(String username, Long userId) {
+        Map<String, Object> claims = new HashMap<>();
+        if (userId != null) {
+            claims.put(USER_ID_CLAIM, userId);
+        }
+        return createToken(claims, username);
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     // Validate token
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        return verifyToken(token)
+                .map(verified -> verified.getUsername().equals(username))
+                .orElse(false);
     }
 }
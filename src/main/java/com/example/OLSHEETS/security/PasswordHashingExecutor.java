@@ -0,0 +1,123 @@
+package com.example.OLSHEETS.security;
+
+import com.example.OLSHEETS.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification on a small CPU-sized pool instead of
+ * the request thread. The queue in front of it is bounded; once it is full new
+ * work is rejected straight away with ServiceOverloadedException, so a login
+ * storm turns into fast 503s instead of every Tomcat worker spinning on BCrypt.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final MeterRegistry registry;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public PasswordHashingExecutor(@Value("${auth.hashing.threads:0}") int threads,
+                                   @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${auth.hashing.retry-after-seconds:1}") long retryAfterSeconds,
+                                   ObjectProvider<MeterRegistry> registry) {
+        this(threads, queueCapacity, retryAfterSeconds, registry.getIfAvailable());
+    }
+
+    /**
+     * @param threads worker count; 0 or less uses one per available processor
+     * @param registry where to publish metrics, or null for none
+     */
+    public PasswordHashingExecutor(int threads, int queueCapacity, long retryAfterSeconds, MeterRegistry registry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.registry = registry;
+
+        if (registry != null) {
+            Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                    .description("Password hashing tasks waiting for a worker")
+                    .register(registry);
+            Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .description("Password hashing workers currently busy")
+                    .register(registry);
+            this.rejectedCounter = Counter.builder("auth.hashing.rejected")
+                    .description("Password hashing tasks rejected because the queue was full")
+                    .register(registry);
+        } else {
+            this.rejectedCounter = null;
+        }
+    }
+
+    /**
+     * Run a hashing task on the pool and wait for its result. The time from
+     * submission to result, queueing included, is recorded under
+     * auth.hashing.duration tagged with the operation name.
+     *
+     * @throws ServiceOverloadedException if the queue is full
+     */
+    public <T> T submit(String operation, Supplier<T> task) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            if (rejectedCounter != null) {
+                rejectedCounter.increment();
+            }
+            throw new ServiceOverloadedException("Authentication is busy, please retry shortly", retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if (registry != null) {
+                Timer.builder("auth.hashing.duration")
+                        .description("Time to hash or verify a password, including time queued")
+                        .tag("operation", operation)
+                        .register(registry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.OLSHEETS.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature and expiry have already been checked.
+ * Immutable, so a single instance can be shared across requests through
+ * VerifiedTokenCache.
+ */
+public final class VerifiedToken {
+
+    private final String username;
+    private final Long userId;
+    private final Instant expiresAt;
+
+    public VerifiedToken(String username, Long userId, Instant expiresAt) {
+        this.username = username;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * User id from the uid claim, or null for tokens issued without it
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpiredAt(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    @Override
+    public String toString() {
+        return "VerifiedToken{username='" + username + "', userId=" + userId + ", expiresAt=" + expiresAt + "}";
+    }
+}
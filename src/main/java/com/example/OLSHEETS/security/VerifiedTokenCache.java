@@ -0,0 +1,126 @@
+package com.example.OLSHEETS.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Small cache of recently verified tokens, so a client sending the same
+ * bearer token on every request pays for signature verification and claim
+ * parsing once. Entries are keyed by a SHA-256 of the token rather than the
+ * token itself, and are dropped once the token expires.
+ *
+ * Every request goes through here, so reads and writes take no shared lock:
+ * entries live in a ConcurrentHashMap and a read only stamps the entry's
+ * last use. Eviction is approximate LRU: when the map grows past its bound,
+ * one thread drops the least recently used sixteenth in a batch while the
+ * others carry on.
+ */
+class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Held only while trimming; threads that find it taken skip the trim
+    private final ReentrantLock trimLock = new ReentrantLock();
+
+    VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Cached claims for the token, or null if absent or expired
+     */
+    VerifiedToken get(String token, Instant now) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        String key = keyOf(token);
+        Entry cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.token.isExpiredAt(now)) {
+            entries.remove(key, cached);
+            return null;
+        }
+        cached.lastUsed = System.nanoTime();
+        return cached.token;
+    }
+
+    void put(String token, VerifiedToken verified) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        entries.put(keyOf(token), new Entry(verified, System.nanoTime()));
+        if (entries.size() > maxEntries) {
+            trim();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            int excess = entries.size() - maxEntries;
+            if (excess <= 0) {
+                return;
+            }
+            // Stamps are copied first: readers keep moving them, which would upset the sort
+            List<Candidate> byLastUse = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> byLastUse.add(new Candidate(key, entry)));
+            byLastUse.sort(Comparator.comparingLong(candidate -> candidate.lastUsed));
+            // Drop a batch below the bound so the sort is paid once per many inserts
+            int toEvict = Math.min(byLastUse.size(), excess + Math.max(1, maxEntries / 16));
+            for (Candidate eldest : byLastUse.subList(0, toEvict)) {
+                entries.remove(eldest.key, eldest.entry);
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    private static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to ship SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final VerifiedToken token;
+        // Written without a lock on every hit; a stale read only skews the eviction order
+        private volatile long lastUsed;
+
+        Entry(VerifiedToken token, long lastUsed) {
+            this.token = token;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static final class Candidate {
+        private final String key;
+        private final Entry entry;
+        private final long lastUsed;
+
+        Candidate(String key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+            this.lastUsed = entry.lastUsed;
+        }
+    }
+}
@@ -3,46 +3,87 @@ package com.example.OLSHEETS.service;
 import com.example.OLSHEETS.data.Booking;
 import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.data.BookingStatus;
-import com.example.OLSHEETS.data.Item;
-import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.dto.BookingSummary;
+import com.example.OLSHEETS.dto.BookingView;
+import com.example.OLSHEETS.dto.CursorPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.temporal.ChronoUnit;
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class AdminService {
 
     private final BookingRepository bookingRepository;
-    private final ItemRepository itemRepository;
+    private final BookingRollupService bookingRollupService;
 
-    public AdminService(BookingRepository bookingRepository, ItemRepository itemRepository) {
+    public AdminService(BookingRepository bookingRepository, BookingRollupService bookingRollupService) {
         this.bookingRepository = bookingRepository;
-        this.itemRepository = itemRepository;
+        this.bookingRollupService = bookingRollupService;
     }
 
     /**
-     * Get all bookings in the system
+     * Keyset page over all bookings in the system
      */
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    public CursorPage<BookingView> getAllBookings(Long after, int size) {
+        List<BookingView> rows = bookingRepository.findViewsAfter(after == null ? 0L : after, PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, BookingView::getId);
     }
 
     /**
-     * Filter bookings by status
+     * Keyset page over the bookings with the given status
      */
-    public List<Booking> getBookingsByStatus(BookingStatus status) {
-        return bookingRepository.findByStatus(status);
+    public CursorPage<BookingView> getBookingsByStatus(BookingStatus status, Long after, int size) {
+        List<BookingView> rows = bookingRepository.findViewsByStatusAfter(status, after == null ? 0L : after, PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, BookingView::getId);
     }
 
     /**
-     * Get all bookings for a specific renter
+     * Keyset page over a specific renter's bookings
      */
-    public List<Booking> getBookingsByRenter(Long renterId) {
-        return bookingRepository.findByRenterId(renterId);
+    public CursorPage<BookingView> getBookingsByRenter(Long renterId, Long after, int size) {
+        List<BookingView> rows = bookingRepository.findViewsByRenterIdAfter(renterId, after == null ? 0L : after, PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, BookingView::getId);
+    }
+
+    /**
+     * Keyset page over all bookings, optionally filtered by status
+     */
+    public CursorPage<BookingSummary> getBookingSummaries(BookingStatus status, Long after, int size) {
+        Long start = after == null ? 0L : after;
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<BookingSummary> rows = status == null
+            ? bookingRepository.findSummariesAfter(start, limit)
+            : bookingRepository.findSummariesByStatusAfter(status, start, limit);
+        return CursorPage.of(rows, size, BookingSummary::getBookingId);
+    }
+
+    /**
+     * Keyset page over a renter's bookings
+     */
+    public CursorPage<BookingSummary> getBookingSummariesByRenter(Long renterId, Long after, int size) {
+        Long start = after == null ? 0L : after;
+        List<BookingSummary> rows = bookingRepository.findSummariesByRenterAfter(renterId, start, PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, BookingSummary::getBookingId);
+    }
+
+    /**
+     * Stream all bookings, optionally filtered by status, to the sink
+     */
+    @Transactional(readOnly = true)
+    public void streamBookingSummaries(BookingStatus status, Consumer<BookingSummary> sink) {
+        try (Stream<BookingSummary> rows = status == null
+                ? bookingRepository.streamSummaries()
+                : bookingRepository.streamSummariesByStatus(status)) {
+            rows.forEach(sink);
+        }
     }
 
     /**
@@ -62,20 +103,25 @@ public class AdminService {
             throw new IllegalArgumentException("You are not authorized to cancel this booking");
         }
 
+        BookingStatus previousStatus = booking.getStatus();
         booking.setStatus(BookingStatus.CANCELLED);
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        bookingRollupService.recordTransition(booking, previousStatus);
+        return saved;
     }
 
     /**
-     * Get booking statistics (counts by status)
+     * Get booking statistics (counts by status), read from the per-status totals
      */
     public Map<String, Long> getBookingStatistics() {
+        Map<BookingStatus, Long> byStatus = bookingRollupService.countsByStatus();
+
         Map<String, Long> stats = new HashMap<>();
-        stats.put("total", bookingRepository.count());
-        stats.put("pending", bookingRepository.countByStatus(BookingStatus.PENDING));
-        stats.put("approved", bookingRepository.countByStatus(BookingStatus.APPROVED));
-        stats.put("rejected", bookingRepository.countByStatus(BookingStatus.REJECTED));
-        stats.put("cancelled", bookingRepository.countByStatus(BookingStatus.CANCELLED));
+        stats.put("total", byStatus.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("pending", byStatus.getOrDefault(BookingStatus.PENDING, 0L));
+        stats.put("approved", byStatus.getOrDefault(BookingStatus.APPROVED, 0L));
+        stats.put("rejected", byStatus.getOrDefault(BookingStatus.REJECTED, 0L));
+        stats.put("cancelled", byStatus.getOrDefault(BookingStatus.CANCELLED, 0L));
         return stats;
     }
 
@@ -90,39 +136,29 @@ public class AdminService {
      * Get activity count for a specific owner (bookings on their items)
      */
     public Long getOwnerActivity(Long ownerId) {
-        List<Item> ownerItems = itemRepository.findByOwnerId(ownerId);
-        return bookingRepository.countByItemIn(ownerItems);
+        return bookingRepository.countByItemOwnerId(ownerId);
     }
 
     /**
      * Calculate total revenue for a specific owner (approved bookings only)
+     * Revenue = sum of the amounts captured when each booking was created (price
+     * per day * number of days at that time), read from the rollup table
      */
-    public Double getRevenueByOwner(Long ownerId) {
-        List<Item> ownerItems = itemRepository.findByOwnerId(ownerId);
-        List<Booking> approvedBookings = bookingRepository.findByItemInAndStatus(ownerItems, BookingStatus.APPROVED);
-        
-        return calculateRevenue(approvedBookings);
+    public BigDecimal getRevenueByOwner(Long ownerId) {
+        return bookingRollupService.revenueByOwner(ownerId, BookingStatus.APPROVED);
     }
 
     /**
-     * Calculate total system revenue (all approved bookings)
+     * Calculate total system revenue (all approved bookings, at their captured amounts)
      */
-    public Double getTotalRevenue() {
-        List<Booking> approvedBookings = bookingRepository.findByStatus(BookingStatus.APPROVED);
-        return calculateRevenue(approvedBookings);
+    public BigDecimal getTotalRevenue() {
+        return bookingRollupService.revenue(BookingStatus.APPROVED);
     }
 
     /**
-     * Helper method to calculate revenue from a list of bookings
-     * Revenue = sum of (price per day * number of days) for each booking
+     * Recompute the statistics and revenue rollups from raw bookings
      */
-    private Double calculateRevenue(List<Booking> bookings) {
-        double totalRevenue = 0.0;
-        for (Booking booking : bookings) {
-            long days = ChronoUnit.DAYS.between(booking.getStartDate(), booking.getEndDate());
-            double bookingRevenue = booking.getItem().getPrice() * days;
-            totalRevenue += bookingRevenue;
-        }
-        return totalRevenue;
+    public long rebuildRollups() {
+        return bookingRollupService.rebuild();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,260 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.data.Booking;
+import com.example.OLSHEETS.data.BookingRollup;
+import com.example.OLSHEETS.data.BookingStatus;
+import com.example.OLSHEETS.data.BookingStatusTotal;
+import com.example.OLSHEETS.dto.BookingRollupSource;
+import com.example.OLSHEETS.dto.StatusCount;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.BookingRollupRepository;
+import com.example.OLSHEETS.repository.BookingStatusTotalRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the booking_rollup and booking_status_total tables. Booking state
+ * changes apply a delta to both in the caller's transaction: booking_rollup
+ * per (day, owner, status) for owner revenue, booking_status_total per status
+ * for the system-wide statistics and revenue, which read at most
+ * BookingStatusTotal.SLOTS rows per status however many days and owners
+ * there are. rebuild() recomputes everything from raw bookings for repair or
+ * after out-of-band writes.
+ *
+ * A delta to a bucket that exists is a single update per table and takes no
+ * lock besides the row's own, so bookings for different items, or for the
+ * same owner, do not queue behind each other. Only the first booking of a
+ * (day, owner, status) bucket takes the owner's row lock to create it, which
+ * H2 needs against a racing insert of the same bucket. The status totals
+ * keep a row for every slot from startup and rebuild on, so their deltas
+ * never create one. rebuild() stays correct without blocking writers: it reads
+ * and replaces the buckets from one repeatable-read snapshot, so a delta that
+ * commits underneath it makes it fail with a serialization error, and it
+ * starts over from a fresh snapshot.
+ *
+ * Revenue comes from the amount captured on the booking when it was created,
+ * so every delta for a booking moves the same value and a later price change
+ * cannot make the incremental rollups drift from a rebuild. Revenue therefore
+ * reports what each booking was worth when it was made and no longer follows
+ * later price edits. Bookings stored before amounts were captured are valued
+ * once, at their item's price at first start, by backfillAmounts().
+ */
+@Service
+public class BookingRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingRollupService.class);
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final BookingRollupRepository rollupRepository;
+    private final BookingStatusTotalRepository totalRepository;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate rebuildTransaction;
+
+    public BookingRollupService(BookingRollupRepository rollupRepository, BookingStatusTotalRepository totalRepository,
+                                BookingRepository bookingRepository, UserRepository userRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.totalRepository = totalRepository;
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        // Its own transaction even when called from one, so the isolation level always applies
+        this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Count a newly created booking under its current status
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Booking booking) {
+        apply(booking, booking.getStatus(), 1);
+    }
+
+    /**
+     * Move a booking from its previous status bucket to its current one
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Booking booking, BookingStatus previousStatus) {
+        if (previousStatus == booking.getStatus()) {
+            return;
+        }
+        apply(booking, previousStatus, -1);
+        apply(booking, booking.getStatus(), 1);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<BookingStatus, Long> countsByStatus() {
+        Map<BookingStatus, Long> counts = new HashMap<>();
+        for (StatusCount row : totalRepository.countGroupedByStatus()) {
+            counts.put(row.getStatus(), row.getCount());
+        }
+        return counts;
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal revenue(BookingStatus status) {
+        return orZero(totalRepository.sumRevenueByStatus(status));
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal revenueByOwner(Long ownerId, BookingStatus status) {
+        return orZero(rollupRepository.sumRevenueByOwnerIdAndStatus(ownerId, status));
+    }
+
+    /**
+     * Recompute all rollups from the bookings table, reading bookings in keyset
+     * batches so memory is bounded by the number of buckets, not bookings.
+     * Runs in one repeatable-read transaction, so readers never see a
+     * half-built table and the buckets match a single snapshot of bookings.
+     *
+     * Booking writes are not blocked meanwhile. One that commits after the
+     * snapshot either touched a bucket this rebuild replaces, which fails the
+     * rebuild with a serialization error and retries it, or only a bucket the
+     * snapshot has no bookings for, which is left to its own deltas.
+     *
+     * @return the number of bookings folded into the rollups
+     * @throws IllegalStateException if every attempt raced with booking writes
+     */
+    public long rebuild() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return rebuildTransaction.execute(status -> rebuildFromSnapshot());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == REBUILD_ATTEMPTS) {
+                    throw new IllegalStateException("Booking rollup rebuild kept racing with booking writes", e);
+                }
+                log.info("Booking rollup rebuild raced with a booking write, retrying (attempt {})", attempt);
+            }
+        }
+    }
+
+    /**
+     * Capture the amount of bookings stored before amounts existed, at their
+     * item's current price
+     *
+     * @return the number of bookings valued
+     */
+    @Transactional
+    public int backfillAmounts() {
+        int valued = bookingRepository.backfillAmounts();
+        if (valued > 0) {
+            log.info("Captured amounts for {} bookings stored without one", valued);
+        }
+        return valued;
+    }
+
+    /**
+     * Value legacy bookings, then seed the rollups on first start against a
+     * database that already has bookings, and make sure every status total
+     * slot has a row
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        backfillAmounts();
+        // Also seeds the totals when an existing database gains the table
+        if ((rollupRepository.count() == 0 || totalRepository.count() == 0) && bookingRepository.count() > 0) {
+            rebuild();
+        }
+        // Zero deltas: create missing slots and leave the others as they are
+        for (BookingStatus status : BookingStatus.values()) {
+            for (int slot = 0; slot < BookingStatusTotal.SLOTS; slot++) {
+                totalRepository.upsert(status, slot, 0, BigDecimal.ZERO);
+            }
+        }
+    }
+
+    private long rebuildFromSnapshot() {
+        Map<BookingRollup.Key, BookingRollup> buckets = new HashMap<>();
+        Map<BookingStatusTotal.Key, BookingStatusTotal> totals = new HashMap<>();
+        // Every slot is written back, empty ones included, so deltas always find their row
+        for (BookingStatus status : BookingStatus.values()) {
+            for (int slot = 0; slot < BookingStatusTotal.SLOTS; slot++) {
+                totals.put(new BookingStatusTotal.Key(status, slot), new BookingStatusTotal(status, slot, 0, BigDecimal.ZERO));
+            }
+        }
+        long processed = 0;
+        Long after = 0L;
+
+        List<BookingRollupSource> batch;
+        do {
+            batch = bookingRepository.findRollupSourcesAfter(after, PageRequest.ofSize(REBUILD_BATCH_SIZE));
+            for (BookingRollupSource row : batch) {
+                after = row.getBookingId();
+                BookingRollup.Key key = new BookingRollup.Key(row.getStartDate(), row.getOwnerId(), row.getStatus());
+                BookingRollup bucket = buckets.computeIfAbsent(key, k -> new BookingRollup(
+                        row.getStartDate(), row.getOwnerId(), row.getStatus(), 0, BigDecimal.ZERO));
+                BigDecimal value = row.getAmount() != null
+                        ? row.getAmount()
+                        : Booking.valueOf(row.getPrice(), row.getStartDate(), row.getEndDate());
+                bucket.setBookingCount(bucket.getBookingCount() + 1);
+                bucket.setRevenue(bucket.getRevenue().add(value));
+
+                int slot = BookingStatusTotal.slotOf(row.getBookingId());
+                BookingStatusTotal total = totals.get(new BookingStatusTotal.Key(row.getStatus(), slot));
+                total.setBookingCount(total.getBookingCount() + 1);
+                total.setRevenue(total.getRevenue().add(value));
+                processed++;
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        // Deleting a bucket a later delta changed, or upserting one a later delta created,
+        // is a serialization failure under repeatable read rather than a lost booking
+        rollupRepository.deleteAllInBatch();
+        totalRepository.deleteAllInBatch();
+        for (BookingRollup bucket : buckets.values()) {
+            rollupRepository.upsert(bucket.getStartDate(), bucket.getOwnerId(), bucket.getStatus(),
+                    bucket.getBookingCount(), bucket.getRevenue());
+        }
+        for (BookingStatusTotal total : totals.values()) {
+            totalRepository.upsert(total.getStatus(), total.getSlot(), total.getBookingCount(), total.getRevenue());
+        }
+        log.info("Rebuilt {} booking rollup buckets from {} bookings", buckets.size(), processed);
+        return processed;
+    }
+
+    private void apply(Booking booking, BookingStatus status, int sign) {
+        BigDecimal revenue = valueOf(booking);
+        if (sign < 0) {
+            revenue = revenue.negate();
+        }
+        Long ownerId = booking.getItem().getOwner().getId();
+        if (rollupRepository.addToBucket(booking.getStartDate(), ownerId, status, sign, revenue) == 0) {
+            // First booking in this bucket; creators of one owner's buckets queue on the owner's row
+            userRepository.findByIdForUpdate(ownerId);
+            rollupRepository.upsert(booking.getStartDate(), ownerId, status, sign, revenue);
+        }
+        totalRepository.upsert(status, BookingStatusTotal.slotOf(booking.getId()), sign, revenue);
+    }
+
+    // Bookings stored before amounts were captured fall back to the current price, as rebuild() does
+    private static BigDecimal valueOf(Booking booking) {
+        if (booking.getAmount() != null) {
+            return booking.getAmount();
+        }
+        return Booking.valueOf(booking.getItem().getPrice(), booking.getStartDate(), booking.getEndDate());
+    }
+
+    private static BigDecimal orZero(BigDecimal revenue) {
+        return revenue == null ? BigDecimal.ZERO : revenue;
+    }
+}
@@ -5,18 +5,26 @@ import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.data.BookingStatus;
 import com.example.OLSHEETS.data.Item;
+import com.example.OLSHEETS.dto.BookingSummary;
+import com.example.OLSHEETS.dto.BookingView;
+import com.example.OLSHEETS.dto.CursorPage;
+import com.example.OLSHEETS.dto.ItemSummary;
 import com.example.OLSHEETS.repository.ItemRepository;
 import com.example.OLSHEETS.repository.AvailabilityRepository;
-import com.example.OLSHEETS.data.Availability;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import com.example.OLSHEETS.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService {
@@ -25,6 +33,8 @@ public class BookingService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final AvailabilityRepository availabilityRepository;
+    private final ItemLockManager itemLockManager;
+    private final BookingRollupService bookingRollupService;
 
     @Autowired(required = false)
     private Counter bookingsCreatedCounter;
@@ -38,11 +48,19 @@ public class BookingService {
     @Autowired(required = false)
     private Timer bookingCreationTimer;
 
-    public BookingService(BookingRepository bookingRepository, ItemRepository itemRepository, UserRepository userRepository, AvailabilityRepository availabilityRepository) {
+    @Autowired(required = false)
+    private ItemIntervalIndex intervalIndex;
+
+    @Autowired(required = false)
+    private ItemSummaryCache itemSummaryCache;
+
+    public BookingService(BookingRepository bookingRepository, ItemRepository itemRepository, UserRepository userRepository, AvailabilityRepository availabilityRepository, ItemLockManager itemLockManager, BookingRollupService bookingRollupService) {
         this.bookingRepository = bookingRepository;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.availabilityRepository = availabilityRepository;
+        this.itemLockManager = itemLockManager;
+        this.bookingRollupService = bookingRollupService;
     }
 
     @Transactional
@@ -66,38 +84,63 @@ public class BookingService {
                 throw new IllegalArgumentException("End date must be after start date");
             }
 
-            Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new IllegalArgumentException("Item not found with id: " + itemId));
+            // Reject unknown and own items from the cache before taking any lock
+            if (itemSummaryCache != null) {
+                ItemSummary summary = itemSummaryCache.get(itemId)
+                    .orElseThrow(() -> new IllegalArgumentException("Item not found with id: " + itemId));
+                if (summary.getOwnerId() != null && summary.getOwnerId().equals(renterId)) {
+                    throw new IllegalArgumentException("Cannot book your own items");
+                }
+            }
 
-            User renter = userRepository.findById(renterId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + renterId));
+            // Serialize bookings for the same item until this transaction completes
+            return itemLockManager.withItemLock(itemId, () -> insertBooking(itemId, renterId, startDate, endDate));
+        };
 
-            // Validate renter is not the owner of the item
-            if (item.getOwner().getId().equals(renterId)) {
-                throw new IllegalArgumentException("Cannot book your own items");
-            }
+        if (bookingCreationTimer != null) {
+            return bookingCreationTimer.record(bookingSupplier);
+        } else {
+            return bookingSupplier.get();
+        }
+
+    }
+
+    private Booking insertBooking(Long itemId, Long renterId, LocalDate startDate, LocalDate endDate) {
+        // Row lock on the item guards against double-booking from other nodes
+        Item item = itemRepository.findByIdForUpdate(itemId)
+            .orElseThrow(() -> new IllegalArgumentException("Item not found with id: " + itemId));
 
-            // Check if the item is unavailable during the requested period
-            List<Availability> unavailablePeriods = availabilityRepository.findOverlapping(itemId, startDate, endDate);
-            if (!unavailablePeriods.isEmpty()) {
+        User renter = userRepository.findById(renterId)
+            .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + renterId));
+
+        // Validate renter is not the owner of the item
+        if (item.getOwner().getId().equals(renterId)) {
+            throw new IllegalArgumentException("Cannot book your own items");
+        }
+
+        // Fast path: reject known conflicts from the in-memory index
+        if (intervalIndex != null) {
+            if (intervalIndex.hasBlockOverlap(itemId, startDate, endDate)) {
                 throw new IllegalStateException("Item is not available during the requested period");
             }
-
-            List<Booking> overlapping = bookingRepository.findOverlapping(itemId, startDate, endDate);
-            if(!overlapping.isEmpty()){
+            if (intervalIndex.hasBookingOverlap(itemId, startDate, endDate)) {
                 throw new IllegalStateException("Item already booked for requested period");
             }
+        }
 
-            Booking b = new Booking(item, renter, startDate, endDate);
-            return bookingRepository.save(b);
-        };
+        // Final guard against the database inside the transaction
+        if (availabilityRepository.existsOverlapping(itemId, startDate, endDate)) {
+            throw new IllegalStateException("Item is not available during the requested period");
+        }
 
-        if (bookingCreationTimer != null) {
-            return bookingCreationTimer.record(bookingSupplier);
-        } else {
-            return bookingSupplier.get();
+        if (bookingRepository.existsOverlapping(itemId, startDate, endDate)) {
+            throw new IllegalStateException("Item already booked for requested period");
         }
 
+        Booking b = new Booking(item, renter, startDate, endDate);
+        Booking saved = bookingRepository.save(b);
+        bookingRollupService.recordCreated(b);
+        return saved;
     }
 
     @Transactional
@@ -131,8 +174,10 @@ public class BookingService {
             throw new IllegalStateException("Cannot approve: conflicts with already approved booking");
         }
 
+        BookingStatus previousStatus = booking.getStatus();
         booking.setStatus(BookingStatus.APPROVED);
         Booking saved = bookingRepository.save(booking);
+        bookingRollupService.recordTransition(booking, previousStatus);
         if (bookingsApprovedCounter != null) {
             bookingsApprovedCounter.increment();
         }
@@ -156,26 +201,60 @@ public class BookingService {
             throw new IllegalStateException("Cannot reject an approved booking");
         }
 
+        BookingStatus previousStatus = booking.getStatus();
         booking.setStatus(BookingStatus.REJECTED);
         Booking saved = bookingRepository.save(booking);
+        bookingRollupService.recordTransition(booking, previousStatus);
         if (bookingsRejectedCounter != null) {
             bookingsRejectedCounter.increment();
         }
         return saved;
     }
 
-    public List<Booking> listBookings(){
-        return bookingRepository.findAll();
+    public CursorPage<BookingView> listBookings(Long after, int size) {
+        List<BookingView> rows = bookingRepository.findViewsAfter(cursorStart(after), PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, BookingView::getId);
+    }
+
+    public List<BookingView> getBookingsByRenterId(Long renterId) {
+        return bookingRepository.findViewsByRenterId(renterId);
+    }
+
+    public List<BookingView> getBookingsByOwnerId(Long ownerId) {
+        return bookingRepository.findViewsByOwnerId(ownerId);
+    }
+
+    public Page<BookingSummary> getBookingSummariesByOwnerId(Long ownerId, Pageable pageable) {
+        return bookingRepository.findOwnerBookingSummaries(ownerId, pageable);
+    }
+
+    public CursorPage<BookingSummary> listBookingSummaries(Long after, int size) {
+        List<BookingSummary> rows = bookingRepository.findSummariesAfter(cursorStart(after), PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, BookingSummary::getBookingId);
     }
 
-    public List<Booking> getBookingsByRenterId(Long renterId) {
-        return bookingRepository.findByRenterId(renterId);
+    public CursorPage<BookingSummary> getBookingSummariesByRenterId(Long renterId, Long after, int size) {
+        List<BookingSummary> rows = bookingRepository.findSummariesByRenterAfter(renterId, cursorStart(after), PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, BookingSummary::getBookingId);
+    }
+
+    public CursorPage<BookingSummary> getBookingSummariesByOwnerId(Long ownerId, Long after, int size) {
+        List<BookingSummary> rows = bookingRepository.findSummariesByOwnerAfter(ownerId, cursorStart(after), PageRequest.ofSize(size + 1));
+        return CursorPage.of(rows, size, BookingSummary::getBookingId);
+    }
+
+    /**
+     * Push every booking to the sink one row at a time. The rows are DTOs, so
+     * nothing accumulates in the persistence context while streaming.
+     */
+    @Transactional(readOnly = true)
+    public void streamBookingSummaries(Consumer<BookingSummary> sink) {
+        try (Stream<BookingSummary> rows = bookingRepository.streamSummaries()) {
+            rows.forEach(sink);
+        }
     }
 
-    public List<Booking> getBookingsByOwnerId(Long ownerId) {
-        // Get all items owned by the user
-        List<Item> ownerItems = itemRepository.findByOwnerId(ownerId);
-        // Get all bookings for those items
-        return bookingRepository.findByItemIn(ownerItems);
+    private static Long cursorStart(Long after) {
+        return after == null ? 0L : after;
     }
 }
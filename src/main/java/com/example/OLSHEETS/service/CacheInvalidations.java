@@ -0,0 +1,63 @@
+package com.example.OLSHEETS.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Invalidation bookkeeping for the read-through item caches.
+ *
+ * invalidate runs an eviction now and, when called inside a transaction,
+ * again after it commits, so a reader that loads the committed predecessor
+ * of the row being written cannot leave it cached. Every eviction bumps a
+ * counter under the cache's lock; a load takes a stamp() before reading the
+ * database and only caches its result if unchangedSince(stamp), so a load
+ * that races with an invalidation is never put back after it.
+ */
+final class CacheInvalidations {
+
+    private final ReentrantLock lock;
+    private long count;
+
+    /**
+     * @param lock the cache's lock, held by callers of stamp and unchangedSince
+     */
+    CacheInvalidations(ReentrantLock lock) {
+        this.lock = lock;
+    }
+
+    long stamp() {
+        return count;
+    }
+
+    boolean unchangedSince(long stamp) {
+        return count == stamp;
+    }
+
+    /**
+     * Run the eviction under the cache's lock now and after the current
+     * transaction, if any, commits
+     */
+    void invalidate(Runnable eviction) {
+        evict(eviction);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(eviction);
+                }
+            });
+        }
+    }
+
+    private void evict(Runnable eviction) {
+        lock.lock();
+        try {
+            count++;
+            eviction.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.data.RatingSummary;
+import com.example.OLSHEETS.dto.CatalogFacets;
+import com.example.OLSHEETS.dto.CatalogHit;
+import com.example.OLSHEETS.dto.CatalogSearchResponse;
+import com.example.OLSHEETS.search.CatalogIndex;
+import com.example.OLSHEETS.search.CatalogQuery;
+import com.example.OLSHEETS.search.FacetedSearchResult;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+@Service
+public class CatalogSearchService {
+
+    // Deepest hit a client can page to; ranking keeps offset + size hits in a heap
+    static final int MAX_RESULT_WINDOW = 10_000;
+
+    private final CatalogIndex catalogIndex;
+    private final ItemIntervalIndex itemIntervalIndex;
+    private final RatingSummaryService ratingSummaryService;
+
+    public CatalogSearchService(CatalogIndex catalogIndex, ItemIntervalIndex itemIntervalIndex,
+                                RatingSummaryService ratingSummaryService) {
+        this.catalogIndex = catalogIndex;
+        this.itemIntervalIndex = itemIntervalIndex;
+        this.ratingSummaryService = ratingSummaryService;
+    }
+
+    /**
+     * Faceted search over instruments and music sheets: ranked by relevance
+     * when the query has text, with per-value counts for every facet. The
+     * page's ratings come from one rating summary query.
+     */
+    public CatalogSearchResponse search(CatalogQuery query, int page, int size) {
+        int pageNumber = Math.max(0, page);
+        long offset = (long) pageNumber * size;
+        int limit = (int) Math.max(0, Math.min(size, MAX_RESULT_WINDOW - offset));
+        FacetedSearchResult result = catalogIndex.search(query, (int) Math.min(offset, MAX_RESULT_WINDOW), limit);
+        attachRatings(result.getHits());
+        int totalPages = (int) ((result.getTotalHits() + size - 1) / size);
+        CatalogFacets facets = new CatalogFacets(result.getKindCounts(), result.getInstrumentTypeCounts(),
+                result.getInstrumentFamilyCounts(), result.getCategoryCounts());
+        return new CatalogSearchResponse(result.getHits(), pageNumber, size, result.getTotalHits(), totalPages, facets);
+    }
+
+    /**
+     * Item filter accepting items with no booking or owner block between the
+     * two dates, inclusive
+     */
+    public LongPredicate availableBetween(LocalDate from, LocalDate to) {
+        return itemIntervalIndex.availableBetween(from, to);
+    }
+
+    private void attachRatings(List<CatalogHit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        Map<Long, RatingSummary> ratings = ratingSummaryService.itemSummaries(
+                hits.stream().map(CatalogHit::getId).toList());
+        for (CatalogHit hit : hits) {
+            RatingSummary rating = ratings.get(hit.getId());
+            if (rating != null) {
+                hit.setAverageRating(rating.getAverage());
+                hit.setReviewCount(rating.getReviewCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.data.IdempotencyRecord;
+import com.example.OLSHEETS.exception.IdempotencyKeyInUseException;
+import com.example.OLSHEETS.exception.IdempotencyKeyMismatchException;
+import com.example.OLSHEETS.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and answers retries with
+ * the stored response, byte for byte.
+ *
+ * Keys are scoped per operation (and per user where there is one), and the
+ * first request's fingerprint is kept as a hash so a key reused for a
+ * different request is rejected. Completed responses live in the
+ * idempotency_record table for the configured TTL, with the most requested
+ * ones also held in a byte-bounded WTinyLfuCache so a retry storm never
+ * reaches the database. Duplicates arriving on this instance while the
+ * first one is still running wait for its result instead of running again;
+ * on other instances they see the claim row and get
+ * IdempotencyKeyInUseException. A claim whose request failed is released,
+ * and one left behind by a crashed instance is taken over after
+ * claimTimeout.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    // Bookkeeping per cached response on top of its body: node, key, hash
+    private static final int ENTRY_OVERHEAD = 256;
+    // Typical response size, used to size the frequency sketch
+    private static final int EXPECTED_ENTRY_BYTES = 1024;
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final long purgeIntervalMinutes;
+    private final Clock clock;
+
+    private final WTinyLfuCache<String, StoredResponse> responses;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService purger;
+
+    private final Counter executedCounter;
+    private final Counter replayedCounter;
+    private final Counter coalescedCounter;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.claim-timeout-seconds:60}") long claimTimeoutSeconds,
+                              @Value("${idempotency.cache.max-bytes:8388608}") long maxCacheBytes,
+                              @Value("${idempotency.purge-interval-minutes:60}") long purgeIntervalMinutes,
+                              ObjectProvider<MeterRegistry> registry) {
+        this(repository, Duration.ofHours(ttlHours), Duration.ofSeconds(claimTimeoutSeconds), maxCacheBytes,
+                purgeIntervalMinutes, Clock.systemUTC(), registry.getIfAvailable());
+    }
+
+    /**
+     * @param registry where to publish metrics, or null for none
+     */
+    public IdempotencyService(IdempotencyRecordRepository repository, Duration ttl, Duration claimTimeout,
+                              long maxCacheBytes, long purgeIntervalMinutes, Clock clock, MeterRegistry registry) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+        this.purgeIntervalMinutes = purgeIntervalMinutes;
+        this.clock = clock;
+        this.responses = new WTinyLfuCache<>(maxCacheBytes,
+                (int) Math.min(Integer.MAX_VALUE, Math.max(16, maxCacheBytes / EXPECTED_ENTRY_BYTES)),
+                response -> response.body.length + ENTRY_OVERHEAD);
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (registry != null) {
+            this.executedCounter = outcomeCounter(registry, "executed", "Requests run for a new idempotency key");
+            this.replayedCounter = outcomeCounter(registry, "replayed", "Retries answered with a stored response");
+            this.coalescedCounter = outcomeCounter(registry, "coalesced",
+                    "Duplicates that waited for the first request's result");
+        } else {
+            this.executedCounter = null;
+            this.replayedCounter = null;
+            this.coalescedCounter = null;
+        }
+    }
+
+    /**
+     * Delete expired keys in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startPurging() {
+        if (purgeIntervalMinutes > 0) {
+            purger.scheduleWithFixedDelay(this::purgeQuietly, purgeIntervalMinutes, purgeIntervalMinutes,
+                    TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Run the action once for this key and store its response, or return the
+     * response stored by an earlier request with the same key
+     *
+     * @param scope       operation the key belongs to, such as "payment"
+     * @param fingerprint the request's parameters; a different fingerprint
+     *                    under the same key is rejected
+     * @throws IllegalArgumentException        if the key is blank or too long
+     * @throws IdempotencyKeyMismatchException if the key was used for a different request
+     * @throws IdempotencyKeyInUseException    if the first request with the key is
+     *                                         still running on another instance
+     */
+    public StoredResponse execute(String scope, String key, String fingerprint, Supplier<StoredResponse> action) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = scope + '\n' + key;
+        String requestHash = sha256(fingerprint);
+
+        StoredResponse cached = cached(cacheKey);
+        if (cached != null) {
+            checkSameRequest(cached.requestHash, requestHash);
+            increment(replayedCounter);
+            return cached.asReplay();
+        }
+
+        CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        InFlight running = inFlight.putIfAbsent(cacheKey, new InFlight(requestHash, result));
+        if (running != null) {
+            checkSameRequest(running.requestHash, requestHash);
+            increment(coalescedCounter);
+            return await(running.result).asReplay();
+        }
+
+        try {
+            StoredResponse response = executeOnce(scope, key, cacheKey, requestHash, action);
+            result.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey);
+        }
+    }
+
+    /**
+     * Delete keys whose TTL has passed
+     *
+     * @return the number of keys deleted
+     */
+    public int purgeExpired() {
+        // Cached responses expire on read, so only the table needs sweeping
+        return repository.deleteExpired(clock.instant());
+    }
+
+    public int cachedResponses() {
+        lock.lock();
+        try {
+            return responses.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private StoredResponse executeOnce(String scope, String key, String cacheKey, String requestHash,
+                                       Supplier<StoredResponse> action) {
+        Instant now = clock.instant();
+        Optional<IdempotencyRecord> existing = repository.findById(new IdempotencyRecord.Key(scope, key));
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (!record.isExpired(now)) {
+                checkSameRequest(record.getRequestHash(), requestHash);
+                if (record.isCompleted()) {
+                    StoredResponse stored = new StoredResponse(record.getResponseStatus(), record.getResponseBody(),
+                            requestHash, record.getExpiresAt(), false);
+                    remember(cacheKey, stored);
+                    increment(replayedCounter);
+                    return stored.asReplay();
+                }
+                if (record.getCreatedAt().isAfter(now.minus(claimTimeout))) {
+                    throw new IdempotencyKeyInUseException("A request with this " + HEADER + " is still in progress");
+                }
+            }
+            // Expired, or claimed by a request that never finished: start over
+            repository.deleteStale(scope, key, now, now.minus(claimTimeout));
+        }
+
+        Instant expiresAt = now.plus(ttl);
+        try {
+            repository.save(new IdempotencyRecord(scope, key, requestHash, now, expiresAt));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance claimed the key between the read and the insert
+            throw new IdempotencyKeyInUseException("A request with this " + HEADER + " is still in progress");
+        }
+
+        StoredResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            releaseQuietly(scope, key);
+            throw e;
+        }
+        response = new StoredResponse(response.status, response.body, requestHash, expiresAt, false);
+        increment(executedCounter);
+
+        try {
+            if (repository.complete(scope, key, response.status, response.body) == 0) {
+                log.warn("Idempotency claim for scope {} was lost before its response was stored", scope);
+            }
+        } catch (RuntimeException e) {
+            // The work is done; answer this request and let the claim time out for retries
+            log.warn("Could not store the response for an idempotent {} request", scope, e);
+        }
+        remember(cacheKey, response);
+        return response;
+    }
+
+    private StoredResponse cached(String cacheKey) {
+        Instant now = clock.instant();
+        lock.lock();
+        try {
+            StoredResponse cached = responses.get(cacheKey);
+            if (cached != null && !cached.expiresAt.isAfter(now)) {
+                responses.remove(cacheKey);
+                return null;
+            }
+            return cached;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remember(String cacheKey, StoredResponse response) {
+        lock.lock();
+        try {
+            responses.put(cacheKey, response);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(claimTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Fail the same way as the request this one waited for
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInUseException("A request with this " + HEADER + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInUseException("A request with this " + HEADER + " is still in progress");
+        }
+    }
+
+    private void releaseQuietly(String scope, String key) {
+        try {
+            repository.release(scope, key);
+        } catch (RuntimeException e) {
+            // The claim times out on its own
+            log.warn("Could not release the idempotency claim for a failed {} request", scope, e);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            int deleted = purgeExpired();
+            log.debug("Purged {} expired idempotency keys", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Idempotency key purge failed", e);
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(HEADER + " was already used for a different request");
+        }
+    }
+
+    private static String sha256(String fingerprint) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to ship SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter outcomeCounter(MeterRegistry registry, String outcome, String description) {
+        return Counter.builder("idempotency.requests")
+                .tag("outcome", outcome)
+                .description(description)
+                .register(registry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+
+    private static final class InFlight {
+        final String requestHash;
+        final CompletableFuture<StoredResponse> result;
+
+        InFlight(String requestHash, CompletableFuture<StoredResponse> result) {
+            this.requestHash = requestHash;
+            this.result = result;
+        }
+    }
+
+    /**
+     * HTTP status and body of a response, and whether it is a replay of an
+     * earlier request's response rather than a fresh one
+     */
+    public static final class StoredResponse {
+        private final int status;
+        private final byte[] body;
+        private final String requestHash;
+        private final Instant expiresAt;
+        private final boolean replayed;
+
+        public StoredResponse(int status, byte[] body) {
+            this(status, body, null, null, false);
+        }
+
+        private StoredResponse(int status, byte[] body, String requestHash, Instant expiresAt, boolean replayed) {
+            this.status = status;
+            this.body = body == null ? new byte[0] : body;
+            this.requestHash = requestHash;
+            this.expiresAt = expiresAt;
+            this.replayed = replayed;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+
+        private StoredResponse asReplay() {
+            return new StoredResponse(status, body, requestHash, expiresAt, true);
+        }
+    }
+}
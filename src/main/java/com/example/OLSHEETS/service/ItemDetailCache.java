@@ -0,0 +1,283 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.data.Item;
+import com.example.OLSHEETS.data.ItemKind;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Pre-serialized JSON of instrument and music sheet detail views, each with
+ * a strong ETag derived from its bytes.
+ *
+ * A hit skips both the database and Jackson; the bytes are written to the
+ * response as they are. Entries are bounded by total byte size and evicted
+ * by WTinyLfuCache, so rarely viewed listings cannot push out the popular
+ * ones. ProductsService invalidates an item whenever it changes it, and
+ * OwnerProfileListener drops the views of a user's items when the user
+ * changes, since detail views embed their owner.
+ */
+@Component
+public class ItemDetailCache {
+
+    // Bookkeeping per entry on top of the JSON bytes: node, key and ETag
+    private static final int ENTRY_OVERHEAD = 160;
+    // Typical detail payload, used to size the frequency sketch
+    private static final int EXPECTED_ENTRY_BYTES = 2048;
+
+    private final ObjectMapper objectMapper;
+    private final WTinyLfuCache<String, CachedJson> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CacheInvalidations invalidations = new CacheInvalidations(lock);
+    // Cached keys per owner id, kept in step with entries under the lock
+    private final Map<Long, Set<String>> keysByOwner = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public ItemDetailCache(ObjectMapper objectMapper,
+                           @Value("${catalog.detail-cache.max-bytes:33554432}") long maxBytes,
+                           ObjectProvider<MeterRegistry> registry) {
+        this(objectMapper, maxBytes, registry.getIfAvailable());
+    }
+
+    /**
+     * @param registry where to publish metrics, or null for none
+     */
+    public ItemDetailCache(ObjectMapper objectMapper, long maxBytes, MeterRegistry registry) {
+        this.objectMapper = objectMapper;
+        this.entries = new WTinyLfuCache<>(maxBytes,
+                (int) Math.min(Integer.MAX_VALUE, Math.max(16, maxBytes / EXPECTED_ENTRY_BYTES)),
+                json -> json.body.length + ENTRY_OVERHEAD,
+                this::unindex);
+
+        if (registry != null) {
+            this.hitCounter = Counter.builder("cache.gets").tag("cache", "item-details").tag("result", "hit")
+                    .description("Detail views served from pre-serialized JSON")
+                    .register(registry);
+            this.missCounter = Counter.builder("cache.gets").tag("cache", "item-details").tag("result", "miss")
+                    .description("Detail views loaded and serialized")
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", this, ItemDetailCache::evictions)
+                    .tag("cache", "item-details")
+                    .description("Entries evicted to stay within the byte budget")
+                    .register(registry);
+            Gauge.builder("cache.hit.ratio", this, ItemDetailCache::hitRatio)
+                    .tag("cache", "item-details")
+                    .description("Share of detail views served from the cache")
+                    .register(registry);
+            Gauge.builder("cache.size", this, ItemDetailCache::size)
+                    .tag("cache", "item-details")
+                    .description("Entries in the detail cache")
+                    .register(registry);
+            Gauge.builder("cache.weight", this, ItemDetailCache::weightBytes)
+                    .tag("cache", "item-details")
+                    .description("Bytes held by the detail cache")
+                    .baseUnit("bytes")
+                    .register(registry);
+        } else {
+            this.hitCounter = null;
+            this.missCounter = null;
+        }
+    }
+
+    /**
+     * Cached JSON of the item, or the loader's entity serialized and cached.
+     * Whatever the loader throws, such as not found, is passed through and
+     * nothing is cached.
+     */
+    public CachedJson get(ItemKind kind, Long id, Supplier<?> loader) {
+        String key = kind + ":" + id;
+        long seen;
+        lock.lock();
+        try {
+            CachedJson cached = entries.get(key);
+            if (cached != null) {
+                record(hits, hitCounter);
+                return cached;
+            }
+            seen = invalidations.stamp();
+        } finally {
+            lock.unlock();
+        }
+
+        record(misses, missCounter);
+        CachedJson loaded = serialize(loader.get());
+        lock.lock();
+        try {
+            if (invalidations.unchangedSince(seen)) {
+                unindex(key, entries.remove(key));
+                if (loaded.ownerId != null) {
+                    keysByOwner.computeIfAbsent(loaded.ownerId, owner -> new HashSet<>()).add(key);
+                }
+                entries.put(key, loaded);
+                if (!entries.containsKey(key)) {
+                    // Too large to cache, or not admitted
+                    unindex(key, loaded);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop the item now and, when called inside a transaction, again after it
+     * commits
+     */
+    public void invalidate(Long id) {
+        invalidations.invalidate(() -> {
+            for (ItemKind kind : ItemKind.values()) {
+                String key = kind + ":" + id;
+                unindex(key, entries.remove(key));
+            }
+        });
+    }
+
+    /**
+     * Drop the views of every item owned by the user, which embed the
+     * owner's profile, now and after the current transaction commits
+     */
+    public void invalidateOwner(Long ownerId) {
+        invalidations.invalidate(() -> {
+            Set<String> keys = keysByOwner.remove(ownerId);
+            if (keys != null) {
+                keys.forEach(entries::remove);
+            }
+        });
+    }
+
+    /**
+     * Drop every entry now and, when called inside a transaction, again after
+     * it commits
+     */
+    public void invalidateAll() {
+        invalidations.invalidate(() -> {
+            entries.clear();
+            keysByOwner.clear();
+        });
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long weightBytes() {
+        lock.lock();
+        try {
+            return entries.weight();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long evictions() {
+        lock.lock();
+        try {
+            return entries.evictions();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    // Called under the lock, also by the cache for entries it evicts
+    private void unindex(String key, CachedJson json) {
+        if (json == null || json.ownerId == null) {
+            return;
+        }
+        Set<String> keys = keysByOwner.get(json.ownerId);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByOwner.remove(json.ownerId);
+        }
+    }
+
+    private CachedJson serialize(Object entity) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(entity);
+            return new CachedJson(body, etagOf(body), ownerIdOf(entity));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Long ownerIdOf(Object entity) {
+        if (entity instanceof Item item && item.getOwner() != null) {
+            return item.getOwner().getId();
+        }
+        return null;
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to ship SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void record(AtomicLong count, Counter counter) {
+        count.incrementAndGet();
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Serialized detail view and its strong ETag (quoted)
+     */
+    public static final class CachedJson {
+        private final byte[] body;
+        private final String etag;
+        private final Long ownerId;
+
+        CachedJson(byte[] body, String etag, Long ownerId) {
+            this.body = body;
+            this.etag = etag;
+            this.ownerId = ownerId;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.dto.ItemDateRange;
+import com.example.OLSHEETS.repository.AvailabilityRepository;
+import com.example.OLSHEETS.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory per-item index of booked and blocked date ranges.
+ *
+ * Lets BookingService reject conflicting requests without hitting the database.
+ * Each item maps to an immutable IntervalSet that is replaced on write, so reads
+ * never lock. The index is warmed from the Booking and Availability tables at
+ * startup and kept current by ItemIntervalIndexListener after each commit.
+ * The warm-up builds fresh maps off to the side and swaps them in; writes
+ * that arrive while it reads the database are replayed onto the fresh maps,
+ * so a booking committed during warm-up is never dropped.
+ * Ranges are inclusive on both ends, matching the repository overlap queries.
+ *
+ * For catalog-wide availability filtering the same ranges are also projected
+ * onto an OccupancyCalendar of day bitmaps covering the next CALENDAR_DAYS
+ * days. The calendar rolls forward the first time it is used on a new day;
+ * ranges outside it fall back to the per-item interval check.
+ */
+@Component
+public class ItemIntervalIndex {
+
+    // Days from today covered by the occupancy calendar
+    static final int CALENDAR_DAYS = 366;
+
+    private final BookingRepository bookingRepository;
+    private final AvailabilityRepository availabilityRepository;
+    private final Clock clock;
+
+    private volatile Map<Long, IntervalSet> bookings = new ConcurrentHashMap<>();
+    private volatile Map<Long, IntervalSet> blocks = new ConcurrentHashMap<>();
+
+    // Writers share the read lock; warmUp takes the write lock to start journaling and to swap maps
+    private final ReentrantReadWriteLock mapsLock = new ReentrantReadWriteLock();
+    // Non-null while warmUp reads the database: writes made meanwhile, to replay onto the loaded maps
+    private Queue<Write> pendingWrites;
+
+    private final ReentrantReadWriteLock calendarLock = new ReentrantReadWriteLock();
+    // Replaced only under the write lock; volatile so the staleness check can skip the lock
+    private volatile OccupancyCalendar calendar;
+
+    @Autowired
+    public ItemIntervalIndex(BookingRepository bookingRepository, AvailabilityRepository availabilityRepository) {
+        this(bookingRepository, availabilityRepository, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock decides which day the occupancy calendar starts on
+     */
+    public ItemIntervalIndex(BookingRepository bookingRepository, AvailabilityRepository availabilityRepository,
+                             Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.clock = clock;
+        this.calendar = new OccupancyCalendar(LocalDate.now(clock).toEpochDay(), CALENDAR_DAYS);
+    }
+
+    /**
+     * Rebuild the index from the database once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        Queue<Write> pending = new ConcurrentLinkedQueue<>();
+        mapsLock.writeLock().lock();
+        try {
+            // Any write finished before this point is committed, so the queries below see it
+            pendingWrites = pending;
+        } finally {
+            mapsLock.writeLock().unlock();
+        }
+
+        Map<Long, IntervalSet> loadedBookings;
+        Map<Long, IntervalSet> loadedBlocks;
+        try {
+            loadedBookings = load(bookingRepository.findAllDateRanges());
+            loadedBlocks = load(availabilityRepository.findAllDateRanges());
+        } catch (RuntimeException e) {
+            stopJournaling();
+            throw e;
+        }
+
+        mapsLock.writeLock().lock();
+        try {
+            for (Write write : pending) {
+                write.apply(loadedBookings, loadedBlocks);
+            }
+            bookings = loadedBookings;
+            blocks = loadedBlocks;
+            pendingWrites = null;
+        } finally {
+            mapsLock.writeLock().unlock();
+        }
+        rebuildCalendar(LocalDate.now(clock).toEpochDay());
+    }
+
+    public boolean hasBookingOverlap(Long itemId, LocalDate startDate, LocalDate endDate) {
+        return overlaps(bookings, itemId, startDate, endDate);
+    }
+
+    public boolean hasBlockOverlap(Long itemId, LocalDate startDate, LocalDate endDate) {
+        return overlaps(blocks, itemId, startDate, endDate);
+    }
+
+    /**
+     * True when the item has neither a booking nor an owner block overlapping
+     * the range
+     */
+    public boolean isAvailable(Long itemId, LocalDate startDate, LocalDate endDate) {
+        return !hasBookingOverlap(itemId, startDate, endDate) && !hasBlockOverlap(itemId, startDate, endDate);
+    }
+
+    /**
+     * Item filter accepting items with no booking or block overlapping the
+     * range. Ranges inside the calendar are answered from one OR of the day
+     * bitmaps taken up front, so testing an item is a single bit lookup.
+     */
+    public LongPredicate availableBetween(LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        long today = LocalDate.now(clock).toEpochDay();
+        if (calendar.firstDay() != today) {
+            rollCalendar(today);
+        }
+        calendarLock.readLock().lock();
+        try {
+            if (calendar.covers(start, end)) {
+                BitSet occupied = calendar.occupiedBetween(start, end);
+                return itemId -> OccupancyCalendar.indexable(itemId)
+                        ? !occupied.get((int) itemId)
+                        : isAvailable(itemId, startDate, endDate);
+            }
+        } finally {
+            calendarLock.readLock().unlock();
+        }
+        return itemId -> isAvailable(itemId, startDate, endDate);
+    }
+
+    public void putBooking(Long bookingId, Long itemId, LocalDate startDate, LocalDate endDate) {
+        write((bookingMap, blockMap) -> put(bookingMap, bookingId, itemId, startDate, endDate));
+        refreshCalendar(itemId);
+    }
+
+    public void removeBooking(Long bookingId, Long itemId) {
+        write((bookingMap, blockMap) -> remove(bookingMap, bookingId, itemId));
+        refreshCalendar(itemId);
+    }
+
+    public void putBlock(Long availabilityId, Long itemId, LocalDate startDate, LocalDate endDate) {
+        write((bookingMap, blockMap) -> put(blockMap, availabilityId, itemId, startDate, endDate));
+        refreshCalendar(itemId);
+    }
+
+    public void removeBlock(Long availabilityId, Long itemId) {
+        write((bookingMap, blockMap) -> remove(blockMap, availabilityId, itemId));
+        refreshCalendar(itemId);
+    }
+
+    private void write(Write write) {
+        mapsLock.readLock().lock();
+        try {
+            write.apply(bookings, blocks);
+            Queue<Write> pending = pendingWrites;
+            if (pending != null) {
+                pending.add(write);
+            }
+        } finally {
+            mapsLock.readLock().unlock();
+        }
+    }
+
+    private void stopJournaling() {
+        mapsLock.writeLock().lock();
+        try {
+            pendingWrites = null;
+        } finally {
+            mapsLock.writeLock().unlock();
+        }
+    }
+
+    // Re-project one item's ranges; reads the maps under the lock so the last writer wins
+    private void refreshCalendar(Long itemId) {
+        if (itemId == null) {
+            return;
+        }
+        calendarLock.writeLock().lock();
+        try {
+            calendar.clear(itemId);
+            markCalendar(calendar, itemId, bookings.get(itemId));
+            markCalendar(calendar, itemId, blocks.get(itemId));
+        } finally {
+            calendarLock.writeLock().unlock();
+        }
+    }
+
+    private void rollCalendar(long today) {
+        calendarLock.writeLock().lock();
+        try {
+            if (calendar.firstDay() != today) {
+                rebuildCalendar(today);
+            }
+        } finally {
+            calendarLock.writeLock().unlock();
+        }
+    }
+
+    private void rebuildCalendar(long firstDay) {
+        calendarLock.writeLock().lock();
+        try {
+            OccupancyCalendar fresh = new OccupancyCalendar(firstDay, CALENDAR_DAYS);
+            bookings.forEach((itemId, set) -> markCalendar(fresh, itemId, set));
+            blocks.forEach((itemId, set) -> markCalendar(fresh, itemId, set));
+            calendar = fresh;
+        } finally {
+            calendarLock.writeLock().unlock();
+        }
+    }
+
+    private static void markCalendar(OccupancyCalendar target, Long itemId, IntervalSet set) {
+        if (set == null) {
+            return;
+        }
+        for (int i = 0; i < set.starts.length; i++) {
+            target.mark(itemId, set.starts[i], set.ends[i]);
+        }
+    }
+
+    private static Map<Long, IntervalSet> load(List<ItemDateRange> ranges) {
+        Map<Long, IntervalSet> target = new ConcurrentHashMap<>();
+        for (ItemDateRange range : ranges) {
+            put(target, range.getId(), range.getItemId(), range.getStartDate(), range.getEndDate());
+        }
+        return target;
+    }
+
+    private static boolean overlaps(Map<Long, IntervalSet> source, Long itemId, LocalDate startDate, LocalDate endDate) {
+        if (itemId == null || startDate == null || endDate == null) {
+            return false;
+        }
+        IntervalSet set = source.get(itemId);
+        return set != null && set.overlaps(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    private static void put(Map<Long, IntervalSet> target, Long id, Long itemId, LocalDate startDate, LocalDate endDate) {
+        if (id == null || itemId == null || startDate == null || endDate == null) {
+            return;
+        }
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        target.compute(itemId, (key, set) -> (set == null ? IntervalSet.EMPTY : set).with(id, start, end));
+    }
+
+    private static void remove(Map<Long, IntervalSet> target, Long id, Long itemId) {
+        if (id == null || itemId == null) {
+            return;
+        }
+        target.computeIfPresent(itemId, (key, set) -> {
+            IntervalSet remaining = set.without(id);
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+
+    /**
+     * One put or remove, applied to whichever booking and block maps are live
+     */
+    private interface Write {
+        void apply(Map<Long, IntervalSet> bookings, Map<Long, IntervalSet> blocks);
+    }
+
+    /**
+     * Immutable set of possibly overlapping ranges for one item, sorted by start.
+     * maxEnds[i] holds the largest end among ranges 0..i, so an overlap query is
+     * a binary search for the last range starting on or before the query end.
+     */
+    static final class IntervalSet {
+
+        static final IntervalSet EMPTY = new IntervalSet(new long[0], new long[0], new long[0]);
+
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnds;
+
+        private IntervalSet(long[] ids, long[] starts, long[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        boolean isEmpty() {
+            return ids.length == 0;
+        }
+
+        boolean overlaps(long start, long end) {
+            int lo = 0;
+            int hi = starts.length - 1;
+            int last = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] <= end) {
+                    last = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return last >= 0 && maxEnds[last] >= start;
+        }
+
+        IntervalSet with(long id, long start, long end) {
+            IntervalSet base = without(id);
+            int n = base.ids.length;
+            int pos = 0;
+            while (pos < n && base.starts[pos] <= start) {
+                pos++;
+            }
+            long[] newIds = new long[n + 1];
+            long[] newStarts = new long[n + 1];
+            long[] newEnds = new long[n + 1];
+            System.arraycopy(base.ids, 0, newIds, 0, pos);
+            System.arraycopy(base.starts, 0, newStarts, 0, pos);
+            System.arraycopy(base.ends, 0, newEnds, 0, pos);
+            newIds[pos] = id;
+            newStarts[pos] = start;
+            newEnds[pos] = end;
+            System.arraycopy(base.ids, pos, newIds, pos + 1, n - pos);
+            System.arraycopy(base.starts, pos, newStarts, pos + 1, n - pos);
+            System.arraycopy(base.ends, pos, newEnds, pos + 1, n - pos);
+            return new IntervalSet(newIds, newStarts, newEnds);
+        }
+
+        IntervalSet without(long id) {
+            int idx = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    idx = i;
+                    break;
+                }
+            }
+            if (idx < 0) {
+                return this;
+            }
+            int n = ids.length;
+            long[] newIds = Arrays.copyOf(ids, n - 1);
+            long[] newStarts = Arrays.copyOf(starts, n - 1);
+            long[] newEnds = Arrays.copyOf(ends, n - 1);
+            System.arraycopy(ids, idx + 1, newIds, idx, n - idx - 1);
+            System.arraycopy(starts, idx + 1, newStarts, idx, n - idx - 1);
+            System.arraycopy(ends, idx + 1, newEnds, idx, n - idx - 1);
+            return new IntervalSet(newIds, newStarts, newEnds);
+        }
+    }
+}
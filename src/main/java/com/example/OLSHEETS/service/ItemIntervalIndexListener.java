@@ -0,0 +1,62 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.data.Availability;
+import com.example.OLSHEETS.data.Booking;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps ItemIntervalIndex in sync with Booking and
+ * Availability writes. Changes are applied after commit so a rolled-back
+ * insert never leaves a phantom range behind.
+ */
+public class ItemIntervalIndexListener {
+
+    @Autowired(required = false)
+    private ItemIntervalIndex intervalIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (intervalIndex == null) {
+            return;
+        }
+        if (entity instanceof Booking booking) {
+            Long itemId = booking.getItem() != null ? booking.getItem().getId() : null;
+            afterCommit(() -> intervalIndex.putBooking(booking.getId(), itemId, booking.getStartDate(), booking.getEndDate()));
+        } else if (entity instanceof Availability availability) {
+            afterCommit(() -> intervalIndex.putBlock(availability.getId(), availability.getInstrumentId(),
+                    availability.getStartDate(), availability.getEndDate()));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (intervalIndex == null) {
+            return;
+        }
+        if (entity instanceof Booking booking) {
+            Long itemId = booking.getItem() != null ? booking.getItem().getId() : null;
+            afterCommit(() -> intervalIndex.removeBooking(booking.getId(), itemId));
+        } else if (entity instanceof Availability availability) {
+            afterCommit(() -> intervalIndex.removeBlock(availability.getId(), availability.getInstrumentId()));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.exception.ServiceOverloadedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped per-item locks that serialize booking writes on the same item.
+ *
+ * Item ids hash onto a fixed array of locks, so requests for different items
+ * almost never contend. When called inside a transaction the lock is held until
+ * the transaction completes, so a competing request only runs its overlap check
+ * after the winner's insert is committed. This only protects a single node; the
+ * pessimistic item row lock in BookingService covers multi-node deployments.
+ * A request that waits too long for its lock fails with
+ * ServiceOverloadedException, since a retry may well succeed.
+ */
+@Component
+public class ItemLockManager {
+
+    private static final int DEFAULT_STRIPES = 256;
+    private static final long LOCK_TIMEOUT_SECONDS = 5;
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public ItemLockManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ItemLockManager(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Run the action while holding the lock for the given item.
+     * Inside a transaction the lock is released after commit or rollback,
+     * otherwise as soon as the action returns.
+     */
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(itemId);
+        acquire(lock);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        lock.unlock();
+                    }
+                });
+            } catch (RuntimeException e) {
+                lock.unlock();
+                throw e;
+            }
+            return action.get();
+        }
+
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(Long itemId) {
+        int h = itemId == null ? 0 : itemId.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & mask];
+    }
+
+    private static void acquire(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new ServiceOverloadedException("Item is busy, please try again", LOCK_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for item lock", e);
+        }
+    }
+}
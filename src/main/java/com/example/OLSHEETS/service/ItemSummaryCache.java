@@ -0,0 +1,90 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.dto.ItemSummary;
+import com.example.OLSHEETS.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through LRU of item summaries by id, so price lookups and ownership
+ * checks on hot items skip the database.
+ *
+ * Whoever changes an item's price or owner must call invalidate; see
+ * CacheInvalidations for how racing loads are kept out.
+ */
+@Component
+public class ItemSummaryCache {
+
+    private final ItemRepository itemRepository;
+    private final int maxEntries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, ItemSummary> entries;
+    private final CacheInvalidations invalidations = new CacheInvalidations(lock);
+
+    public ItemSummaryCache(ItemRepository itemRepository,
+                            @Value("${items.summary-cache.max-entries:10000}") int maxEntries) {
+        this.itemRepository = itemRepository;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemSummary> eldest) {
+                return size() > ItemSummaryCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Cached summary of the item, loaded with a single query on a miss
+     */
+    public Optional<ItemSummary> get(Long itemId) {
+        if (itemId == null) {
+            return Optional.empty();
+        }
+        long seen;
+        lock.lock();
+        try {
+            ItemSummary cached = entries.get(itemId);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            seen = invalidations.stamp();
+        } finally {
+            lock.unlock();
+        }
+
+        Optional<ItemSummary> loaded = itemRepository.findSummaryById(itemId);
+        if (loaded.isPresent() && maxEntries > 0) {
+            lock.lock();
+            try {
+                if (invalidations.unchangedSince(seen)) {
+                    entries.put(itemId, loaded.get());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop the item now and, when called inside a transaction, again after it
+     * commits
+     */
+    public void invalidate(Long itemId) {
+        invalidations.invalidate(() -> entries.remove(itemId));
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.OLSHEETS.service;
+
+import java.util.BitSet;
+
+/**
+ * Day-by-day occupancy bitmaps over a fixed window of days.
+ *
+ * Each day holds a BitSet indexed by item id with a bit set for every item
+ * that is booked or blocked on that day. The items busy anywhere in a date
+ * range are then the OR of that range's days, so availability over the whole
+ * catalog is a few word-wise ORs instead of one interval lookup per item.
+ * Not thread-safe; ItemIntervalIndex guards it.
+ */
+final class OccupancyCalendar {
+
+    private final long firstDay;
+    private final BitSet[] days;
+
+    /**
+     * @param firstDay epoch day of the first day covered
+     * @param length   number of days covered
+     */
+    OccupancyCalendar(long firstDay, int length) {
+        this.firstDay = firstDay;
+        this.days = new BitSet[length];
+        for (int i = 0; i < length; i++) {
+            days[i] = new BitSet();
+        }
+    }
+
+    long firstDay() {
+        return firstDay;
+    }
+
+    /**
+     * Whether the item id and the whole inclusive range fit in the window
+     */
+    boolean covers(long itemId, long startDay, long endDay) {
+        return indexable(itemId) && covers(startDay, endDay);
+    }
+
+    boolean covers(long startDay, long endDay) {
+        return startDay >= firstDay && endDay < firstDay + days.length && startDay <= endDay;
+    }
+
+    /**
+     * Mark the item busy on every day of the inclusive range that falls
+     * inside the window
+     */
+    void mark(long itemId, long startDay, long endDay) {
+        if (!indexable(itemId)) {
+            return;
+        }
+        long from = Math.max(startDay, firstDay);
+        long to = Math.min(endDay, firstDay + days.length - 1);
+        for (long day = from; day <= to; day++) {
+            days[(int) (day - firstDay)].set((int) itemId);
+        }
+    }
+
+    void clear(long itemId) {
+        if (!indexable(itemId)) {
+            return;
+        }
+        for (BitSet day : days) {
+            day.clear((int) itemId);
+        }
+    }
+
+    /**
+     * Item ids busy on at least one day of the inclusive range; the range
+     * must be covered
+     */
+    BitSet occupiedBetween(long startDay, long endDay) {
+        BitSet occupied = new BitSet();
+        for (long day = startDay; day <= endDay; day++) {
+            occupied.or(days[(int) (day - firstDay)]);
+        }
+        return occupied;
+    }
+
+    static boolean indexable(long itemId) {
+        return itemId >= 0 && itemId <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.data.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA entity listener that keeps ItemDetailCache from serving a stale owner.
+ * Cached detail views embed the owner's public profile, so a user update or
+ * delete drops the cached views of that user's items and leaves every other
+ * entry, and so the cache's hit rate, alone.
+ */
+public class OwnerProfileListener {
+
+    @Autowired(required = false)
+    private ItemDetailCache itemDetailCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        if (itemDetailCache != null) {
+            itemDetailCache.invalidateOwner(user.getId());
+        }
+    }
+}
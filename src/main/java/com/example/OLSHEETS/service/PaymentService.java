@@ -2,11 +2,14 @@ package com.example.OLSHEETS.service;
 
 import com.example.OLSHEETS.data.Booking;
 import com.example.OLSHEETS.data.BookingStatus;
+import com.example.OLSHEETS.data.Item;
 import com.example.OLSHEETS.data.Payment;
 import com.example.OLSHEETS.data.PaymentStatus;
+import com.example.OLSHEETS.dto.ItemSummary;
 import com.example.OLSHEETS.dto.PaymentRequest;
 import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,23 +28,44 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final BookingRepository bookingRepository;
 
+    @Autowired(required = false)
+    private ItemSummaryCache itemSummaryCache;
+
     public PaymentService(PaymentRepository paymentRepository, BookingRepository bookingRepository) {
         this.paymentRepository = paymentRepository;
         this.bookingRepository = bookingRepository;
     }
 
+    /**
+     * Amount to charge for a booking: the amount captured when it was made,
+     * the same value revenue rollups count, so a later price change moves
+     * neither. Bookings stored before amounts were captured are priced now.
+     */
     public BigDecimal calculateBookingAmount(Booking booking) {
         if (booking == null) {
             throw new IllegalArgumentException("Booking cannot be null");
         }
+        if (booking.getAmount() != null) {
+            return booking.getAmount();
+        }
         long days = ChronoUnit.DAYS.between(booking.getStartDate(), booking.getEndDate());
         if (days < 1) {
             days = 1;
         }
-        Double pricePerDay = booking.getItem().getPrice();
+        Double pricePerDay = currentPrice(booking.getItem());
         return BigDecimal.valueOf(pricePerDay * days);
     }
 
+    // Same cached price the pricing endpoint serves; the entity's price if the item is not found
+    private Double currentPrice(Item item) {
+        if (itemSummaryCache == null || item.getId() == null) {
+            return item.getPrice();
+        }
+        return itemSummaryCache.get(item.getId())
+                .map(ItemSummary::getPrice)
+                .orElse(item.getPrice());
+    }
+
     @Transactional
     public Payment initiatePayment(Long bookingId, String paymentMethod) {
         Booking booking = bookingRepository.findById(bookingId)
@@ -7,34 +7,62 @@ import com.example.OLSHEETS.data.InstrumentFamily;
 import com.example.OLSHEETS.data.MusicSheet;
 import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.data.Item;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.CatalogHit;
+import com.example.OLSHEETS.dto.FileRef;
+import com.example.OLSHEETS.dto.InstrumentListing;
 import com.example.OLSHEETS.dto.InstrumentRegistrationRequest;
+import com.example.OLSHEETS.dto.MusicSheetListing;
 import com.example.OLSHEETS.dto.MusicSheetRegistrationRequest;
+import com.example.OLSHEETS.dto.ItemSummary;
 import com.example.OLSHEETS.repository.InstrumentRepository;
+import com.example.OLSHEETS.repository.ItemRepository;
 import com.example.OLSHEETS.repository.MusicSheetRepository;
 import io.micrometer.core.instrument.Counter;
 import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.search.CatalogIndex;
+import com.example.OLSHEETS.search.CatalogSearchResult;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 @Service
 public class ProductsService {
 
+    // Fuzzy search returns at most this many matches, best first
+    private static final int MAX_FUZZY_RESULTS = 100;
+
     @Autowired
     private InstrumentRepository instrumentRepository;
 
     @Autowired
     private MusicSheetRepository musicSheetRepository;
 
+    @Autowired
+    private ItemRepository itemRepository;
+
     @Autowired(required = false)
     private Counter instrumentsRegisteredCounter;
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired(required = false)
+    private CatalogIndex catalogIndex;
+
+    @Autowired(required = false)
+    private ItemSummaryCache itemSummaryCache;
+
+    @Autowired(required = false)
+    private ItemDetailCache itemDetailCache;
+
     public Instrument getInstrumentById(Long id) {
         return instrumentRepository.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Instrument not found with id: " + id));
@@ -45,36 +73,106 @@ public class ProductsService {
             .orElseThrow(() -> new IllegalArgumentException("Music sheet not found with id: " + id));
     }
 
-    public List<Instrument> searchInstrumentsByName(String name) {
-        return instrumentRepository.findByNameContainingIgnoreCase(name);
+    public List<InstrumentListing> searchInstrumentsByName(String name) {
+        return withInstrumentFiles(instrumentRepository.findListingsByName(name));
+    }
+
+    /**
+     * Typo-tolerant instrument search ranked by the catalog index. Falls back
+     * to substring search when the index is not available.
+     */
+    public List<InstrumentListing> fuzzySearchInstruments(String query) {
+        if (catalogIndex == null) {
+            return searchInstrumentsByName(query);
+        }
+        CatalogSearchResult result = catalogIndex.search(query, ItemKind.INSTRUMENT, 0, MAX_FUZZY_RESULTS, true);
+        return withInstrumentFiles(
+                inRankOrder(result, instrumentRepository::findListingsByIdIn, InstrumentListing::getId));
+    }
+
+    public List<InstrumentListing> filterInstrumentsByType(InstrumentType type) {
+        return withInstrumentFiles(instrumentRepository.findListingsByType(type));
+    }
+    public List<InstrumentListing> filterInstrumentsByFamily(InstrumentFamily family) {
+        return withInstrumentFiles(instrumentRepository.findListingsByFamily(family));
+    }
+
+    public List<InstrumentListing> getInstrumentsByOwnerId(Long ownerId) {
+        return withInstrumentFiles(instrumentRepository.findListingsByOwnerId(ownerId));
+    }
+
+    public List<MusicSheetListing> searchMusicSheetsByName(String name) {
+        return withSheetFiles(musicSheetRepository.findListingsByName(name));
     }
 
-    public List<Instrument> filterInstrumentsByType(InstrumentType type) {
-        return instrumentRepository.findByType(type);
+    /**
+     * Typo-tolerant music sheet search over name, composer, instrumentation
+     * and category. Falls back to substring search when the index is not
+     * available.
+     */
+    public List<MusicSheetListing> fuzzySearchMusicSheets(String query) {
+        if (catalogIndex == null) {
+            return searchMusicSheetsByName(query);
+        }
+        CatalogSearchResult result = catalogIndex.search(query, ItemKind.MUSIC_SHEET, 0, MAX_FUZZY_RESULTS, true);
+        return withSheetFiles(
+                inRankOrder(result, musicSheetRepository::findListingsByIdIn, MusicSheetListing::getId));
     }
-    public List<Instrument> filterInstrumentsByFamily(InstrumentFamily family) {
-        return instrumentRepository.findByFamily(family);
+
+    // Load the ranked hits in one query and put them back in rank order
+    private static <T> List<T> inRankOrder(CatalogSearchResult result, Function<List<Long>, List<T>> loader,
+                                           Function<T, Long> idOf) {
+        if (result.getHits().isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = result.getHits().stream().map(CatalogHit::getId).toList();
+        Map<Long, T> byId = new HashMap<>();
+        for (T item : loader.apply(ids)) {
+            byId.put(idOf.apply(item), item);
+        }
+        List<T> ranked = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T item = byId.get(id);
+            if (item != null) {
+                ranked.add(item);
+            }
+        }
+        return ranked;
+    }
+
+    private List<InstrumentListing> withInstrumentFiles(List<InstrumentListing> listings) {
+        return withFileReferences(listings, InstrumentListing::getId, InstrumentListing::setFileReferences);
     }
 
-    public List<Instrument> getInstrumentsByOwnerId(Long ownerId) {
-        return instrumentRepository.findByOwnerId(ownerId);
+    private List<MusicSheetListing> withSheetFiles(List<MusicSheetListing> listings) {
+        return withFileReferences(listings, MusicSheetListing::getId, MusicSheetListing::setFileReferences);
     }
 
-    public List<MusicSheet> searchMusicSheetsByName(String name) {
-        return musicSheetRepository.findByNameContainingIgnoreCase(name);
+    // Attach the file references of the whole page with one IN query instead of one per listing
+    private <T> List<T> withFileReferences(List<T> listings, Function<T, Long> idOf,
+                                           BiConsumer<T, List<FileRef>> setter) {
+        if (listings.isEmpty()) {
+            return listings;
+        }
+        List<Long> ids = listings.stream().map(idOf).toList();
+        Map<Long, List<FileRef>> byItem = new HashMap<>();
+        for (FileRef ref : itemRepository.findFileRefsByItemIdIn(ids)) {
+            byItem.computeIfAbsent(ref.getItemId(), id -> new ArrayList<>()).add(ref);
+        }
+        for (T listing : listings) {
+            setter.accept(listing, byItem.getOrDefault(idOf.apply(listing), List.of()));
+        }
+        return listings;
     }
 
-    public List<MusicSheet> filterMusicSheetsByCategory(String category) {
-        return musicSheetRepository.findByCategory(category);
+    public List<MusicSheetListing> filterMusicSheetsByCategory(String category) {
+        return withSheetFiles(musicSheetRepository.findListingsByCategory(category));
     }
 
     // Pricing management methods
+    // Single polymorphic lookup; Hibernate resolves the subclass from the discriminator
     private Optional<Item> findItemById(Long itemId) {
-        Optional<Item> item = instrumentRepository.findById(itemId).map(i -> (Item) i);
-        if (item.isEmpty()) {
-            item = musicSheetRepository.findById(itemId).map(m -> (Item) m);
-        }
-        return item;
+        return itemRepository.findById(itemId);
     }
 
     public Item updateItemPrice(Long itemId, Double newPrice, Long userId) {
@@ -91,18 +189,26 @@ public class ProductsService {
         }
 
         item.setPrice(newPrice);
+        Item saved = itemRepository.save(item);
+        invalidateCachedItem(itemId);
+        return saved;
+    }
 
-        // Save based on item type
-        if (item instanceof Instrument instrument) {
-            return instrumentRepository.save(instrument);
-        } else if (item instanceof MusicSheet musicSheet) {
-            return musicSheetRepository.save(musicSheet);
+    private void invalidateCachedItem(Long itemId) {
+        if (itemSummaryCache != null) {
+            itemSummaryCache.invalidate(itemId);
+        }
+        if (itemDetailCache != null) {
+            itemDetailCache.invalidate(itemId);
         }
-
-        throw new IllegalStateException("Unknown item type");
     }
 
     public Double getItemPrice(Long itemId) {
+        if (itemSummaryCache != null) {
+            return itemSummaryCache.get(itemId)
+                .map(ItemSummary::getPrice)
+                .orElseThrow(() -> new IllegalArgumentException("Item not found with id: " + itemId));
+        }
         Item item = findItemById(itemId)
             .orElseThrow(() -> new IllegalArgumentException("Item not found with id: " + itemId));
         return item.getPrice();
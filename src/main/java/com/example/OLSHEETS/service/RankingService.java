@@ -0,0 +1,442 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.CatalogHit;
+import com.example.OLSHEETS.dto.ItemDateCount;
+import com.example.OLSHEETS.dto.ScoreCount;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.ReviewRepository;
+import com.example.OLSHEETS.repository.SheetBookingRepository;
+import com.example.OLSHEETS.search.CatalogDocument;
+import com.example.OLSHEETS.search.CatalogIndex;
+import com.example.OLSHEETS.search.CatalogQuery;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * "Top rated" and "trending" item rankings, served from memory.
+ *
+ * Top rated orders items by a Bayesian average: each item's reviews are
+ * blended with priorWeight phantom reviews at the catalog-wide mean, so a
+ * single 5-star review does not outrank forty reviews averaging 4.8.
+ * Trending orders items by an exponentially decayed booking count whose
+ * weight halves every halfLifeDays, counted from the day the booking was
+ * made. That anchor never lies ahead, so decaying the previous scores and
+ * recounting from scratch give every booking the same weight.
+ *
+ * A background thread refreshes both on a fixed delay. A refresh decays the
+ * previous counts by the time since the last one and adds only the reviews
+ * and bookings with ids above the last ones it saw, so its database cost
+ * follows the write rate rather than the table sizes. Every
+ * FULL_REBUILD_EVERY refreshes everything is recounted, which picks up
+ * deletes, later rejections and rows committed out of id order. Per-item
+ * scores live in parallel primitive arrays; each refresh ranks them into a
+ * TopK per item kind, instrument type and sheet category and publishes the
+ * result with a single volatile write, so reads never block.
+ */
+@Service
+public class RankingService {
+
+    public enum Ranking {
+        TOP_RATED,
+        TRENDING
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RankingService.class);
+    static final int FULL_REBUILD_EVERY = 60;
+    // Decayed booking weight below which an item stops counting as trending
+    private static final double MIN_POPULARITY = 1e-3;
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+    private static final String ALL = "all";
+
+    private final ReviewRepository reviewRepository;
+    private final BookingRepository bookingRepository;
+    private final SheetBookingRepository sheetBookingRepository;
+    private final CatalogIndex catalogIndex;
+    private final long refreshIntervalSeconds;
+    private final int topK;
+    private final double halfLifeDays;
+    private final double priorWeight;
+    private final Clock clock;
+
+    private final ScheduledExecutorService refresher;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private boolean rebuildDue = true;
+    private int refreshesSinceRebuild;
+
+    private final Timer refreshTimer;
+
+    @Autowired
+    public RankingService(ReviewRepository reviewRepository,
+                          BookingRepository bookingRepository,
+                          SheetBookingRepository sheetBookingRepository,
+                          CatalogIndex catalogIndex,
+                          @Value("${catalog.ranking.refresh-interval-seconds:60}") long refreshIntervalSeconds,
+                          @Value("${catalog.ranking.top-k:100}") int topK,
+                          @Value("${catalog.ranking.half-life-days:7}") double halfLifeDays,
+                          @Value("${catalog.ranking.prior-weight:5}") double priorWeight,
+                          ObjectProvider<MeterRegistry> registry) {
+        this(reviewRepository, bookingRepository, sheetBookingRepository, catalogIndex, refreshIntervalSeconds,
+                topK, halfLifeDays, priorWeight, Clock.systemDefaultZone(), registry.getIfAvailable());
+    }
+
+    /**
+     * @param registry where to publish metrics, or null for none
+     */
+    public RankingService(ReviewRepository reviewRepository,
+                          BookingRepository bookingRepository,
+                          SheetBookingRepository sheetBookingRepository,
+                          CatalogIndex catalogIndex,
+                          long refreshIntervalSeconds,
+                          int topK,
+                          double halfLifeDays,
+                          double priorWeight,
+                          Clock clock,
+                          MeterRegistry registry) {
+        this.reviewRepository = reviewRepository;
+        this.bookingRepository = bookingRepository;
+        this.sheetBookingRepository = sheetBookingRepository;
+        this.catalogIndex = catalogIndex;
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+        this.topK = topK;
+        this.halfLifeDays = halfLifeDays;
+        this.priorWeight = priorWeight;
+        this.clock = clock;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-ranking-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (registry != null) {
+            Gauge.builder("catalog.ranking.items", this, s -> s.snapshot.scores.size)
+                    .description("Items with a rating or booking score")
+                    .register(registry);
+            this.refreshTimer = Timer.builder("catalog.ranking.refresh")
+                    .description("Time to fold new reviews and bookings into the rankings")
+                    .register(registry);
+        } else {
+            this.refreshTimer = null;
+        }
+    }
+
+    /**
+     * Build the rankings in the background once the application is up, then
+     * keep refreshing them on a fixed delay
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRefreshing() {
+        if (refreshIntervalSeconds > 0) {
+            refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            refresher.execute(this::refreshQuietly);
+        }
+    }
+
+    /**
+     * Highest ranked items, overall or within one item kind, instrument type
+     * or sheet category; instrumentType and category take precedence over
+     * kind. Items removed from the catalog since the last refresh are skipped.
+     */
+    public List<CatalogHit> top(Ranking ranking, ItemKind kind, InstrumentType instrumentType, String category,
+                                int limit) {
+        Snapshot current = snapshot;
+        Map<String, TopK> lists = ranking == Ranking.TRENDING ? current.trending : current.topRated;
+        TopK list = lists.get(groupKey(kind, instrumentType, category));
+        if (list == null) {
+            return List.of();
+        }
+
+        List<CatalogHit> hits = new ArrayList<>(Math.min(limit, list.size()));
+        for (int rank = 0; rank < list.size() && hits.size() < limit; rank++) {
+            long itemId = list.id(rank);
+            CatalogHit hit = catalogIndex.hit(itemId, (float) list.score(rank));
+            if (hit == null) {
+                continue;
+            }
+            Integer slot = current.scores.slots.get(itemId);
+            if (slot != null && current.scores.reviewCounts[slot] > 0) {
+                long reviews = current.scores.reviewCounts[slot];
+                hit.setAverageRating((double) current.scores.scoreSums[slot] / reviews);
+                hit.setReviewCount(reviews);
+            }
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    /**
+     * Fold reviews and bookings written since the last refresh into the
+     * scores, or recount everything when a rebuild is due, then re-rank
+     *
+     * @return the number of items with a score
+     */
+    public int refresh() {
+        refreshLock.lock();
+        try {
+            long started = System.nanoTime();
+            Instant now = clock.instant();
+            Scores scores;
+            LocalDate today = LocalDate.ofInstant(now, clock.getZone());
+            if (rebuildDue || ++refreshesSinceRebuild >= FULL_REBUILD_EVERY) {
+                // Rows from before creation days were recorded get one before they are counted
+                bookingRepository.backfillCreatedOn(today);
+                sheetBookingRepository.backfillCreatedOn(today);
+                scores = new Scores(now);
+                rebuildDue = false;
+                refreshesSinceRebuild = 0;
+            } else {
+                scores = snapshot.scores.copy();
+                double elapsedDays = Duration.between(scores.asOf, now).toMillis() / MILLIS_PER_DAY;
+                scores.decay(Math.pow(0.5, Math.max(0, elapsedDays) / halfLifeDays));
+                scores.asOf = now;
+            }
+
+            addReviews(scores);
+            Long bookingsUpTo = bookingRepository.findMaxId();
+            if (bookingsUpTo != null && bookingsUpTo > scores.bookingWatermark) {
+                addBookings(scores, bookingRepository.countByItemAndCreatedOnBetweenIds(
+                        scores.bookingWatermark, bookingsUpTo), today);
+                scores.bookingWatermark = bookingsUpTo;
+            }
+            Long sheetBookingsUpTo = sheetBookingRepository.findMaxId();
+            if (sheetBookingsUpTo != null && sheetBookingsUpTo > scores.sheetBookingWatermark) {
+                addBookings(scores, sheetBookingRepository.countByMusicSheetAndCreatedOnBetweenIds(
+                        scores.sheetBookingWatermark, sheetBookingsUpTo), today);
+                scores.sheetBookingWatermark = sheetBookingsUpTo;
+            }
+
+            snapshot = rank(scores);
+
+            long elapsed = System.nanoTime() - started;
+            if (refreshTimer != null) {
+                refreshTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+            log.debug("Rankings refreshed for {} items in {} ms", scores.size, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return scores.size;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Recount all reviews and bookings now instead of waiting for the next
+     * scheduled rebuild
+     *
+     * @return the number of items with a score
+     */
+    public int rebuild() {
+        refreshLock.lock();
+        try {
+            rebuildDue = true;
+            return refresh();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep serving the previous rankings and try again on the next run
+            log.warn("Ranking refresh failed", e);
+        }
+    }
+
+    private void addReviews(Scores scores) {
+        Long upTo = reviewRepository.findMaxId();
+        if (upTo == null || upTo <= scores.reviewWatermark) {
+            return;
+        }
+        for (ScoreCount row : reviewRepository.countScoresByItemBetweenIds(scores.reviewWatermark, upTo)) {
+            int slot = scores.slot(row.getSubjectId());
+            long points = row.getScore() * row.getCount();
+            scores.reviewCounts[slot] += row.getCount();
+            scores.scoreSums[slot] += points;
+            scores.totalReviews += row.getCount();
+            scores.totalPoints += points;
+        }
+        scores.reviewWatermark = upTo;
+    }
+
+    private void addBookings(Scores scores, List<ItemDateCount> rows, LocalDate today) {
+        for (ItemDateCount row : rows) {
+            if (row.getDate() == null) {
+                // Written around the entity without a creation day; counted once the next rebuild backfills it
+                continue;
+            }
+            long ageDays = ChronoUnit.DAYS.between(row.getDate(), today);
+            scores.popularity[scores.slot(row.getItemId())] += row.getCount() * Math.pow(0.5, ageDays / halfLifeDays);
+        }
+    }
+
+    private Snapshot rank(Scores scores) {
+        double mean = scores.totalReviews == 0 ? 0.0 : (double) scores.totalPoints / scores.totalReviews;
+        Map<String, TopK> topRated = new HashMap<>();
+        Map<String, TopK> trending = new HashMap<>();
+        for (int slot = 0; slot < scores.size; slot++) {
+            long itemId = scores.itemIds[slot];
+            CatalogDocument document = catalogIndex.document(itemId);
+            if (document == null) {
+                continue;
+            }
+            String[] groups = groupsOf(document);
+            long reviews = scores.reviewCounts[slot];
+            if (reviews > 0) {
+                double bayesian = (priorWeight * mean + scores.scoreSums[slot]) / (priorWeight + reviews);
+                offer(topRated, groups, itemId, bayesian);
+            }
+            if (scores.popularity[slot] >= MIN_POPULARITY) {
+                offer(trending, groups, itemId, scores.popularity[slot]);
+            }
+        }
+        topRated.values().forEach(TopK::sort);
+        trending.values().forEach(TopK::sort);
+        return new Snapshot(scores, topRated, trending);
+    }
+
+    private void offer(Map<String, TopK> lists, String[] groups, long itemId, double score) {
+        for (String group : groups) {
+            if (group != null) {
+                lists.computeIfAbsent(group, g -> new TopK(topK)).offer(itemId, score);
+            }
+        }
+    }
+
+    private static String[] groupsOf(CatalogDocument document) {
+        return new String[]{
+                ALL,
+                groupKey(document.getKind(), null, null),
+                document.getInstrumentType() == null ? null : groupKey(null, document.getInstrumentType(), null),
+                document.getCategory() == null ? null : groupKey(null, null, document.getCategory())
+        };
+    }
+
+    private static String groupKey(ItemKind kind, InstrumentType instrumentType, String category) {
+        if (instrumentType != null) {
+            return "type:" + instrumentType;
+        }
+        if (category != null) {
+            return "category:" + CatalogQuery.categoryKey(category);
+        }
+        return kind != null ? "kind:" + kind : ALL;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Per-item review totals and decayed booking weight in parallel arrays,
+     * indexed by a slot assigned to each item on first sight. Mutated only
+     * while a refresh builds it; once published it is never written again.
+     */
+    private static final class Scores {
+        final Map<Long, Integer> slots;
+        long[] itemIds;
+        long[] reviewCounts;
+        long[] scoreSums;
+        double[] popularity;
+        int size;
+        long totalReviews;
+        long totalPoints;
+        long reviewWatermark;
+        long bookingWatermark;
+        long sheetBookingWatermark;
+        Instant asOf;
+
+        Scores(Instant asOf) {
+            this.slots = new HashMap<>();
+            this.itemIds = new long[64];
+            this.reviewCounts = new long[64];
+            this.scoreSums = new long[64];
+            this.popularity = new double[64];
+            this.asOf = asOf;
+        }
+
+        private Scores(Scores source) {
+            this.slots = new HashMap<>(source.slots);
+            this.itemIds = source.itemIds.clone();
+            this.reviewCounts = source.reviewCounts.clone();
+            this.scoreSums = source.scoreSums.clone();
+            this.popularity = source.popularity.clone();
+            this.size = source.size;
+            this.totalReviews = source.totalReviews;
+            this.totalPoints = source.totalPoints;
+            this.reviewWatermark = source.reviewWatermark;
+            this.bookingWatermark = source.bookingWatermark;
+            this.sheetBookingWatermark = source.sheetBookingWatermark;
+            this.asOf = source.asOf;
+        }
+
+        Scores copy() {
+            return new Scores(this);
+        }
+
+        int slot(Long itemId) {
+            Integer slot = slots.get(itemId);
+            if (slot != null) {
+                return slot;
+            }
+            if (size == itemIds.length) {
+                int capacity = size * 2;
+                itemIds = Arrays.copyOf(itemIds, capacity);
+                reviewCounts = Arrays.copyOf(reviewCounts, capacity);
+                scoreSums = Arrays.copyOf(scoreSums, capacity);
+                popularity = Arrays.copyOf(popularity, capacity);
+            }
+            itemIds[size] = itemId;
+            slots.put(itemId, size);
+            return size++;
+        }
+
+        void decay(double factor) {
+            for (int slot = 0; slot < size; slot++) {
+                popularity[slot] *= factor;
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Scores(Instant.EPOCH), Map.of(), Map.of());
+
+        final Scores scores;
+        final Map<String, TopK> topRated;
+        final Map<String, TopK> trending;
+
+        Snapshot(Scores scores, Map<String, TopK> topRated, Map<String, TopK> trending) {
+            this.scores = scores;
+            this.topRated = topRated;
+            this.trending = trending;
+        }
+    }
+}
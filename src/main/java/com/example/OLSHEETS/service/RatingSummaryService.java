@@ -0,0 +1,217 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.data.RatingSubject;
+import com.example.OLSHEETS.data.RatingSummary;
+import com.example.OLSHEETS.dto.RatingAverage;
+import com.example.OLSHEETS.dto.ScoreCount;
+import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.repository.RatingSummaryRepository;
+import com.example.OLSHEETS.repository.RenterReviewRepository;
+import com.example.OLSHEETS.repository.ReviewRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the rating_summary table. Creating a review increments its
+ * subject's summary in the caller's transaction, so averages and star
+ * histograms are a primary-key read, and a page of catalog results can load
+ * the ratings of all its items in one query. rebuild() recomputes everything
+ * from the review tables for repair or after out-of-band writes.
+ */
+@Service
+public class RatingSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingSummaryService.class);
+    // Largest batch lookup, the size of the largest catalog page
+    public static final int MAX_BATCH_SIZE = 100;
+
+    private final RatingSummaryRepository ratingSummaryRepository;
+    private final ReviewRepository reviewRepository;
+    private final RenterReviewRepository renterReviewRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    public RatingSummaryService(RatingSummaryRepository ratingSummaryRepository, ReviewRepository reviewRepository,
+                                RenterReviewRepository renterReviewRepository, ItemRepository itemRepository,
+                                UserRepository userRepository) {
+        this.ratingSummaryRepository = ratingSummaryRepository;
+        this.reviewRepository = reviewRepository;
+        this.renterReviewRepository = renterReviewRepository;
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Count a new review of an item
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordItemReview(Long itemId, int score) {
+        record(RatingSubject.ITEM, itemId, score);
+    }
+
+    /**
+     * Count a new review of a renter
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRenterReview(Long renterId, int score) {
+        record(RatingSubject.RENTER, renterId, score);
+    }
+
+    /**
+     * Average score of an item, or 0.0 when it has no reviews
+     */
+    @Transactional(readOnly = true)
+    public double averageForItem(Long itemId) {
+        return summary(RatingSubject.ITEM, itemId).getAverage();
+    }
+
+    /**
+     * Average score of a renter, or 0.0 when they have no reviews
+     */
+    @Transactional(readOnly = true)
+    public double averageForRenter(Long renterId) {
+        return summary(RatingSubject.RENTER, renterId).getAverage();
+    }
+
+    /**
+     * Summaries of the given items in one query; items without reviews are
+     * left out of the map
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, RatingSummary> itemSummaries(Collection<Long> itemIds) {
+        return summaries(RatingSubject.ITEM, itemIds);
+    }
+
+    /**
+     * Summaries of the given renters in one query; renters without reviews
+     * are left out of the map
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, RatingSummary> renterSummaries(Collection<Long> renterIds) {
+        return summaries(RatingSubject.RENTER, renterIds);
+    }
+
+    /**
+     * Count and average of each item, in request order with duplicates
+     * dropped, from one query
+     */
+    @Transactional(readOnly = true)
+    public List<RatingAverage> itemAverages(List<Long> itemIds) {
+        return averages(RatingSubject.ITEM, itemIds);
+    }
+
+    /**
+     * Count and average of each renter, in request order with duplicates
+     * dropped, from one query
+     */
+    @Transactional(readOnly = true)
+    public List<RatingAverage> renterAverages(List<Long> renterIds) {
+        return averages(RatingSubject.RENTER, renterIds);
+    }
+
+    /**
+     * Recompute all summaries from the review tables in one transaction, so
+     * readers never see a half-built table
+     *
+     * @return the number of reviews folded into the summaries
+     */
+    @Transactional
+    public long rebuild() {
+        Map<RatingSummary.Key, RatingSummary> summaries = new HashMap<>();
+        long processed = fold(summaries, RatingSubject.ITEM, reviewRepository.countScoresByItem())
+                + fold(summaries, RatingSubject.RENTER, renterReviewRepository.countScoresByRenter());
+
+        ratingSummaryRepository.deleteAllRows();
+        ratingSummaryRepository.saveAll(summaries.values());
+        log.info("Rebuilt {} rating summaries from {} reviews", summaries.size(), processed);
+        return processed;
+    }
+
+    /**
+     * Seed the summaries on first start against a database that already has reviews
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (ratingSummaryRepository.count() == 0
+                && (reviewRepository.count() > 0 || renterReviewRepository.count() > 0)) {
+            rebuild();
+        }
+    }
+
+    private void record(RatingSubject subjectType, Long subjectId, int score) {
+        if (ratingSummaryRepository.increment(subjectType, subjectId, score) == 0) {
+            // First review of this subject. Creators queue on the subject's own row, so the upsert
+            // always sees a concurrent creator's committed summary, as in BookingRollupService
+            if (subjectType == RatingSubject.ITEM) {
+                itemRepository.findByIdForUpdate(subjectId);
+            } else {
+                userRepository.findByIdForUpdate(subjectId);
+            }
+            ratingSummaryRepository.upsert(subjectType, subjectId, score);
+        }
+    }
+
+    private RatingSummary summary(RatingSubject subjectType, Long subjectId) {
+        return ratingSummaryRepository.findBySubjectTypeAndSubjectId(subjectType, subjectId)
+                .orElseGet(() -> new RatingSummary(subjectType, subjectId));
+    }
+
+    private Map<Long, RatingSummary> summaries(RatingSubject subjectType, Collection<Long> subjectIds) {
+        Map<Long, RatingSummary> bySubject = new HashMap<>();
+        if (subjectIds.isEmpty()) {
+            return bySubject;
+        }
+        for (RatingSummary summary : ratingSummaryRepository.findBySubjectTypeAndSubjectIdIn(subjectType, subjectIds)) {
+            bySubject.put(summary.getSubjectId(), summary);
+        }
+        return bySubject;
+    }
+
+    private List<RatingAverage> averages(RatingSubject subjectType, List<Long> subjectIds) {
+        if (subjectIds == null) {
+            throw new IllegalArgumentException("Ids must not be null");
+        }
+        // Copy before checking for null: immutable lists throw on contains(null)
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(subjectIds);
+        if (distinct.contains(null)) {
+            throw new IllegalArgumentException("Ids must not be null");
+        }
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids per request");
+        }
+
+        Map<Long, RatingSummary> bySubject = summaries(subjectType, distinct);
+        List<RatingAverage> averages = new ArrayList<>(distinct.size());
+        for (Long subjectId : distinct) {
+            RatingSummary summary = bySubject.getOrDefault(subjectId, new RatingSummary(subjectType, subjectId));
+            averages.add(new RatingAverage(subjectId, summary.getReviewCount(), summary.getAverage()));
+        }
+        return averages;
+    }
+
+    private static long fold(Map<RatingSummary.Key, RatingSummary> summaries, RatingSubject subjectType,
+                             List<ScoreCount> rows) {
+        long processed = 0;
+        for (ScoreCount row : rows) {
+            summaries.computeIfAbsent(new RatingSummary.Key(subjectType, row.getSubjectId()),
+                    key -> new RatingSummary(subjectType, row.getSubjectId()))
+                    .add(row.getScore(), row.getCount());
+            processed += row.getCount();
+        }
+        return processed;
+    }
+}
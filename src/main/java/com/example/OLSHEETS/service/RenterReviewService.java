@@ -3,10 +3,19 @@ package com.example.OLSHEETS.service;
 import com.example.OLSHEETS.data.Booking;
 import com.example.OLSHEETS.data.RenterReview;
 import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.KeysetPage;
+import com.example.OLSHEETS.dto.RatingAverage;
 import com.example.OLSHEETS.dto.RenterReviewRequest;
 import com.example.OLSHEETS.dto.RenterReviewResponse;
+import com.example.OLSHEETS.dto.ReviewCursor;
 import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.repository.RenterReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,12 +25,17 @@ import java.util.List;
 @Service
 public class RenterReviewService {
 
+    private static final Logger log = LoggerFactory.getLogger(RenterReviewService.class);
+
     private final RenterReviewRepository renterReviewRepository;
     private final BookingRepository bookingRepository;
+    private final RatingSummaryService ratingSummaryService;
 
-    public RenterReviewService(RenterReviewRepository renterReviewRepository, BookingRepository bookingRepository) {
+    public RenterReviewService(RenterReviewRepository renterReviewRepository, BookingRepository bookingRepository,
+                               RatingSummaryService ratingSummaryService) {
         this.renterReviewRepository = renterReviewRepository;
         this.bookingRepository = bookingRepository;
+        this.ratingSummaryService = ratingSummaryService;
     }
 
     /**
@@ -67,26 +81,60 @@ public class RenterReviewService {
         // Create and save review
         RenterReview review = new RenterReview(booking, request.getScore(), request.getComment());
         RenterReview savedReview = renterReviewRepository.save(review);
+        ratingSummaryService.recordRenterReview(booking.getRenter().getId(), request.getScore());
 
         return mapToResponse(savedReview);
     }
 
     /**
-     * Get all reviews for a specific renter
+     * Copy the renter id onto reviews stored before it was kept on the review,
+     * so the feed query finds them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillFeedKeys() {
+        int updated = renterReviewRepository.backfillRenterIds();
+        if (updated > 0) {
+            log.info("Copied the renter id onto {} reviews", updated);
+        }
+    }
+
+    /**
+     * Get all reviews for a specific renter, newest first
      */
     public List<RenterReviewResponse> getReviewsByRenterId(Long renterId) {
-        List<RenterReview> reviews = renterReviewRepository.findByRenterId(renterId);
-        return reviews.stream()
-                .map(this::mapToResponse)
-                .toList();
+        return renterReviewRepository.findFeedByRenterId(renterId, Pageable.unpaged());
     }
 
     /**
-     * Get average score for a renter
+     * Get one page of a renter's reviews, newest first, starting after the
+     * given cursor (null for the first page)
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public KeysetPage<RenterReviewResponse> getReviewFeedByRenterId(Long renterId, String cursor, int size) {
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<RenterReviewResponse> rows;
+        if (cursor == null) {
+            rows = renterReviewRepository.findFeedByRenterId(renterId, limit);
+        } else {
+            ReviewCursor after = ReviewCursor.decode(cursor);
+            rows = renterReviewRepository.findFeedByRenterIdBefore(renterId, after.getCreatedAt(), after.getId(), limit);
+        }
+        return KeysetPage.of(rows, size, r -> new ReviewCursor(r.getCreatedAt(), r.getId()).encode());
+    }
+
+    /**
+     * Get average score for a renter, read from their rating summary
      */
     public Double getAverageScoreByRenterId(Long renterId) {
-        Double average = renterReviewRepository.getAverageScoreByRenterId(renterId);
-        return average != null ? average : 0.0;
+        return ratingSummaryService.averageForRenter(renterId);
+    }
+
+    /**
+     * Get review count and average score for several renters at once
+     */
+    public List<RatingAverage> getAverageScoresByRenterIds(List<Long> renterIds) {
+        return ratingSummaryService.renterAverages(renterIds);
     }
 
     /**
@@ -3,10 +3,19 @@ package com.example.OLSHEETS.service;
 import com.example.OLSHEETS.data.Booking;
 import com.example.OLSHEETS.data.Review;
 import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.KeysetPage;
+import com.example.OLSHEETS.dto.RatingAverage;
 import com.example.OLSHEETS.dto.ReviewRequest;
+import com.example.OLSHEETS.dto.ReviewCursor;
 import com.example.OLSHEETS.dto.ReviewResponse;
 import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,12 +25,17 @@ import java.util.List;
 @Service
 public class ReviewService {
 
+    private static final Logger log = LoggerFactory.getLogger(ReviewService.class);
+
     private final ReviewRepository reviewRepository;
     private final BookingRepository bookingRepository;
+    private final RatingSummaryService ratingSummaryService;
 
-    public ReviewService(ReviewRepository reviewRepository, BookingRepository bookingRepository) {
+    public ReviewService(ReviewRepository reviewRepository, BookingRepository bookingRepository,
+                         RatingSummaryService ratingSummaryService) {
         this.reviewRepository = reviewRepository;
         this.bookingRepository = bookingRepository;
+        this.ratingSummaryService = ratingSummaryService;
     }
 
     /**
@@ -67,26 +81,60 @@ public class ReviewService {
         // Create and save review
         Review review = new Review(booking, request.getScore(), request.getComment());
         Review savedReview = reviewRepository.save(review);
+        ratingSummaryService.recordItemReview(booking.getItem().getId(), request.getScore());
 
         return mapToResponse(savedReview);
     }
 
     /**
-     * Get all reviews for a specific item
+     * Copy the item id onto reviews stored before it was kept on the review,
+     * so the feed query finds them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillFeedKeys() {
+        int updated = reviewRepository.backfillItemIds();
+        if (updated > 0) {
+            log.info("Copied the item id onto {} reviews", updated);
+        }
+    }
+
+    /**
+     * Get all reviews for a specific item, newest first
      */
     public List<ReviewResponse> getReviewsByItemId(Long itemId) {
-        List<Review> reviews = reviewRepository.findByItemId(itemId);
-        return reviews.stream()
-                .map(this::mapToResponse)
-                .toList();
+        return reviewRepository.findFeedByItemId(itemId, Pageable.unpaged());
     }
 
     /**
-     * Get average score for an item
+     * Get one page of an item's reviews, newest first, starting after the
+     * given cursor (null for the first page)
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public KeysetPage<ReviewResponse> getReviewFeedByItemId(Long itemId, String cursor, int size) {
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<ReviewResponse> rows;
+        if (cursor == null) {
+            rows = reviewRepository.findFeedByItemId(itemId, limit);
+        } else {
+            ReviewCursor after = ReviewCursor.decode(cursor);
+            rows = reviewRepository.findFeedByItemIdBefore(itemId, after.getCreatedAt(), after.getId(), limit);
+        }
+        return KeysetPage.of(rows, size, r -> new ReviewCursor(r.getCreatedAt(), r.getId()).encode());
+    }
+
+    /**
+     * Get average score for an item, read from its rating summary
      */
     public Double getAverageScoreByItemId(Long itemId) {
-        Double average = reviewRepository.getAverageScoreByItemId(itemId);
-        return average != null ? average : 0.0;
+        return ratingSummaryService.averageForItem(itemId);
+    }
+
+    /**
+     * Get review count and average score for several items at once
+     */
+    public List<RatingAverage> getAverageScoresByItemIds(List<Long> itemIds) {
+        return ratingSummaryService.itemAverages(itemIds);
     }
 
     /**
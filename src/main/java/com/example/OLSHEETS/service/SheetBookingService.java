@@ -3,6 +3,7 @@ package com.example.OLSHEETS.service;
 import com.example.OLSHEETS.data.MusicSheet;
 import com.example.OLSHEETS.data.SheetBooking;
 import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.SheetBookingView;
 import com.example.OLSHEETS.repository.MusicSheetRepository;
 import com.example.OLSHEETS.repository.SheetBookingRepository;
 import org.springframework.stereotype.Service;
@@ -44,22 +45,23 @@ public class SheetBookingService {
         return bookingRepository.save(booking);
     }
 
-    public List<SheetBooking> getBookingsByRenter(Long renterId) {
-        return bookingRepository.findByRenterId(renterId);
+    public List<SheetBookingView> getBookingsByRenter(Long renterId) {
+        return bookingRepository.findViewsByRenterId(renterId);
     }
 
     public Optional<SheetBooking> getBookingById(Long bookingId) {
         return bookingRepository.findById(bookingId);
     }
 
-    public List<SheetBooking> getAllBookings() {
-        return bookingRepository.findAll();
+    public List<SheetBookingView> getAllBookings() {
+        return bookingRepository.findAllViews();
     }
 
-    public List<SheetBooking> getBookingsBySheet(Long sheetId) {
-        MusicSheet sheet = sheetRepository.findById(sheetId)
-            .orElseThrow(() -> new IllegalArgumentException("Music sheet not found with id: " + sheetId));
-        return bookingRepository.findByMusicSheet(sheet);
+    public List<SheetBookingView> getBookingsBySheet(Long sheetId) {
+        if (!sheetRepository.existsById(sheetId)) {
+            throw new IllegalArgumentException("Music sheet not found with id: " + sheetId);
+        }
+        return bookingRepository.findViewsBySheetId(sheetId);
     }
 }
 
@@ -0,0 +1,252 @@
+package com.example.OLSHEETS.service;
+
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.ItemBookingCount;
+import com.example.OLSHEETS.dto.Suggestion;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.InstrumentRepository;
+import com.example.OLSHEETS.repository.MusicSheetRepository;
+import com.example.OLSHEETS.repository.SheetBookingRepository;
+import com.example.OLSHEETS.search.CatalogDocument;
+import com.example.OLSHEETS.search.SuggestionTrie;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Prefix autocomplete over item names, composers and categories, ranked by
+ * how often the items behind them are booked.
+ *
+ * Suggestions are served from immutable SuggestionTries: one per item kind,
+ * so the instrument and sheet search boxes only complete to their own items,
+ * and one over the whole catalog. A background thread rebuilds them from the
+ * database on a fixed delay and swaps the new set in with a single volatile
+ * write, so lookups never block on a rebuild and never see a half-built trie.
+ */
+@Service
+public class SuggestService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestService.class);
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final InstrumentRepository instrumentRepository;
+    private final MusicSheetRepository musicSheetRepository;
+    private final BookingRepository bookingRepository;
+    private final SheetBookingRepository sheetBookingRepository;
+    private final long rebuildIntervalSeconds;
+
+    private final ScheduledExecutorService rebuilder;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Tries tries = Tries.empty();
+
+    private final Timer rebuildTimer;
+    private final Timer suggestTimer;
+
+    @Autowired
+    public SuggestService(InstrumentRepository instrumentRepository,
+                          MusicSheetRepository musicSheetRepository,
+                          BookingRepository bookingRepository,
+                          SheetBookingRepository sheetBookingRepository,
+                          @Value("${catalog.suggest.rebuild-interval-seconds:300}") long rebuildIntervalSeconds,
+                          ObjectProvider<MeterRegistry> registry) {
+        this(instrumentRepository, musicSheetRepository, bookingRepository, sheetBookingRepository,
+                rebuildIntervalSeconds, registry.getIfAvailable());
+    }
+
+    /**
+     * @param registry where to publish metrics, or null for none
+     */
+    public SuggestService(InstrumentRepository instrumentRepository,
+                          MusicSheetRepository musicSheetRepository,
+                          BookingRepository bookingRepository,
+                          SheetBookingRepository sheetBookingRepository,
+                          long rebuildIntervalSeconds,
+                          MeterRegistry registry) {
+        this.instrumentRepository = instrumentRepository;
+        this.musicSheetRepository = musicSheetRepository;
+        this.bookingRepository = bookingRepository;
+        this.sheetBookingRepository = sheetBookingRepository;
+        this.rebuildIntervalSeconds = rebuildIntervalSeconds;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (registry != null) {
+            Gauge.builder("catalog.suggest.memory", this, s -> s.tries.estimatedBytes())
+                    .description("Approximate heap held by the autocomplete tries")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("catalog.suggest.entries", this, s -> s.tries.all.size())
+                    .description("Suggestions in the whole-catalog autocomplete trie")
+                    .register(registry);
+            Gauge.builder("catalog.suggest.nodes", this, s -> s.tries.all.nodeCount())
+                    .description("Nodes in the whole-catalog autocomplete trie")
+                    .register(registry);
+            this.rebuildTimer = Timer.builder("catalog.suggest.rebuild")
+                    .description("Time to reload and rebuild the autocomplete trie")
+                    .register(registry);
+            this.suggestTimer = Timer.builder("catalog.suggest.latency")
+                    .description("Time to answer one autocomplete lookup")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+        } else {
+            this.rebuildTimer = null;
+            this.suggestTimer = null;
+        }
+    }
+
+    /**
+     * Build the first trie in the background once the application is up,
+     * then keep rebuilding it on a fixed delay
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuilding() {
+        if (rebuildIntervalSeconds > 0) {
+            rebuilder.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            rebuilder.execute(this::rebuildQuietly);
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggest(prefix, null, limit);
+    }
+
+    /**
+     * @param kind complete to items of this kind only, or null for the whole catalog
+     */
+    public List<Suggestion> suggest(String prefix, ItemKind kind, int limit) {
+        SuggestionTrie trie = tries.of(kind);
+        if (suggestTimer == null) {
+            return trie.suggest(prefix, limit);
+        }
+        return suggestTimer.record(() -> trie.suggest(prefix, limit));
+    }
+
+    /**
+     * Reload names, composers, categories and booking counts, build new
+     * tries and swap them in
+     *
+     * @return the number of suggestions in the new whole-catalog trie
+     */
+    public int rebuild() {
+        rebuildLock.lock();
+        try {
+            long started = System.nanoTime();
+            Map<Long, Long> popularity = new HashMap<>();
+            for (ItemBookingCount count : bookingRepository.countGroupedByItem()) {
+                popularity.merge(count.getItemId(), count.getCount(), Long::sum);
+            }
+            for (ItemBookingCount count : sheetBookingRepository.countGroupedByMusicSheet()) {
+                popularity.merge(count.getItemId(), count.getCount(), Long::sum);
+            }
+
+            SuggestionTrie.Builder all = SuggestionTrie.builder();
+            SuggestionTrie.Builder instruments = SuggestionTrie.builder();
+            SuggestionTrie.Builder sheets = SuggestionTrie.builder();
+            addBatches(List.of(all, instruments), popularity,
+                    after -> instrumentRepository.findCatalogDocumentsAfter(after, PageRequest.ofSize(LOAD_BATCH_SIZE)));
+            addBatches(List.of(all, sheets), popularity,
+                    after -> musicSheetRepository.findCatalogDocumentsAfter(after, PageRequest.ofSize(LOAD_BATCH_SIZE)));
+            Tries rebuilt = new Tries(all.build(), instruments.build(), sheets.build());
+            tries = rebuilt;
+            SuggestionTrie built = rebuilt.all;
+
+            long elapsed = System.nanoTime() - started;
+            if (rebuildTimer != null) {
+                rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+            log.info("Autocomplete tries rebuilt with {} suggestions, {} nodes, ~{} KiB in {} ms",
+                    built.size(), built.nodeCount(), rebuilt.estimatedBytes() / 1024, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return built.size();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Keep serving the previous trie and try again on the next run
+            log.warn("Autocomplete trie rebuild failed", e);
+        }
+    }
+
+    private static void addBatches(List<SuggestionTrie.Builder> builders, Map<Long, Long> popularity,
+                                   Function<Long, List<CatalogDocument>> nextBatch) {
+        Long after = 0L;
+        List<CatalogDocument> batch;
+        do {
+            batch = nextBatch.apply(after);
+            for (CatalogDocument document : batch) {
+                long bookings = popularity.getOrDefault(document.getId(), 0L);
+                for (SuggestionTrie.Builder builder : builders) {
+                    builder.add(document.getName(), Suggestion.Field.NAME, bookings);
+                    if (document.getComposer() != null) {
+                        builder.add(document.getComposer(), Suggestion.Field.COMPOSER, bookings);
+                    }
+                    if (document.getCategory() != null) {
+                        builder.add(document.getCategory(), Suggestion.Field.CATEGORY, bookings);
+                    }
+                }
+                after = document.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    // The tries built by one rebuild, published together
+    private static final class Tries {
+        private final SuggestionTrie all;
+        private final Map<ItemKind, SuggestionTrie> byKind = new EnumMap<>(ItemKind.class);
+
+        Tries(SuggestionTrie all, SuggestionTrie instruments, SuggestionTrie sheets) {
+            this.all = all;
+            byKind.put(ItemKind.INSTRUMENT, instruments);
+            byKind.put(ItemKind.MUSIC_SHEET, sheets);
+        }
+
+        static Tries empty() {
+            return new Tries(SuggestionTrie.empty(), SuggestionTrie.empty(), SuggestionTrie.empty());
+        }
+
+        SuggestionTrie of(ItemKind kind) {
+            return kind == null ? all : byKind.get(kind);
+        }
+
+        long estimatedBytes() {
+            long bytes = all.estimatedBytes();
+            for (SuggestionTrie trie : byKind.values()) {
+                bytes += trie.estimatedBytes();
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.OLSHEETS.service;
+
+/**
+ * The K highest-scoring ids, kept in two parallel primitive arrays.
+ *
+ * While entries are offered the arrays form a binary min-heap whose root is
+ * the weakest entry, so an offer is O(log K) and a score that doesn't beat
+ * the root is rejected in O(1). sort() heap-sorts in place into descending
+ * order for reads. Equal scores rank the smaller id first. Not thread-safe:
+ * one thread builds and sorts it, after which it is only read.
+ */
+final class TopK {
+
+    private final long[] ids;
+    private final double[] scores;
+    private int size;
+
+    TopK(int capacity) {
+        this.ids = new long[capacity];
+        this.scores = new double[capacity];
+    }
+
+    void offer(long id, double score) {
+        if (size < ids.length) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (size > 0 && ranksAbove(id, score, ids[0], scores[0])) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Put the entries in descending order; no more offers after this
+     */
+    TopK sort() {
+        // Moving the weakest root to the end each time leaves the best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long id(int rank) {
+        return ids[rank];
+    }
+
+    double score(int rank) {
+        return scores[rank];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!weaker(index, parent)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int end) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= end) {
+                return;
+            }
+            if (child + 1 < end && weaker(child + 1, child)) {
+                child++;
+            }
+            if (!weaker(child, index)) {
+                return;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    private boolean weaker(int a, int b) {
+        return ranksAbove(ids[b], scores[b], ids[a], scores[a]);
+    }
+
+    private static boolean ranksAbove(long id, double score, long otherId, double otherScore) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private void swap(int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
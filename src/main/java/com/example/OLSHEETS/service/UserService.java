@@ -4,6 +4,7 @@ import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.dto.SignupRequest;
 import com.example.OLSHEETS.exception.UserAlreadyExistsException;
 import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.security.PasswordHashingExecutor;
 import io.micrometer.core.instrument.Counter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -22,6 +23,10 @@ public class UserService {
     @Autowired(required = false)
     private Counter usersRegisteredCounter;
 
+    // BCrypt runs here instead of on the request thread when available
+    @Autowired(required = false)
+    private PasswordHashingExecutor passwordHashing;
+
     public User registerUser(SignupRequest request) {
         // Check if username already exists
         if (userRepository.findByUsername(request.getUsername()).isPresent()) {
@@ -38,7 +43,7 @@ public class UserService {
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
         user.setName(request.getName());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(encodePassword(request.getPassword()));
 
         User saved = userRepository.save(user);
         if (usersRegisteredCounter != null) {
@@ -50,7 +55,7 @@ public class UserService {
     public Optional<User> authenticateUser(String username, String password) {
         Optional<User> userOpt = userRepository.findByUsername(username);
 
-        if (userOpt.isPresent() && passwordEncoder.matches(password, userOpt.get().getPassword())) {
+        if (userOpt.isPresent() && passwordMatches(password, userOpt.get().getPassword())) {
             return userOpt;
         }
 
@@ -64,4 +69,18 @@ public class UserService {
     public BCryptPasswordEncoder getPasswordEncoder() {
         return passwordEncoder;
     }
+
+    private String encodePassword(String rawPassword) {
+        if (passwordHashing == null) {
+            return passwordEncoder.encode(rawPassword);
+        }
+        return passwordHashing.submit("encode", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    private boolean passwordMatches(String rawPassword, String encodedPassword) {
+        if (passwordHashing == null) {
+            return passwordEncoder.matches(rawPassword, encodedPassword);
+        }
+        return passwordHashing.submit("matches", () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
 }
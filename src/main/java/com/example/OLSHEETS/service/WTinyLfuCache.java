@@ -0,0 +1,217 @@
+package com.example.OLSHEETS.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Weight-bounded cache with W-TinyLFU eviction.
+ *
+ * New entries land in a small LRU window (1% of the weight budget). When the
+ * window overflows, its least recent entry becomes a candidate for the main
+ * region, a segmented LRU split into probation (20%) and protected (80%).
+ * The candidate only gets in if the FrequencySketch says it has been asked
+ * for more often than the probation entries it would push out, so a burst
+ * of one-off reads cannot flush the items that are viewed all the time. An
+ * entry read again while on probation is promoted to protected.
+ * Not thread-safe; callers lock around it.
+ */
+final class WTinyLfuCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final long maxWeight;
+    private final long windowMax;
+    private final long protectedMax;
+    private final ToIntFunction<V> weigher;
+    // Told about entries dropped to stay within the budget, or null
+    private final BiConsumer<K, V> evictionListener;
+    private final FrequencySketch sketch;
+    private final Map<K, Node<K, V>> nodes = new HashMap<>();
+    // Sentinel head of each circular queue, indexed by WINDOW, PROBATION and PROTECTED
+    private final Node<K, V>[] queues = newQueues();
+    private final long[] weights = new long[3];
+    private long evictions;
+
+    /**
+     * @param maxWeight       total weight budget
+     * @param expectedEntries sizes the frequency sketch
+     */
+    WTinyLfuCache(long maxWeight, int expectedEntries, ToIntFunction<V> weigher) {
+        this(maxWeight, expectedEntries, weigher, null);
+    }
+
+    /**
+     * @param evictionListener called for every entry evicted to stay within
+     *                         the budget; not for remove or clear
+     */
+    WTinyLfuCache(long maxWeight, int expectedEntries, ToIntFunction<V> weigher, BiConsumer<K, V> evictionListener) {
+        this.maxWeight = maxWeight;
+        this.windowMax = Math.max(1, maxWeight / 100);
+        this.protectedMax = (maxWeight - windowMax) * 8 / 10;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = nodes.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.queue == PROBATION) {
+            // Read again while on probation: promote, demoting protected overflow
+            moveTo(node, PROTECTED);
+            while (weights[PROTECTED] > protectedMax) {
+                moveTo(queues[PROTECTED].next, PROBATION);
+            }
+        } else {
+            moveTo(node, node.queue);
+        }
+        return node.value;
+    }
+
+    void put(K key, V value) {
+        remove(key);
+        int weight = weigher.applyAsInt(value);
+        if (weight > maxWeight - windowMax) {
+            return;
+        }
+        Node<K, V> node = new Node<>(key, value, weight);
+        nodes.put(key, node);
+        link(node, WINDOW);
+        while (weights[WINDOW] > windowMax) {
+            admit(queues[WINDOW].next);
+        }
+    }
+
+    /**
+     * @return the value that was removed, or null
+     */
+    V remove(K key) {
+        Node<K, V> node = nodes.remove(key);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.value;
+    }
+
+    /**
+     * Drop every entry; the frequency sketch is kept, so popular keys are
+     * admitted again as soon as they are reloaded
+     */
+    void clear() {
+        nodes.clear();
+        for (Node<K, V> head : queues) {
+            head.prev = head;
+            head.next = head;
+        }
+        Arrays.fill(weights, 0);
+    }
+
+    // Membership only: no effect on frequency or recency
+    boolean containsKey(K key) {
+        return nodes.containsKey(key);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    long weight() {
+        return weights[WINDOW] + weights[PROBATION] + weights[PROTECTED];
+    }
+
+    long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Move the window's oldest entry into probation if it is used more often
+     * than the main-region entries it would displace; otherwise drop it
+     */
+    private void admit(Node<K, V> candidate) {
+        long mainMax = maxWeight - windowMax;
+        int candidateFrequency = sketch.frequency(candidate.key);
+        while (weights[PROBATION] + weights[PROTECTED] + candidate.weight > mainMax) {
+            Node<K, V> victim = queues[PROBATION].next != queues[PROBATION]
+                    ? queues[PROBATION].next
+                    : queues[PROTECTED].next;
+            if (candidateFrequency <= sketch.frequency(victim.key)) {
+                evict(candidate);
+                return;
+            }
+            evict(victim);
+        }
+        moveTo(candidate, PROBATION);
+    }
+
+    private void evict(Node<K, V> node) {
+        nodes.remove(node.key);
+        unlink(node);
+        evictions++;
+        if (evictionListener != null) {
+            evictionListener.accept(node.key, node.value);
+        }
+    }
+
+    private void moveTo(Node<K, V> node, int queue) {
+        unlink(node);
+        link(node, queue);
+    }
+
+    // Append at the most recently used end
+    private void link(Node<K, V> node, int queue) {
+        Node<K, V> head = queues[queue];
+        node.queue = queue;
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+        weights[queue] += node.weight;
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        weights[node.queue] -= node.weight;
+    }
+
+    /**
+     * Entry in one of the circular queues; each queue's head is a sentinel
+     * whose next is the least recently used entry
+     */
+    private static <K, V> Node<K, V>[] newQueues() {
+        @SuppressWarnings("unchecked")
+        Node<K, V>[] queues = (Node<K, V>[]) new Node<?, ?>[3];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new Node<>();
+        }
+        return queues;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int weight;
+        int queue;
+        Node<K, V> prev = this;
+        Node<K, V> next = this;
+
+        Node() {
+            this(null, null, 0);
+        }
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.OLSHEETS.benchmark;
+
+import com.example.OLSHEETS.service.ItemIntervalIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+/**
+ * Time to filter every item in the catalog by a one-week availability window,
+ * once through the day-bitmap calendar and once through per-item interval
+ * lookups. Target: tens of milliseconds at 100k items.
+ *
+ * Run with: java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)
+ *     com.example.OLSHEETS.benchmark.AvailabilityFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityFilterBenchmark {
+
+    @Param({"100000"})
+    private int items;
+
+    private ItemIntervalIndex index;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new ItemIntervalIndex(null, null);
+        LocalDate today = LocalDate.now();
+        Random random = new Random(42);
+        long bookingId = 0;
+        for (long item = 1; item <= items; item++) {
+            for (int i = 0; i < 3; i++) {
+                LocalDate start = today.plusDays(random.nextInt(360));
+                index.putBooking(++bookingId, item, start, start.plusDays(random.nextInt(10)));
+            }
+        }
+        from = today.plusDays(30);
+        to = today.plusDays(37);
+    }
+
+    @Benchmark
+    public int calendar() {
+        return countAvailable(index.availableBetween(from, to));
+    }
+
+    @Benchmark
+    public int intervals() {
+        return countAvailable(itemId -> index.isAvailable(itemId, from, to));
+    }
+
+    private int countAvailable(LongPredicate available) {
+        int count = 0;
+        for (long item = 1; item <= items; item++) {
+            if (available.test(item)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AvailabilityFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.OLSHEETS.benchmark;
+
+import com.example.OLSHEETS.OlsheetsApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application for benchmarks that need real repositories: the test
+ * profile's in-memory H2 database, no web server, SQL logging and per-request
+ * query counting off. Each JMH fork gets its own JVM and so its own database.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        SpringApplication application = new SpringApplication(OlsheetsApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setAdditionalProfiles("test");
+        application.setLogStartupInfo(false);
+        return application.run(
+                "--spring.main.lazy-initialization=false",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--olsheets.query-count.enabled=false");
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.OLSHEETS.benchmark;
+
+import com.example.OLSHEETS.data.BookingStatus;
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.dto.BookingView;
+import com.example.OLSHEETS.dto.InstrumentListing;
+import com.example.OLSHEETS.dto.MusicSheetListing;
+import com.example.OLSHEETS.dto.ReviewResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of one page of each of the main list responses, with an
+ * ObjectMapper configured like Spring Boot's (ISO dates, JavaTimeModule).
+ *
+ * Run with: ./mvnw -Pjmh verify -Djmh.include=DtoSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    @Param({"20", "200"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<InstrumentListing> instruments;
+    private List<MusicSheetListing> sheets;
+    private List<BookingView> bookings;
+    private List<ReviewResponse> reviews;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        LocalDate today = LocalDate.now();
+        instruments = new ArrayList<>();
+        sheets = new ArrayList<>();
+        bookings = new ArrayList<>();
+        reviews = new ArrayList<>();
+        for (long i = 1; i <= size; i++) {
+            instruments.add(new InstrumentListing(i, "Instrument " + i, "A well kept instrument, recently serviced",
+                    25.0 + i, 7L, "owner", "Owner Name", (int) (i % 10), InstrumentType.ACOUSTIC, InstrumentFamily.GUITAR));
+            sheets.add(new MusicSheetListing(i, "Sonata " + i, "Full score with parts", 4.5, 7L, "owner", "Owner Name",
+                    "Mozart", "Piano", "CLASSICAL", 12.5f));
+            bookings.add(new BookingView(i, i, Instrument.class, "Instrument " + i, 25.0 + i, 7L, "owner", "Owner Name",
+                    100 + i, "renter" + i, "Renter " + i, today.plusDays(i), today.plusDays(i + 3), BookingStatus.APPROVED));
+            reviews.add(new ReviewResponse(i, i, i, "Instrument " + i, 100 + i, "renter" + i, (int) (1 + i % 5),
+                    "Great instrument, would rent again", LocalDateTime.now()));
+        }
+    }
+
+    @Benchmark
+    public byte[] instrumentListings() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(instruments);
+    }
+
+    @Benchmark
+    public byte[] musicSheetListings() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(sheets);
+    }
+
+    @Benchmark
+    public byte[] bookingViews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] reviewResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reviews);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DtoSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.OLSHEETS.benchmark;
+
+import com.example.OLSHEETS.search.CatalogDocument;
+import com.example.OLSHEETS.search.CatalogIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of name search over a music sheet catalog.
+ *
+ * likeSubstring runs the query findByNameContainingIgnoreCase generates
+ * against an in-memory H2 item table and only finds correctly spelled names.
+ * trigramFuzzy runs the misspelled query through the catalog index with fuzzy
+ * matching, which also covers composer, instrumentation and category.
+ *
+ * Run with: java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)
+ *     com.example.OLSHEETS.benchmark.FuzzySearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FuzzySearchBenchmark {
+
+    private static final String[] TITLES = {"Nocturne", "Ballade", "Sonata", "Etude", "Prelude", "Mazurka", "Waltz"};
+    private static final String[] COMPOSERS = {"Chopin", "Beethoven", "Mozart", "Debussy", "Schubert", "Liszt", "Brahms"};
+    private static final String[] INSTRUMENTS = {"Piano", "Violin", "Cello", "Flute", "Guitar"};
+
+    @Param({"10000", "100000"})
+    private int items;
+
+    private Connection connection;
+    private PreparedStatement like;
+    private CatalogIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:fuzzy-" + items + ";DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table item (id bigint primary key, name varchar(255) not null)");
+        }
+        index = new CatalogIndex(null, null);
+
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement("insert into item (id, name) values (?, ?)")) {
+            for (long id = 1; id <= items; id++) {
+                String composer = pick(random, COMPOSERS);
+                String name = pick(random, TITLES) + " No. " + random.nextInt(30) + " by " + composer;
+                insert.setLong(1, id);
+                insert.setString(2, name);
+                insert.addBatch();
+                index.index(new CatalogDocument(id, name, null, 5.0, composer, pick(random, INSTRUMENTS), "Classical"));
+            }
+            insert.executeBatch();
+        }
+        like = connection.prepareStatement("select id, name from item where upper(name) like upper(?) escape '\\'");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        like.close();
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void likeSubstring(Blackhole blackhole) throws SQLException {
+        like.setString(1, "%chopin%");
+        try (ResultSet rows = like.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getLong(1));
+            }
+        }
+    }
+
+    @Benchmark
+    public Object trigramFuzzy() {
+        return index.search("chopan", null, 0, 100, true);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FuzzySearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
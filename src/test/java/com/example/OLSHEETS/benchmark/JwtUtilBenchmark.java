@@ -0,0 +1,73 @@
+package com.example.OLSHEETS.benchmark;
+
+import com.example.OLSHEETS.security.JwtUtil;
+import com.example.OLSHEETS.security.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing a token at login and of verifying one, with the
+ * verified-token cache disabled and enabled. JwtAuthenticationFilterBenchmark
+ * covers the same verification as seen by a whole request.
+ *
+ * Run with: ./mvnw -Pjmh verify -Djmh.include=JwtUtilBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncached = new JwtUtil(0);
+        cached = new JwtUtil(10_000);
+        token = cached.generateToken("benchmark-user", 42L);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncached.generateToken("benchmark-user", 42L);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyUncached() {
+        return uncached.verifyToken(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyCached() {
+        return cached.verifyToken(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return uncached.validateToken(token, "benchmark-user");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
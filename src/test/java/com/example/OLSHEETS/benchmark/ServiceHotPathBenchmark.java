@@ -0,0 +1,200 @@
+package com.example.OLSHEETS.benchmark;
+
+import com.example.OLSHEETS.data.Booking;
+import com.example.OLSHEETS.data.BookingStatus;
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.Review;
+import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.KeysetPage;
+import com.example.OLSHEETS.dto.ReviewResponse;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.InstrumentRepository;
+import com.example.OLSHEETS.repository.ReviewRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.service.AdminService;
+import com.example.OLSHEETS.service.BookingService;
+import com.example.OLSHEETS.service.PaymentService;
+import com.example.OLSHEETS.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer hot paths against the embedded H2 database, through the same
+ * beans, caches and indexes the application runs with.
+ *
+ * The fixture is one owner with a catalog of instruments, each booked by
+ * several renters on consecutive weeks, plus past bookings with reviews on
+ * the first instrument. createBookingConflict asks for dates overlapping an
+ * existing booking, so it measures the validation and conflict checks and
+ * never inserts anything.
+ *
+ * Run with: ./mvnw -Pjmh verify -Djmh.include=ServiceHotPathBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceHotPathBenchmark {
+
+    private static final int BOOKINGS_PER_ITEM = 8;
+
+    @Param({"200"})
+    private int items;
+
+    @Param({"50"})
+    private int reviews;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private PaymentService paymentService;
+    private AdminService adminService;
+    private ReviewService reviewService;
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User renter;
+    private Instrument item;
+    private Booking booking;
+    private LocalDate conflictStart;
+    private LocalDate conflictEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookingService = context.getBean(BookingService.class);
+        paymentService = context.getBean(PaymentService.class);
+        adminService = context.getBean(AdminService.class);
+        reviewService = context.getBean(ReviewService.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        InstrumentRepository instrumentRepository = context.getBean(InstrumentRepository.class);
+        ReviewRepository reviewRepository = context.getBean(ReviewRepository.class);
+
+        owner = userRepository.save(new User("bench-owner", "bench-owner@example.com", "Bench Owner", "password"));
+        List<User> renters = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+            renters.add(userRepository.save(
+                    new User("bench-renter" + i, "bench-renter" + i + "@example.com", "Bench Renter " + i, "password")));
+        }
+        renter = renters.get(0);
+
+        List<Instrument> instruments = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            Instrument instrument = new Instrument();
+            instrument.setName("Bench Instrument " + i);
+            instrument.setDescription("Benchmark fixture");
+            instrument.setOwner(owner);
+            instrument.setPrice(20.0 + i % 50);
+            instrument.setAge(i % 10);
+            instrument.setType(InstrumentType.ACOUSTIC);
+            instrument.setFamily(InstrumentFamily.GUITAR);
+            instruments.add(instrument);
+        }
+        instruments = instrumentRepository.saveAll(instruments);
+        item = instruments.get(0);
+
+        LocalDate firstWeek = LocalDate.now().plusDays(7);
+        List<Booking> bookings = new ArrayList<>();
+        for (Instrument instrument : instruments) {
+            for (int week = 0; week < BOOKINGS_PER_ITEM; week++) {
+                LocalDate start = firstWeek.plusWeeks(week);
+                Booking upcoming = new Booking(instrument, renters.get(week), start, start.plusDays(3));
+                upcoming.setStatus(BookingStatus.APPROVED);
+                bookings.add(upcoming);
+            }
+        }
+        bookings = bookingRepository.saveAll(bookings);
+        booking = bookings.get(0);
+        conflictStart = booking.getStartDate().plusDays(1);
+        conflictEnd = booking.getEndDate().plusDays(1);
+
+        List<Review> past = new ArrayList<>();
+        LocalDate lastYear = LocalDate.now().minusYears(1);
+        for (int i = 0; i < reviews; i++) {
+            LocalDate start = lastYear.plusDays(i * 4L);
+            Booking ended = new Booking(item, renters.get(i % renters.size()), start, start.plusDays(2));
+            ended.setStatus(BookingStatus.APPROVED);
+            past.add(new Review(bookingRepository.save(ended), 1 + i % 5, "Benchmark review " + i));
+        }
+        reviewRepository.saveAll(past);
+
+        // Fixture rows bypass BookingService, so rebuild the revenue rollup from them
+        adminService.rebuildRollups();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String createBookingConflict() {
+        try {
+            bookingService.createBooking(item.getId(), renter.getId(), conflictStart, conflictEnd);
+            throw new AssertionError("Fixture booking no longer conflicts");
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public boolean bookingOverlapQuery() {
+        return bookingRepository.existsOverlapping(item.getId(), conflictStart, conflictEnd);
+    }
+
+    @Benchmark
+    public BigDecimal calculateBookingAmount() {
+        return paymentService.calculateBookingAmount(booking);
+    }
+
+    @Benchmark
+    public BigDecimal revenueByOwner() {
+        return adminService.getRevenueByOwner(owner.getId());
+    }
+
+    @Benchmark
+    public BigDecimal totalRevenue() {
+        return adminService.getTotalRevenue();
+    }
+
+    @Benchmark
+    public List<ReviewResponse> reviewsByItem() {
+        return reviewService.getReviewsByItemId(item.getId());
+    }
+
+    @Benchmark
+    public KeysetPage<ReviewResponse> reviewFeedFirstPage() {
+        return reviewService.getReviewFeedByItemId(item.getId(), null, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ServiceHotPathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
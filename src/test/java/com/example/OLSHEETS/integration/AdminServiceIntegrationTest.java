@@ -1,6 +1,8 @@
 package com.example.OLSHEETS.integration;
 
 import com.example.OLSHEETS.data.Booking;
+import com.example.OLSHEETS.dto.BookingView;
+import com.example.OLSHEETS.dto.CursorPage;
 import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.data.BookingStatus;
 import com.example.OLSHEETS.data.Instrument;
@@ -10,6 +12,9 @@ import com.example.OLSHEETS.repository.ItemRepository;
 import com.example.OLSHEETS.repository.SheetBookingRepository;
 import com.example.OLSHEETS.repository.PaymentRepository;
 import com.example.OLSHEETS.service.AdminService;
+import com.example.OLSHEETS.service.BookingRollupService;
+import com.example.OLSHEETS.service.BookingService;
+import com.example.OLSHEETS.service.ProductsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +35,15 @@ class AdminServiceIntegrationTest {
     @Autowired
     AdminService adminService;
 
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    ProductsService productsService;
+
+    @Autowired
+    BookingRollupService bookingRollupService;
+
     @Autowired
     BookingRepository bookingRepository;
 
@@ -101,12 +115,31 @@ class AdminServiceIntegrationTest {
         booking2 = bookingRepository.save(new Booking(instrument2, u200, 
             LocalDate.of(2025, 12, 10), LocalDate.of(2025, 12, 15)));
 
-        List<Booking> bookings = adminService.getAllBookings();
+        List<BookingView> bookings = adminService.getAllBookings(null, 100).getContent();
 
         assertThat(bookings).hasSize(2);
         assertThat(bookings).extracting(b -> b.getRenter().getId()).containsExactlyInAnyOrder(u100.getId(), u200.getId());
     }
 
+    @Test
+    void shouldPageAllBookingsFromDatabase() {
+        com.example.OLSHEETS.data.User u100 = userRepository.save(new com.example.OLSHEETS.data.User("u100", "u100@example.com", "u100", "123"));
+
+        booking1 = bookingRepository.save(new Booking(instrument1, u100,
+            LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 5)));
+        booking2 = bookingRepository.save(new Booking(instrument2, u100,
+            LocalDate.of(2025, 12, 10), LocalDate.of(2025, 12, 15)));
+
+        CursorPage<BookingView> first = adminService.getAllBookings(null, 1);
+        assertThat(first.getContent()).extracting(BookingView::getId).containsExactly(booking1.getId());
+        assertThat(first.isHasMore()).isTrue();
+
+        CursorPage<BookingView> second = adminService.getAllBookings(first.getNextCursor(), 1);
+        assertThat(second.getContent()).extracting(BookingView::getId).containsExactly(booking2.getId());
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
     @Test
     void shouldFilterBookingsByStatus() {
         com.example.OLSHEETS.data.User u100 = userRepository.save(new com.example.OLSHEETS.data.User("u100", "u100@example.com", "u100", "123"));
@@ -125,7 +158,7 @@ class AdminServiceIntegrationTest {
         booking3.setStatus(BookingStatus.PENDING);
         booking3 = bookingRepository.save(booking3);
 
-        List<Booking> pendingBookings = adminService.getBookingsByStatus(BookingStatus.PENDING);
+        List<BookingView> pendingBookings = adminService.getBookingsByStatus(BookingStatus.PENDING, null, 100).getContent();
 
         assertThat(pendingBookings).hasSize(2);
         assertThat(pendingBookings).allMatch(b -> b.getStatus() == BookingStatus.PENDING);
@@ -143,7 +176,7 @@ class AdminServiceIntegrationTest {
         booking3 = bookingRepository.save(new Booking(instrument1, u200, 
             LocalDate.of(2025, 12, 20), LocalDate.of(2025, 12, 25)));
 
-        List<Booking> renter100Bookings = adminService.getBookingsByRenter(u100.getId());
+        List<BookingView> renter100Bookings = adminService.getBookingsByRenter(u100.getId(), null, 100).getContent();
 
         assertThat(renter100Bookings).hasSize(2);
         assertThat(renter100Bookings).allMatch(b -> b.getRenter().getId().equals(u100.getId()));
@@ -190,6 +223,8 @@ class AdminServiceIntegrationTest {
         booking3.setStatus(BookingStatus.REJECTED);
         bookingRepository.save(booking3);
 
+        // Rows were written straight through the repository, so fold them into the rollups
+        adminService.rebuildRollups();
         Map<String, Long> stats = adminService.getBookingStatistics();
 
         assertThat(stats).containsEntry("total", 3L);
@@ -251,10 +286,12 @@ class AdminServiceIntegrationTest {
         booking2.setStatus(BookingStatus.APPROVED);
         bookingRepository.save(booking2);
 
-        Double revenue = adminService.getRevenueByOwner(testOwner10.getId());
+        // Rows were written straight through the repository, so fold them into the rollups
+        adminService.rebuildRollups();
+        java.math.BigDecimal revenue = adminService.getRevenueByOwner(testOwner10.getId());
 
         // 2 bookings: (5-1=4 days * 50) + (15-10=5 days * 50) = 200 + 250 = 450
-        assertThat(revenue).isEqualTo(450.0);
+        assertThat(revenue).isEqualByComparingTo("450");
     }
 
     @Test
@@ -270,10 +307,12 @@ class AdminServiceIntegrationTest {
         booking2.setStatus(BookingStatus.APPROVED);
         bookingRepository.save(booking2);
 
-        Double totalRevenue = adminService.getTotalRevenue();
+        // Rows were written straight through the repository, so fold them into the rollups
+        adminService.rebuildRollups();
+        java.math.BigDecimal totalRevenue = adminService.getTotalRevenue();
 
         // (5-1=4 days * 50) + (15-10=5 days * 100) = 200 + 500 = 700
-        assertThat(totalRevenue).isEqualTo(700.0);
+        assertThat(totalRevenue).isEqualByComparingTo("700");
     }
 
     @Test
@@ -289,8 +328,85 @@ class AdminServiceIntegrationTest {
         booking2.setStatus(BookingStatus.REJECTED);
         bookingRepository.save(booking2);
 
-        Double totalRevenue = adminService.getTotalRevenue();
+        // Rows were written straight through the repository, so fold them into the rollups
+        adminService.rebuildRollups();
+        java.math.BigDecimal totalRevenue = adminService.getTotalRevenue();
+
+        assertThat(totalRevenue).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void shouldKeepRollupsInStepWithBookingStateChanges() {
+        com.example.OLSHEETS.data.User u100 = userRepository.save(new com.example.OLSHEETS.data.User("u100", "u100@example.com", "u100", "123"));
+        com.example.OLSHEETS.data.User u200 = userRepository.save(new com.example.OLSHEETS.data.User("u200", "u200@example.com", "u200", "123"));
+        adminService.rebuildRollups();
+
+        Booking approved = bookingService.createBooking(instrument1.getId(), u100.getId(),
+            LocalDate.now().plusDays(1), LocalDate.now().plusDays(5));
+        Booking rejected = bookingService.createBooking(instrument2.getId(), u200.getId(),
+            LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
+        Booking cancelled = bookingService.createBooking(instrument2.getId(), u100.getId(),
+            LocalDate.now().plusDays(10), LocalDate.now().plusDays(12));
+        bookingService.createBooking(instrument1.getId(), u200.getId(),
+            LocalDate.now().plusDays(20), LocalDate.now().plusDays(21));
+
+        bookingService.approveBooking(approved.getId(), testOwner10.getId().intValue());
+        bookingService.rejectBooking(rejected.getId(), testOwner20.getId().intValue());
+        bookingService.approveBooking(cancelled.getId(), testOwner20.getId().intValue());
+        adminService.cancelBooking(cancelled.getId(), u100.getId());
+
+        Map<String, Long> stats = adminService.getBookingStatistics();
+        assertThat(stats).containsEntry("total", 4L);
+        assertThat(stats).containsEntry("pending", 1L);
+        assertThat(stats).containsEntry("approved", 1L);
+        assertThat(stats).containsEntry("rejected", 1L);
+        assertThat(stats).containsEntry("cancelled", 1L);
+        // 4 days * 50
+        assertThat(adminService.getTotalRevenue()).isEqualByComparingTo("200");
+        assertThat(adminService.getRevenueByOwner(testOwner20.getId())).isEqualByComparingTo("0");
+
+        // A rebuild from raw bookings lands on the same numbers
+        adminService.rebuildRollups();
+        assertThat(adminService.getBookingStatistics()).isEqualTo(stats);
+        assertThat(adminService.getTotalRevenue()).isEqualByComparingTo("200");
+    }
 
-        assertThat(totalRevenue).isEqualTo(0.0);
+    @Test
+    void shouldKeepRollupsInStepWithRebuildWhenPriceChangesMidLifecycle() {
+        com.example.OLSHEETS.data.User u100 = userRepository.save(new com.example.OLSHEETS.data.User("u100", "u100@example.com", "u100", "123"));
+        adminService.rebuildRollups();
+
+        Booking booking = bookingService.createBooking(instrument1.getId(), u100.getId(),
+            LocalDate.now().plusDays(1), LocalDate.now().plusDays(5));
+        productsService.updateItemPrice(instrument1.getId(), 80.0, testOwner10.getId());
+        bookingService.approveBooking(booking.getId(), testOwner10.getId().intValue());
+
+        Map<String, Long> stats = adminService.getBookingStatistics();
+        // Valued at the 50/day it was booked at: 4 days * 50
+        assertThat(adminService.getTotalRevenue()).isEqualByComparingTo("200");
+        assertThat(adminService.getRevenueByOwner(testOwner10.getId())).isEqualByComparingTo("200");
+
+        adminService.rebuildRollups();
+        assertThat(adminService.getBookingStatistics()).isEqualTo(stats);
+        assertThat(adminService.getTotalRevenue()).isEqualByComparingTo("200");
+        assertThat(adminService.getRevenueByOwner(testOwner10.getId())).isEqualByComparingTo("200");
+    }
+
+    @Test
+    void shouldBackfillAmountsOfBookingsStoredWithoutOne() {
+        com.example.OLSHEETS.data.User u100 = userRepository.save(new com.example.OLSHEETS.data.User("u100", "u100@example.com", "u100", "123"));
+        Booking legacy = bookingRepository.save(new Booking(instrument2, u100,
+            LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 4)));
+        legacy.setAmount(null);
+        legacy.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(legacy);
+
+        assertThat(bookingRollupService.backfillAmounts()).isEqualTo(1);
+
+        // 3 days * 100 at the price current when backfilled
+        assertThat(bookingRepository.findById(legacy.getId()).orElseThrow().getAmount()).isEqualByComparingTo("300");
+        assertThat(bookingRollupService.backfillAmounts()).isZero();
+        adminService.rebuildRollups();
+        assertThat(adminService.getTotalRevenue()).isEqualByComparingTo("300");
     }
-}
\ No newline at end of file
+}
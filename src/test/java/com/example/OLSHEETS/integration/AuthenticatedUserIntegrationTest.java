@@ -0,0 +1,163 @@
+package com.example.OLSHEETS.integration;
+
+import com.example.OLSHEETS.config.QueryCountFilter;
+import com.example.OLSHEETS.data.Booking;
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.repository.AvailabilityRepository;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.repository.PaymentRepository;
+import com.example.OLSHEETS.repository.RenterReviewRepository;
+import com.example.OLSHEETS.repository.ReviewRepository;
+import com.example.OLSHEETS.repository.SheetBookingRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.security.JwtAuthenticationFilter;
+import com.example.OLSHEETS.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.OptionalInt;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Resolves AuthenticatedUser parameters end to end: a real token goes through
+ * JwtAuthenticationFilter and AuthenticatedUserArgumentResolver into the
+ * controller, with no mocked security context.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+    "spring.main.lazy-initialization=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthenticatedUserIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private QueryCountFilter queryCountFilter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private RenterReviewRepository renterReviewRepository;
+
+    @Autowired
+    private SheetBookingRepository sheetBookingRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    private MockMvc mockMvc;
+    private User renter;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+        // The test profile's security chain permits everything, so add the JWT
+        // filter itself, as the production chain does
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+            .addFilters(queryCountFilter, jwtAuthenticationFilter)
+            .build();
+
+        paymentRepository.deleteAll();
+        reviewRepository.deleteAll();
+        renterReviewRepository.deleteAll();
+        bookingRepository.deleteAll();
+        sheetBookingRepository.deleteAll();
+        availabilityRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = userRepository.save(new User("owner7", "owner7@example.com", "Owner", "password"));
+        renter = userRepository.save(new User("renter7", "renter7@example.com", "Renter", "password"));
+        Instrument instrument = new Instrument();
+        instrument.setName("Cello");
+        instrument.setDescription("Full size cello");
+        instrument.setOwner(owner);
+        instrument.setPrice(40.0);
+        instrument.setAge(3);
+        instrument.setType(InstrumentType.ACOUSTIC);
+        instrument.setFamily(InstrumentFamily.STRING);
+        instrument = itemRepository.save(instrument);
+        booking = bookingRepository.save(
+            new Booking(instrument, renter, LocalDate.now().plusDays(5), LocalDate.now().plusDays(7)));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        // Nothing in this MockMvc clears what the JWT filter put on the thread
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenTokenCarriesUserId_thenResolvedWithoutUserLookup() throws Exception {
+        // The username matches nobody, so only the uid claim can identify the renter
+        String token = jwtUtil.generateToken("renamed-renter", renter.getId());
+
+        mockMvc.perform(get("/api/bookings/my-bookings").header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id", is(booking.getId().intValue())));
+
+        // Just the bookings query
+        assertEquals(OptionalInt.of(1), queryCountFilter.lastCount("BookingController.getMyBookings"));
+    }
+
+    @Test
+    void whenTokenHasNoUserId_thenResolvedByUsername() throws Exception {
+        String token = jwtUtil.generateToken(renter.getUsername());
+
+        mockMvc.perform(get("/api/bookings/my-bookings").header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id", is(booking.getId().intValue())));
+
+        assertEquals(OptionalInt.of(2), queryCountFilter.lastCount("BookingController.getMyBookings"));
+    }
+
+    @Test
+    void whenNoToken_thenUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/bookings/my-bookings"))
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.error", is("User not found")));
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.OLSHEETS.integration;
+
+import com.example.OLSHEETS.data.Booking;
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.exception.ServiceOverloadedException;
+import com.example.OLSHEETS.repository.AvailabilityRepository;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.repository.PaymentRepository;
+import com.example.OLSHEETS.repository.SheetBookingRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.service.BookingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires thousands of parallel booking requests at a handful of items and
+ * checks that no two persisted bookings for the same item overlap.
+ *
+ * Attempts that lose on a lock (the item stripe lock timing out, or the
+ * database refusing the row lock under contention) are rejections like any
+ * conflict, so only the non-overlap invariant is asserted.
+ */
+@SpringBootTest(properties = {
+    "spring.main.lazy-initialization=true"
+})
+class BookingConcurrencyIntegrationTest {
+
+    private static final int ITEM_COUNT = 5;
+    private static final int RENTER_COUNT = 8;
+    private static final int ATTEMPTS = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    SheetBookingRepository sheetBookingRepository;
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    private final List<Instrument> instruments = new ArrayList<>();
+    private final List<User> renters = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository.deleteAll();
+        sheetBookingRepository.deleteAll();
+        bookingRepository.deleteAll();
+        availabilityRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User owner = userRepository.save(new User("stressOwner", "stressOwner@example.com", "Stress Owner", "123"));
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Instrument instrument = new Instrument();
+            instrument.setName("Stress Violin " + i);
+            instrument.setDescription("Contended instrument");
+            instrument.setOwner(owner);
+            instrument.setPrice(20.0);
+            instrument.setAge(1);
+            instrument.setType(InstrumentType.ACOUSTIC);
+            instrument.setFamily(InstrumentFamily.STRING);
+            instruments.add(itemRepository.save(instrument));
+        }
+        for (int i = 0; i < RENTER_COUNT; i++) {
+            renters.add(userRepository.save(
+                    new User("stressRenter" + i, "stressRenter" + i + "@example.com", "Stress Renter " + i, "123")));
+        }
+    }
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        Random random = new Random(42);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                Long itemId = instruments.get(random.nextInt(ITEM_COUNT)).getId();
+                Long renterId = renters.get(random.nextInt(RENTER_COUNT)).getId();
+                LocalDate start = LocalDate.now().plusDays(1 + random.nextInt(120));
+                LocalDate end = start.plusDays(1 + random.nextInt(5));
+
+                futures.add(pool.submit(() -> {
+                    startSignal.await();
+                    try {
+                        bookingService.createBooking(itemId, renterId, start, end);
+                        created.incrementAndGet();
+                    } catch (IllegalStateException | ServiceOverloadedException | PessimisticLockingFailureException e) {
+                        // Rejected, or timed out on the item lock; PessimisticLockingFailureException
+                        // also covers CannotAcquireLockException
+                    }
+                    return null;
+                }));
+            }
+
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(created.get()).isPositive();
+
+        List<Booking> bookings = bookingRepository.findAll();
+
+        Map<Long, List<Booking>> byItem = bookings.stream()
+                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+        for (List<Booking> itemBookings : byItem.values()) {
+            itemBookings.sort(Comparator.comparing(Booking::getStartDate));
+            LocalDate latestEnd = null;
+            for (Booking booking : itemBookings) {
+                if (latestEnd != null) {
+                    assertThat(booking.getStartDate())
+                            .as("booking %d overlaps an earlier booking on item %d", booking.getId(), booking.getItem().getId())
+                            .isAfter(latestEnd);
+                }
+                latestEnd = latestEnd == null || booking.getEndDate().isAfter(latestEnd) ? booking.getEndDate() : latestEnd;
+            }
+        }
+    }
+}
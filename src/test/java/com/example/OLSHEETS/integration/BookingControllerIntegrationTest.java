@@ -1,5 +1,6 @@
 package com.example.OLSHEETS.integration;
 
+import com.example.OLSHEETS.config.QueryCountFilter;
 import com.example.OLSHEETS.data.Booking;
 import com.example.OLSHEETS.repository.AvailabilityRepository;
 import com.example.OLSHEETS.repository.BookingRepository;
@@ -14,6 +15,7 @@ import com.example.OLSHEETS.repository.MusicSheetRepository;
 import com.example.OLSHEETS.repository.PaymentRepository;
 import com.example.OLSHEETS.security.JwtUtil;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,8 +27,13 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -64,6 +71,9 @@ class BookingControllerIntegrationTest {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private QueryCountFilter queryCountFilter;
+
     private Instrument instrument;
     private com.example.OLSHEETS.data.User owner;
     private String ownerToken;
@@ -72,6 +82,7 @@ class BookingControllerIntegrationTest {
     void cleanup() {
         // Clear security context
         SecurityContextHolder.clearContext();
+        queryCountFilter.drainViolations();
         
         // Delete in correct order to avoid FK constraint errors
         // First delete payments that reference bookings
@@ -102,6 +113,11 @@ class BookingControllerIntegrationTest {
         instrument = itemRepository.save(instrument);
     }
     
+    @AfterEach
+    void assertWithinQueryBudgets() {
+        assertEquals(List.of(), queryCountFilter.drainViolations());
+    }
+
     private void setupSecurityContext(String username) {
         UsernamePasswordAuthenticationToken authentication = 
             new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList());
@@ -123,6 +139,10 @@ class BookingControllerIntegrationTest {
                 .andExpect(jsonPath("$.id", is(booking.getId().intValue())))
                 .andExpect(jsonPath("$.status", is("APPROVED")))
             .andExpect(jsonPath("$.renter.id", is(renter.getId().intValue())));
+        // Principal lookup, booking, overlap check, two rollup deltas that each find no bucket
+        // (the booking was stored directly) and so lock the owner and upsert one, two status
+        // total upserts, status update and the item's file references during serialization
+        assertEquals(OptionalInt.of(13), queryCountFilter.lastCount("BookingController.approveBooking"));
     }
 
     @Test
@@ -170,6 +190,31 @@ class BookingControllerIntegrationTest {
                 .andExpect(jsonPath("$.error").value(org.hamcrest.Matchers.containsString("Booking not found")));
     }
 
+    @Test
+    void testListBookings_QueryCountDoesNotGrowWithRenters() throws Exception {
+        setupSecurityContext(owner.getUsername());
+        for (int i = 1; i <= 3; i++) {
+            User renter = userRepository.save(new User("renter" + i, "renter" + i + "@test.com", "Renter " + i, "password123"));
+            bookingRepository.save(new Booking(instrument, renter, LocalDate.now().plusDays(i * 5L), LocalDate.now().plusDays(i * 5L + 2)));
+        }
+
+        mockMvc.perform(get("/api/bookings/my-instrument-bookings")
+                .header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].item.owner.id", is(owner.getId().intValue())))
+                .andExpect(jsonPath("$[0].item.itemType", is("INSTRUMENT")))
+                .andExpect(jsonPath("$[2].renter.username", is("renter3")))
+                .andExpect(jsonPath("$[0].renter.email").doesNotExist());
+        // The user lookup plus the projection, however many renters
+        assertEquals(OptionalInt.of(2), queryCountFilter.lastCount("BookingController.getMyInstrumentBookings"));
+
+        mockMvc.perform(get("/api/bookings").header("Authorization", "Bearer " + ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+        assertEquals(OptionalInt.of(1), queryCountFilter.lastCount("BookingController.listBookings"));
+    }
+
     @Test
     void testRejectBooking_Success() throws Exception {
         setupSecurityContext(owner.getUsername());
@@ -185,6 +230,8 @@ class BookingControllerIntegrationTest {
                 .andExpect(jsonPath("$.id", is(booking.getId().intValue())))
                 .andExpect(jsonPath("$.status", is("REJECTED")))
             .andExpect(jsonPath("$.renter.id", is(renter.getId().intValue())));
+        // As approve, without the overlap check
+        assertEquals(OptionalInt.of(12), queryCountFilter.lastCount("BookingController.rejectBooking"));
     }
 
     @Test
@@ -191,4 +191,62 @@ class BookingServiceIntegrationTest {
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("already been rejected");
     }
+
+    @Test
+    void shouldListOwnerBookingsThroughItemOwnerJoin() {
+        Booking first = bookingService.createBooking(instrument1.getId(), renter100.getId(), LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(3));
+        Booking second = bookingService.createBooking(instrument1.getId(), renter200.getId(), LocalDate.now().plusDays(10),
+                LocalDate.now().plusDays(12));
+        bookingService.createBooking(instrument2.getId(), renter100.getId(), LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(3));
+
+        assertThat(bookingService.getBookingsByOwnerId(owner10.getId()))
+                .extracting(com.example.OLSHEETS.dto.BookingView::getId)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+
+        org.springframework.data.domain.Page<com.example.OLSHEETS.dto.BookingSummary> page =
+                bookingService.getBookingSummariesByOwnerId(owner10.getId(),
+                        org.springframework.data.domain.PageRequest.of(0, 1,
+                                org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, "id")));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getContent().get(0).getBookingId()).isEqualTo(second.getId());
+        assertThat(page.getContent().get(0).getItemName()).isEqualTo("Guitar");
+        assertThat(page.getContent().get(0).getRenterUsername()).isEqualTo("renter200");
+    }
+
+    @Test
+    void shouldWalkAllBookingsWithKeysetCursor() {
+        Booking first = bookingService.createBooking(instrument1.getId(), renter100.getId(), LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(3));
+        Booking second = bookingService.createBooking(instrument1.getId(), renter200.getId(), LocalDate.now().plusDays(10),
+                LocalDate.now().plusDays(12));
+        Booking third = bookingService.createBooking(instrument2.getId(), renter100.getId(), LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(3));
+
+        com.example.OLSHEETS.dto.CursorPage<com.example.OLSHEETS.dto.BookingSummary> firstPage =
+                bookingService.listBookingSummaries(null, 2);
+        assertThat(firstPage.getContent())
+                .extracting(com.example.OLSHEETS.dto.BookingSummary::getBookingId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(firstPage.isHasMore()).isTrue();
+
+        com.example.OLSHEETS.dto.CursorPage<com.example.OLSHEETS.dto.BookingSummary> lastPage =
+                bookingService.listBookingSummaries(firstPage.getNextCursor(), 2);
+        assertThat(lastPage.getContent())
+                .extracting(com.example.OLSHEETS.dto.BookingSummary::getBookingId)
+                .containsExactly(third.getId());
+        assertThat(lastPage.isHasMore()).isFalse();
+        assertThat(lastPage.getNextCursor()).isNull();
+
+        assertThat(bookingService.getBookingSummariesByRenterId(renter100.getId(), null, 10).getContent())
+                .extracting(com.example.OLSHEETS.dto.BookingSummary::getBookingId)
+                .containsExactly(first.getId(), third.getId());
+
+        java.util.List<Long> streamed = new java.util.ArrayList<>();
+        bookingService.streamBookingSummaries(summary -> streamed.add(summary.getBookingId()));
+        assertThat(streamed).containsExactly(first.getId(), second.getId(), third.getId());
+    }
 }
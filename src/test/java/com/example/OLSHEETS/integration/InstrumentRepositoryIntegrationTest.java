@@ -3,14 +3,17 @@ package com.example.OLSHEETS.integration;
 import com.example.OLSHEETS.data.Instrument;
 import com.example.OLSHEETS.data.InstrumentType;
 import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.ItemKind;
 import com.example.OLSHEETS.repository.InstrumentRepository;
 import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.search.CatalogDocument;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 
@@ -244,5 +247,25 @@ class InstrumentRepositoryIntegrationTest {
         assertEquals(InstrumentType.DIGITAL, result.get(0).getType());
     }
 
+    @Test
+    void testFindCatalogDocumentsAfter_ShouldReturnKeysetBatchInIdOrder() {
+        // Arrange
+        entityManager.persistAndFlush(yamahaPiano);
+        entityManager.persistAndFlush(fenderGuitar);
+        entityManager.persistAndFlush(yamahaSax);
+
+        // Act
+        List<CatalogDocument> first = instrumentRepository.findCatalogDocumentsAfter(0L, PageRequest.ofSize(2));
+        List<CatalogDocument> rest = instrumentRepository.findCatalogDocumentsAfter(first.get(1).getId(), PageRequest.ofSize(2));
+
+        // Assert
+        assertEquals(2, first.size());
+        assertEquals("Yamaha P-125", first.get(0).getName());
+        assertEquals(ItemKind.INSTRUMENT, first.get(0).getKind());
+        assertEquals(InstrumentFamily.KEYBOARD, first.get(0).getInstrumentFamily());
+        assertEquals(1, rest.size());
+        assertEquals("Yamaha YAS-280", rest.get(0).getName());
+    }
+
     // Removed redundant enum persistence test - already covered by other tests
 }
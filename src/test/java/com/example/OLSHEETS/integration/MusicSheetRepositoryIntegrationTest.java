@@ -1,12 +1,15 @@
 package com.example.OLSHEETS.integration;
 
+import com.example.OLSHEETS.data.ItemKind;
 import com.example.OLSHEETS.data.MusicSheet;
 import com.example.OLSHEETS.repository.MusicSheetRepository;
+import com.example.OLSHEETS.search.CatalogDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 
@@ -213,4 +216,21 @@ class MusicSheetRepositoryIntegrationTest {
         assertEquals(9.99, found.get(0).getPrice());
         assertEquals("CLASSICAL", found.get(0).getCategory());
     }
+
+    @Test
+    void testFindCatalogDocumentsAfter_ShouldReturnSheetFields() {
+        // Arrange
+        MusicSheet saved = entityManager.persistAndFlush(moonlightSonata);
+
+        // Act
+        List<CatalogDocument> result = musicSheetRepository.findCatalogDocumentsAfter(0L, PageRequest.ofSize(10));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(saved.getId(), result.get(0).getId());
+        assertEquals(ItemKind.MUSIC_SHEET, result.get(0).getKind());
+        assertEquals("Beethoven", result.get(0).getComposer());
+        assertEquals("CLASSICAL", result.get(0).getCategory());
+        assertNull(result.get(0).getInstrumentType());
+    }
 }
@@ -0,0 +1,147 @@
+package com.example.OLSHEETS.integration;
+
+import com.example.OLSHEETS.data.Booking;
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.Item;
+import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.repository.AvailabilityRepository;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.repository.PaymentRepository;
+import com.example.OLSHEETS.repository.SheetBookingRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares owner booking lookups before (load items, then IN-list) and after
+ * (single join on item.owner) as the number of owned items grows.
+ *
+ * Run with: mvn test -Dtest=OwnerBookingQueryBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+    "spring.main.lazy-initialization=true"
+})
+class OwnerBookingQueryBenchmarkTest {
+
+    private static final int[] OWNED_ITEMS = {10, 100, 1000, 5000};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    SheetBookingRepository sheetBookingRepository;
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @BeforeEach
+    void cleanup() {
+        paymentRepository.deleteAll();
+        sheetBookingRepository.deleteAll();
+        bookingRepository.deleteAll();
+        availabilityRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void compareOwnerBookingLookups() {
+        User renter = userRepository.save(new User("benchRenter", "benchRenter@example.com", "Bench Renter", "123"));
+
+        System.out.println("owned_items | in_list_ms | join_ms | in_list_count_ms | join_count_ms");
+        for (int size : OWNED_ITEMS) {
+            User owner = seedOwner(size, renter);
+            Long ownerId = owner.getId();
+
+            double inList = medianMillis(() -> bookingsViaInList(ownerId).size());
+            double join = medianMillis(() -> bookingRepository.findByItemOwnerId(ownerId).size());
+            double inListCount = medianMillis(() -> countViaInList(ownerId).intValue());
+            double joinCount = medianMillis(() -> bookingRepository.countByItemOwnerId(ownerId).intValue());
+
+            assertThat(bookingRepository.findByItemOwnerId(ownerId)).hasSize(size);
+            assertThat(bookingRepository.countByItemOwnerId(ownerId)).isEqualTo(countViaInList(ownerId));
+
+            System.out.printf("%11d | %10.2f | %7.2f | %16.2f | %13.2f%n", size, inList, join, inListCount, joinCount);
+        }
+    }
+
+    private User seedOwner(int itemCount, User renter) {
+        User owner = userRepository.save(new User("benchOwner" + itemCount, "benchOwner" + itemCount + "@example.com",
+                "Bench Owner", "123"));
+        List<Instrument> instruments = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            Instrument instrument = new Instrument();
+            instrument.setName("Bench Instrument " + i);
+            instrument.setOwner(owner);
+            instrument.setPrice(10.0);
+            instrument.setType(InstrumentType.ACOUSTIC);
+            instrument.setFamily(InstrumentFamily.STRING);
+            instruments.add(instrument);
+        }
+        List<Booking> bookings = new ArrayList<>();
+        for (Instrument instrument : itemRepository.saveAll(instruments)) {
+            bookings.add(new Booking(instrument, renter, LocalDate.now().plusDays(1), LocalDate.now().plusDays(2)));
+        }
+        bookingRepository.saveAll(bookings);
+        return owner;
+    }
+
+    // The pre-change access path: hydrate every owned item, then query with an IN-list
+    private List<Booking> bookingsViaInList(Long ownerId) {
+        List<Item> items = itemRepository.findByOwnerId(ownerId);
+        return entityManager.createQuery("select b from Booking b where b.item in :items", Booking.class)
+                .setParameter("items", items)
+                .getResultList();
+    }
+
+    private Long countViaInList(Long ownerId) {
+        List<Item> items = itemRepository.findByOwnerId(ownerId);
+        return entityManager.createQuery("select count(b) from Booking b where b.item in :items", Long.class)
+                .setParameter("items", items)
+                .getSingleResult();
+    }
+
+    private static double medianMillis(Supplier<Integer> action) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            action.get();
+        }
+        long[] samples = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            action.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_ROUNDS / 2] / 1_000_000.0;
+    }
+}
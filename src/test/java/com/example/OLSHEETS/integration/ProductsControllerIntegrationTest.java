@@ -7,6 +7,7 @@ import com.example.OLSHEETS.repository.ReviewRepository;
 import com.example.OLSHEETS.repository.RenterReviewRepository;
 import com.example.OLSHEETS.repository.AvailabilityRepository;
 
+import com.example.OLSHEETS.config.QueryCountFilter;
 import com.example.OLSHEETS.data.Instrument;
 import com.example.OLSHEETS.data.InstrumentType;
 import com.example.OLSHEETS.data.InstrumentFamily;
@@ -30,6 +31,8 @@ import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -76,6 +79,9 @@ class ProductsControllerIntegrationTest {
     @Autowired
     private AvailabilityRepository availabilityRepository;
 
+    @Autowired
+    private QueryCountFilter queryCountFilter;
+
     private User user;
     @BeforeEach
     @org.springframework.transaction.annotation.Transactional
@@ -90,6 +96,7 @@ class ProductsControllerIntegrationTest {
         SecurityContext securityContext = org.mockito.Mockito.mock(SecurityContext.class);
         when(securityContext.getAuthentication()).thenReturn(auth);
         SecurityContextHolder.setContext(securityContext);
+        queryCountFilter.drainViolations();
         
         // Clear all tables in correct order (respect foreign key constraints)
         paymentRepository.deleteAll();
@@ -145,6 +152,11 @@ class ProductsControllerIntegrationTest {
         instrumentRepository.save(yamahaSax);
     }
 
+    @AfterEach
+    void assertWithinQueryBudgets() {
+        assertEquals(List.of(), queryCountFilter.drainViolations());
+    }
+
     @AfterEach
     void tearDown() {
         paymentRepository.deleteAll();
@@ -302,6 +314,23 @@ class ProductsControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].family", is("WOODWIND")));
     }
 
+    @Test
+    void testListEndpoints_ShouldIssueTwoQueriesRegardlessOfResultSize() throws Exception {
+        // The listing projection plus one IN query for the file references of the whole page
+        mockMvc.perform(get("/api/instruments/search").param("name", "a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].owner.username", is("testuser")))
+                .andExpect(jsonPath("$[0].owner.email").doesNotExist())
+                .andExpect(jsonPath("$[0].fileReferences", hasSize(0)));
+        assertEquals(OptionalInt.of(2), queryCountFilter.lastCount("ProductsController.searchInstruments"));
+
+        mockMvc.perform(get("/api/instruments/filter/family").param("family", "GUITAR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        assertEquals(OptionalInt.of(2), queryCountFilter.lastCount("ProductsController.filterByFamily"));
+    }
+
     // Pricing Management Integration Tests
 
     @Test
@@ -0,0 +1,257 @@
+package com.example.OLSHEETS.integration;
+
+import com.example.OLSHEETS.config.QueryBudget;
+import com.example.OLSHEETS.config.QueryCountFilter;
+import com.example.OLSHEETS.data.Booking;
+import com.example.OLSHEETS.data.BookingStatus;
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.MusicSheet;
+import com.example.OLSHEETS.data.RenterReview;
+import com.example.OLSHEETS.data.Review;
+import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.repository.AvailabilityRepository;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.repository.PaymentRepository;
+import com.example.OLSHEETS.repository.RenterReviewRepository;
+import com.example.OLSHEETS.repository.ReviewRepository;
+import com.example.OLSHEETS.repository.SheetBookingRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.security.JwtAuthenticationFilter;
+import com.example.OLSHEETS.security.JwtUtil;
+import com.example.OLSHEETS.service.IdempotencyService;
+import com.example.OLSHEETS.service.RatingSummaryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls every @QueryBudget endpoint once, authenticated with real tokens the
+ * way production is, and checks each one stayed within its budget. Fails as
+ * well when an endpoint gains a budget without a request here.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+    "spring.main.lazy-initialization=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private QueryCountFilter queryCountFilter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private RatingSummaryService ratingSummaryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private RenterReviewRepository renterReviewRepository;
+
+    @Autowired
+    private SheetBookingRepository sheetBookingRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    private MockMvc mockMvc;
+    // Statements per handler, as counted for the requests made here
+    private final Map<String, Integer> counts = new TreeMap<>();
+
+    private User owner;
+    private User renter;
+    private Instrument instrument;
+    private MusicSheet sheet;
+    private Booking pending;
+    private Booking toReject;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+        // Same order as production: counting first, then the JWT filter
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+            .addFilters(queryCountFilter, jwtAuthenticationFilter)
+            .build();
+        queryCountFilter.drainViolations();
+        deleteAll();
+
+        owner = userRepository.save(new User("budgetowner", "budgetowner@example.com", "Owner", "password"));
+        renter = userRepository.save(new User("budgetrenter", "budgetrenter@example.com", "Renter", "password"));
+        for (int i = 0; i < 3; i++) {
+            Instrument guitar = new Instrument();
+            guitar.setName("Budget Guitar " + i);
+            guitar.setDescription("Acoustic guitar");
+            guitar.setOwner(owner);
+            guitar.setPrice(30.0 + i);
+            guitar.setAge(1);
+            guitar.setType(InstrumentType.ACOUSTIC);
+            guitar.setFamily(InstrumentFamily.GUITAR);
+            instrument = itemRepository.save(guitar);
+        }
+        sheet = new MusicSheet("Nocturne", "CLASSICAL", "Chopin", owner);
+        sheet.setDescription("Op. 9 No. 2");
+        sheet.setPrice(4.0);
+        sheet = itemRepository.save(sheet);
+
+        Booking past = new Booking(instrument, renter, LocalDate.now().minusDays(10), LocalDate.now().minusDays(8));
+        past.setStatus(BookingStatus.APPROVED);
+        past = bookingRepository.save(past);
+        reviewRepository.save(new Review(past, 4, "Played well"));
+        renterReviewRepository.save(new RenterReview(past, 5, "Careful renter"));
+        ratingSummaryService.rebuild();
+
+        pending = bookingRepository.save(
+            new Booking(instrument, renter, LocalDate.now().plusDays(20), LocalDate.now().plusDays(21)));
+        toReject = bookingRepository.save(
+            new Booking(instrument, renter, LocalDate.now().plusDays(25), LocalDate.now().plusDays(26)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        // Reviews reference bookings, which other test classes sharing this context delete without them
+        deleteAll();
+    }
+
+    private void deleteAll() {
+        paymentRepository.deleteAll();
+        reviewRepository.deleteAll();
+        renterReviewRepository.deleteAll();
+        bookingRepository.deleteAll();
+        sheetBookingRepository.deleteAll();
+        availabilityRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void whenEveryBudgetedEndpointIsCalled_thenEachStaysWithinBudget() throws Exception {
+        String renterToken = "Bearer " + jwtUtil.generateToken(renter.getUsername(), renter.getId());
+        String ownerToken = "Bearer " + jwtUtil.generateToken(owner.getUsername(), owner.getId());
+        LocalDate start = LocalDate.now().plusDays(40);
+        Long itemId = instrument.getId();
+
+        perform(post("/api/bookings").header("Authorization", renterToken)
+            .header(IdempotencyService.HEADER, "budget-booking")
+            .param("itemId", itemId.toString())
+            .param("startDate", start.toString())
+            .param("endDate", start.plusDays(2).toString()));
+        perform(get("/api/bookings"));
+        perform(get("/api/bookings/cursor"));
+        perform(get("/api/bookings/my-bookings").header("Authorization", renterToken));
+        perform(get("/api/bookings/my-instrument-bookings").header("Authorization", ownerToken));
+        perform(get("/api/bookings/my-instrument-bookings/summary").header("Authorization", ownerToken));
+        perform(put("/api/bookings/" + pending.getId() + "/approve").header("Authorization", ownerToken));
+        perform(put("/api/bookings/" + toReject.getId() + "/reject").header("Authorization", ownerToken));
+
+        perform(get("/api/reviews/item/" + itemId + "/feed"));
+        perform(get("/api/reviews/item/" + itemId + "/average"));
+        perform(post("/api/reviews/averages").contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\":[" + itemId + ",999]}"));
+        perform(get("/api/renter-reviews/renter/" + renter.getId() + "/feed"));
+        perform(get("/api/renter-reviews/renter/" + renter.getId() + "/average"));
+        perform(post("/api/renter-reviews/averages").contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ids\":[" + renter.getId() + "]}"));
+
+        perform(get("/api/catalog/search").param("q", "guitar")
+            .param("availableFrom", start.toString())
+            .param("availableTo", start.plusDays(3).toString()));
+        perform(get("/api/catalog/top"));
+
+        perform(get("/api/instruments/" + itemId));
+        perform(get("/api/instruments/search").param("name", "Budget"));
+        perform(get("/api/instruments/filter/type").param("type", "ACOUSTIC"));
+        perform(get("/api/instruments/filter/family").param("family", "GUITAR"));
+        perform(get("/api/instruments/my-instruments").header("Authorization", ownerToken));
+        perform(get("/api/sheets/" + sheet.getId()));
+        perform(get("/api/sheets/search").param("name", "Noct"));
+        perform(get("/api/sheets/filter/category").param("category", "CLASSICAL"));
+
+        List<String> notCalled = new ArrayList<>();
+        Map<String, String> overBudget = new HashMap<>();
+        RequestMappingHandlerMapping mapping = webApplicationContext.getBean(
+            "requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        for (HandlerMethod handler : mapping.getHandlerMethods().values()) {
+            QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+            if (budget == null) {
+                continue;
+            }
+            String name = nameOf(handler);
+            Integer count = counts.get(name);
+            if (count == null) {
+                notCalled.add(name);
+            } else if (count > budget.value()) {
+                overBudget.put(name, count + " > " + budget.value());
+            }
+        }
+
+        assertEquals(List.of(), notCalled);
+        assertEquals(Map.of(), overBudget);
+        assertEquals(List.of(), queryCountFilter.drainViolations());
+    }
+
+    private void perform(RequestBuilder request) throws Exception {
+        // No security filter chain here to reset the context, and the JWT filter
+        // keeps an existing authentication, so each request starts unauthenticated
+        SecurityContextHolder.clearContext();
+        mockMvc.perform(request)
+            .andExpect(status().is2xxSuccessful())
+            .andDo(result -> {
+                String name = nameOf((HandlerMethod) result.getHandler());
+                counts.put(name, queryCountFilter.lastCount(name).orElseThrow());
+            });
+    }
+
+    private static String nameOf(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.OLSHEETS.integration;
+
+import com.example.OLSHEETS.data.Booking;
+import com.example.OLSHEETS.data.BookingStatus;
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.RenterReview;
+import com.example.OLSHEETS.data.Review;
+import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.RenterReviewResponse;
+import com.example.OLSHEETS.dto.ReviewResponse;
+import com.example.OLSHEETS.repository.AvailabilityRepository;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.repository.PaymentRepository;
+import com.example.OLSHEETS.repository.RenterReviewRepository;
+import com.example.OLSHEETS.repository.ReviewRepository;
+import com.example.OLSHEETS.repository.SheetBookingRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.service.RenterReviewService;
+import com.example.OLSHEETS.service.ReviewService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "spring.main.lazy-initialization=true"
+})
+class ReviewFeedIntegrationTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private RenterReviewService renterReviewService;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private RenterReviewRepository renterReviewRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SheetBookingRepository sheetBookingRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Instrument instrument;
+    private User renter;
+
+    @BeforeEach
+    void setUp() {
+        deleteAll();
+
+        User owner = userRepository.save(new User("feedowner", "feedowner@example.com", "Owner", "password"));
+        renter = userRepository.save(new User("feedrenter", "feedrenter@example.com", "Renter", "password"));
+        Instrument guitar = new Instrument();
+        guitar.setName("Feed Guitar");
+        guitar.setDescription("Acoustic guitar");
+        guitar.setOwner(owner);
+        guitar.setPrice(30.0);
+        guitar.setAge(1);
+        guitar.setType(InstrumentType.ACOUSTIC);
+        guitar.setFamily(InstrumentFamily.GUITAR);
+        instrument = itemRepository.save(guitar);
+
+        Booking past = new Booking(instrument, renter, LocalDate.now().minusDays(10), LocalDate.now().minusDays(8));
+        past.setStatus(BookingStatus.APPROVED);
+        past = bookingRepository.save(past);
+        reviewRepository.save(new Review(past, 4, "Played well"));
+        renterReviewRepository.save(new RenterReview(past, 5, "Careful renter"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Reviews reference bookings, which other test classes sharing this context delete without them
+        deleteAll();
+    }
+
+    @Test
+    void whenReviewSaved_thenItCarriesItsItemAndRenterForTheFeeds() {
+        assertThat(reviewRepository.findAll()).extracting(Review::getItemId).containsExactly(instrument.getId());
+        assertThat(renterReviewRepository.findAll()).extracting(RenterReview::getRenterId).containsExactly(renter.getId());
+
+        assertThat(reviewService.getReviewFeedByItemId(instrument.getId(), null, 10).getContent())
+            .extracting(ReviewResponse::getComment).containsExactly("Played well");
+        assertThat(renterReviewService.getReviewFeedByRenterId(renter.getId(), null, 10).getContent())
+            .extracting(RenterReviewResponse::getComment).containsExactly("Careful renter");
+    }
+
+    @Test
+    void whenReviewsPredateTheFeedColumns_thenBackfillPutsThemBackInTheFeeds() {
+        jdbcTemplate.update("update review set item_id = null");
+        jdbcTemplate.update("update renter_review set renter_id = null");
+        assertThat(reviewService.getReviewFeedByItemId(instrument.getId(), null, 10).getContent()).isEmpty();
+
+        reviewService.backfillFeedKeys();
+        renterReviewService.backfillFeedKeys();
+
+        assertThat(reviewService.getReviewFeedByItemId(instrument.getId(), null, 10).getContent())
+            .extracting(ReviewResponse::getComment).containsExactly("Played well");
+        assertThat(renterReviewService.getReviewFeedByRenterId(renter.getId(), null, 10).getContent())
+            .extracting(RenterReviewResponse::getComment).containsExactly("Careful renter");
+    }
+
+    private void deleteAll() {
+        paymentRepository.deleteAll();
+        reviewRepository.deleteAll();
+        renterReviewRepository.deleteAll();
+        bookingRepository.deleteAll();
+        sheetBookingRepository.deleteAll();
+        availabilityRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
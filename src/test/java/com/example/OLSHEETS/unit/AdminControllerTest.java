@@ -6,6 +6,7 @@ import com.example.OLSHEETS.data.BookingStatus;
 import com.example.OLSHEETS.data.Instrument;
 import com.example.OLSHEETS.data.Item;
 import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.BookingView;
 import com.example.OLSHEETS.service.AdminService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -90,22 +91,84 @@ class AdminControllerTest {
 
     @Test
     void testGetAllBookings_ShouldReturnAllBookings() throws Exception {
-        when(adminService.getAllBookings()).thenReturn(Arrays.asList(booking1, booking2));
+        when(adminService.getAllBookings(null, 100))
+                .thenReturn(new com.example.OLSHEETS.dto.CursorPage<>(Arrays.asList(view(booking1), view(booking2)), null, false));
 
         mockMvc.perform(get("/api/admin/bookings"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/json"))
+                .andExpect(header().string("X-Has-More", "false"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id", is(1)))
                 .andExpect(jsonPath("$[1].id", is(2)));
 
-        verify(adminService, times(1)).getAllBookings();
+        verify(adminService, times(1)).getAllBookings(null, 100);
+    }
+
+    @Test
+    void testGetAllBookings_OversizedPage_ShouldBeCappedAndCarryCursorHeaders() throws Exception {
+        when(adminService.getAllBookings(1L, 100))
+                .thenReturn(new com.example.OLSHEETS.dto.CursorPage<>(Arrays.asList(view(booking2)), 2L, true));
+
+        mockMvc.perform(get("/api/admin/bookings").param("after", "1").param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Has-More", "true"))
+                .andExpect(header().string("X-Next-Cursor", "2"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(2)));
+
+        verify(adminService, times(1)).getAllBookings(1L, 100);
+    }
+
+    @Test
+    void testGetBookingsByCursor_ShouldPassStatusAndCursor() throws Exception {
+        com.example.OLSHEETS.dto.BookingSummary summary = new com.example.OLSHEETS.dto.BookingSummary(
+                2L, 1L, "Test Guitar", 200L, "tester2",
+                LocalDate.now().plusDays(5), LocalDate.now().plusDays(7), BookingStatus.APPROVED);
+        when(adminService.getBookingSummaries(BookingStatus.APPROVED, 1L, 20))
+                .thenReturn(new com.example.OLSHEETS.dto.CursorPage<>(java.util.List.of(summary), null, false));
+
+        mockMvc.perform(get("/api/admin/bookings/cursor").param("status", "approved").param("after", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].bookingId", is(2)))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+
+        verify(adminService, times(1)).getBookingSummaries(BookingStatus.APPROVED, 1L, 20);
+    }
+
+    @Test
+    void testGetBookingsByCursor_UnknownStatus_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/admin/bookings/cursor").param("status", "archived"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Unknown booking status: archived")));
+
+        verify(adminService, never()).getBookingSummaries(any(), any(), anyInt());
+    }
+
+    @Test
+    void testStreamBookings_UnknownStatus_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/admin/bookings/stream").param("status", "archived"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Unknown booking status: archived")));
+
+        verify(adminService, never()).streamBookingSummaries(any(), any());
+    }
+
+    @Test
+    void testGetBookingsByStatus_UnknownStatus_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/admin/bookings/status/ARCHIVED"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Unknown booking status: ARCHIVED")));
+
+        verify(adminService, never()).getBookingsByStatus(any(), any(), anyInt());
     }
 
     @Test
     void testGetBookingsByStatus_ShouldReturnFilteredBookings() throws Exception {
-        when(adminService.getBookingsByStatus(BookingStatus.PENDING))
-                .thenReturn(Arrays.asList(booking1));
+        when(adminService.getBookingsByStatus(BookingStatus.PENDING, null, 100))
+                .thenReturn(new com.example.OLSHEETS.dto.CursorPage<>(Arrays.asList(view(booking1)), null, false));
 
         mockMvc.perform(get("/api/admin/bookings/status/PENDING"))
                 .andExpect(status().isOk())
@@ -113,12 +176,13 @@ class AdminControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].status", is("PENDING")));
 
-        verify(adminService, times(1)).getBookingsByStatus(BookingStatus.PENDING);
+        verify(adminService, times(1)).getBookingsByStatus(BookingStatus.PENDING, null, 100);
     }
 
     @Test
     void testGetBookingsByRenter_ShouldReturnRenterBookings() throws Exception {
-        when(adminService.getBookingsByRenter(100L)).thenReturn(Arrays.asList(booking1));
+        when(adminService.getBookingsByRenter(100L, null, 100))
+                .thenReturn(new com.example.OLSHEETS.dto.CursorPage<>(Arrays.asList(view(booking1)), null, false));
 
         mockMvc.perform(get("/api/admin/bookings/renter/100"))
                 .andExpect(status().isOk())
@@ -126,7 +190,7 @@ class AdminControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].renter.id", is(100)));
 
-        verify(adminService, times(1)).getBookingsByRenter(100L);
+        verify(adminService, times(1)).getBookingsByRenter(100L, null, 100);
     }
 
     @Test
@@ -207,7 +271,7 @@ class AdminControllerTest {
 
     @Test
     void testGetRevenueByOwner_ShouldReturnRevenue() throws Exception {
-        when(adminService.getRevenueByOwner(10L)).thenReturn(500.0);
+        when(adminService.getRevenueByOwner(10L)).thenReturn(new java.math.BigDecimal("500.0"));
 
         mockMvc.perform(get("/api/admin/revenue/owner/10"))
                 .andExpect(status().isOk())
@@ -220,7 +284,7 @@ class AdminControllerTest {
 
     @Test
     void testGetTotalRevenue_ShouldReturnSystemRevenue() throws Exception {
-        when(adminService.getTotalRevenue()).thenReturn(2500.0);
+        when(adminService.getTotalRevenue()).thenReturn(new java.math.BigDecimal("2500.0"));
 
         mockMvc.perform(get("/api/admin/revenue/total"))
                 .andExpect(status().isOk())
@@ -229,4 +293,35 @@ class AdminControllerTest {
 
         verify(adminService, times(1)).getTotalRevenue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRebuildRollups_ShouldReturnProcessedCount() throws Exception {
+        when(adminService.rebuildRollups()).thenReturn(3L);
+
+        mockMvc.perform(post("/api/admin/rollups/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookingsProcessed", is(3)));
+
+        verify(adminService, times(1)).rebuildRollups();
+    }
+
+    @Test
+    void testRebuildRollups_WhenItKeepsRacingWithWrites_ShouldReturnConflict() throws Exception {
+        when(adminService.rebuildRollups())
+            .thenThrow(new IllegalStateException("Booking rollup rebuild kept racing with booking writes"));
+
+        mockMvc.perform(post("/api/admin/rollups/rebuild"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Booking rollup rebuild kept racing with booking writes")));
+    }
+
+    private static BookingView view(Booking booking) {
+        Item item = booking.getItem();
+        User owner = item.getOwner();
+        User renter = booking.getRenter();
+        return new BookingView(booking.getId(), item.getId(), item.getClass(), item.getName(), item.getPrice(),
+                owner.getId(), owner.getUsername(), owner.getName(),
+                renter.getId(), renter.getUsername(), renter.getName(),
+                booking.getStartDate(), booking.getEndDate(), booking.getStatus());
+    }
+}
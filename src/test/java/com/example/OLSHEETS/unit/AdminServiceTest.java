@@ -5,15 +5,19 @@ import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.data.BookingStatus;
 import com.example.OLSHEETS.data.Item;
 import com.example.OLSHEETS.data.Instrument;
-import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.dto.BookingView;
+import com.example.OLSHEETS.dto.CursorPage;
 import com.example.OLSHEETS.service.AdminService;
+import com.example.OLSHEETS.service.BookingRollupService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -32,7 +36,7 @@ class AdminServiceTest {
     private BookingRepository bookingRepository;
 
     @Mock
-    private ItemRepository itemRepository;
+    private BookingRollupService bookingRollupService;
 
     @InjectMocks
     private AdminService adminService;
@@ -86,36 +90,39 @@ class AdminServiceTest {
 
     @Test
     void whenGetAllBookings_thenReturnAllBookings() {
-        when(bookingRepository.findAll()).thenReturn(Arrays.asList(booking1, booking2, booking3));
+        List<BookingView> views = Arrays.asList(view(booking1), view(booking2), view(booking3));
+        when(bookingRepository.findViewsAfter(0L, PageRequest.ofSize(101))).thenReturn(views);
 
-        List<Booking> bookings = adminService.getAllBookings();
+        CursorPage<BookingView> bookings = adminService.getAllBookings(null, 100);
 
-        assertThat(bookings).hasSize(3);
-        assertThat(bookings).containsExactly(booking1, booking2, booking3);
-        verify(bookingRepository, times(1)).findAll();
+        assertThat(bookings.getContent()).hasSize(3);
+        assertThat(bookings.getContent()).containsExactlyElementsOf(views);
+        assertThat(bookings.isHasMore()).isFalse();
+        verify(bookingRepository, times(1)).findViewsAfter(0L, PageRequest.ofSize(101));
+        verify(bookingRepository, never()).findAll();
     }
 
     @Test
     void whenGetBookingsByStatus_thenReturnFilteredBookings() {
-        when(bookingRepository.findByStatus(BookingStatus.PENDING))
-            .thenReturn(Arrays.asList(booking1));
+        when(bookingRepository.findViewsByStatusAfter(BookingStatus.PENDING, 0L, PageRequest.ofSize(101)))
+            .thenReturn(Arrays.asList(view(booking1)));
 
-        List<Booking> pendingBookings = adminService.getBookingsByStatus(BookingStatus.PENDING);
+        List<BookingView> pendingBookings = adminService.getBookingsByStatus(BookingStatus.PENDING, null, 100).getContent();
 
         assertThat(pendingBookings).hasSize(1);
         assertThat(pendingBookings.get(0).getStatus()).isEqualTo(BookingStatus.PENDING);
-        verify(bookingRepository, times(1)).findByStatus(BookingStatus.PENDING);
+        verify(bookingRepository, times(1)).findViewsByStatusAfter(BookingStatus.PENDING, 0L, PageRequest.ofSize(101));
     }
 
     @Test
     void whenGetBookingsByRenter_thenReturnRenterBookings() {
-        when(bookingRepository.findByRenterId(100L)).thenReturn(Arrays.asList(booking1));
+        when(bookingRepository.findViewsByRenterIdAfter(100L, 0L, PageRequest.ofSize(101))).thenReturn(Arrays.asList(view(booking1)));
 
-        List<Booking> renterBookings = adminService.getBookingsByRenter(100L);
+        List<BookingView> renterBookings = adminService.getBookingsByRenter(100L, null, 100).getContent();
 
         assertThat(renterBookings).hasSize(1);
         assertThat(renterBookings.get(0).getRenter().getId()).isEqualTo(100L);
-        verify(bookingRepository, times(1)).findByRenterId(100L);
+        verify(bookingRepository, times(1)).findViewsByRenterIdAfter(100L, 0L, PageRequest.ofSize(101));
     }
 
     @Test
@@ -129,6 +136,7 @@ class AdminServiceTest {
         assertThat(cancelled.getStatus()).isEqualTo(BookingStatus.CANCELLED);
         verify(bookingRepository, times(1)).findById(1L);
         verify(bookingRepository, times(1)).save(booking1);
+        verify(bookingRollupService, times(1)).recordTransition(booking1, BookingStatus.PENDING);
     }
 
     @Test
@@ -184,11 +192,11 @@ class AdminServiceTest {
 
     @Test
     void whenGetBookingStatistics_thenReturnCorrectCounts() {
-        when(bookingRepository.countByStatus(BookingStatus.PENDING)).thenReturn(5L);
-        when(bookingRepository.countByStatus(BookingStatus.APPROVED)).thenReturn(10L);
-        when(bookingRepository.countByStatus(BookingStatus.REJECTED)).thenReturn(3L);
-        when(bookingRepository.countByStatus(BookingStatus.CANCELLED)).thenReturn(2L);
-        when(bookingRepository.count()).thenReturn(20L);
+        when(bookingRollupService.countsByStatus()).thenReturn(Map.of(
+            BookingStatus.PENDING, 5L,
+            BookingStatus.APPROVED, 10L,
+            BookingStatus.REJECTED, 3L,
+            BookingStatus.CANCELLED, 2L));
 
         Map<String, Long> stats = adminService.getBookingStatistics();
 
@@ -197,8 +205,21 @@ class AdminServiceTest {
         assertThat(stats).containsEntry("approved", 10L);
         assertThat(stats).containsEntry("rejected", 3L);
         assertThat(stats).containsEntry("cancelled", 2L);
-        verify(bookingRepository, times(1)).count();
-        verify(bookingRepository, times(4)).countByStatus(any());
+        verify(bookingRollupService, times(1)).countsByStatus();
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void whenSomeStatusesHaveNoBookings_thenStatisticsReportZero() {
+        when(bookingRollupService.countsByStatus()).thenReturn(Map.of(BookingStatus.PENDING, 4L));
+
+        Map<String, Long> stats = adminService.getBookingStatistics();
+
+        assertThat(stats).containsEntry("total", 4L);
+        assertThat(stats).containsEntry("pending", 4L);
+        assertThat(stats).containsEntry("approved", 0L);
+        assertThat(stats).containsEntry("rejected", 0L);
+        assertThat(stats).containsEntry("cancelled", 0L);
     }
 
     @Test
@@ -213,39 +234,50 @@ class AdminServiceTest {
 
     @Test
     void whenGetOwnerActivity_thenReturnBookingCount() {
-        when(itemRepository.findByOwnerId(10L)).thenReturn(Arrays.asList(item1));
-        when(bookingRepository.countByItemIn(Arrays.asList(item1))).thenReturn(3L);
+        when(bookingRepository.countByItemOwnerId(10L)).thenReturn(3L);
 
         Long activityCount = adminService.getOwnerActivity(10L);
 
         assertThat(activityCount).isEqualTo(3L);
-        verify(itemRepository, times(1)).findByOwnerId(10L);
-        verify(bookingRepository, times(1)).countByItemIn(Arrays.asList(item1));
+        verify(bookingRepository, times(1)).countByItemOwnerId(10L);
     }
 
     @Test
     void whenGetRevenueByOwner_thenReturnTotalRevenue() {
-        booking2.setStatus(BookingStatus.APPROVED);
-        when(itemRepository.findByOwnerId(20L)).thenReturn(Arrays.asList(item2));
-        when(bookingRepository.findByItemInAndStatus(Arrays.asList(item2), BookingStatus.APPROVED))
-            .thenReturn(Arrays.asList(booking2));
+        when(bookingRollupService.revenueByOwner(20L, BookingStatus.APPROVED))
+            .thenReturn(new BigDecimal("250.00"));
 
-        Double revenue = adminService.getRevenueByOwner(20L);
+        BigDecimal revenue = adminService.getRevenueByOwner(20L);
 
-        assertThat(revenue).isGreaterThan(0);
-        verify(itemRepository, times(1)).findByOwnerId(20L);
-        verify(bookingRepository, times(1)).findByItemInAndStatus(anyList(), eq(BookingStatus.APPROVED));
+        assertThat(revenue).isEqualByComparingTo("250");
+        verify(bookingRollupService, times(1)).revenueByOwner(20L, BookingStatus.APPROVED);
     }
 
     @Test
     void whenGetTotalRevenue_thenReturnSystemWideRevenue() {
-        booking2.setStatus(BookingStatus.APPROVED);
-        when(bookingRepository.findByStatus(BookingStatus.APPROVED))
-            .thenReturn(Arrays.asList(booking2));
+        when(bookingRollupService.revenue(BookingStatus.APPROVED))
+            .thenReturn(new BigDecimal("700.00"));
+
+        BigDecimal totalRevenue = adminService.getTotalRevenue();
+
+        assertThat(totalRevenue).isEqualByComparingTo("700");
+        verify(bookingRollupService, times(1)).revenue(BookingStatus.APPROVED);
+    }
 
-        Double totalRevenue = adminService.getTotalRevenue();
+    @Test
+    void whenRebuildRollups_thenDelegatesToRollupService() {
+        when(bookingRollupService.rebuild()).thenReturn(42L);
+
+        assertThat(adminService.rebuildRollups()).isEqualTo(42L);
+    }
 
-        assertThat(totalRevenue).isGreaterThan(0);
-        verify(bookingRepository, times(1)).findByStatus(BookingStatus.APPROVED);
+    private static BookingView view(Booking booking) {
+        Item item = booking.getItem();
+        com.example.OLSHEETS.data.User owner = item.getOwner();
+        com.example.OLSHEETS.data.User renter = booking.getRenter();
+        return new BookingView(booking.getId(), item.getId(), item.getClass(), item.getName(), item.getPrice(),
+                owner.getId(), owner.getUsername(), owner.getName(),
+                renter.getId(), renter.getUsername(), renter.getName(),
+                booking.getStartDate(), booking.getEndDate(), booking.getStatus());
     }
-}
\ No newline at end of file
+}
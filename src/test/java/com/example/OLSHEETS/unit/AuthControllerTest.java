@@ -5,8 +5,10 @@ import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.dto.AuthResponse;
 import com.example.OLSHEETS.dto.LoginRequest;
 import com.example.OLSHEETS.dto.SignupRequest;
+import com.example.OLSHEETS.exception.ServiceOverloadedException;
 import com.example.OLSHEETS.exception.UserAlreadyExistsException;
 import com.example.OLSHEETS.security.JwtUtil;
+import com.example.OLSHEETS.security.VerifiedToken;
 import com.example.OLSHEETS.service.UserService;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
@@ -18,6 +20,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -84,7 +87,7 @@ class AuthControllerTest {
         request.setPassword("password123");
 
         when(userService.registerUser(any(SignupRequest.class))).thenReturn(testUser);
-        when(jwtUtil.generateToken(anyString())).thenReturn(testToken);
+        when(jwtUtil.generateToken(anyString(), any())).thenReturn(testToken);
 
         mockMvc.perform(post("/api/auth/signup")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -107,6 +110,39 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.error").value("Username already exists"));
     }
 
+    @Test
+    void testSignup_HashingSaturated_ShouldReturnServiceUnavailable() throws Exception {
+        when(userService.registerUser(any(SignupRequest.class)))
+                .thenThrow(new ServiceOverloadedException("Authentication is busy, please retry shortly", 2));
+
+        mockMvc.perform(post("/api/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"newuser\",\"email\":\"newuser@test.com\",\"name\":\"New User\",\"password\":\"password123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error").value("Authentication is busy, please retry shortly"));
+
+        verify(jwtUtil, never()).generateToken(anyString(), any());
+    }
+
+    @Test
+    void testLogin_HashingSaturated_ShouldReturnServiceUnavailable() throws Exception {
+        when(userService.authenticateUser("testuser", "password"))
+                .thenThrow(new ServiceOverloadedException("Authentication is busy, please retry shortly", 1));
+        when(authenticationTimer.record(any(Supplier.class))).thenAnswer(invocation -> {
+            Supplier<?> supplier = invocation.getArgument(0);
+            return supplier.get();
+        });
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"testuser\",\"password\":\"password\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verify(loginFailureCounter, never()).increment();
+    }
+
     @Test
     void testLogin_Success() throws Exception {
         LoginRequest request = new LoginRequest();
@@ -114,7 +150,7 @@ class AuthControllerTest {
         request.setPassword("password");
 
         when(userService.authenticateUser("testuser", "password")).thenReturn(Optional.of(testUser));
-        when(jwtUtil.generateToken(anyString())).thenReturn(testToken);
+        when(jwtUtil.generateToken(anyString(), any())).thenReturn(testToken);
         // Mock timer to execute the supplier and return its result
         when(authenticationTimer.record(any(Supplier.class))).thenAnswer(invocation -> {
             Supplier<?> supplier = invocation.getArgument(0);
@@ -156,8 +192,7 @@ class AuthControllerTest {
     void testValidateToken_Success() throws Exception {
         String authHeader = "Bearer " + testToken;
 
-        when(jwtUtil.extractUsername(testToken)).thenReturn("testuser");
-        when(jwtUtil.validateToken(testToken, "testuser")).thenReturn(true);
+        when(jwtUtil.verifyToken(testToken)).thenReturn(Optional.of(verifiedToken("testuser")));
         when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
 
         mockMvc.perform(get("/api/auth/validate")
@@ -171,8 +206,7 @@ class AuthControllerTest {
     void testValidateToken_InvalidToken() throws Exception {
         String authHeader = "Bearer invalid-token";
 
-        when(jwtUtil.extractUsername("invalid-token")).thenReturn("testuser");
-        when(jwtUtil.validateToken("invalid-token", "testuser")).thenReturn(false);
+        when(jwtUtil.verifyToken("invalid-token")).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/auth/validate")
                         .header("Authorization", authHeader))
@@ -184,8 +218,7 @@ class AuthControllerTest {
     void testValidateToken_UserNotFound() throws Exception {
         String authHeader = "Bearer " + testToken;
 
-        when(jwtUtil.extractUsername(testToken)).thenReturn("testuser");
-        when(jwtUtil.validateToken(testToken, "testuser")).thenReturn(true);
+        when(jwtUtil.verifyToken(testToken)).thenReturn(Optional.of(verifiedToken("testuser")));
         when(userService.findByUsername("testuser")).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/auth/validate")
@@ -198,7 +231,7 @@ class AuthControllerTest {
     void testValidateToken_Exception() throws Exception {
         String authHeader = "Bearer invalid";
 
-        when(jwtUtil.extractUsername(anyString())).thenThrow(new RuntimeException("Invalid token format"));
+        when(jwtUtil.verifyToken(anyString())).thenThrow(new RuntimeException("Invalid token format"));
 
         mockMvc.perform(get("/api/auth/validate")
                         .header("Authorization", authHeader))
@@ -292,5 +325,8 @@ class AuthControllerTest {
 
         org.springframework.security.core.context.SecurityContextHolder.clearContext();
     }
-}
 
+    private static VerifiedToken verifiedToken(String username) {
+        return new VerifiedToken(username, 1L, Instant.now().plusSeconds(3600));
+    }
+}
@@ -6,8 +6,13 @@ import com.example.OLSHEETS.data.BookingStatus;
 import com.example.OLSHEETS.data.Item;
 import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.dto.BookingView;
+import com.example.OLSHEETS.exception.IdempotencyKeyMismatchException;
+import com.example.OLSHEETS.exception.ServiceOverloadedException;
+import com.example.OLSHEETS.repository.IdempotencyRecordRepository;
 import com.example.OLSHEETS.repository.UserRepository;
 import com.example.OLSHEETS.service.BookingService;
+import com.example.OLSHEETS.service.IdempotencyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,16 +24,22 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import com.example.OLSHEETS.security.AuthenticatedUser;
 import com.example.OLSHEETS.security.JwtUtil;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = BookingController.class, excludeAutoConfiguration = {
@@ -55,7 +66,11 @@ class BookingControllerTest {
     @MockitoBean
     private UserRepository userRepository;
 
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
     private Booking booking;
+    private BookingView bookingView;
     private Item item;
 
     @BeforeEach
@@ -83,6 +98,8 @@ class BookingControllerTest {
         booking = new Booking(item, testUser, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
         booking.setId(1L);
         booking.setStatus(BookingStatus.PENDING);
+        bookingView = new BookingView(1L, 1L, Instrument.class, "Test Guitar", 50.0, 10L, "owner", "OwnerTest",
+                100L, "test", "Test User", booking.getStartDate(), booking.getEndDate(), BookingStatus.PENDING);
     }
 
     @Test
@@ -100,6 +117,26 @@ class BookingControllerTest {
         verify(bookingService, times(1)).approveBooking(1L, 10);
     }
 
+    @Test
+    void testApproveBooking_WithTokenPrincipal_ShouldNotLookUpUser() throws Exception {
+        org.springframework.security.core.Authentication auth = mock(org.springframework.security.core.Authentication.class);
+        org.springframework.security.core.context.SecurityContext securityContext = mock(org.springframework.security.core.context.SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(auth);
+        when(auth.getName()).thenReturn("owner");
+        when(auth.getPrincipal()).thenReturn(new AuthenticatedUser(10L, "owner"));
+        org.springframework.security.core.context.SecurityContextHolder.setContext(securityContext);
+
+        booking.setStatus(BookingStatus.APPROVED);
+        when(bookingService.approveBooking(1L, 10)).thenReturn(booking);
+
+        mockMvc.perform(put("/api/bookings/1/approve"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("APPROVED")));
+
+        verify(bookingService, times(1)).approveBooking(1L, 10);
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
     @Test
     void testApproveBooking_WithUnauthorizedOwner_ShouldReturnBadRequest() throws Exception {
         // Mock authentication with a different user (not the owner)
@@ -285,6 +322,86 @@ class BookingControllerTest {
         SecurityContextHolder.clearContext();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateBooking_WithIdempotencyKey_ShouldRunUnderUserScopedKey() throws Exception {
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+        when(bookingService.createBooking(1L, 10L, startDate, endDate)).thenReturn(booking);
+        when(idempotencyService.execute(eq("booking:10"), eq("key-1"), eq("1|" + startDate + "|" + endDate), any()))
+                .thenAnswer(inv -> ((Supplier<IdempotencyService.StoredResponse>) inv.getArgument(3)).get());
+
+        mockMvc.perform(post("/api/bookings")
+                        .header(IdempotencyService.HEADER, "key-1")
+                        .param("itemId", "1")
+                        .param("startDate", startDate.toString())
+                        .param("endDate", endDate.toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"))
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.status", is("PENDING")));
+
+        verify(bookingService, times(1)).createBooking(1L, 10L, startDate, endDate);
+    }
+
+    @Test
+    void testCreateBooking_WithReusedIdempotencyKey_ShouldReturnUnprocessableEntity() throws Exception {
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+        when(idempotencyService.execute(eq("booking:10"), eq("key-1"), any(), any()))
+                .thenThrow(new IdempotencyKeyMismatchException("Idempotency-Key was already used for a different request"));
+
+        mockMvc.perform(post("/api/bookings")
+                        .header(IdempotencyService.HEADER, "key-1")
+                        .param("itemId", "1")
+                        .param("startDate", startDate.toString())
+                        .param("endDate", endDate.toString()))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(bookingService, never()).createBooking(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void testCreateBooking_RetriedAfterLockTimeout_ShouldRunAgain() throws Exception {
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+        IdempotencyRecordRepository records = mock(IdempotencyRecordRepository.class);
+        IdempotencyService realService = new IdempotencyService(records, Duration.ofHours(24), Duration.ofSeconds(60),
+                1 << 20, 0, Clock.systemUTC(), null);
+        when(idempotencyService.execute(any(), any(), any(), any())).thenAnswer(inv -> realService.execute(
+                inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+        when(bookingService.createBooking(1L, 10L, startDate, endDate))
+                .thenThrow(new ServiceOverloadedException("Item is busy, please try again", 5))
+                .thenReturn(booking);
+
+        try {
+            mockMvc.perform(post("/api/bookings")
+                            .header(IdempotencyService.HEADER, "key-1")
+                            .param("itemId", "1")
+                            .param("startDate", startDate.toString())
+                            .param("endDate", endDate.toString()))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "5"));
+
+            // The timeout released the key instead of storing the 503
+            mockMvc.perform(post("/api/bookings")
+                            .header(IdempotencyService.HEADER, "key-1")
+                            .param("itemId", "1")
+                            .param("startDate", startDate.toString())
+                            .param("endDate", endDate.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                    .andExpect(jsonPath("$.id", is(1)));
+        } finally {
+            realService.shutdown();
+        }
+
+        verify(bookingService, times(2)).createBooking(1L, 10L, startDate, endDate);
+        verify(records).release("booking:10", "key-1");
+        verify(records, times(1)).complete(eq("booking:10"), eq("key-1"), eq(200), any());
+    }
+
     @Test
     void testCreateBooking_WithUserNotFound_ShouldReturnBadRequest() throws Exception {
         // Setup authentication context with a user that doesn't exist in DB
@@ -374,17 +491,18 @@ class BookingControllerTest {
 
     @Test
     void testListBookings_ShouldReturnAllBookings() throws Exception {
-        java.util.List<Booking> bookings = java.util.Arrays.asList(booking);
+        java.util.List<BookingView> bookings = java.util.Arrays.asList(bookingView);
         
-        when(bookingService.listBookings()).thenReturn(bookings);
+        when(bookingService.listBookings(null, 100)).thenReturn(new com.example.OLSHEETS.dto.CursorPage<>(bookings, null, false));
 
         mockMvc.perform(get("/api/bookings"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/json"))
                 .andExpect(jsonPath("$[0].id", is(1)))
-                .andExpect(jsonPath("$[0].status", is("PENDING")));
+                .andExpect(jsonPath("$[0].status", is("PENDING")))
+                .andExpect(header().string("X-Has-More", "false"));
 
-        verify(bookingService, times(1)).listBookings();
+        verify(bookingService, times(1)).listBookings(null, 100);
     }
 
     @Test
@@ -401,13 +519,18 @@ class BookingControllerTest {
         
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         
-        java.util.List<Booking> bookings = java.util.Arrays.asList(booking);
+        java.util.List<BookingView> bookings = java.util.Arrays.asList(bookingView);
         when(bookingService.getBookingsByRenterId(100L)).thenReturn(bookings);
 
         mockMvc.perform(get("/api/bookings/my-bookings"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType("application/json"))
-                .andExpect(jsonPath("$[0].id", is(1)));
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].item.name", is("Test Guitar")))
+                .andExpect(jsonPath("$[0].item.owner.id", is(10)))
+                .andExpect(jsonPath("$[0].renter.id", is(100)))
+                .andExpect(jsonPath("$[0].renter.email").doesNotExist())
+                .andExpect(jsonPath("$[0].item.description").doesNotExist());
 
         verify(userRepository, times(1)).findByUsername("testuser");
         verify(bookingService, times(1)).getBookingsByRenterId(100L);
@@ -474,7 +597,7 @@ class BookingControllerTest {
         
         when(userRepository.findByUsername("owner")).thenReturn(Optional.of(ownerUser));
         
-        java.util.List<Booking> bookings = java.util.Arrays.asList(booking);
+        java.util.List<BookingView> bookings = java.util.Arrays.asList(bookingView);
         when(bookingService.getBookingsByOwnerId(10L)).thenReturn(bookings);
 
         mockMvc.perform(get("/api/bookings/my-instrument-bookings"))
@@ -574,4 +697,81 @@ class BookingControllerTest {
         
         SecurityContextHolder.clearContext();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetMyInstrumentBookingSummaries_ShouldReturnPagedSummaries() throws Exception {
+        com.example.OLSHEETS.dto.BookingSummary summary = new com.example.OLSHEETS.dto.BookingSummary(
+                1L, 1L, "Test Guitar", 100L, "test",
+                LocalDate.now().plusDays(1), LocalDate.now().plusDays(3), BookingStatus.PENDING);
+        org.springframework.data.domain.Page<com.example.OLSHEETS.dto.BookingSummary> page =
+                new org.springframework.data.domain.PageImpl<>(java.util.List.of(summary),
+                        org.springframework.data.domain.PageRequest.of(0, 20), 1);
+        when(bookingService.getBookingSummariesByOwnerId(eq(10L), any())).thenReturn(page);
+
+        mockMvc.perform(get("/api/bookings/my-instrument-bookings/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].bookingId", is(1)))
+                .andExpect(jsonPath("$.content[0].itemName", is("Test Guitar")))
+                .andExpect(jsonPath("$.content[0].renterUsername", is("test")))
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.page", is(0)));
+
+        verify(bookingService, times(1)).getBookingSummariesByOwnerId(eq(10L), any());
+    }
+
+    @Test
+    void testListBookingsByCursor_ShouldReturnNextCursor() throws Exception {
+        com.example.OLSHEETS.dto.BookingSummary summary = new com.example.OLSHEETS.dto.BookingSummary(
+                7L, 1L, "Test Guitar", 100L, "test",
+                LocalDate.now().plusDays(1), LocalDate.now().plusDays(3), BookingStatus.PENDING);
+        when(bookingService.listBookingSummaries(5L, 1))
+                .thenReturn(new com.example.OLSHEETS.dto.CursorPage<>(java.util.List.of(summary), 7L, true));
+
+        mockMvc.perform(get("/api/bookings/cursor").param("after", "5").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].bookingId", is(7)))
+                .andExpect(jsonPath("$.nextCursor", is(7)))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+
+        verify(bookingService, times(1)).listBookingSummaries(5L, 1);
+    }
+
+    @Test
+    void testGetMyBookingsByCursor_ShouldClampPageSize() throws Exception {
+        when(bookingService.getBookingSummariesByRenterId(10L, null, 100))
+                .thenReturn(new com.example.OLSHEETS.dto.CursorPage<>(java.util.List.of(), null, false));
+
+        mockMvc.perform(get("/api/bookings/my-bookings/cursor").param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore", is(false)));
+
+        verify(bookingService, times(1)).getBookingSummariesByRenterId(10L, null, 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamBookings_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            java.util.function.Consumer<com.example.OLSHEETS.dto.BookingSummary> sink = invocation.getArgument(0);
+            sink.accept(new com.example.OLSHEETS.dto.BookingSummary(1L, 1L, "Test Guitar", 100L, "test",
+                    LocalDate.now().plusDays(1), LocalDate.now().plusDays(3), BookingStatus.PENDING));
+            sink.accept(new com.example.OLSHEETS.dto.BookingSummary(2L, 1L, "Test Guitar", 200L, "other",
+                    LocalDate.now().plusDays(5), LocalDate.now().plusDays(7), BookingStatus.APPROVED));
+            return null;
+        }).when(bookingService).streamBookingSummaries(any());
+
+        org.springframework.test.web.servlet.MvcResult result = mockMvc.perform(get("/api/bookings/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        org.assertj.core.api.Assertions.assertThat(lines).hasSize(2);
+        org.assertj.core.api.Assertions.assertThat(lines[0]).contains("\"bookingId\":1");
+        org.assertj.core.api.Assertions.assertThat(lines[1]).contains("\"renterUsername\":\"other\"");
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.data.Booking;
+import com.example.OLSHEETS.data.BookingStatus;
+import com.example.OLSHEETS.data.BookingStatusTotal;
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.Item;
+import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.BookingRollupSource;
+import com.example.OLSHEETS.dto.StatusCount;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.BookingRollupRepository;
+import com.example.OLSHEETS.repository.BookingStatusTotalRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.service.BookingRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingRollupServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 3, 1);
+
+    @Mock
+    private BookingRollupRepository rollupRepository;
+
+    @Mock
+    private BookingStatusTotalRepository totalRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingRollupService rollupService;
+
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new BookingRollupService(rollupRepository, totalRepository, bookingRepository, userRepository, transactionManager);
+
+        User owner = new User("owner", "owner@example.com", "Owner");
+        owner.setId(10L);
+        item = new Instrument();
+        item.setId(1L);
+        item.setOwner(owner);
+        item.setPrice(50.0);
+
+        User renter = new User("renter", "renter@example.com", "Renter");
+        renter.setId(100L);
+        booking = new Booking(item, renter, START, START.plusDays(4));
+        booking.setId(35L);
+    }
+
+    @Test
+    void whenBookingCreatedInExistingBucket_thenUpdatesItWithoutOwnerLock() {
+        when(rollupRepository.addToBucket(START, 10L, BookingStatus.PENDING, 1, new BigDecimal("200.0"))).thenReturn(1);
+
+        rollupService.recordCreated(booking);
+
+        // Booking 35 lands in slot 35 % 16
+        verify(totalRepository).upsert(BookingStatus.PENDING, 3, 1, new BigDecimal("200.0"));
+        verify(rollupRepository, never()).upsert(any(), any(), any(), anyLong(), any());
+        verifyNoMoreInteractions(totalRepository);
+        verifyNoInteractions(userRepository, bookingRepository, transactionManager);
+    }
+
+    @Test
+    void whenBookingCreatedInNewBucket_thenCreatesItUnderOwnerLock() {
+        when(rollupRepository.addToBucket(START, 10L, BookingStatus.PENDING, 1, new BigDecimal("200.0"))).thenReturn(0);
+
+        rollupService.recordCreated(booking);
+
+        InOrder inOrder = inOrder(rollupRepository, userRepository);
+        inOrder.verify(rollupRepository).addToBucket(START, 10L, BookingStatus.PENDING, 1, new BigDecimal("200.0"));
+        inOrder.verify(userRepository).findByIdForUpdate(10L);
+        inOrder.verify(rollupRepository).upsert(START, 10L, BookingStatus.PENDING, 1, new BigDecimal("200.0"));
+        verify(totalRepository).upsert(BookingStatus.PENDING, 3, 1, new BigDecimal("200.0"));
+    }
+
+    @Test
+    void whenPriceChangesAfterCreation_thenTransitionMovesCapturedAmount() {
+        booking.setAmount(new BigDecimal("200.00"));
+        item.setPrice(80.0);
+        booking.setStatus(BookingStatus.APPROVED);
+
+        rollupService.recordTransition(booking, BookingStatus.PENDING);
+
+        verify(rollupRepository).addToBucket(START, 10L, BookingStatus.PENDING, -1, new BigDecimal("-200.00"));
+        verify(rollupRepository).addToBucket(START, 10L, BookingStatus.APPROVED, 1, new BigDecimal("200.00"));
+    }
+
+    @Test
+    void whenStatusChanges_thenBookingMovesBetweenBuckets() {
+        booking.setStatus(BookingStatus.APPROVED);
+        when(rollupRepository.addToBucket(any(), any(), any(), anyLong(), any())).thenReturn(1);
+
+        rollupService.recordTransition(booking, BookingStatus.PENDING);
+
+        InOrder inOrder = inOrder(rollupRepository);
+        inOrder.verify(rollupRepository).addToBucket(START, 10L, BookingStatus.PENDING, -1, new BigDecimal("-200.0"));
+        inOrder.verify(rollupRepository).addToBucket(START, 10L, BookingStatus.APPROVED, 1, new BigDecimal("200.0"));
+        verify(totalRepository).upsert(BookingStatus.PENDING, 3, -1, new BigDecimal("-200.0"));
+        verify(totalRepository).upsert(BookingStatus.APPROVED, 3, 1, new BigDecimal("200.0"));
+        verifyNoMoreInteractions(rollupRepository, totalRepository);
+    }
+
+    @Test
+    void whenStatusUnchanged_thenNothingIsWritten() {
+        rollupService.recordTransition(booking, BookingStatus.PENDING);
+
+        verifyNoInteractions(rollupRepository, totalRepository);
+    }
+
+    @Test
+    void whenCountsRead_thenMapsRollupRows() {
+        when(totalRepository.countGroupedByStatus())
+            .thenReturn(List.of(new StatusCount(BookingStatus.APPROVED, 3L)));
+
+        Map<BookingStatus, Long> counts = rollupService.countsByStatus();
+
+        assertThat(counts).containsExactly(Map.entry(BookingStatus.APPROVED, 3L));
+    }
+
+    @Test
+    void whenNoRevenueRows_thenRevenueIsZero() {
+        when(totalRepository.sumRevenueByStatus(BookingStatus.APPROVED)).thenReturn(null);
+
+        assertThat(rollupService.revenue(BookingStatus.APPROVED)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void whenRebuild_thenReplacesBucketsInRepeatableReadTransaction() {
+        when(bookingRepository.findRollupSourcesAfter(eq(0L), any())).thenReturn(List.of(
+            // Captured at 50/day before the price went to 70
+            new BookingRollupSource(1L, 10L, START, START.plusDays(2), BookingStatus.APPROVED, 70.0, new BigDecimal("100")),
+            // Stored before amounts were captured: valued at the current price
+            new BookingRollupSource(2L, 10L, START, START.plusDays(1), BookingStatus.APPROVED, 30.0, null),
+            new BookingRollupSource(3L, 20L, START, START.plusDays(1), BookingStatus.PENDING, 80.0, new BigDecimal("80"))));
+
+        long processed = rollupService.rebuild();
+
+        assertThat(processed).isEqualTo(3);
+        verify(transactionManager).getTransaction(argThat(definition ->
+            definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        InOrder inOrder = inOrder(bookingRepository, rollupRepository, totalRepository);
+        inOrder.verify(bookingRepository).findRollupSourcesAfter(eq(0L), any());
+        inOrder.verify(rollupRepository).deleteAllInBatch();
+        verify(rollupRepository).upsert(eq(START), eq(10L), eq(BookingStatus.APPROVED), eq(2L), argThat(amount("130")));
+        verify(rollupRepository).upsert(eq(START), eq(20L), eq(BookingStatus.PENDING), eq(1L), argThat(amount("80")));
+        inOrder.verify(totalRepository).deleteAllInBatch();
+        verify(totalRepository).upsert(eq(BookingStatus.APPROVED), eq(1), eq(1L), argThat(amount("100")));
+        verify(totalRepository).upsert(eq(BookingStatus.APPROVED), eq(2), eq(1L), argThat(amount("30")));
+        verify(totalRepository).upsert(eq(BookingStatus.PENDING), eq(3), eq(1L), argThat(amount("80")));
+        // Empty slots are written too, so deltas never have to create one
+        verify(totalRepository).upsert(eq(BookingStatus.REJECTED), eq(0), eq(0L), argThat(amount("0")));
+        verify(totalRepository, times(BookingStatus.values().length * BookingStatusTotal.SLOTS))
+            .upsert(any(), anyInt(), anyLong(), any());
+        verify(rollupRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void whenRebuildRacesWithBookingWrite_thenRetriesFromFreshSnapshot() {
+        doThrow(new CannotAcquireLockException("could not serialize access"))
+            .doNothing()
+            .when(rollupRepository).deleteAllInBatch();
+        when(bookingRepository.findRollupSourcesAfter(eq(0L), any())).thenReturn(List.of(
+            new BookingRollupSource(1L, 10L, START, START.plusDays(1), BookingStatus.PENDING, 50.0, new BigDecimal("50"))));
+
+        long processed = rollupService.rebuild();
+
+        assertThat(processed).isEqualTo(1);
+        verify(bookingRepository, times(2)).findRollupSourcesAfter(eq(0L), any());
+        verify(rollupRepository, times(1)).upsert(START, 10L, BookingStatus.PENDING, 1, new BigDecimal("50"));
+    }
+
+    @Test
+    void whenRebuildKeepsRacing_thenGivesUp() {
+        doThrow(new CannotAcquireLockException("could not serialize access"))
+            .when(rollupRepository).deleteAllInBatch();
+
+        assertThatThrownBy(() -> rollupService.rebuild())
+            .isInstanceOf(IllegalStateException.class)
+            .hasCauseInstanceOf(CannotAcquireLockException.class);
+        verify(rollupRepository, times(3)).deleteAllInBatch();
+        verify(rollupRepository, never()).upsert(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void whenStartingAgainstExistingBookings_thenAmountsAreBackfilledBeforeSeeding() {
+        when(rollupRepository.count()).thenReturn(0L);
+        when(bookingRepository.count()).thenReturn(1L);
+
+        rollupService.rebuildIfEmpty();
+
+        InOrder inOrder = inOrder(bookingRepository);
+        inOrder.verify(bookingRepository).backfillAmounts();
+        inOrder.verify(bookingRepository).findRollupSourcesAfter(eq(0L), any());
+    }
+
+    @Test
+    void whenRollupsExistButStatusTotalsDoNot_thenStartupSeedsThem() {
+        when(rollupRepository.count()).thenReturn(5L);
+        when(totalRepository.count()).thenReturn(0L);
+        when(bookingRepository.count()).thenReturn(1L);
+
+        rollupService.rebuildIfEmpty();
+
+        verify(totalRepository).deleteAllInBatch();
+    }
+
+    @Test
+    void whenStartingWithRollupsInPlace_thenOnlyMissingStatusTotalSlotsAreCreated() {
+        when(rollupRepository.count()).thenReturn(5L);
+        when(totalRepository.count()).thenReturn(3L);
+
+        rollupService.rebuildIfEmpty();
+
+        verify(totalRepository, never()).deleteAllInBatch();
+        verify(totalRepository).upsert(BookingStatus.PENDING, 0, 0, BigDecimal.ZERO);
+        verify(totalRepository, times(BookingStatus.values().length * BookingStatusTotal.SLOTS))
+            .upsert(any(), anyInt(), eq(0L), eq(BigDecimal.ZERO));
+    }
+
+    private static ArgumentMatcher<BigDecimal> amount(String expected) {
+        return actual -> actual != null && actual.compareTo(new BigDecimal(expected)) == 0;
+    }
+}
@@ -5,17 +5,23 @@ import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.data.BookingStatus;
 import com.example.OLSHEETS.data.Item;
 import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.dto.ItemSummary;
 import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.service.BookingRollupService;
 import com.example.OLSHEETS.service.BookingService;
+import com.example.OLSHEETS.service.ItemIntervalIndex;
+import com.example.OLSHEETS.service.ItemLockManager;
+import com.example.OLSHEETS.service.ItemSummaryCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -38,6 +44,12 @@ class BookingServiceTest {
     @Mock
     private com.example.OLSHEETS.repository.AvailabilityRepository availabilityRepository;
 
+    @Spy
+    private ItemLockManager itemLockManager = new ItemLockManager(16);
+
+    @Mock
+    private BookingRollupService bookingRollupService;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -75,6 +87,7 @@ class BookingServiceTest {
         assertThat(approved.getStatus()).isEqualTo(BookingStatus.APPROVED);
         verify(bookingRepository, times(1)).findById(1L);
         verify(bookingRepository, times(1)).save(booking);
+        verify(bookingRollupService, times(1)).recordTransition(booking, BookingStatus.PENDING);
     }
 
     @Test
@@ -124,6 +137,7 @@ class BookingServiceTest {
         assertThat(rejected.getStatus()).isEqualTo(BookingStatus.REJECTED);
         verify(bookingRepository, times(1)).findById(1L);
         verify(bookingRepository, times(1)).save(booking);
+        verify(bookingRollupService, times(1)).recordTransition(booking, BookingStatus.PENDING);
     }
 
     @Test
@@ -165,9 +179,9 @@ class BookingServiceTest {
 
     @Test
     void whenCreateValidBooking_thenSuccess() {
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(availabilityRepository.findOverlapping(anyLong(), any(), any())).thenReturn(List.of());
-        when(bookingRepository.findOverlapping(anyLong(), any(), any())).thenReturn(List.of());
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(item));
+        when(availabilityRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(false);
+        when(bookingRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(false);
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         when(userRepository.findById(100L)).thenReturn(Optional.of(testUser));
@@ -177,6 +191,7 @@ class BookingServiceTest {
         assertThat(created).isNotNull();
         assertThat(created.getStatus()).isEqualTo(BookingStatus.PENDING);
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(bookingRollupService, times(1)).recordCreated(any(Booking.class));
     }
 
     @Test
@@ -232,7 +247,7 @@ class BookingServiceTest {
         ownerSameAsRenter.setId(100L);
         item.setOwner(ownerSameAsRenter);
 
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(item));
         when(userRepository.findById(100L)).thenReturn(Optional.of(testUser));
 
         assertThatThrownBy(() -> bookingService.createBooking(1L, 100L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)))
@@ -244,40 +259,98 @@ class BookingServiceTest {
 
     @Test
     void whenCreateBooking_WithValidDatesAndDifferentOwner_thenSuccess() {
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(item));
         when(userRepository.findById(100L)).thenReturn(Optional.of(testUser));
-        when(availabilityRepository.findOverlapping(anyLong(), any(), any())).thenReturn(List.of());
-        when(bookingRepository.findOverlapping(anyLong(), any(), any())).thenReturn(List.of());
+        when(availabilityRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(false);
+        when(bookingRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(false);
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
 
         Booking created = bookingService.createBooking(1L, 100L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
 
         assertThat(created).isNotNull();
-        verify(itemRepository, times(1)).findById(1L);
+        verify(itemRepository, times(1)).findByIdForUpdate(1L);
         verify(userRepository, times(1)).findById(100L);
         verify(bookingRepository, times(1)).save(any(Booking.class));
     }
 
     @Test
     void whenCreateBooking_WithUnavailablePeriod_thenThrowException() {
-        // Create an availability period that blocks the requested dates
-        com.example.OLSHEETS.data.Availability unavailability = new com.example.OLSHEETS.data.Availability(
-            1L, 
-            LocalDate.now().plusDays(1), 
-            LocalDate.now().plusDays(5), 
-            com.example.OLSHEETS.data.AvailabilityReason.MAINTENANCE
-        );
-
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        // An availability period blocks the requested dates
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findById(100L)).thenReturn(Optional.of(testUser));
+        when(availabilityRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(true);
+
+        assertThatThrownBy(() -> bookingService.createBooking(1L, 100L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Item is not available during the requested period");
+
+        verify(availabilityRepository, times(1)).existsOverlapping(1L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void whenCreateBooking_WithIndexedBookingOverlap_thenRejectWithoutQuery() {
+        ItemIntervalIndex index = new ItemIntervalIndex(bookingRepository, availabilityRepository);
+        index.putBooking(5L, 1L, LocalDate.now().plusDays(2), LocalDate.now().plusDays(4));
+        ReflectionTestUtils.setField(bookingService, "intervalIndex", index);
+
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findById(100L)).thenReturn(Optional.of(testUser));
+
+        assertThatThrownBy(() -> bookingService.createBooking(1L, 100L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Item already booked for requested period");
+
+        verify(bookingRepository, never()).existsOverlapping(anyLong(), any(), any());
+        verify(availabilityRepository, never()).existsOverlapping(anyLong(), any(), any());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void whenCreateBooking_WithIndexedBlock_thenRejectWithoutQuery() {
+        ItemIntervalIndex index = new ItemIntervalIndex(bookingRepository, availabilityRepository);
+        index.putBlock(7L, 1L, LocalDate.now().plusDays(3), LocalDate.now().plusDays(6));
+        ReflectionTestUtils.setField(bookingService, "intervalIndex", index);
+
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(item));
         when(userRepository.findById(100L)).thenReturn(Optional.of(testUser));
-        when(availabilityRepository.findOverlapping(anyLong(), any(), any()))
-            .thenReturn(List.of(unavailability));
 
         assertThatThrownBy(() -> bookingService.createBooking(1L, 100L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)))
             .isInstanceOf(IllegalStateException.class)
             .hasMessageContaining("Item is not available during the requested period");
 
-        verify(availabilityRepository, times(1)).findOverlapping(1L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
+        verify(availabilityRepository, never()).existsOverlapping(anyLong(), any(), any());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void whenCreateBooking_ForOwnCachedItem_thenRejectBeforeLocking() {
+        ItemSummaryCache cache = new ItemSummaryCache(itemRepository, 100);
+        ReflectionTestUtils.setField(bookingService, "itemSummaryCache", cache);
+        when(itemRepository.findSummaryById(1L)).thenReturn(Optional.of(new ItemSummary(1L, "Test Guitar", 50.0, 10L)));
+
+        assertThatThrownBy(() -> bookingService.createBooking(1L, 10L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Cannot book your own items");
+
+        verify(itemLockManager, never()).withItemLock(anyLong(), any());
+        verify(itemRepository, never()).findByIdForUpdate(anyLong());
+    }
+
+    @Test
+    void whenCreateBooking_IndexMissesButDatabaseConflicts_thenDatabaseGuardRejects() {
+        ItemIntervalIndex index = new ItemIntervalIndex(bookingRepository, availabilityRepository);
+        ReflectionTestUtils.setField(bookingService, "intervalIndex", index);
+
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findById(100L)).thenReturn(Optional.of(testUser));
+        when(availabilityRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(false);
+        when(bookingRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(true);
+
+        assertThatThrownBy(() -> bookingService.createBooking(1L, 100L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Item already booked for requested period");
+
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
@@ -335,4 +408,17 @@ class BookingServiceTest {
         assertThat(approved.getStatus()).isEqualTo(BookingStatus.APPROVED);
         verify(bookingRepository, times(1)).save(booking);
     }
+
+    @Test
+    void whenCreateBooking_thenTakesItemLock() {
+        when(itemRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findById(100L)).thenReturn(Optional.of(testUser));
+        when(availabilityRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(false);
+        when(bookingRepository.existsOverlapping(anyLong(), any(), any())).thenReturn(false);
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        bookingService.createBooking(1L, 100L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
+
+        verify(itemLockManager, times(1)).withItemLock(eq(1L), any());
+    }
 }
@@ -0,0 +1,229 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.boundary.CatalogController;
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.CatalogFacets;
+import com.example.OLSHEETS.dto.CatalogHit;
+import com.example.OLSHEETS.dto.CatalogSearchResponse;
+import com.example.OLSHEETS.security.JwtUtil;
+import com.example.OLSHEETS.dto.Suggestion;
+import com.example.OLSHEETS.search.CatalogQuery;
+import com.example.OLSHEETS.service.CatalogSearchService;
+import com.example.OLSHEETS.service.RankingService;
+import com.example.OLSHEETS.service.SuggestService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = CatalogController.class, excludeAutoConfiguration = {
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+@org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc(addFilters = false)
+@org.springframework.context.annotation.Import(CatalogControllerTest.TestConfig.class)
+class CatalogControllerTest {
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public JwtUtil jwtUtil() {
+            return org.mockito.Mockito.mock(JwtUtil.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CatalogSearchService catalogSearchService;
+
+    @MockitoBean
+    private SuggestService suggestService;
+
+    @MockitoBean
+    private RankingService rankingService;
+
+    @MockitoBean
+    private com.example.OLSHEETS.repository.UserRepository userRepository;
+
+    @Test
+    void testSearch_ShouldReturnRankedHitsWithFacets() throws Exception {
+        CatalogHit hit = new CatalogHit(1L, ItemKind.INSTRUMENT, "Fender Guitar", "Stratocaster", 50.0,
+                InstrumentType.ELECTRIC, InstrumentFamily.GUITAR, null, null, null, 2.5f, 4.5, 2);
+        CatalogFacets facets = new CatalogFacets(Map.of(ItemKind.INSTRUMENT, 1L),
+                Map.of(InstrumentType.ELECTRIC, 1L), Map.of(InstrumentFamily.GUITAR, 1L), Map.of());
+        when(catalogSearchService.search(any(CatalogQuery.class), eq(0), eq(20)))
+                .thenReturn(new CatalogSearchResponse(List.of(hit), 0, 20, 1, 1, facets));
+
+        mockMvc.perform(get("/api/catalog/search").param("q", "guitar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.content[0].itemType", is("INSTRUMENT")))
+                .andExpect(jsonPath("$.content[0].name", is("Fender Guitar")))
+                .andExpect(jsonPath("$.content[0].averageRating", is(4.5)))
+                .andExpect(jsonPath("$.content[0].reviewCount", is(2)))
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.facets.instrumentFamily.GUITAR", is(1)));
+
+        ArgumentCaptor<CatalogQuery> query = ArgumentCaptor.forClass(CatalogQuery.class);
+        verify(catalogSearchService).search(query.capture(), eq(0), eq(20));
+        assertThat(query.getValue().getText()).isEqualTo("guitar");
+        assertThat(query.getValue().getItemFilter()).isNull();
+    }
+
+    @Test
+    void testSearch_WithTypeAndOversizedPage_ShouldFilterAndClamp() throws Exception {
+        when(catalogSearchService.search(any(CatalogQuery.class), eq(2), eq(100)))
+                .thenReturn(new CatalogSearchResponse(List.of(), 2, 100, 0, 0, new CatalogFacets()));
+
+        mockMvc.perform(get("/api/catalog/search")
+                        .param("q", "sonata")
+                        .param("type", "MUSIC_SHEET")
+                        .param("page", "2")
+                        .param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+
+        ArgumentCaptor<CatalogQuery> query = ArgumentCaptor.forClass(CatalogQuery.class);
+        verify(catalogSearchService).search(query.capture(), eq(2), eq(100));
+        assertThat(query.getValue().getKind()).isEqualTo(ItemKind.MUSIC_SHEET);
+    }
+
+    @Test
+    void testSearch_WithFacetFilters_ShouldBuildQuery() throws Exception {
+        LongPredicate available = itemId -> true;
+        when(catalogSearchService.availableBetween(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 1)))
+                .thenReturn(available);
+        when(catalogSearchService.search(any(CatalogQuery.class), eq(0), eq(20)))
+                .thenReturn(new CatalogSearchResponse(List.of(), 0, 20, 0, 0, new CatalogFacets()));
+
+        mockMvc.perform(get("/api/catalog/search")
+                        .param("family", "GUITAR", "STRING")
+                        .param("instrumentType", "ACOUSTIC")
+                        .param("category", "jazz")
+                        .param("minPrice", "10")
+                        .param("maxPrice", "40")
+                        .param("availableFrom", "2025-06-01"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<CatalogQuery> query = ArgumentCaptor.forClass(CatalogQuery.class);
+        verify(catalogSearchService).search(query.capture(), eq(0), eq(20));
+        CatalogQuery captured = query.getValue();
+        assertThat(captured.getText()).isNull();
+        assertThat(captured.getInstrumentFamilies()).containsExactlyInAnyOrder(InstrumentFamily.GUITAR, InstrumentFamily.STRING);
+        assertThat(captured.getInstrumentTypes()).containsExactly(InstrumentType.ACOUSTIC);
+        assertThat(captured.getCategories()).containsExactly("JAZZ");
+        assertThat(captured.getMinPrice()).isEqualTo(10.0);
+        assertThat(captured.getMaxPrice()).isEqualTo(40.0);
+        assertThat(captured.getItemFilter()).isSameAs(available);
+    }
+
+    @Test
+    void testSearch_WithInvertedPriceRange_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/catalog/search")
+                        .param("minPrice", "50")
+                        .param("maxPrice", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(catalogSearchService, never()).search(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearch_WithInvertedAvailabilityWindow_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/catalog/search")
+                        .param("availableFrom", "2025-06-10")
+                        .param("availableTo", "2025-06-01"))
+                .andExpect(status().isBadRequest());
+
+        verify(catalogSearchService, never()).search(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSuggest_ShouldReturnSuggestionsWithClampedLimit() throws Exception {
+        when(suggestService.suggest("moz", null, 20))
+                .thenReturn(List.of(new Suggestion("Mozart", Suggestion.Field.COMPOSER, 12)));
+
+        mockMvc.perform(get("/api/catalog/suggest")
+                        .param("prefix", "moz")
+                        .param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].text", is("Mozart")))
+                .andExpect(jsonPath("$[0].field", is("COMPOSER")))
+                .andExpect(jsonPath("$[0].popularity", is(12)));
+    }
+
+    @Test
+    void testSuggest_WithKind_ShouldCompleteWithinThatKind() throws Exception {
+        when(suggestService.suggest("ce", ItemKind.MUSIC_SHEET, 8))
+                .thenReturn(List.of(new Suggestion("Cello Suite No. 1", Suggestion.Field.NAME, 5)));
+
+        mockMvc.perform(get("/api/catalog/suggest")
+                        .param("prefix", "ce")
+                        .param("kind", "MUSIC_SHEET"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].text", is("Cello Suite No. 1")));
+    }
+
+    @Test
+    void testTop_ShouldReturnRankedItemsWithClampedLimit() throws Exception {
+        CatalogHit hit = new CatalogHit(1L, ItemKind.INSTRUMENT, "Fender Guitar", "Stratocaster", 50.0,
+                InstrumentType.ELECTRIC, InstrumentFamily.GUITAR, null, null, null, 3.1f, null, 0);
+        when(rankingService.top(RankingService.Ranking.TRENDING, ItemKind.INSTRUMENT, InstrumentType.ELECTRIC, null, 100))
+                .thenReturn(List.of(hit));
+
+        mockMvc.perform(get("/api/catalog/top")
+                        .param("ranking", "TRENDING")
+                        .param("type", "INSTRUMENT")
+                        .param("instrumentType", "ELECTRIC")
+                        .param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].name", is("Fender Guitar")));
+    }
+
+    @Test
+    void testTop_WithDefaults_ShouldRankByRating() throws Exception {
+        when(rankingService.top(RankingService.Ranking.TOP_RATED, null, null, null, 20)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/catalog/top"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void testTop_WithInstrumentTypeAndCategory_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/catalog/top")
+                        .param("instrumentType", "ELECTRIC")
+                        .param("category", "Classical"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(rankingService, never()).top(any(), any(), any(), any(), anyInt());
+    }
+}
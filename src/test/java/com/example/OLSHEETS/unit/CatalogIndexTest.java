@@ -0,0 +1,261 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.CatalogHit;
+import com.example.OLSHEETS.repository.InstrumentRepository;
+import com.example.OLSHEETS.repository.MusicSheetRepository;
+import com.example.OLSHEETS.search.CatalogDocument;
+import com.example.OLSHEETS.search.CatalogIndex;
+import com.example.OLSHEETS.search.CatalogQuery;
+import com.example.OLSHEETS.search.CatalogSearchResult;
+import com.example.OLSHEETS.search.FacetedSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogIndexTest {
+
+    @Mock
+    private InstrumentRepository instrumentRepository;
+
+    @Mock
+    private MusicSheetRepository musicSheetRepository;
+
+    private CatalogIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogIndex(instrumentRepository, musicSheetRepository);
+    }
+
+    @Test
+    void whenNameMatches_thenRankedAboveDescriptionMatch() {
+        index.index(instrument(1L, "Yamaha Keyboard", "Pairs well with a guitar stand"));
+        index.index(instrument(2L, "Fender Guitar", "Stratocaster in sunburst"));
+
+        CatalogSearchResult result = index.search("guitar", null, 0, 10);
+
+        assertThat(result.getTotalHits()).isEqualTo(2);
+        assertThat(result.getHits()).extracting(CatalogHit::getId).containsExactly(2L, 1L);
+        assertThat(result.getHits().get(0).getScore()).isGreaterThan(result.getHits().get(1).getScore());
+    }
+
+    @Test
+    void whenQueryHasAccentsOrCase_thenFoldedMatch() {
+        index.index(sheet(1L, "Für Elise", "Beethoven", "Piano", "Classical"));
+
+        assertThat(index.search("fur elise", null, 0, 10).getHits()).extracting(CatalogHit::getId).containsExactly(1L);
+        assertThat(index.search("BEETHOVEN", null, 0, 10).getHits()).extracting(CatalogHit::getId).containsExactly(1L);
+        assertThat(index.search("clássical", null, 0, 10).getHits()).extracting(CatalogHit::getId).containsExactly(1L);
+    }
+
+    @Test
+    void whenKindGiven_thenOnlyThatKindReturned() {
+        index.index(instrument(1L, "Grand Piano", "Concert grand"));
+        index.index(sheet(2L, "Piano Sonata", "Mozart", "Piano", "Classical"));
+
+        CatalogSearchResult sheets = index.search("piano", ItemKind.MUSIC_SHEET, 0, 10);
+
+        assertThat(sheets.getTotalHits()).isEqualTo(1);
+        assertThat(sheets.getHits()).extracting(CatalogHit::getItemType).containsExactly(ItemKind.MUSIC_SHEET);
+    }
+
+    @Test
+    void whenItemUpdated_thenOldTermsNoLongerMatch() {
+        index.index(instrument(1L, "Old Violin", "Needs strings"));
+        index.index(instrument(1L, "Restored Cello", "New strings"));
+
+        assertThat(index.search("violin", null, 0, 10).getTotalHits()).isZero();
+        assertThat(index.search("cello", null, 0, 10).getHits()).extracting(CatalogHit::getName)
+                .containsExactly("Restored Cello");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void whenItemRemoved_thenNotReturned() {
+        index.index(instrument(1L, "Trumpet", null));
+        index.index(instrument(2L, "Trumpet Mute", null));
+
+        index.remove(1L);
+
+        assertThat(index.search("trumpet", null, 0, 10).getHits()).extracting(CatalogHit::getId).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void whenPaging_thenOffsetSkipsTopHits() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(instrument(id, "Drum " + id, null));
+        }
+
+        CatalogSearchResult page = index.search("drum", null, 2, 2);
+
+        assertThat(page.getTotalHits()).isEqualTo(5);
+        assertThat(page.getHits()).extracting(CatalogHit::getId).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void whenTopPageIsPruned_thenSameHitsAsExhaustiveRanking() {
+        String[] words = {"yamaha", "piano", "guitar", "stand", "case", "nocturne", "jazz", "student"};
+        Random random = new Random(7);
+        for (long id = 1; id <= 2000; id++) {
+            StringBuilder name = new StringBuilder();
+            for (int w = 0; w < 1 + random.nextInt(4); w++) {
+                name.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            index.index(instrument(id, name.toString(), random.nextBoolean() ? words[random.nextInt(words.length)] : null));
+        }
+        for (long id = 1; id <= 2000; id += 7) {
+            index.remove(id);
+        }
+
+        for (String query : List.of("guitar", "yamaha piano", "jazz guitar case", "student nocturne stand piano")) {
+            CatalogSearchResult pruned = index.search(query, ItemKind.INSTRUMENT, 0, 10);
+            CatalogSearchResult exhaustive = index.search(query, ItemKind.INSTRUMENT, 0, 5000);
+
+            assertThat(pruned.getHits()).extracting(CatalogHit::getId)
+                .containsExactlyElementsOf(exhaustive.getHits().subList(0, 10).stream().map(CatalogHit::getId).toList());
+            assertThat(pruned.getTotalHits()).isEqualTo(exhaustive.getHits().size());
+        }
+    }
+
+    @Test
+    void whenQueryBlank_thenNoHits() {
+        index.index(instrument(1L, "Flute", null));
+
+        assertThat(index.search("  ", null, 0, 10).getHits()).isEmpty();
+        assertThat(index.search("--", null, 0, 10).getTotalHits()).isZero();
+    }
+
+    @Test
+    void whenQueryMisspelled_thenFuzzyFindsCloseSpellings() {
+        index.index(sheet(1L, "Nocturne Op. 9", "Chopin", "Piano", "Classical"));
+        index.index(instrument(2L, "Student Violin", "Full size"));
+        index.index(instrument(3L, "Electric Guitar", null));
+
+        assertThat(index.search("chopan", null, 0, 10).getTotalHits()).isZero();
+        assertThat(index.search("chopan", null, 0, 10, true).getHits()).extracting(CatalogHit::getId).containsExactly(1L);
+        assertThat(index.search("violn", ItemKind.INSTRUMENT, 0, 10, true).getHits()).extracting(CatalogHit::getId).containsExactly(2L);
+    }
+
+    @Test
+    void whenFuzzy_thenExactSpellingRanksAboveNearMiss() {
+        index.index(instrument(1L, "Viola", null));
+        index.index(instrument(2L, "Violin", null));
+
+        CatalogSearchResult result = index.search("violin", null, 0, 10, true);
+
+        assertThat(result.getHits()).extracting(CatalogHit::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void whenFuzzyTermTooDifferent_thenNoMatch() {
+        index.index(instrument(1L, "Trombone", null));
+
+        assertThat(index.search("piano", null, 0, 10, true).getTotalHits()).isZero();
+    }
+
+    @Test
+    void whenRebuilt_thenLoadsBothRepositoriesInBatches() {
+        when(instrumentRepository.findCatalogDocumentsAfter(eq(0L), any()))
+                .thenReturn(List.of(instrument(1L, "Bass Guitar", null)));
+        when(musicSheetRepository.findCatalogDocumentsAfter(eq(0L), any()))
+                .thenReturn(List.of(sheet(2L, "Bass Lines", "Jaco", "Bass", "Jazz")));
+        index.index(instrument(99L, "Stale Entry", null));
+
+        int loaded = index.rebuild();
+
+        assertThat(loaded).isEqualTo(2);
+        assertThat(index.search("bass", null, 0, 10).getHits()).extracting(CatalogHit::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("stale", null, 0, 10).getTotalHits()).isZero();
+    }
+
+    @Test
+    void whenFacetFiltersApplied_thenCountsIgnoreOwnFacet() {
+        index.index(new CatalogDocument(1L, "Fender Guitar", null, 50.0, InstrumentType.ELECTRIC, InstrumentFamily.GUITAR));
+        index.index(new CatalogDocument(2L, "Martin Guitar", null, 30.0, InstrumentType.ACOUSTIC, InstrumentFamily.GUITAR));
+        index.index(new CatalogDocument(3L, "Yamaha Violin", null, 20.0, InstrumentType.ACOUSTIC, InstrumentFamily.STRING));
+        index.index(sheet(4L, "Guitar Etudes", "Sor", "Guitar", "Classical"));
+
+        FacetedSearchResult result = index.search(CatalogQuery.builder()
+                .instrumentFamilies(List.of(InstrumentFamily.GUITAR))
+                .instrumentTypes(List.of(InstrumentType.ACOUSTIC))
+                .build(), 0, 10);
+
+        assertThat(result.getHits()).extracting(CatalogHit::getId).containsExactly(2L);
+        assertThat(result.getTotalHits()).isEqualTo(1);
+        // Family counts keep the type filter but not the family filter, and vice versa
+        assertThat(result.getInstrumentFamilyCounts())
+                .containsEntry(InstrumentFamily.GUITAR, 1L)
+                .containsEntry(InstrumentFamily.STRING, 1L);
+        assertThat(result.getInstrumentTypeCounts())
+                .containsEntry(InstrumentType.ACOUSTIC, 1L)
+                .containsEntry(InstrumentType.ELECTRIC, 1L);
+        assertThat(result.getKindCounts()).containsOnlyKeys(ItemKind.INSTRUMENT);
+    }
+
+    @Test
+    void whenTextPriceAndItemFilterApplied_thenRankedWithinMatches() {
+        index.index(new CatalogDocument(1L, "Fender Guitar", null, 50.0, InstrumentType.ELECTRIC, InstrumentFamily.GUITAR));
+        index.index(new CatalogDocument(2L, "Martin Guitar", null, 30.0, InstrumentType.ACOUSTIC, InstrumentFamily.GUITAR));
+        index.index(new CatalogDocument(3L, "Cheap Guitar", null, 5.0, InstrumentType.ACOUSTIC, InstrumentFamily.GUITAR));
+        index.index(sheet(4L, "Guitar Etudes", "Sor", "Guitar", "jazz"));
+        index.index(sheet(5L, "Guitar Standards", "Various", "Guitar", "Jazz "));
+
+        FacetedSearchResult result = index.search(CatalogQuery.builder()
+                .text("guitar")
+                .priceBetween(10.0, 60.0)
+                .itemFilter(itemId -> itemId != 1L)
+                .build(), 0, 10);
+
+        assertThat(result.getHits()).extracting(CatalogHit::getId).containsExactlyInAnyOrder(2L);
+        assertThat(result.getHits().get(0).getScore()).isPositive();
+        assertThat(result.getCategoryCounts()).isEmpty();
+
+        FacetedSearchResult sheets = index.search(CatalogQuery.builder()
+                .text("guitar")
+                .categories(List.of("JAZZ"))
+                .build(), 0, 10);
+
+        assertThat(sheets.getHits()).extracting(CatalogHit::getId).containsExactlyInAnyOrder(4L, 5L);
+        assertThat(sheets.getCategoryCounts()).containsExactly(Map.entry("JAZZ", 2L));
+        assertThat(sheets.getKindCounts()).containsEntry(ItemKind.MUSIC_SHEET, 2L);
+    }
+
+    @Test
+    void whenNoTextAndItemRemoved_thenPagesInIndexOrderWithoutIt() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(instrument(id, "Guitar " + id, null));
+        }
+        index.remove(2L);
+
+        FacetedSearchResult page = index.search(CatalogQuery.builder().build(), 1, 2);
+
+        assertThat(page.getTotalHits()).isEqualTo(4);
+        assertThat(page.getHits()).extracting(CatalogHit::getId).containsExactly(3L, 4L);
+        assertThat(page.getHits()).allSatisfy(hit -> assertThat(hit.getScore()).isZero());
+        assertThat(page.getInstrumentFamilyCounts()).containsEntry(InstrumentFamily.GUITAR, 4L);
+    }
+
+    private static CatalogDocument instrument(Long id, String name, String description) {
+        return new CatalogDocument(id, name, description, 10.0, InstrumentType.ELECTRIC, InstrumentFamily.GUITAR);
+    }
+
+    private static CatalogDocument sheet(Long id, String name, String composer, String instrumentation, String category) {
+        return new CatalogDocument(id, name, null, 5.0, composer, instrumentation, category);
+    }
+}
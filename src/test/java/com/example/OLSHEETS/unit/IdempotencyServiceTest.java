@@ -0,0 +1,275 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.data.IdempotencyRecord;
+import com.example.OLSHEETS.exception.IdempotencyKeyInUseException;
+import com.example.OLSHEETS.exception.IdempotencyKeyMismatchException;
+import com.example.OLSHEETS.repository.IdempotencyRecordRepository;
+import com.example.OLSHEETS.service.IdempotencyService;
+import com.example.OLSHEETS.service.IdempotencyService.StoredResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-15T12:00:00Z");
+    private static final String SCOPE = "payment";
+    private static final String KEY = "key-1";
+    private static final String FINGERPRINT = "1|CREDIT_CARD|4242424242424242";
+    private static final byte[] BODY = "{\"paymentId\":1,\"status\":\"COMPLETED\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private SimpleMeterRegistry registry;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyService(repository, Duration.ofHours(24), Duration.ofSeconds(60),
+                1 << 20, 0, Clock.fixed(NOW, ZoneOffset.UTC), registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyService.shutdown();
+    }
+
+    @Test
+    void firstRequest_RunsActionAndStoresItsResponse() {
+        givenNewKey();
+
+        StoredResponse response = idempotencyService.execute(SCOPE, KEY, FINGERPRINT, respond(200));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getBody()).isEqualTo(BODY);
+        assertThat(response.isReplayed()).isFalse();
+        verify(repository).save(any(IdempotencyRecord.class));
+        verify(repository).complete(SCOPE, KEY, 200, BODY);
+        assertThat(outcome("executed")).isEqualTo(1.0);
+    }
+
+    @Test
+    void retry_IsAnsweredFromCacheWithoutRunningAgain() {
+        givenNewKey();
+        idempotencyService.execute(SCOPE, KEY, FINGERPRINT, respond(200));
+
+        StoredResponse retry = idempotencyService.execute(SCOPE, KEY, FINGERPRINT, mustNotRun());
+
+        assertThat(retry.isReplayed()).isTrue();
+        assertThat(retry.getStatus()).isEqualTo(200);
+        assertThat(retry.getBody()).isEqualTo(BODY);
+        verify(repository, times(1)).findById(any());
+        assertThat(idempotencyService.cachedResponses()).isEqualTo(1);
+        assertThat(outcome("replayed")).isEqualTo(1.0);
+    }
+
+    @Test
+    void retryWithDifferentRequest_IsRejected() {
+        givenNewKey();
+        idempotencyService.execute(SCOPE, KEY, FINGERPRINT, respond(200));
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, KEY, "2|CREDIT_CARD|4242424242424242", mustNotRun()))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void sameKeyInAnotherScope_RunsSeparately() {
+        givenNewKey();
+        when(repository.findById(new IdempotencyRecord.Key("booking:7", KEY))).thenReturn(Optional.empty());
+        idempotencyService.execute(SCOPE, KEY, FINGERPRINT, respond(200));
+
+        StoredResponse other = idempotencyService.execute("booking:7", KEY, "3|2025-07-01|2025-07-03", respond(201));
+
+        assertThat(other.isReplayed()).isFalse();
+        assertThat(other.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void completedRecordInDatabase_IsReplayed() {
+        IdempotencyRecord record = new IdempotencyRecord(SCOPE, KEY, sha256(FINGERPRINT),
+                NOW.minus(Duration.ofHours(1)), NOW.plus(Duration.ofHours(23)));
+        record.setResponseStatus(200);
+        record.setResponseBody(BODY);
+        when(repository.findById(new IdempotencyRecord.Key(SCOPE, KEY))).thenReturn(Optional.of(record));
+
+        StoredResponse response = idempotencyService.execute(SCOPE, KEY, FINGERPRINT, mustNotRun());
+
+        assertThat(response.isReplayed()).isTrue();
+        assertThat(response.getBody()).isEqualTo(BODY);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void completedRecordForDifferentRequest_IsRejected() {
+        IdempotencyRecord record = new IdempotencyRecord(SCOPE, KEY, sha256("9|PAYPAL|null"),
+                NOW.minus(Duration.ofHours(1)), NOW.plus(Duration.ofHours(23)));
+        record.setResponseStatus(200);
+        record.setResponseBody(BODY);
+        when(repository.findById(new IdempotencyRecord.Key(SCOPE, KEY))).thenReturn(Optional.of(record));
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, KEY, FINGERPRINT, mustNotRun()))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void freshClaimFromAnotherInstance_IsInUse() {
+        IdempotencyRecord claim = new IdempotencyRecord(SCOPE, KEY, sha256(FINGERPRINT),
+                NOW.minusSeconds(10), NOW.plus(Duration.ofHours(24)));
+        when(repository.findById(new IdempotencyRecord.Key(SCOPE, KEY))).thenReturn(Optional.of(claim));
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, KEY, FINGERPRINT, mustNotRun()))
+                .isInstanceOf(IdempotencyKeyInUseException.class);
+        verify(repository, never()).deleteStale(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void abandonedClaim_IsTakenOver() {
+        IdempotencyRecord claim = new IdempotencyRecord(SCOPE, KEY, sha256(FINGERPRINT),
+                NOW.minus(Duration.ofMinutes(5)), NOW.plus(Duration.ofHours(24)));
+        when(repository.findById(new IdempotencyRecord.Key(SCOPE, KEY))).thenReturn(Optional.of(claim));
+        when(repository.complete(eq(SCOPE), eq(KEY), anyInt(), any())).thenReturn(1);
+
+        StoredResponse response = idempotencyService.execute(SCOPE, KEY, FINGERPRINT, respond(200));
+
+        assertThat(response.isReplayed()).isFalse();
+        verify(repository).deleteStale(SCOPE, KEY, NOW, NOW.minusSeconds(60));
+        verify(repository).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void claimLostToConcurrentInsert_IsInUse() {
+        when(repository.findById(new IdempotencyRecord.Key(SCOPE, KEY))).thenReturn(Optional.empty());
+        when(repository.save(any(IdempotencyRecord.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, KEY, FINGERPRINT, mustNotRun()))
+                .isInstanceOf(IdempotencyKeyInUseException.class);
+    }
+
+    @Test
+    void failedAction_ReleasesClaimSoRetryRunsAgain() {
+        givenNewKey();
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, KEY, FINGERPRINT, () -> {
+            throw new IllegalStateException("gateway unavailable");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("gateway unavailable");
+        verify(repository).release(SCOPE, KEY);
+        verify(repository, never()).complete(anyString(), anyString(), anyInt(), any());
+
+        StoredResponse retry = idempotencyService.execute(SCOPE, KEY, FINGERPRINT, respond(200));
+        assertThat(retry.isReplayed()).isFalse();
+        assertThat(retry.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void concurrentDuplicates_RunActionOnce() throws Exception {
+        givenNewKey();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<StoredResponse> slow = () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new StoredResponse(200, BODY);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<StoredResponse> first = executor.submit(() -> idempotencyService.execute(SCOPE, KEY, FINGERPRINT, slow));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<StoredResponse> duplicate = executor.submit(() -> idempotencyService.execute(SCOPE, KEY, FINGERPRINT, slow));
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).isReplayed()).isFalse();
+            StoredResponse second = duplicate.get(5, TimeUnit.SECONDS);
+            assertThat(second.isReplayed()).isTrue();
+            assertThat(second.getBody()).isEqualTo(BODY);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(runs.get()).isEqualTo(1);
+        verify(repository, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void blankOrOversizedKey_IsRejected() {
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, " ", FINGERPRINT, mustNotRun()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, "k".repeat(256), FINGERPRINT, mustNotRun()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void purgeExpired_DeletesKeysPastTheirTtl() {
+        when(repository.deleteExpired(NOW)).thenReturn(3);
+
+        assertThat(idempotencyService.purgeExpired()).isEqualTo(3);
+    }
+
+    private void givenNewKey() {
+        when(repository.findById(new IdempotencyRecord.Key(SCOPE, KEY))).thenReturn(Optional.empty());
+    }
+
+    private double outcome(String outcome) {
+        return registry.get("idempotency.requests").tag("outcome", outcome).counter().count();
+    }
+
+    private static Supplier<StoredResponse> respond(int status) {
+        return () -> new StoredResponse(status, BODY);
+    }
+
+    private static Supplier<StoredResponse> mustNotRun() {
+        return () -> {
+            throw new AssertionError("action ran for a repeated key");
+        };
+    }
+
+    private static String sha256(String fingerprint) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(fingerprint.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.data.Instrument;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.service.ItemDetailCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemDetailCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void whenReadTwice_thenSerializedOnceWithStableETag() {
+        ItemDetailCache cache = new ItemDetailCache(objectMapper, 1 << 20, (MeterRegistry) null);
+        AtomicInteger loads = new AtomicInteger();
+
+        ItemDetailCache.CachedJson first = cache.get(ItemKind.INSTRUMENT, 1L, () -> {
+            loads.incrementAndGet();
+            return Map.of("id", 1, "name", "Cello");
+        });
+        ItemDetailCache.CachedJson second = cache.get(ItemKind.INSTRUMENT, 1L, () -> {
+            loads.incrementAndGet();
+            return Map.of("id", 1, "name", "Cello");
+        });
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getEtag()).isEqualTo(first.getEtag()).startsWith("\"").endsWith("\"");
+        assertThat(new String(second.getBody(), StandardCharsets.UTF_8)).contains("\"name\":\"Cello\"");
+    }
+
+    @Test
+    void whenInvalidated_thenReloadedWithNewETag() {
+        ItemDetailCache cache = new ItemDetailCache(objectMapper, 1 << 20, (MeterRegistry) null);
+        String before = cache.get(ItemKind.MUSIC_SHEET, 2L, () -> Map.of("price", 10.0)).getEtag();
+
+        cache.invalidate(2L);
+        String after = cache.get(ItemKind.MUSIC_SHEET, 2L, () -> Map.of("price", 12.5)).getEtag();
+
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void whenAllInvalidated_thenEmptyAndStillCaches() {
+        ItemDetailCache cache = new ItemDetailCache(objectMapper, 1 << 20, (MeterRegistry) null);
+        cache.get(ItemKind.INSTRUMENT, 1L, () -> Map.of("owner", "Ana"));
+        cache.get(ItemKind.MUSIC_SHEET, 2L, () -> Map.of("owner", "Ana"));
+
+        cache.invalidateAll();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.weightBytes()).isZero();
+        ItemDetailCache.CachedJson json = cache.get(ItemKind.INSTRUMENT, 1L, () -> Map.of("owner", "Ana Maria"));
+        assertThat(new String(json.getBody(), StandardCharsets.UTF_8)).contains("Ana Maria");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void whenOwnerInvalidated_thenOnlyTheirItemsAreReloaded() {
+        ItemDetailCache cache = new ItemDetailCache(objectMapper, 1 << 20, (MeterRegistry) null);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(ItemKind.INSTRUMENT, 1L, () -> instrument(1L, 10L));
+        cache.get(ItemKind.INSTRUMENT, 2L, () -> instrument(2L, 10L));
+        cache.get(ItemKind.INSTRUMENT, 3L, () -> instrument(3L, 20L));
+
+        cache.invalidateOwner(10L);
+        cache.invalidateOwner(99L);
+
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get(ItemKind.INSTRUMENT, 3L, () -> {
+            loads.incrementAndGet();
+            return instrument(3L, 20L);
+        });
+        cache.get(ItemKind.INSTRUMENT, 1L, () -> {
+            loads.incrementAndGet();
+            return instrument(1L, 10L);
+        });
+        assertThat(loads).hasValue(1);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void whenKindsShareAnId_thenCachedSeparately() {
+        ItemDetailCache cache = new ItemDetailCache(objectMapper, 1 << 20, (MeterRegistry) null);
+        cache.get(ItemKind.INSTRUMENT, 3L, () -> Map.of("kind", "instrument"));
+
+        ItemDetailCache.CachedJson sheet = cache.get(ItemKind.MUSIC_SHEET, 3L, () -> Map.of("kind", "sheet"));
+
+        assertThat(new String(sheet.getBody(), StandardCharsets.UTF_8)).contains("sheet");
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void whenOneOffScanExceedsBudget_thenFrequentItemsSurviveAndWeightStaysBounded() {
+        long budget = 64 * 1024;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ItemDetailCache cache = new ItemDetailCache(objectMapper, budget, registry);
+        String padding = "x".repeat(800);
+        AtomicInteger hotLoads = new AtomicInteger();
+
+        for (int round = 0; round < 5; round++) {
+            for (long id = 1; id <= 20; id++) {
+                cache.get(ItemKind.INSTRUMENT, id, () -> {
+                    hotLoads.incrementAndGet();
+                    return Map.of("padding", padding);
+                });
+            }
+        }
+        for (long id = 1000; id < 3000; id++) {
+            cache.get(ItemKind.INSTRUMENT, id, () -> Map.of("padding", padding));
+        }
+        hotLoads.set(0);
+        for (long id = 1; id <= 20; id++) {
+            cache.get(ItemKind.INSTRUMENT, id, () -> {
+                hotLoads.incrementAndGet();
+                return Map.of("padding", padding);
+            });
+        }
+
+        assertThat(hotLoads.get()).isLessThanOrEqualTo(2);
+        assertThat(cache.weightBytes()).isLessThanOrEqualTo(budget);
+        assertThat(cache.evictions()).isPositive();
+        assertThat(registry.get("cache.evictions").tag("cache", "item-details").functionCounter().count()).isPositive();
+        assertThat(registry.get("cache.hit.ratio").gauge().value()).isBetween(0.0, 1.0);
+    }
+
+    @Test
+    void whenEntryLargerThanBudget_thenServedButNotCached() {
+        ItemDetailCache cache = new ItemDetailCache(objectMapper, 1024, (MeterRegistry) null);
+
+        ItemDetailCache.CachedJson json = cache.get(ItemKind.INSTRUMENT, 1L, () -> Map.of("padding", "x".repeat(4096)));
+
+        assertThat(json.getBody().length).isGreaterThan(4096);
+        assertThat(cache.size()).isZero();
+    }
+
+    private static Instrument instrument(Long id, Long ownerId) {
+        User owner = new User("owner" + ownerId, "owner" + ownerId + "@example.com", "Owner");
+        owner.setId(ownerId);
+        Instrument instrument = new Instrument();
+        instrument.setId(id);
+        instrument.setName("Viola " + id);
+        instrument.setOwner(owner);
+        return instrument;
+    }
+}
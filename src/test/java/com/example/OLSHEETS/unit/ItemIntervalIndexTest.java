@@ -0,0 +1,200 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.dto.ItemDateRange;
+import com.example.OLSHEETS.repository.AvailabilityRepository;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.service.ItemIntervalIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemIntervalIndexTest {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 6, 1);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    private ItemIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemIntervalIndex(bookingRepository, availabilityRepository);
+    }
+
+    @Test
+    void whenNoRanges_thenNoOverlap() {
+        assertThat(index.hasBookingOverlap(1L, BASE, BASE.plusDays(3))).isFalse();
+        assertThat(index.hasBlockOverlap(1L, BASE, BASE.plusDays(3))).isFalse();
+    }
+
+    @Test
+    void whenRangesTouchOnBoundary_thenOverlap() {
+        index.putBooking(1L, 10L, BASE, BASE.plusDays(5));
+
+        assertThat(index.hasBookingOverlap(10L, BASE.plusDays(5), BASE.plusDays(8))).isTrue();
+        assertThat(index.hasBookingOverlap(10L, BASE.minusDays(3), BASE)).isTrue();
+        assertThat(index.hasBookingOverlap(10L, BASE.plusDays(6), BASE.plusDays(8))).isFalse();
+        assertThat(index.hasBookingOverlap(10L, BASE.minusDays(3), BASE.minusDays(1))).isFalse();
+    }
+
+    @Test
+    void whenLongEarlyRangeCoversQuery_thenOverlap() {
+        index.putBlock(1L, 10L, BASE, BASE.plusDays(30));
+        index.putBlock(2L, 10L, BASE.plusDays(2), BASE.plusDays(3));
+        index.putBlock(3L, 10L, BASE.plusDays(40), BASE.plusDays(41));
+
+        assertThat(index.hasBlockOverlap(10L, BASE.plusDays(20), BASE.plusDays(22))).isTrue();
+        assertThat(index.hasBlockOverlap(10L, BASE.plusDays(31), BASE.plusDays(39))).isFalse();
+    }
+
+    @Test
+    void whenRangesBelongToOtherItem_thenNoOverlap() {
+        index.putBooking(1L, 10L, BASE, BASE.plusDays(5));
+
+        assertThat(index.hasBookingOverlap(11L, BASE, BASE.plusDays(5))).isFalse();
+        assertThat(index.hasBlockOverlap(10L, BASE, BASE.plusDays(5))).isFalse();
+    }
+
+    @Test
+    void whenRangeRemoved_thenNoLongerOverlaps() {
+        index.putBooking(1L, 10L, BASE, BASE.plusDays(5));
+        index.putBooking(2L, 10L, BASE.plusDays(10), BASE.plusDays(12));
+
+        index.removeBooking(1L, 10L);
+
+        assertThat(index.hasBookingOverlap(10L, BASE, BASE.plusDays(5))).isFalse();
+        assertThat(index.hasBookingOverlap(10L, BASE.plusDays(11), BASE.plusDays(11))).isTrue();
+    }
+
+    @Test
+    void whenRangePutTwice_thenLatestDatesWin() {
+        index.putBooking(1L, 10L, BASE, BASE.plusDays(5));
+        index.putBooking(1L, 10L, BASE.plusDays(20), BASE.plusDays(25));
+
+        assertThat(index.hasBookingOverlap(10L, BASE, BASE.plusDays(5))).isFalse();
+        assertThat(index.hasBookingOverlap(10L, BASE.plusDays(21), BASE.plusDays(22))).isTrue();
+    }
+
+    @Test
+    void whenWarmedUp_thenLoadsRangesFromRepositories() {
+        index.putBooking(99L, 10L, BASE, BASE.plusDays(1));
+        when(bookingRepository.findAllDateRanges())
+            .thenReturn(List.of(new ItemDateRange(1L, 10L, BASE.plusDays(3), BASE.plusDays(4))));
+        when(availabilityRepository.findAllDateRanges())
+            .thenReturn(List.of(new ItemDateRange(2L, 20L, BASE, BASE.plusDays(2))));
+
+        index.warmUp();
+
+        assertThat(index.hasBookingOverlap(10L, BASE, BASE.plusDays(1))).isFalse();
+        assertThat(index.hasBookingOverlap(10L, BASE.plusDays(4), BASE.plusDays(6))).isTrue();
+        assertThat(index.hasBlockOverlap(20L, BASE.plusDays(1), BASE.plusDays(1))).isTrue();
+    }
+
+    @Test
+    void whenWritesArriveDuringWarmUp_thenTheySurviveTheReload() {
+        index.putBooking(5L, 30L, BASE, BASE.plusDays(2));
+        when(bookingRepository.findAllDateRanges()).thenAnswer(invocation -> {
+            List<ItemDateRange> snapshot = List.of(new ItemDateRange(5L, 30L, BASE, BASE.plusDays(2)));
+            // Committed after the snapshot was read: one new booking, one cancellation
+            index.putBooking(6L, 31L, BASE.plusDays(10), BASE.plusDays(12));
+            index.removeBooking(5L, 30L);
+            return snapshot;
+        });
+        when(availabilityRepository.findAllDateRanges()).thenReturn(List.of());
+
+        index.warmUp();
+
+        assertThat(index.hasBookingOverlap(31L, BASE.plusDays(11), BASE.plusDays(11))).isTrue();
+        assertThat(index.hasBookingOverlap(30L, BASE, BASE.plusDays(2))).isFalse();
+
+        index.putBooking(7L, 32L, BASE, BASE);
+        assertThat(index.hasBookingOverlap(32L, BASE, BASE)).isTrue();
+    }
+
+    @Test
+    void whenRangeInsideCalendar_thenAvailabilityComesFromDayBitmaps() {
+        ItemIntervalIndex calendarIndex = new ItemIntervalIndex(bookingRepository, availabilityRepository, clockAt(BASE));
+        calendarIndex.putBooking(1L, 10L, BASE.plusDays(2), BASE.plusDays(4));
+        calendarIndex.putBlock(2L, 11L, BASE.plusDays(6), BASE.plusDays(6));
+
+        LongPredicate available = calendarIndex.availableBetween(BASE.plusDays(4), BASE.plusDays(6));
+
+        assertThat(available.test(10L)).isFalse();
+        assertThat(available.test(11L)).isFalse();
+        assertThat(available.test(12L)).isTrue();
+        assertThat(calendarIndex.availableBetween(BASE.plusDays(5), BASE.plusDays(5)).test(10L)).isTrue();
+
+        calendarIndex.removeBooking(1L, 10L);
+
+        assertThat(calendarIndex.availableBetween(BASE.plusDays(4), BASE.plusDays(6)).test(10L)).isTrue();
+    }
+
+    @Test
+    void whenRangeOutsideCalendar_thenFallsBackToIntervals() {
+        ItemIntervalIndex calendarIndex = new ItemIntervalIndex(bookingRepository, availabilityRepository, clockAt(BASE));
+        calendarIndex.putBooking(1L, 10L, BASE.plusYears(2), BASE.plusYears(2).plusDays(3));
+        calendarIndex.putBooking(2L, 11L, BASE.minusDays(10), BASE.minusDays(5));
+
+        assertThat(calendarIndex.availableBetween(BASE.plusYears(2), BASE.plusYears(2)).test(10L)).isFalse();
+        assertThat(calendarIndex.availableBetween(BASE.minusDays(6), BASE).test(11L)).isFalse();
+        assertThat(calendarIndex.availableBetween(BASE.minusDays(4), BASE).test(11L)).isTrue();
+    }
+
+    @Test
+    void whenDayChanges_thenCalendarRollsForward() {
+        MutableClock clock = new MutableClock(BASE);
+        ItemIntervalIndex calendarIndex = new ItemIntervalIndex(bookingRepository, availabilityRepository, clock);
+        LocalDate farEnd = BASE.plusDays(366);
+        calendarIndex.putBooking(1L, 10L, farEnd, farEnd);
+
+        clock.today = BASE.plusDays(10);
+
+        assertThat(calendarIndex.availableBetween(farEnd, farEnd).test(10L)).isFalse();
+        assertThat(calendarIndex.availableBetween(farEnd.minusDays(1), farEnd.minusDays(1)).test(10L)).isTrue();
+    }
+
+    private static Clock clockAt(LocalDate day) {
+        return Clock.fixed(day.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+    }
+
+    private static final class MutableClock extends Clock {
+        LocalDate today;
+
+        MutableClock(LocalDate today) {
+            this.today = today;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return today.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
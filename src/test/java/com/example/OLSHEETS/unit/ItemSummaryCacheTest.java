@@ -0,0 +1,75 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.dto.ItemSummary;
+import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.service.ItemSummaryCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSummaryCacheTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Test
+    void whenReadTwice_thenLoadsOnce() {
+        ItemSummaryCache cache = new ItemSummaryCache(itemRepository, 10);
+        when(itemRepository.findSummaryById(1L)).thenReturn(Optional.of(new ItemSummary(1L, "Cello", 40.0, 7L)));
+
+        assertThat(cache.get(1L)).get().extracting(ItemSummary::getPrice).isEqualTo(40.0);
+        assertThat(cache.get(1L)).get().extracting(ItemSummary::getOwnerId).isEqualTo(7L);
+
+        verify(itemRepository, times(1)).findSummaryById(1L);
+    }
+
+    @Test
+    void whenInvalidated_thenReloadsNewPrice() {
+        ItemSummaryCache cache = new ItemSummaryCache(itemRepository, 10);
+        when(itemRepository.findSummaryById(1L))
+                .thenReturn(Optional.of(new ItemSummary(1L, "Cello", 40.0, 7L)))
+                .thenReturn(Optional.of(new ItemSummary(1L, "Cello", 55.0, 7L)));
+        cache.get(1L);
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L)).get().extracting(ItemSummary::getPrice).isEqualTo(55.0);
+        verify(itemRepository, times(2)).findSummaryById(1L);
+    }
+
+    @Test
+    void whenInvalidatedDuringLoad_thenStaleSummaryIsNotCached() {
+        ItemSummaryCache cache = new ItemSummaryCache(itemRepository, 10);
+        when(itemRepository.findSummaryById(1L)).thenAnswer(invocation -> {
+            // A price change lands while the old row is being read
+            cache.invalidate(1L);
+            return Optional.of(new ItemSummary(1L, "Cello", 40.0, 7L));
+        });
+
+        cache.get(1L);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void whenMissingOrOverCapacity_thenNotCachedOrEvicted() {
+        ItemSummaryCache cache = new ItemSummaryCache(itemRepository, 2);
+        when(itemRepository.findSummaryById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(new ItemSummary(invocation.getArgument(0), "Item", 1.0, 1L)));
+        when(itemRepository.findSummaryById(99L)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(99L)).isEmpty();
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(3L);
+
+        assertThat(cache.size()).isEqualTo(2);
+    }
+}
@@ -2,24 +2,31 @@ package com.example.OLSHEETS.unit;
 
 import com.example.OLSHEETS.security.JwtAuthenticationFilter;
 import com.example.OLSHEETS.security.JwtUtil;
+import com.example.OLSHEETS.security.VerifiedToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "security.admin-usernames=ops")
 @AutoConfigureMockMvc
 class JwtAuthenticationFilterTest {
 
@@ -32,6 +39,10 @@ class JwtAuthenticationFilterTest {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // Auto-configured with the full security filter chain
+    @Autowired
+    private MockMvc securedMockMvc;
+
     private MockMvc mockMvc;
 
     @BeforeEach
@@ -49,15 +60,17 @@ class JwtAuthenticationFilterTest {
         String username = "testuser";
         String authHeader = "Bearer " + token;
 
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
-        when(jwtUtil.validateToken(token, username)).thenReturn(true);
+        when(jwtUtil.verifyToken(token))
+                .thenReturn(Optional.of(new VerifiedToken(username, 7L, Instant.now().plusSeconds(3600))));
 
         mockMvc.perform(get("/api/test")
                         .header("Authorization", authHeader))
                 .andExpect(status().isNotFound()); // Endpoint doesn't exist, but filter should process
 
-        verify(jwtUtil).extractUsername(token);
-        verify(jwtUtil).validateToken(token, username);
+        // One verification per request; no separate username/expiry parses
+        verify(jwtUtil, times(1)).verifyToken(token);
+        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).validateToken(anyString(), anyString());
     }
 
     @Test
@@ -65,7 +78,7 @@ class JwtAuthenticationFilterTest {
         mockMvc.perform(get("/api/test"))
                 .andExpect(status().isNotFound());
 
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).verifyToken(anyString());
     }
 
     @Test
@@ -74,7 +87,7 @@ class JwtAuthenticationFilterTest {
                         .header("Authorization", "InvalidFormat token"))
                 .andExpect(status().isNotFound());
 
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(jwtUtil, never()).verifyToken(anyString());
     }
 
     @Test
@@ -82,31 +95,66 @@ class JwtAuthenticationFilterTest {
         String token = "invalid-token";
         String authHeader = "Bearer " + token;
 
-        when(jwtUtil.extractUsername(token)).thenThrow(new RuntimeException("Invalid token"));
+        when(jwtUtil.verifyToken(token)).thenThrow(new RuntimeException("Invalid token"));
 
         mockMvc.perform(get("/api/test")
                         .header("Authorization", authHeader))
                 .andExpect(status().isNotFound());
 
-        verify(jwtUtil).extractUsername(token);
-        verify(jwtUtil, never()).validateToken(anyString(), anyString());
+        verify(jwtUtil).verifyToken(token);
     }
 
     @Test
     void testFilter_InvalidToken() throws Exception {
         String token = "invalid-token";
-        String username = "testuser";
         String authHeader = "Bearer " + token;
 
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
-        when(jwtUtil.validateToken(token, username)).thenReturn(false);
+        when(jwtUtil.verifyToken(token)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/test")
                         .header("Authorization", authHeader))
                 .andExpect(status().isNotFound());
 
-        verify(jwtUtil).extractUsername(token);
-        verify(jwtUtil).validateToken(token, username);
+        verify(jwtUtil).verifyToken(token);
+    }
+
+    @Test
+    void testFilter_ConfiguredAdminGetsAdminRole() throws Exception {
+        when(jwtUtil.verifyToken("ops-token"))
+                .thenReturn(Optional.of(new VerifiedToken("ops", 1L, Instant.now().plusSeconds(3600))));
+
+        mockMvc.perform(get("/api/test").header("Authorization", "Bearer ops-token"));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void testFilter_OtherUserGetsNoRole() throws Exception {
+        when(jwtUtil.verifyToken("user-token"))
+                .thenReturn(Optional.of(new VerifiedToken("testuser", 7L, Instant.now().plusSeconds(3600))));
+
+        mockMvc.perform(get("/api/test").header("Authorization", "Bearer user-token"));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities()).isEmpty();
+    }
+
+    @Test
+    void testRollupRebuild_ForbiddenToNonAdmin() throws Exception {
+        when(jwtUtil.verifyToken("user-token"))
+                .thenReturn(Optional.of(new VerifiedToken("testuser", 7L, Instant.now().plusSeconds(3600))));
+
+        securedMockMvc.perform(post("/api/admin/rollups/rebuild").header("Authorization", "Bearer user-token"))
+                .andExpect(status().isForbidden());
     }
-}
 
+    @Test
+    void testRollupRebuild_AllowedToAdmin() throws Exception {
+        when(jwtUtil.verifyToken("ops-token"))
+                .thenReturn(Optional.of(new VerifiedToken("ops", 1L, Instant.now().plusSeconds(3600))));
+
+        securedMockMvc.perform(post("/api/admin/rollups/rebuild").header("Authorization", "Bearer ops-token"))
+                .andExpect(status().isOk());
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.OLSHEETS.unit;
 
 import com.example.OLSHEETS.security.JwtUtil;
+import com.example.OLSHEETS.security.VerifiedToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -75,6 +85,100 @@ class JwtUtilTest {
         assertNotNull(username);
         assertEquals(testUsername, username);
     }
-}
 
+    @Test
+    void testExtractUserId() {
+        String token = jwtUtil.generateToken("iduser", 42L);
+        assertEquals(42L, jwtUtil.extractUserId(token));
+        assertEquals("iduser", jwtUtil.extractUsername(token));
+    }
+
+    @Test
+    void testExtractUserId_TokenWithoutUserId() {
+        assertNull(jwtUtil.extractUserId(testToken));
+    }
+
+    @Test
+    void testVerifyToken_Valid() {
+        String token = jwtUtil.generateToken("verifieduser", 7L);
+
+        Optional<VerifiedToken> verified = jwtUtil.verifyToken(token);
+
+        assertTrue(verified.isPresent());
+        assertEquals("verifieduser", verified.get().getUsername());
+        assertEquals(7L, verified.get().getUserId());
+        assertTrue(verified.get().getExpiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void testVerifyToken_TamperedSignature() {
+        String token = jwtUtil.generateToken("verifieduser", 7L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertTrue(jwtUtil.verifyToken(tampered).isEmpty());
+        assertTrue(jwtUtil.verifyToken("not-a-jwt").isEmpty());
+    }
+
+    @Test
+    void testVerifyToken_RepeatedTokenServedFromCache() {
+        String token = jwtUtil.generateToken("cacheduser", 8L);
+
+        VerifiedToken first = jwtUtil.verifyToken(token).orElseThrow();
+        VerifiedToken second = jwtUtil.verifyToken(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testVerifyToken_CacheDisabled() {
+        JwtUtil uncached = new JwtUtil(0);
+        String token = uncached.generateToken("uncacheduser", 9L);
+
+        VerifiedToken first = uncached.verifyToken(token).orElseThrow();
+        VerifiedToken second = uncached.verifyToken(token).orElseThrow();
+
+        assertNotSame(first, second);
+        assertEquals(first.getUsername(), second.getUsername());
+    }
 
+    @Test
+    void testVerifyToken_ConcurrentClientsBeyondCacheBound() throws Exception {
+        JwtUtil small = new JwtUtil(32);
+        List<String> tokens = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            tokens.add(small.generateToken("user" + id, id));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                int seed = thread;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    Random random = new Random(seed);
+                    int wrong = 0;
+                    for (int i = 0; i < 5000; i++) {
+                        int index = random.nextInt(tokens.size());
+                        VerifiedToken verified = small.verifyToken(tokens.get(index)).orElse(null);
+                        if (verified == null || verified.getUserId() != index + 1
+                                || !verified.getUsername().equals("user" + (index + 1))) {
+                            wrong++;
+                        }
+                    }
+                    return wrong;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(0, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        String hot = tokens.get(0);
+        assertSame(small.verifyToken(hot).orElseThrow(), small.verifyToken(hot).orElseThrow());
+    }
+}
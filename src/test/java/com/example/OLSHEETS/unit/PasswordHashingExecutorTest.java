@@ -0,0 +1,88 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.exception.ServiceOverloadedException;
+import com.example.OLSHEETS.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry registry;
+    private PasswordHashingExecutor hashing;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        hashing = new PasswordHashingExecutor(1, 1, 3, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashing.shutdown();
+    }
+
+    @Test
+    void whenTaskSucceeds_thenReturnsResultAndRecordsLatency() {
+        String result = hashing.submit("encode", () -> "hashed");
+
+        assertThat(result).isEqualTo("hashed");
+        assertThat(registry.get("auth.hashing.duration").tag("operation", "encode").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void whenTaskThrows_thenCallerSeesOriginalException() {
+        assertThatThrownBy(() -> hashing.submit("matches", () -> {
+            throw new IllegalArgumentException("bad hash");
+        }))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("bad hash");
+    }
+
+    @Test
+    void whenWorkerBusyAndQueueFull_thenRejectsImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread running = new Thread(() -> hashing.submit("encode", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "first";
+        }));
+        running.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread queued = new Thread(() -> hashing.submit("encode", () -> "second"));
+        queued.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("auth.hashing.queue.depth").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(registry.get("auth.hashing.queue.depth").gauge().value()).isEqualTo(1.0);
+
+        assertThatThrownBy(() -> hashing.submit("encode", () -> "third"))
+            .isInstanceOf(ServiceOverloadedException.class)
+            .satisfies(e -> assertThat(((ServiceOverloadedException) e).getRetryAfterSeconds()).isEqualTo(3));
+        assertThat(registry.get("auth.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        running.join(5000);
+        queued.join(5000);
+        assertThat(registry.get("auth.hashing.queue.depth").gauge().value()).isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
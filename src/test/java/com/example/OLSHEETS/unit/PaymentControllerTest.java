@@ -7,10 +7,14 @@ import com.example.OLSHEETS.data.Instrument;
 import com.example.OLSHEETS.data.Payment;
 import com.example.OLSHEETS.data.PaymentStatus;
 import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.exception.IdempotencyKeyInUseException;
+import com.example.OLSHEETS.exception.IdempotencyKeyMismatchException;
 import com.example.OLSHEETS.repository.UserRepository;
 import com.example.OLSHEETS.security.JwtUtil;
+import com.example.OLSHEETS.service.IdempotencyService;
 import com.example.OLSHEETS.service.PaymentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -34,11 +38,15 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -77,6 +85,9 @@ class PaymentControllerTest {
     @MockitoBean
     private UserRepository userRepository;
 
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
     private User renter;
     private Instrument instrument;
     private Booking booking;
@@ -107,6 +118,11 @@ class PaymentControllerTest {
         payment.setCompletedAt(LocalDateTime.now());
     }
 
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
     private void setupSecurityContext() {
         Authentication auth = mock(Authentication.class);
         when(auth.getName()).thenReturn("renter");
@@ -187,6 +203,114 @@ class PaymentControllerTest {
         SecurityContextHolder.clearContext();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should run the payment under the Idempotency-Key when one is sent")
+    void processPayment_WithIdempotencyKey_RunsOnceUnderKey() throws Exception {
+        setupSecurityContext();
+        when(paymentService.initiateAndProcessPayment(anyLong(), any())).thenReturn(payment);
+        when(idempotencyService.execute(eq("payment:1"), eq("key-1"), eq("1|CREDIT_CARD|4242"), any()))
+                .thenAnswer(inv -> ((Supplier<IdempotencyService.StoredResponse>) inv.getArgument(3)).get());
+
+        String requestBody = "{\"bookingId\": 1, \"paymentMethod\": \"CREDIT_CARD\", \"cardNumber\": \"4242424242424242\"}";
+
+        mockMvc.perform(post("/api/payments")
+                .header(IdempotencyService.HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(jsonPath("$.status", is("COMPLETED")))
+                .andExpect(jsonPath("$.transactionId", is("TXN-12345678")));
+
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should scope the Idempotency-Key to the booking when nobody is signed in")
+    void processPayment_IdempotencyKeyWithoutUser_RunsUnderBookingScope() throws Exception {
+        when(paymentService.initiateAndProcessPayment(anyLong(), any())).thenReturn(payment);
+        when(idempotencyService.execute(eq("payment:booking:1"), eq("key-1"), eq("1|CREDIT_CARD|"), any()))
+                .thenAnswer(inv -> ((Supplier<IdempotencyService.StoredResponse>) inv.getArgument(3)).get());
+
+        mockMvc.perform(post("/api/payments")
+                .header(IdempotencyService.HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingId\": 1, \"paymentMethod\": \"CREDIT_CARD\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("COMPLETED")));
+
+        verify(idempotencyService).execute(eq("payment:booking:1"), eq("key-1"), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject an Idempotency-Key with nothing to scope it to")
+    void processPayment_IdempotencyKeyWithoutUserOrBooking_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/payments")
+                .header(IdempotencyService.HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"paymentMethod\": \"CREDIT_CARD\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Booking id is required")));
+
+        verify(idempotencyService, never()).execute(any(), any(), any(), any());
+        verify(paymentService, never()).initiateAndProcessPayment(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response for a retried Idempotency-Key")
+    void processPayment_RetriedIdempotencyKey_ReplaysStoredResponse() throws Exception {
+        setupSecurityContext();
+        IdempotencyService.StoredResponse stored = new IdempotencyService.StoredResponse(200,
+                "{\"paymentId\":1,\"status\":\"COMPLETED\"}".getBytes());
+        IdempotencyService.StoredResponse replay = mock(IdempotencyService.StoredResponse.class);
+        when(replay.getStatus()).thenReturn(stored.getStatus());
+        when(replay.getBody()).thenReturn(stored.getBody());
+        when(replay.isReplayed()).thenReturn(true);
+        when(idempotencyService.execute(eq("payment:1"), eq("key-1"), any(), any())).thenReturn(replay);
+
+        mockMvc.perform(post("/api/payments")
+                .header(IdempotencyService.HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingId\": 1, \"paymentMethod\": \"CREDIT_CARD\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().bytes(stored.getBody()));
+
+        verify(paymentService, never()).initiateAndProcessPayment(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject an Idempotency-Key reused for a different payment")
+    void processPayment_ReusedIdempotencyKey_ReturnsUnprocessableEntity() throws Exception {
+        setupSecurityContext();
+        when(idempotencyService.execute(eq("payment:1"), eq("key-1"), any(), any()))
+                .thenThrow(new IdempotencyKeyMismatchException("Idempotency-Key was already used for a different request"));
+
+        mockMvc.perform(post("/api/payments")
+                .header(IdempotencyService.HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingId\": 2, \"paymentMethod\": \"CREDIT_CARD\"}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    @DisplayName("Should ask the client to retry while the same key is still running")
+    void processPayment_IdempotencyKeyInFlight_ReturnsConflictWithRetryAfter() throws Exception {
+        setupSecurityContext();
+        when(idempotencyService.execute(eq("payment:1"), eq("key-1"), any(), any()))
+                .thenThrow(new IdempotencyKeyInUseException("A request with this Idempotency-Key is still in progress"));
+
+        mockMvc.perform(post("/api/payments")
+                .header(IdempotencyService.HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingId\": 1, \"paymentMethod\": \"CREDIT_CARD\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     @DisplayName("Should return payment by ID")
     void getPayment_ExistingPayment_ReturnsPayment() throws Exception {
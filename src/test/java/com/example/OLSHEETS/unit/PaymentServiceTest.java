@@ -6,9 +6,11 @@ import com.example.OLSHEETS.data.Instrument;
 import com.example.OLSHEETS.data.Payment;
 import com.example.OLSHEETS.data.PaymentStatus;
 import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.ItemSummary;
 import com.example.OLSHEETS.dto.PaymentRequest;
 import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.repository.PaymentRepository;
+import com.example.OLSHEETS.service.ItemSummaryCache;
 import com.example.OLSHEETS.service.PaymentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +20,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -29,8 +32,10 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -119,6 +124,32 @@ class PaymentServiceTest {
             BigDecimal amount = paymentService.calculateBookingAmount(longTermBooking);
             assertThat(amount).isEqualByComparingTo(BigDecimal.valueOf(1500.0));
         }
+
+        @Test
+        @DisplayName("Should price the booking from the item cache when available")
+        void calculateBookingAmount_WithItemCache_UsesCachedPrice() {
+            ItemSummaryCache cache = mock(ItemSummaryCache.class);
+            ReflectionTestUtils.setField(paymentService, "itemSummaryCache", cache);
+            when(cache.get(1L)).thenReturn(Optional.of(new ItemSummary(1L, "Test Guitar", 60.0, 1L)));
+
+            BigDecimal amount = paymentService.calculateBookingAmount(booking);
+
+            assertThat(amount).isEqualByComparingTo(BigDecimal.valueOf(180.0));
+        }
+
+        @Test
+        @DisplayName("Should charge the amount captured at booking time, not the current price")
+        void calculateBookingAmount_WithCapturedAmount_IgnoresLaterPriceChange() {
+            ItemSummaryCache cache = mock(ItemSummaryCache.class);
+            ReflectionTestUtils.setField(paymentService, "itemSummaryCache", cache);
+            booking.setAmount(new BigDecimal("150.00"));
+            instrument.setPrice(80.0);
+
+            BigDecimal amount = paymentService.calculateBookingAmount(booking);
+
+            assertThat(amount).isEqualByComparingTo("150.00");
+            verifyNoInteractions(cache);
+        }
     }
 
     @Nested
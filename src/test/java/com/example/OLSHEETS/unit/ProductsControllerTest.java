@@ -4,10 +4,14 @@ import com.example.OLSHEETS.boundary.ProductsController;
 import com.example.OLSHEETS.data.Instrument;
 import com.example.OLSHEETS.data.InstrumentType;
 import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.dto.FileRef;
+import com.example.OLSHEETS.dto.InstrumentListing;
 import com.example.OLSHEETS.dto.InstrumentRegistrationRequest;
 import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.service.ItemDetailCache;
 import com.example.OLSHEETS.service.ProductsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +23,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import com.example.OLSHEETS.security.JwtUtil;
 import com.example.OLSHEETS.data.User;
@@ -28,6 +33,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
@@ -57,6 +63,9 @@ class ProductsControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductsController productsController;
+
     @MockitoBean
     private ProductsService productsService;
 
@@ -64,7 +73,8 @@ class ProductsControllerTest {
     private UserRepository userRepository;
 
     private Instrument instrument1;
-    private Instrument instrument2;
+    private InstrumentListing listing1;
+    private InstrumentListing listing2;
 
     @BeforeEach
     void setUp() {
@@ -80,21 +90,16 @@ class ProductsControllerTest {
         instrument1.setType(InstrumentType.DIGITAL);
         instrument1.setFamily(InstrumentFamily.KEYBOARD);
 
-        instrument2 = new Instrument();
-        instrument2.setId(2L);
-        instrument2.setName("Yamaha YAS-280");
-        instrument2.setDescription("Alto Sax");
-        instrument2.setPrice(1299.99);
-        instrument2.setOwner(owner);
-        instrument2.setAge(1);
-        instrument2.setType(InstrumentType.WIND);
-        instrument2.setFamily(InstrumentFamily.WOODWIND);
+        listing1 = new InstrumentListing(1L, "Yamaha P-125", "Digital Piano", 599.99, 1L, "owner1", "owner1",
+                2, InstrumentType.DIGITAL, InstrumentFamily.KEYBOARD);
+        listing2 = new InstrumentListing(2L, "Yamaha YAS-280", "Alto Sax", 1299.99, 1L, "owner1", "owner1",
+                1, InstrumentType.WIND, InstrumentFamily.WOODWIND);
     }
 
     @Test
     void testSearchInstruments_WithMatchingResults_ShouldReturnInstrumentsList() throws Exception {
         // Amock service method
-        List<Instrument> instruments = Arrays.asList(instrument1, instrument2);
+        List<InstrumentListing> instruments = Arrays.asList(listing1, listing2);
         when(productsService.searchInstrumentsByName("Yamaha")).thenReturn(instruments);
 
         mockMvc.perform(get("/api/instruments/search")
@@ -125,9 +130,24 @@ class ProductsControllerTest {
         verify(productsService, times(1)).searchInstrumentsByName("Gibson");
     }
 
+    @Test
+    void testSearchInstruments_WithFuzzy_ShouldUseFuzzySearch() throws Exception {
+        when(productsService.fuzzySearchInstruments("Yamha")).thenReturn(Collections.singletonList(listing1));
+
+        mockMvc.perform(get("/api/instruments/search")
+                        .param("name", "Yamha")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1)));
+
+        verify(productsService).fuzzySearchInstruments("Yamha");
+        verify(productsService, never()).searchInstrumentsByName(anyString());
+    }
+
     @Test
     void testSearchInstruments_WithSingleResult_ShouldReturnOneInstrument() throws Exception {
-        List<Instrument> instruments = Collections.singletonList(instrument1);
+        List<InstrumentListing> instruments = Collections.singletonList(listing1);
         when(productsService.searchInstrumentsByName("Yamaha P-125")).thenReturn(instruments);
 
         mockMvc.perform(get("/api/instruments/search")
@@ -144,7 +164,7 @@ class ProductsControllerTest {
 
     @Test
     void testSearchInstruments_CaseInsensitive_ShouldWork() throws Exception {
-        List<Instrument> instruments = Arrays.asList(instrument1, instrument2);
+        List<InstrumentListing> instruments = Arrays.asList(listing1, listing2);
         when(productsService.searchInstrumentsByName("yamaha")).thenReturn(instruments);
 
         mockMvc.perform(get("/api/instruments/search")
@@ -157,7 +177,8 @@ class ProductsControllerTest {
 
     @Test
     void testSearchInstruments_WithAllFieldsReturned() throws Exception {
-        List<Instrument> instruments = Collections.singletonList(instrument1);
+        listing1.setFileReferences(List.of(new FileRef(1L, 10L, "photo", "/photos/p125.jpg")));
+        List<InstrumentListing> instruments = Collections.singletonList(listing1);
         when(productsService.searchInstrumentsByName("Piano")).thenReturn(instruments);
 
         mockMvc.perform(get("/api/instruments/search")
@@ -168,6 +189,11 @@ class ProductsControllerTest {
                 .andExpect(jsonPath("$[0].description", is("Digital Piano")))
                 .andExpect(jsonPath("$[0].price", is(599.99)))
                 .andExpect(jsonPath("$[0].owner.id", is(1)))
+                .andExpect(jsonPath("$[0].owner.username", is("owner1")))
+                .andExpect(jsonPath("$[0].owner.email").doesNotExist())
+                .andExpect(jsonPath("$[0].fileReferences[0].path", is("/photos/p125.jpg")))
+                .andExpect(jsonPath("$[0].fileReferences[0].itemId").doesNotExist())
+                .andExpect(jsonPath("$[0].itemType", is("INSTRUMENT")))
                 .andExpect(jsonPath("$[0].age", is(2)))
                 .andExpect(jsonPath("$[0].type", is("DIGITAL")))
                 .andExpect(jsonPath("$[0].family", is("KEYBOARD")));
@@ -175,7 +201,7 @@ class ProductsControllerTest {
 
     @Test
     void testFilterByFamily_WithMatchingResults_ShouldReturnInstruments() throws Exception {
-        List<Instrument> instruments = Collections.singletonList(instrument1);
+        List<InstrumentListing> instruments = Collections.singletonList(listing1);
         when(productsService.filterInstrumentsByFamily(InstrumentFamily.KEYBOARD)).thenReturn(instruments);
 
         mockMvc.perform(get("/api/instruments/filter/family")
@@ -203,19 +229,12 @@ class ProductsControllerTest {
 
     @Test
     void testFilterByType_WithMatchingResults_ShouldReturnInstrumentsList() throws Exception {
-        Instrument electricGuitar = new Instrument();
-        electricGuitar.setId(3L);
-        electricGuitar.setName("Fender Stratocaster");
-        electricGuitar.setType(InstrumentType.ELECTRIC);
-        electricGuitar.setPrice(899.99);
-
-        Instrument electricBass = new Instrument();
-        electricBass.setId(4L);
-        electricBass.setName("Fender Precision Bass");
-        electricBass.setType(InstrumentType.ELECTRIC);
-        electricBass.setPrice(799.99);
-
-        List<Instrument> electricInstruments = Arrays.asList(electricGuitar, electricBass);
+        InstrumentListing electricGuitar = new InstrumentListing(3L, "Fender Stratocaster", null, 899.99,
+                null, null, null, null, InstrumentType.ELECTRIC, InstrumentFamily.GUITAR);
+        InstrumentListing electricBass = new InstrumentListing(4L, "Fender Precision Bass", null, 799.99,
+                null, null, null, null, InstrumentType.ELECTRIC, InstrumentFamily.GUITAR);
+
+        List<InstrumentListing> electricInstruments = Arrays.asList(electricGuitar, electricBass);
         when(productsService.filterInstrumentsByType(InstrumentType.ELECTRIC)).thenReturn(electricInstruments);
 
         mockMvc.perform(get("/api/instruments/filter/type")
@@ -248,8 +267,8 @@ class ProductsControllerTest {
 
     @Test
     void testFilterByType_WithSingleResult_ShouldReturnOneInstrument() throws Exception {
-        instrument1.setType(InstrumentType.ACOUSTIC);
-        List<Instrument> instruments = Collections.singletonList(instrument1);
+        listing1.setType(InstrumentType.ACOUSTIC);
+        List<InstrumentListing> instruments = Collections.singletonList(listing1);
         when(productsService.filterInstrumentsByType(InstrumentType.ACOUSTIC)).thenReturn(instruments);
 
         mockMvc.perform(get("/api/instruments/filter/type")
@@ -488,7 +507,7 @@ class ProductsControllerTest {
         user.setId(1L);
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         
-        List<Instrument> instruments = Arrays.asList(instrument1, instrument2);
+        List<InstrumentListing> instruments = Arrays.asList(listing1, listing2);
         when(productsService.getInstrumentsByOwnerId(1L)).thenReturn(instruments);
 
         mockMvc.perform(get("/api/instruments/my-instruments"))
@@ -608,4 +627,50 @@ class ProductsControllerTest {
 
         SecurityContextHolder.clearContext();
     }
+
+    @Test
+    void testGetInstrumentById_WithDetailCache_ShouldServeETagAnd304() throws Exception {
+        ItemDetailCache cache = new ItemDetailCache(objectMapper, 1 << 20, (MeterRegistry) null);
+        ReflectionTestUtils.setField(productsController, "itemDetailCache", cache);
+        try {
+            when(productsService.getInstrumentById(1L)).thenReturn(instrument1);
+
+            String etag = mockMvc.perform(get("/api/instruments/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("ETag"))
+                    .andExpect(jsonPath("$.name", is("Yamaha P-125")))
+                    .andReturn().getResponse().getHeader("ETag");
+
+            mockMvc.perform(get("/api/instruments/1").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            mockMvc.perform(get("/api/instruments/1").header("If-None-Match", "\"stale\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", etag));
+
+            // Loaded and serialized once, then served from the cache
+            verify(productsService, times(1)).getInstrumentById(1L);
+            assertEquals(2.0 / 3, cache.hitRatio(), 1e-9);
+        } finally {
+            ReflectionTestUtils.setField(productsController, "itemDetailCache", null);
+        }
+    }
+
+    @Test
+    void testGetInstrumentById_WithDetailCacheAndMissingItem_ShouldNotCache() throws Exception {
+        ItemDetailCache cache = new ItemDetailCache(objectMapper, 1 << 20, (MeterRegistry) null);
+        ReflectionTestUtils.setField(productsController, "itemDetailCache", cache);
+        try {
+            when(productsService.getInstrumentById(999L))
+                    .thenThrow(new IllegalArgumentException("Instrument not found with id: 999"));
+
+            mockMvc.perform(get("/api/instruments/999"))
+                    .andExpect(status().isBadRequest());
+
+            assertEquals(0, cache.size());
+        } finally {
+            ReflectionTestUtils.setField(productsController, "itemDetailCache", null);
+        }
+    }
 }
@@ -6,10 +6,21 @@ import com.example.OLSHEETS.data.InstrumentFamily;
 import com.example.OLSHEETS.data.MusicSheet;
 import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.data.Item;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.CatalogHit;
+import com.example.OLSHEETS.dto.FileRef;
+import com.example.OLSHEETS.dto.InstrumentListing;
 import com.example.OLSHEETS.dto.InstrumentRegistrationRequest;
+import com.example.OLSHEETS.dto.ItemSummary;
+import com.example.OLSHEETS.dto.MusicSheetListing;
 import com.example.OLSHEETS.dto.MusicSheetRegistrationRequest;
 import com.example.OLSHEETS.repository.InstrumentRepository;
+import com.example.OLSHEETS.repository.ItemRepository;
 import com.example.OLSHEETS.repository.MusicSheetRepository;
+import com.example.OLSHEETS.search.CatalogIndex;
+import com.example.OLSHEETS.search.CatalogSearchResult;
+import com.example.OLSHEETS.service.ItemDetailCache;
+import com.example.OLSHEETS.service.ItemSummaryCache;
 import com.example.OLSHEETS.service.ProductsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +28,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -39,13 +51,18 @@ class ProductsServiceTest {
     @Mock
     private com.example.OLSHEETS.repository.UserRepository userRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
     @InjectMocks
     private ProductsService productsService;
 
     private Instrument instrument1;
-    private Instrument instrument2;
     private MusicSheet sheet1;
-    private MusicSheet sheet2;
+    private InstrumentListing listing1;
+    private InstrumentListing listing2;
+    private MusicSheetListing sheetListing1;
+    private MusicSheetListing sheetListing2;
 
     @BeforeEach
     void setUp() {
@@ -57,12 +74,6 @@ class ProductsServiceTest {
         instrument1.setPrice(599.99);
         instrument1.setOwner(owner);
 
-        instrument2 = new Instrument();
-        instrument2.setId(2L);
-        instrument2.setName("Yamaha YAS-280");
-        instrument2.setPrice(1299.99);
-        instrument2.setOwner(owner);
-
         sheet1 = new MusicSheet();
         sheet1.setId(1L);
         sheet1.setName("Moonlight Sonata");
@@ -71,244 +82,277 @@ class ProductsServiceTest {
         sheet1.setPrice(9.99);
         sheet1.setOwner(owner);
 
-        sheet2 = new MusicSheet();
-        sheet2.setId(2L);
-        sheet2.setName("Bohemian Rhapsody");
-        sheet2.setComposer("Freddie Mercury");
-        sheet2.setCategory("ROCK");
-        sheet2.setPrice(12.99);
-        sheet2.setOwner(owner);
+        listing1 = new InstrumentListing(1L, "Yamaha P-125", null, 599.99, 1L, "owner1", "Owner One",
+                null, null, InstrumentFamily.KEYBOARD);
+        listing2 = new InstrumentListing(2L, "Yamaha YAS-280", null, 1299.99, 1L, "owner1", "Owner One",
+                null, null, InstrumentFamily.WOODWIND);
+        sheetListing1 = new MusicSheetListing(1L, "Moonlight Sonata", null, 9.99, 1L, "owner1", "Owner One",
+                "Beethoven", null, "CLASSICAL", null);
+        sheetListing2 = new MusicSheetListing(2L, "Bohemian Rhapsody", null, 12.99, 1L, "owner1", "Owner One",
+                "Freddie Mercury", null, "ROCK", null);
     }
 
     @Test
     void testSearchInstrumentsByName_WithMatchingResults_ShouldReturnInstruments() {
         String searchName = "Yamaha";
-        List<Instrument> instruments = Arrays.asList(instrument1, instrument2);
+        List<InstrumentListing> instruments = Arrays.asList(listing1, listing2);
 
-        when(instrumentRepository.findByNameContainingIgnoreCase(searchName)).thenReturn(instruments);
+        when(instrumentRepository.findListingsByName(searchName)).thenReturn(instruments);
 
-        List<Instrument> result = productsService.searchInstrumentsByName(searchName);
+        List<InstrumentListing> result = productsService.searchInstrumentsByName(searchName);
 
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals("Yamaha P-125", result.get(0).getName());
         assertEquals("Yamaha YAS-280", result.get(1).getName());
-        verify(instrumentRepository, times(1)).findByNameContainingIgnoreCase(searchName);
+        verify(instrumentRepository, times(1)).findListingsByName(searchName);
+    }
+
+    @Test
+    void testFuzzySearchInstruments_ShouldReturnIndexHitsInRankOrder() {
+        CatalogIndex catalogIndex = mock(CatalogIndex.class);
+        ReflectionTestUtils.setField(productsService, "catalogIndex", catalogIndex);
+        when(catalogIndex.search("yamha", ItemKind.INSTRUMENT, 0, 100, true)).thenReturn(new CatalogSearchResult(
+                List.of(hit(2L, 1.5f), hit(1L, 0.8f)), 2));
+        when(instrumentRepository.findListingsByIdIn(List.of(2L, 1L))).thenReturn(Arrays.asList(listing1, listing2));
+
+        List<InstrumentListing> result = productsService.fuzzySearchInstruments("yamha");
+
+        assertEquals(Arrays.asList(listing2, listing1), result);
+        verify(instrumentRepository, never()).findListingsByName(anyString());
+    }
+
+    @Test
+    void testFuzzySearchMusicSheets_WithoutIndex_ShouldFallBackToSubstringSearch() {
+        when(musicSheetRepository.findListingsByName("Moon")).thenReturn(List.of(sheetListing1));
+
+        List<MusicSheetListing> result = productsService.fuzzySearchMusicSheets("Moon");
+
+        assertEquals(List.of(sheetListing1), result);
+    }
+
+    @Test
+    void testSearchInstrumentsByName_ShouldAttachFileReferencesFromOneQuery() {
+        when(instrumentRepository.findListingsByName("Yamaha")).thenReturn(Arrays.asList(listing1, listing2));
+        when(itemRepository.findFileRefsByItemIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new FileRef(1L, 10L, "photo", "/photos/p125-front.jpg"),
+                new FileRef(1L, 11L, "photo", "/photos/p125-back.jpg")));
+
+        List<InstrumentListing> result = productsService.searchInstrumentsByName("Yamaha");
+
+        assertEquals(2, result.get(0).getFileReferences().size());
+        assertEquals("/photos/p125-front.jpg", result.get(0).getFileReferences().get(0).getPath());
+        assertTrue(result.get(1).getFileReferences().isEmpty());
+        verify(itemRepository, times(1)).findFileRefsByItemIdIn(anyList());
     }
 
     @Test
     void testSearchInstrumentsByName_WithNoResults_ShouldReturnEmptyList() {
         String searchName = "Gibson";
-        List<Instrument> emptyList = Collections.emptyList();
+        List<InstrumentListing> emptyList = Collections.emptyList();
 
-        when(instrumentRepository.findByNameContainingIgnoreCase(searchName)).thenReturn(emptyList);
+        when(instrumentRepository.findListingsByName(searchName)).thenReturn(emptyList);
 
-        List<Instrument> result = productsService.searchInstrumentsByName(searchName);
+        List<InstrumentListing> result = productsService.searchInstrumentsByName(searchName);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(instrumentRepository, times(1)).findByNameContainingIgnoreCase(searchName);
+        verify(instrumentRepository, times(1)).findListingsByName(searchName);
+        verify(itemRepository, never()).findFileRefsByItemIdIn(anyList());
     }
 
     @Test
     void testSearchInstrumentsByName_WithSingleResult_ShouldReturnOneInstrument() {
         String searchName = "Yamaha P-125";
-        List<Instrument> instruments = Collections.singletonList(instrument1);
+        List<InstrumentListing> instruments = Collections.singletonList(listing1);
 
-        when(instrumentRepository.findByNameContainingIgnoreCase(searchName)).thenReturn(instruments);
+        when(instrumentRepository.findListingsByName(searchName)).thenReturn(instruments);
 
-        List<Instrument> result = productsService.searchInstrumentsByName(searchName);
+        List<InstrumentListing> result = productsService.searchInstrumentsByName(searchName);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Yamaha P-125", result.get(0).getName());
-        verify(instrumentRepository, times(1)).findByNameContainingIgnoreCase(searchName);
+        verify(instrumentRepository, times(1)).findListingsByName(searchName);
     }
 
     @Test
     void testSearchInstrumentsByName_VerifiesIgnoreCase() {
         String searchName = "yamaha";
-        List<Instrument> instruments = Arrays.asList(instrument1, instrument2);
+        List<InstrumentListing> instruments = Arrays.asList(listing1, listing2);
 
-        when(instrumentRepository.findByNameContainingIgnoreCase(searchName)).thenReturn(instruments);
+        when(instrumentRepository.findListingsByName(searchName)).thenReturn(instruments);
 
-        List<Instrument> result = productsService.searchInstrumentsByName(searchName);
+        List<InstrumentListing> result = productsService.searchInstrumentsByName(searchName);
 
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(instrumentRepository, times(1)).findByNameContainingIgnoreCase("yamaha");
+        verify(instrumentRepository, times(1)).findListingsByName("yamaha");
     }
 
     @Test
     void testFilterInstrumentsByType_WithMatchingResults_ShouldReturnInstruments() {
-        Instrument electricGuitar = new Instrument();
-        electricGuitar.setId(3L);
-        electricGuitar.setName("Fender Stratocaster");
-        electricGuitar.setType(InstrumentType.ELECTRIC);
-        electricGuitar.setPrice(899.99);
-
-        Instrument electricBass = new Instrument();
-        electricBass.setId(4L);
-        electricBass.setName("Fender Precision Bass");
-        electricBass.setType(InstrumentType.ELECTRIC);
-        electricBass.setPrice(799.99);
+        InstrumentListing electricGuitar = new InstrumentListing(3L, "Fender Stratocaster", null, 899.99,
+                null, null, null, null, InstrumentType.ELECTRIC, InstrumentFamily.GUITAR);
+        InstrumentListing electricBass = new InstrumentListing(4L, "Fender Precision Bass", null, 799.99,
+                null, null, null, null, InstrumentType.ELECTRIC, InstrumentFamily.GUITAR);
 
-        List<Instrument> electricInstruments = Arrays.asList(electricGuitar, electricBass);
+        List<InstrumentListing> electricInstruments = Arrays.asList(electricGuitar, electricBass);
 
-        when(instrumentRepository.findByType(InstrumentType.ELECTRIC)).thenReturn(electricInstruments);
+        when(instrumentRepository.findListingsByType(InstrumentType.ELECTRIC)).thenReturn(electricInstruments);
 
-        List<Instrument> result = productsService.filterInstrumentsByType(InstrumentType.ELECTRIC);
+        List<InstrumentListing> result = productsService.filterInstrumentsByType(InstrumentType.ELECTRIC);
 
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals(InstrumentType.ELECTRIC, result.get(0).getType());
         assertEquals(InstrumentType.ELECTRIC, result.get(1).getType());
-        verify(instrumentRepository, times(1)).findByType(InstrumentType.ELECTRIC);
+        verify(instrumentRepository, times(1)).findListingsByType(InstrumentType.ELECTRIC);
     }
 
     @Test
     void testFilterInstrumentsByType_WithNoResults_ShouldReturnEmptyList() {
-        List<Instrument> emptyList = Collections.emptyList();
+        List<InstrumentListing> emptyList = Collections.emptyList();
 
-        when(instrumentRepository.findByType(InstrumentType.SYNTHESIZER)).thenReturn(emptyList);
+        when(instrumentRepository.findListingsByType(InstrumentType.SYNTHESIZER)).thenReturn(emptyList);
 
-        List<Instrument> result = productsService.filterInstrumentsByType(InstrumentType.SYNTHESIZER);
+        List<InstrumentListing> result = productsService.filterInstrumentsByType(InstrumentType.SYNTHESIZER);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(instrumentRepository, times(1)).findByType(InstrumentType.SYNTHESIZER);
+        verify(instrumentRepository, times(1)).findListingsByType(InstrumentType.SYNTHESIZER);
     }
 
     @Test
     void testGetInstrumentsByOwnerId_WithMatchingResults_ShouldReturnInstruments() {
         Long ownerId = 1L;
-        List<Instrument> instruments = Arrays.asList(instrument1, instrument2);
+        List<InstrumentListing> instruments = Arrays.asList(listing1, listing2);
 
-        when(instrumentRepository.findByOwnerId(ownerId)).thenReturn(instruments);
+        when(instrumentRepository.findListingsByOwnerId(ownerId)).thenReturn(instruments);
 
-        List<Instrument> result = productsService.getInstrumentsByOwnerId(ownerId);
+        List<InstrumentListing> result = productsService.getInstrumentsByOwnerId(ownerId);
 
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals("Yamaha P-125", result.get(0).getName());
         assertEquals("Yamaha YAS-280", result.get(1).getName());
-        verify(instrumentRepository, times(1)).findByOwnerId(ownerId);
+        verify(instrumentRepository, times(1)).findListingsByOwnerId(ownerId);
     }
 
     @Test
     void testGetInstrumentsByOwnerId_WithNoResults_ShouldReturnEmptyList() {
         Long ownerId = 999L;
-        List<Instrument> emptyList = Collections.emptyList();
+        List<InstrumentListing> emptyList = Collections.emptyList();
 
-        when(instrumentRepository.findByOwnerId(ownerId)).thenReturn(emptyList);
+        when(instrumentRepository.findListingsByOwnerId(ownerId)).thenReturn(emptyList);
 
-        List<Instrument> result = productsService.getInstrumentsByOwnerId(ownerId);
+        List<InstrumentListing> result = productsService.getInstrumentsByOwnerId(ownerId);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(instrumentRepository, times(1)).findByOwnerId(ownerId);
+        verify(instrumentRepository, times(1)).findListingsByOwnerId(ownerId);
     }
 
     @Test
     void testFilterInstrumentsByFamily_WithMatchingResults_ShouldReturnInstruments() {
         InstrumentFamily family = InstrumentFamily.KEYBOARD;
-        List<Instrument> instruments = Collections.singletonList(instrument1);
+        List<InstrumentListing> instruments = Collections.singletonList(listing1);
 
-        when(instrumentRepository.findByFamily(family)).thenReturn(instruments);
+        when(instrumentRepository.findListingsByFamily(family)).thenReturn(instruments);
 
-        List<Instrument> result = productsService.filterInstrumentsByFamily(family);
+        List<InstrumentListing> result = productsService.filterInstrumentsByFamily(family);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(instrumentRepository, times(1)).findByFamily(family);
+        verify(instrumentRepository, times(1)).findListingsByFamily(family);
     }
 
     @Test
     void testFilterInstrumentsByFamily_WithNoResults_ShouldReturnEmptyList() {
         InstrumentFamily family = InstrumentFamily.BRASS;
-        List<Instrument> emptyList = Collections.emptyList();
+        List<InstrumentListing> emptyList = Collections.emptyList();
 
-        when(instrumentRepository.findByFamily(family)).thenReturn(emptyList);
+        when(instrumentRepository.findListingsByFamily(family)).thenReturn(emptyList);
 
-        List<Instrument> result = productsService.filterInstrumentsByFamily(family);
+        List<InstrumentListing> result = productsService.filterInstrumentsByFamily(family);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(instrumentRepository, times(1)).findByFamily(family);
+        verify(instrumentRepository, times(1)).findListingsByFamily(family);
     }
 
     @Test
     void testSearchMusicSheetsByName_WithMatchingResults_ShouldReturnSheets() {
         String searchName = "Sonata";
-        List<MusicSheet> sheets = Collections.singletonList(sheet1);
+        List<MusicSheetListing> sheets = Collections.singletonList(sheetListing1);
 
-        when(musicSheetRepository.findByNameContainingIgnoreCase(searchName)).thenReturn(sheets);
+        when(musicSheetRepository.findListingsByName(searchName)).thenReturn(sheets);
 
-        List<MusicSheet> result = productsService.searchMusicSheetsByName(searchName);
+        List<MusicSheetListing> result = productsService.searchMusicSheetsByName(searchName);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Moonlight Sonata", result.get(0).getName());
         assertEquals("Beethoven", result.get(0).getComposer());
-        verify(musicSheetRepository, times(1)).findByNameContainingIgnoreCase(searchName);
+        verify(musicSheetRepository, times(1)).findListingsByName(searchName);
     }
 
     @Test
     void testSearchMusicSheetsByName_WithNoResults_ShouldReturnEmptyList() {
         String searchName = "Symphony";
-        List<MusicSheet> emptyList = Collections.emptyList();
+        List<MusicSheetListing> emptyList = Collections.emptyList();
 
-        when(musicSheetRepository.findByNameContainingIgnoreCase(searchName)).thenReturn(emptyList);
+        when(musicSheetRepository.findListingsByName(searchName)).thenReturn(emptyList);
 
-        List<MusicSheet> result = productsService.searchMusicSheetsByName(searchName);
+        List<MusicSheetListing> result = productsService.searchMusicSheetsByName(searchName);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(musicSheetRepository, times(1)).findByNameContainingIgnoreCase(searchName);
+        verify(musicSheetRepository, times(1)).findListingsByName(searchName);
     }
 
     @Test
     void testSearchMusicSheetsByName_WithMultipleResults_ShouldReturnAllSheets() {
         String searchName = "Rhapsody";
-        List<MusicSheet> sheets = Arrays.asList(sheet2);
+        List<MusicSheetListing> sheets = Arrays.asList(sheetListing2);
 
-        when(musicSheetRepository.findByNameContainingIgnoreCase(searchName)).thenReturn(sheets);
+        when(musicSheetRepository.findListingsByName(searchName)).thenReturn(sheets);
 
-        List<MusicSheet> result = productsService.searchMusicSheetsByName(searchName);
+        List<MusicSheetListing> result = productsService.searchMusicSheetsByName(searchName);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Bohemian Rhapsody", result.get(0).getName());
-        verify(musicSheetRepository, times(1)).findByNameContainingIgnoreCase(searchName);
+        verify(musicSheetRepository, times(1)).findListingsByName(searchName);
     }
 
     @Test
     void testFilterMusicSheetsByCategory_WithMatchingResults_ShouldReturnSheets() {
         String category = "CLASSICAL";
-        List<MusicSheet> sheets = Collections.singletonList(sheet1);
+        List<MusicSheetListing> sheets = Collections.singletonList(sheetListing1);
 
-        when(musicSheetRepository.findByCategory(category)).thenReturn(sheets);
+        when(musicSheetRepository.findListingsByCategory(category)).thenReturn(sheets);
 
-        List<MusicSheet> result = productsService.filterMusicSheetsByCategory(category);
+        List<MusicSheetListing> result = productsService.filterMusicSheetsByCategory(category);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("CLASSICAL", result.get(0).getCategory());
-        verify(musicSheetRepository, times(1)).findByCategory(category);
+        verify(musicSheetRepository, times(1)).findListingsByCategory(category);
     }
 
     @Test
     void testFilterMusicSheetsByCategory_WithNoResults_ShouldReturnEmptyList() {
         String category = "JAZZ";
-        List<MusicSheet> emptyList = Collections.emptyList();
+        List<MusicSheetListing> emptyList = Collections.emptyList();
 
-        when(musicSheetRepository.findByCategory(category)).thenReturn(emptyList);
+        when(musicSheetRepository.findListingsByCategory(category)).thenReturn(emptyList);
 
-        List<MusicSheet> result = productsService.filterMusicSheetsByCategory(category);
+        List<MusicSheetListing> result = productsService.filterMusicSheetsByCategory(category);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(musicSheetRepository, times(1)).findByCategory(category);
+        verify(musicSheetRepository, times(1)).findListingsByCategory(category);
     }
 
     // Pricing Management Tests
@@ -318,35 +362,33 @@ class ProductsServiceTest {
         Long itemId = 1L;
         Double newPrice = 799.99;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
-        when(instrumentRepository.save(any(Instrument.class))).thenReturn(instrument1);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
+        when(itemRepository.save(any(Item.class))).thenReturn(instrument1);
 
         Item result = productsService.updateItemPrice(itemId, newPrice, 1L);
 
         assertNotNull(result);
         assertEquals(newPrice, result.getPrice());
-        verify(instrumentRepository, times(1)).findById(itemId);
-        verify(instrumentRepository, times(1)).save(instrument1);
-        // musicSheetRepository is only checked if instrumentRepository returns empty
-        verify(musicSheetRepository, never()).findById(any());
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(itemRepository, times(1)).save(instrument1);
+        verifyNoInteractions(instrumentRepository, musicSheetRepository);
     }
 
     @Test
-    void testUpdateItemPrice_ForMusicSheet_ShouldUpdateAndReturnItem() {
+    void testUpdateItemPrice_ForMusicSheet_ShouldUpdateWithSingleLookup() {
         Long itemId = 1L;
         Double newPrice = 15.99;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.empty());
-        when(musicSheetRepository.findById(itemId)).thenReturn(Optional.of(sheet1));
-        when(musicSheetRepository.save(any(MusicSheet.class))).thenReturn(sheet1);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(sheet1));
+        when(itemRepository.save(any(Item.class))).thenReturn(sheet1);
 
         Item result = productsService.updateItemPrice(itemId, newPrice, 1L);
 
         assertNotNull(result);
         assertEquals(newPrice, result.getPrice());
-        verify(instrumentRepository, times(1)).findById(itemId);
-        verify(musicSheetRepository, times(1)).findById(itemId);
-        verify(musicSheetRepository, times(1)).save(sheet1);
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(itemRepository, times(1)).save(sheet1);
+        verifyNoInteractions(instrumentRepository, musicSheetRepository);
     }
 
     @Test
@@ -359,8 +401,7 @@ class ProductsServiceTest {
         );
 
         assertEquals("Price must be a positive number", exception.getMessage());
-        verify(instrumentRepository, never()).findById(any());
-        verify(musicSheetRepository, never()).findById(any());
+        verify(itemRepository, never()).findById(any());
     }
 
     @Test
@@ -374,8 +415,7 @@ class ProductsServiceTest {
         );
 
         assertEquals("Price must be a positive number", exception.getMessage());
-        verify(instrumentRepository, never()).findById(any());
-        verify(musicSheetRepository, never()).findById(any());
+        verify(itemRepository, never()).findById(any());
     }
 
     @Test
@@ -383,14 +423,14 @@ class ProductsServiceTest {
         Long itemId = 1L;
         Double zeroPrice = 0.0;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
-        when(instrumentRepository.save(any(Instrument.class))).thenReturn(instrument1);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
+        when(itemRepository.save(any(Item.class))).thenReturn(instrument1);
 
         Item result = productsService.updateItemPrice(itemId, zeroPrice, 1L);
 
         assertNotNull(result);
         assertEquals(zeroPrice, result.getPrice());
-        verify(instrumentRepository, times(1)).save(instrument1);
+        verify(itemRepository, times(1)).save(instrument1);
     }
 
     @Test
@@ -398,8 +438,7 @@ class ProductsServiceTest {
         Long itemId = 999L;
         Double newPrice = 100.0;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.empty());
-        when(musicSheetRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
         IllegalArgumentException exception = assertThrows(
             IllegalArgumentException.class,
@@ -407,10 +446,8 @@ class ProductsServiceTest {
         );
 
         assertEquals("Item not found with id: " + itemId, exception.getMessage());
-        verify(instrumentRepository, times(1)).findById(itemId);
-        verify(musicSheetRepository, times(1)).findById(itemId);
-        verify(instrumentRepository, never()).save(any());
-        verify(musicSheetRepository, never()).save(any());
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(itemRepository, never()).save(any());
     }
 
     @Test
@@ -419,7 +456,7 @@ class ProductsServiceTest {
         Double newPrice = 100.0;
         Long unauthorizedUserId = 999L;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
 
         IllegalArgumentException exception = assertThrows(
             IllegalArgumentException.class,
@@ -427,9 +464,8 @@ class ProductsServiceTest {
         );
 
         assertEquals("You are not authorized to update the price of this item", exception.getMessage());
-        verify(instrumentRepository, times(1)).findById(itemId);
-        verify(instrumentRepository, never()).save(any());
-        verify(musicSheetRepository, never()).save(any());
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(itemRepository, never()).save(any());
     }
 
     @Test
@@ -438,15 +474,15 @@ class ProductsServiceTest {
         Double newPrice = 999.99;
         Long ownerId = 1L;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
-        when(instrumentRepository.save(any(Instrument.class))).thenReturn(instrument1);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
+        when(itemRepository.save(any(Item.class))).thenReturn(instrument1);
 
         Item result = productsService.updateItemPrice(itemId, newPrice, ownerId);
 
         assertNotNull(result);
         assertEquals(newPrice, result.getPrice());
-        verify(instrumentRepository, times(1)).findById(itemId);
-        verify(instrumentRepository, times(1)).save(instrument1);
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(itemRepository, times(1)).save(instrument1);
     }
 
     @Test
@@ -455,8 +491,7 @@ class ProductsServiceTest {
         Double newPrice = 20.0;
         Long unauthorizedUserId = 999L;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.empty());
-        when(musicSheetRepository.findById(itemId)).thenReturn(Optional.of(sheet1));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(sheet1));
 
         IllegalArgumentException exception = assertThrows(
             IllegalArgumentException.class,
@@ -464,45 +499,57 @@ class ProductsServiceTest {
         );
 
         assertEquals("You are not authorized to update the price of this item", exception.getMessage());
-        verify(instrumentRepository, times(1)).findById(itemId);
-        verify(musicSheetRepository, times(1)).findById(itemId);
-        verify(musicSheetRepository, never()).save(any());
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateItemPrice_WithCaches_ShouldInvalidateItem() {
+        ItemSummaryCache cache = mock(ItemSummaryCache.class);
+        ItemDetailCache detailCache = mock(ItemDetailCache.class);
+        ReflectionTestUtils.setField(productsService, "itemSummaryCache", cache);
+        ReflectionTestUtils.setField(productsService, "itemDetailCache", detailCache);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(sheet1));
+        when(itemRepository.save(any(Item.class))).thenReturn(sheet1);
+
+        productsService.updateItemPrice(1L, 12.5, 1L);
+
+        verify(cache, times(1)).invalidate(1L);
+        verify(detailCache, times(1)).invalidate(1L);
     }
 
     @Test
     void testGetItemPrice_ForInstrument_ShouldReturnPrice() {
         Long itemId = 1L;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(instrument1));
 
         Double result = productsService.getItemPrice(itemId);
 
         assertNotNull(result);
         assertEquals(599.99, result);
-        verify(instrumentRepository, times(1)).findById(itemId);
+        verify(itemRepository, times(1)).findById(itemId);
     }
 
     @Test
     void testGetItemPrice_ForMusicSheet_ShouldReturnPrice() {
         Long itemId = 1L;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.empty());
-        when(musicSheetRepository.findById(itemId)).thenReturn(Optional.of(sheet1));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(sheet1));
 
         Double result = productsService.getItemPrice(itemId);
 
         assertNotNull(result);
         assertEquals(9.99, result);
-        verify(instrumentRepository, times(1)).findById(itemId);
-        verify(musicSheetRepository, times(1)).findById(itemId);
+        verify(itemRepository, times(1)).findById(itemId);
+        verifyNoInteractions(instrumentRepository, musicSheetRepository);
     }
 
     @Test
     void testGetItemPrice_WithNonExistentItem_ShouldThrowException() {
         Long itemId = 999L;
         
-        when(instrumentRepository.findById(itemId)).thenReturn(Optional.empty());
-        when(musicSheetRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
         IllegalArgumentException exception = assertThrows(
             IllegalArgumentException.class,
@@ -510,8 +557,19 @@ class ProductsServiceTest {
         );
 
         assertEquals("Item not found with id: " + itemId, exception.getMessage());
-        verify(instrumentRepository, times(1)).findById(itemId);
-        verify(musicSheetRepository, times(1)).findById(itemId);
+        verify(itemRepository, times(1)).findById(itemId);
+    }
+
+    @Test
+    void testGetItemPrice_WithCache_ShouldReadSummary() {
+        ItemSummaryCache cache = mock(ItemSummaryCache.class);
+        ReflectionTestUtils.setField(productsService, "itemSummaryCache", cache);
+        when(cache.get(2L)).thenReturn(Optional.of(new ItemSummary(2L, "Moonlight Sonata", 9.99, 1L)));
+        when(cache.get(999L)).thenReturn(Optional.empty());
+
+        assertEquals(9.99, productsService.getItemPrice(2L));
+        assertThrows(IllegalArgumentException.class, () -> productsService.getItemPrice(999L));
+        verifyNoInteractions(itemRepository);
     }
     
     @Test
@@ -878,4 +936,12 @@ class ProductsServiceTest {
         assertEquals("User not found with id: 999", exception.getMessage());
         verify(musicSheetRepository, never()).save(any(MusicSheet.class));
     }
+
+    private static CatalogHit hit(Long id, float score) {
+        CatalogHit hit = new CatalogHit();
+        hit.setId(id);
+        hit.setItemType(ItemKind.INSTRUMENT);
+        hit.setScore(score);
+        return hit;
+    }
 }
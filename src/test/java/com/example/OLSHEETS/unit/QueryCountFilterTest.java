@@ -0,0 +1,113 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.config.QueryBudget;
+import com.example.OLSHEETS.config.QueryCountFilter;
+import com.example.OLSHEETS.config.QueryCountInspector;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCountFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private QueryCountFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new QueryCountFilter(registry, 0);
+    }
+
+    @Test
+    void whenRequestHandled_thenStatementsAreCountedPerHandler() throws Exception {
+        perform("listItems", 2);
+
+        assertThat(filter.lastCount("SampleController.listItems")).isEqualTo(OptionalInt.of(2));
+        DistributionSummary summary = registry.get("http.server.requests.queries")
+                .tag("handler", "SampleController.listItems")
+                .summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2.0);
+        assertThat(filter.drainViolations()).isEmpty();
+    }
+
+    @Test
+    void whenBudgetExceeded_thenViolationIsReportedOnce() throws Exception {
+        perform("listItems", 2);
+        assertThat(filter.drainViolations()).isEmpty();
+
+        perform("listItems", 4);
+
+        assertThat(filter.drainViolations())
+                .containsExactly("SampleController.listItems issued 4 statements, budget is 2");
+        assertThat(filter.drainViolations()).isEmpty();
+        assertThat(registry.get("http.server.requests.queries.over.budget").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void whenNoBudgetDeclared_thenDefaultBudgetApplies() throws Exception {
+        perform("unbudgeted", 50);
+        assertThat(filter.drainViolations()).isEmpty();
+
+        filter = new QueryCountFilter(null, 5);
+        perform("unbudgeted", 6);
+
+        assertThat(filter.drainViolations()).hasSize(1);
+        assertThat(filter.lastCount("SampleController.unbudgeted")).isEqualTo(OptionalInt.of(6));
+    }
+
+    @Test
+    void whenZeroBudgetDeclared_thenAnyStatementIsAViolation() throws Exception {
+        perform("cached", 0);
+        assertThat(filter.drainViolations()).isEmpty();
+
+        perform("cached", 1);
+        assertThat(filter.drainViolations()).hasSize(1);
+    }
+
+    @Test
+    void whenStatementsRunOutsideARequest_thenNothingIsCounted() throws Exception {
+        QueryCountInspector.INSTANCE.inspect("select 1");
+        perform("listItems", 1);
+
+        assertThat(filter.lastCount("SampleController.listItems")).isEqualTo(OptionalInt.of(1));
+        assertThat(filter.lastCount("SampleController.cached")).isEmpty();
+    }
+
+    private void perform(String handlerMethod, int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sample");
+        HandlerMethod handler = new HandlerMethod(new SampleController(),
+                SampleController.class.getMethod(handlerMethod));
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+            for (int i = 0; i < statements; i++) {
+                QueryCountInspector.INSTANCE.inspect("select " + i);
+            }
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+
+    static class SampleController {
+
+        @QueryBudget(2)
+        public void listItems() {
+        }
+
+        @QueryBudget(0)
+        public void cached() {
+        }
+
+        public void unbudgeted() {
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.CatalogHit;
+import com.example.OLSHEETS.dto.ItemDateCount;
+import com.example.OLSHEETS.dto.ScoreCount;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.InstrumentRepository;
+import com.example.OLSHEETS.repository.MusicSheetRepository;
+import com.example.OLSHEETS.repository.ReviewRepository;
+import com.example.OLSHEETS.repository.SheetBookingRepository;
+import com.example.OLSHEETS.search.CatalogDocument;
+import com.example.OLSHEETS.search.CatalogIndex;
+import com.example.OLSHEETS.service.RankingService;
+import com.example.OLSHEETS.service.RankingService.Ranking;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RankingServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-15T12:00:00Z");
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private SheetBookingRepository sheetBookingRepository;
+
+    @Mock
+    private InstrumentRepository instrumentRepository;
+
+    @Mock
+    private MusicSheetRepository musicSheetRepository;
+
+    private MutableClock clock;
+    private SimpleMeterRegistry registry;
+    private RankingService rankingService;
+
+    @BeforeEach
+    void setUp() {
+        CatalogIndex index = new CatalogIndex(instrumentRepository, musicSheetRepository);
+        index.index(new CatalogDocument(1L, "Fender Guitar", null, 50.0, InstrumentType.ELECTRIC, InstrumentFamily.GUITAR));
+        index.index(new CatalogDocument(2L, "Yamaha Piano", null, 80.0, InstrumentType.ACOUSTIC, InstrumentFamily.KEYBOARD));
+        index.index(new CatalogDocument(3L, "Clair de Lune", null, 5.0, "Debussy", "Piano", "Classical"));
+
+        clock = new MutableClock(NOW);
+        registry = new SimpleMeterRegistry();
+        rankingService = new RankingService(reviewRepository, bookingRepository, sheetBookingRepository, index,
+                0, 10, 7, 5, clock, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rankingService.shutdown();
+    }
+
+    @Test
+    void whenFewReviews_thenRatingPulledTowardsCatalogMean() {
+        // Item 1: a single 5; item 2: thirty 5s and ten 4s; item 3: forty 2s. Catalog mean is about 3.4
+        when(reviewRepository.findMaxId()).thenReturn(81L);
+        when(reviewRepository.countScoresByItemBetweenIds(0L, 81L)).thenReturn(List.of(
+                new ScoreCount(1L, 5, 1L), new ScoreCount(2L, 5, 30L), new ScoreCount(2L, 4, 10L),
+                new ScoreCount(3L, 2, 40L)));
+
+        assertThat(rankingService.refresh()).isEqualTo(3);
+
+        List<CatalogHit> top = rankingService.top(Ranking.TOP_RATED, null, null, null, 10);
+        assertThat(top).extracting(CatalogHit::getId).containsExactly(2L, 1L, 3L);
+        assertThat(top.get(0).getAverageRating()).isEqualTo(4.75);
+        assertThat(top.get(0).getReviewCount()).isEqualTo(40);
+        assertThat(top.get(1).getAverageRating()).isEqualTo(5.0);
+        assertThat(top.get(1).getScore()).isLessThan(4.0f);
+        assertThat(registry.get("catalog.ranking.items").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("catalog.ranking.refresh").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void whenBookingsAge_thenTheirWeightHalvesEveryHalfLife() {
+        when(bookingRepository.findMaxId()).thenReturn(3L);
+        when(bookingRepository.countByItemAndCreatedOnBetweenIds(0L, 3L)).thenReturn(List.of(
+                new ItemDateCount(1L, TODAY.minusDays(7), 2L),
+                new ItemDateCount(2L, TODAY, 1L)));
+
+        rankingService.refresh();
+
+        List<CatalogHit> trending = rankingService.top(Ranking.TRENDING, null, null, null, 10);
+        assertThat(trending).extracting(CatalogHit::getId).containsExactly(1L, 2L);
+        assertThat(trending.get(0).getScore()).isCloseTo(1.0f, within(1e-6f));
+        assertThat(trending.get(1).getScore()).isCloseTo(1.0f, within(1e-6f));
+        verify(bookingRepository).backfillCreatedOn(TODAY);
+        verify(sheetBookingRepository).backfillCreatedOn(TODAY);
+    }
+
+    @Test
+    void whenRecountedFromScratch_thenScoresMatchDecayedIncrementalOnes() {
+        when(bookingRepository.findMaxId()).thenReturn(1L);
+        when(bookingRepository.countByItemAndCreatedOnBetweenIds(0L, 1L)).thenReturn(List.of(
+                new ItemDateCount(1L, TODAY, 4L)));
+        rankingService.refresh();
+
+        clock.advance(Duration.ofDays(7));
+        rankingService.refresh();
+        float incremental = rankingService.top(Ranking.TRENDING, null, null, null, 10).get(0).getScore();
+
+        rankingService.rebuild();
+        float recounted = rankingService.top(Ranking.TRENDING, null, null, null, 10).get(0).getScore();
+
+        assertThat(incremental).isCloseTo(2.0f, within(1e-6f));
+        assertThat(recounted).isCloseTo(incremental, within(1e-6f));
+    }
+
+    @Test
+    void whenRefreshed_thenOnlyNewRowsReadAndOldScoresDecayed() {
+        when(bookingRepository.findMaxId()).thenReturn(1L);
+        when(bookingRepository.countByItemAndCreatedOnBetweenIds(0L, 1L)).thenReturn(List.of(
+                new ItemDateCount(1L, TODAY, 4L)));
+        rankingService.refresh();
+
+        clock.advance(Duration.ofDays(7));
+        when(bookingRepository.findMaxId()).thenReturn(2L);
+        when(bookingRepository.countByItemAndCreatedOnBetweenIds(1L, 2L)).thenReturn(List.of(
+                new ItemDateCount(2L, TODAY.plusDays(7), 3L)));
+        rankingService.refresh();
+
+        List<CatalogHit> trending = rankingService.top(Ranking.TRENDING, null, null, null, 10);
+        assertThat(trending).extracting(CatalogHit::getId).containsExactly(2L, 1L);
+        assertThat(trending.get(1).getScore()).isCloseTo(2.0f, within(1e-6f));
+        verify(bookingRepository, never()).countByItemAndCreatedOnBetweenIds(0L, 2L);
+    }
+
+    @Test
+    void whenFilteredByGroup_thenOnlyThatGroupRanked() {
+        when(reviewRepository.findMaxId()).thenReturn(3L);
+        when(reviewRepository.countScoresByItemBetweenIds(0L, 3L)).thenReturn(List.of(
+                new ScoreCount(1L, 4, 1L), new ScoreCount(2L, 5, 1L), new ScoreCount(3L, 3, 1L)));
+        rankingService.refresh();
+
+        assertThat(rankingService.top(Ranking.TOP_RATED, ItemKind.INSTRUMENT, null, null, 10))
+                .extracting(CatalogHit::getId).containsExactly(2L, 1L);
+        assertThat(rankingService.top(Ranking.TOP_RATED, null, InstrumentType.ELECTRIC, null, 10))
+                .extracting(CatalogHit::getId).containsExactly(1L);
+        assertThat(rankingService.top(Ranking.TOP_RATED, null, null, "classical", 10))
+                .extracting(CatalogHit::getId).containsExactly(3L);
+        assertThat(rankingService.top(Ranking.TOP_RATED, null, null, null, 1))
+                .extracting(CatalogHit::getId).containsExactly(2L);
+        assertThat(rankingService.top(Ranking.TRENDING, null, null, null, 10)).isEmpty();
+    }
+
+    @Test
+    void whenItemNotInCatalog_thenLeftOutOfRankings() {
+        when(reviewRepository.findMaxId()).thenReturn(2L);
+        when(reviewRepository.countScoresByItemBetweenIds(0L, 2L)).thenReturn(List.of(
+                new ScoreCount(1L, 4, 1L), new ScoreCount(99L, 5, 1L)));
+
+        rankingService.refresh();
+
+        assertThat(rankingService.top(Ranking.TOP_RATED, null, null, null, 10))
+                .extracting(CatalogHit::getId).containsExactly(1L);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
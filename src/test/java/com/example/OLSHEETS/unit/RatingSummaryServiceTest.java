@@ -0,0 +1,178 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.data.RatingSubject;
+import com.example.OLSHEETS.data.RatingSummary;
+import com.example.OLSHEETS.dto.RatingAverage;
+import com.example.OLSHEETS.dto.ScoreCount;
+import com.example.OLSHEETS.repository.ItemRepository;
+import com.example.OLSHEETS.repository.RatingSummaryRepository;
+import com.example.OLSHEETS.repository.RenterReviewRepository;
+import com.example.OLSHEETS.repository.ReviewRepository;
+import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.service.RatingSummaryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingSummaryServiceTest {
+
+    @Mock
+    private RatingSummaryRepository ratingSummaryRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private RenterReviewRepository renterReviewRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private RatingSummaryService ratingSummaryService;
+
+    @Test
+    void whenSummaryExists_thenReviewIncrementsInPlace() {
+        when(ratingSummaryRepository.increment(RatingSubject.ITEM, 1L, 4)).thenReturn(1);
+
+        ratingSummaryService.recordItemReview(1L, 4);
+
+        verify(ratingSummaryRepository, never()).upsert(any(), any(), anyInt());
+        verifyNoInteractions(itemRepository, userRepository);
+    }
+
+    @Test
+    void whenRenterSummaryMissing_thenUpsertedUnderRenterLock() {
+        when(ratingSummaryRepository.increment(any(), any(), anyInt())).thenReturn(0);
+
+        ratingSummaryService.recordRenterReview(2L, 3);
+
+        InOrder order = inOrder(userRepository, ratingSummaryRepository);
+        order.verify(userRepository).findByIdForUpdate(2L);
+        order.verify(ratingSummaryRepository).upsert(RatingSubject.RENTER, 2L, 3);
+        verifyNoInteractions(itemRepository);
+        verify(ratingSummaryRepository, never()).save(any());
+    }
+
+    @Test
+    void whenItemSummaryMissing_thenUpsertedUnderItemLock() {
+        when(ratingSummaryRepository.increment(any(), any(), anyInt())).thenReturn(0);
+
+        ratingSummaryService.recordItemReview(1L, 5);
+
+        InOrder order = inOrder(itemRepository, ratingSummaryRepository);
+        order.verify(itemRepository).findByIdForUpdate(1L);
+        order.verify(ratingSummaryRepository).upsert(RatingSubject.ITEM, 1L, 5);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void whenAverageRead_thenComputedFromSummary() {
+        RatingSummary summary = new RatingSummary(RatingSubject.ITEM, 1L);
+        summary.add(5, 2);
+        summary.add(2, 1);
+        when(ratingSummaryRepository.findBySubjectTypeAndSubjectId(RatingSubject.ITEM, 1L))
+            .thenReturn(Optional.of(summary));
+
+        assertThat(ratingSummaryService.averageForItem(1L)).isEqualTo(4.0);
+    }
+
+    @Test
+    void whenNoReviews_thenAverageIsZero() {
+        when(ratingSummaryRepository.findBySubjectTypeAndSubjectId(RatingSubject.RENTER, 2L))
+            .thenReturn(Optional.empty());
+
+        assertThat(ratingSummaryService.averageForRenter(2L)).isEqualTo(0.0);
+    }
+
+    @Test
+    void whenSummariesReadInBatch_thenKeyedBySubject() {
+        RatingSummary summary = new RatingSummary(RatingSubject.ITEM, 7L);
+        summary.add(4, 1);
+        when(ratingSummaryRepository.findBySubjectTypeAndSubjectIdIn(RatingSubject.ITEM, List.of(7L, 8L)))
+            .thenReturn(List.of(summary));
+
+        Map<Long, RatingSummary> summaries = ratingSummaryService.itemSummaries(List.of(7L, 8L));
+
+        assertThat(summaries).containsOnlyKeys(7L);
+        assertThat(ratingSummaryService.itemSummaries(List.of())).isEmpty();
+        verify(ratingSummaryRepository, times(1)).findBySubjectTypeAndSubjectIdIn(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenAveragesRequested_thenOneEntryPerDistinctIdInRequestOrder() {
+        RatingSummary summary = new RatingSummary(RatingSubject.RENTER, 3L);
+        summary.add(4, 1);
+        summary.add(5, 1);
+        when(ratingSummaryRepository.findBySubjectTypeAndSubjectIdIn(eq(RatingSubject.RENTER), any()))
+            .thenReturn(List.of(summary));
+
+        List<RatingAverage> averages = ratingSummaryService.renterAverages(List.of(9L, 3L, 9L));
+
+        assertThat(averages).extracting(RatingAverage::getId).containsExactly(9L, 3L);
+        assertThat(averages.get(0).getReviewCount()).isZero();
+        assertThat(averages.get(0).getAverageScore()).isEqualTo(0.0);
+        assertThat(averages.get(1).getReviewCount()).isEqualTo(2);
+        assertThat(averages.get(1).getAverageScore()).isEqualTo(4.5);
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(ratingSummaryRepository).findBySubjectTypeAndSubjectIdIn(eq(RatingSubject.RENTER), ids.capture());
+        assertThat(ids.getValue()).containsExactly(9L, 3L);
+    }
+
+    @Test
+    void whenTooManyIdsRequested_thenRejectedWithoutQuerying() {
+        List<Long> ids = LongStream.rangeClosed(1, RatingSummaryService.MAX_BATCH_SIZE + 1).boxed().toList();
+
+        assertThatThrownBy(() -> ratingSummaryService.itemAverages(ids))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(ratingSummaryRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenRebuild_thenFoldsScoreCountsIntoSummaries() {
+        when(reviewRepository.countScoresByItem()).thenReturn(List.of(
+            new ScoreCount(1L, 5, 3L),
+            new ScoreCount(1L, 1, 1L)));
+        when(renterReviewRepository.countScoresByRenter()).thenReturn(List.of(
+            new ScoreCount(1L, 4, 2L)));
+
+        long processed = ratingSummaryService.rebuild();
+
+        assertThat(processed).isEqualTo(6);
+        verify(ratingSummaryRepository).deleteAllRows();
+        ArgumentCaptor<Iterable<RatingSummary>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(ratingSummaryRepository).saveAll(captor.capture());
+        List<RatingSummary> summaries = new ArrayList<>();
+        captor.getValue().forEach(summaries::add);
+        assertThat(summaries).hasSize(2);
+        RatingSummary item = summaries.stream()
+            .filter(s -> s.getSubjectType() == RatingSubject.ITEM).findFirst().orElseThrow();
+        assertThat(item.getReviewCount()).isEqualTo(4);
+        assertThat(item.getScoreSum()).isEqualTo(16);
+        assertThat(item.getStars(5)).isEqualTo(3);
+        assertThat(item.getStars(1)).isEqualTo(1);
+        assertThat(item.getAverage()).isEqualTo(4.0);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.OLSHEETS.unit;
 
 import com.example.OLSHEETS.controller.RenterReviewController;
+import com.example.OLSHEETS.dto.KeysetPage;
+import com.example.OLSHEETS.dto.RatingAverage;
+import com.example.OLSHEETS.dto.RatingBatchRequest;
 import com.example.OLSHEETS.dto.RenterReviewRequest;
 import com.example.OLSHEETS.dto.RenterReviewResponse;
 import com.example.OLSHEETS.security.JwtUtil;
@@ -182,6 +185,19 @@ class RenterReviewControllerTest {
         verify(renterReviewService, times(1)).getReviewsByRenterId(1L);
     }
 
+    @Test
+    void testGetReviewFeedByRenterId_ShouldReturnFirstPage() throws Exception {
+        when(renterReviewService.getReviewFeedByRenterId(1L, null, 20))
+                .thenReturn(new KeysetPage<>(List.of(renterReviewResponse1, renterReviewResponse2), null, false));
+
+        mockMvc.perform(get("/api/renter-reviews/renter/1/feed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+
+        verify(renterReviewService, times(1)).getReviewFeedByRenterId(1L, null, 20);
+    }
+
     @Test
     void testGetAverageScoreByRenterId_ShouldReturnAverage() throws Exception {
         when(renterReviewService.getAverageScoreByRenterId(1L)).thenReturn(4.5);
@@ -205,6 +221,23 @@ class RenterReviewControllerTest {
         verify(renterReviewService, times(1)).getAverageScoreByRenterId(1L);
     }
 
+    @Test
+    void testGetAverageScores_ShouldReturnOneEntryPerRenter() throws Exception {
+        when(renterReviewService.getAverageScoresByRenterIds(List.of(1L, 2L))).thenReturn(List.of(
+                new RatingAverage(1L, 2, 3.5),
+                new RatingAverage(2L, 0, 0.0)));
+
+        mockMvc.perform(post("/api/renter-reviews/averages")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RatingBatchRequest(List.of(1L, 2L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].averageScore", is(3.5)))
+                .andExpect(jsonPath("$[1].id", is(2)));
+
+        verify(renterReviewService, times(1)).getAverageScoresByRenterIds(List.of(1L, 2L));
+    }
+
     @Test
     void testGetRenterReviewByBookingId_WithExistingReview_ShouldReturnReview() throws Exception {
         when(renterReviewService.getRenterReviewByBookingId(1L)).thenReturn(renterReviewResponse1);
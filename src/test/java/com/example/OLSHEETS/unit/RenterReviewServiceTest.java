@@ -1,10 +1,13 @@
 package com.example.OLSHEETS.unit;
 
 import com.example.OLSHEETS.data.*;
+import com.example.OLSHEETS.dto.KeysetPage;
 import com.example.OLSHEETS.dto.RenterReviewRequest;
 import com.example.OLSHEETS.dto.RenterReviewResponse;
+import com.example.OLSHEETS.dto.ReviewCursor;
 import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.repository.RenterReviewRepository;
+import com.example.OLSHEETS.service.RatingSummaryService;
 import com.example.OLSHEETS.service.RenterReviewService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +15,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -32,6 +37,9 @@ class RenterReviewServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private RatingSummaryService ratingSummaryService;
+
     @InjectMocks
     private RenterReviewService renterReviewService;
 
@@ -78,6 +86,7 @@ class RenterReviewServiceTest {
         assertEquals(1L, response.getId());
         assertEquals(5, response.getScore());
         verify(renterReviewRepository, times(1)).save(any(RenterReview.class));
+        verify(ratingSummaryService, times(1)).recordRenterReview(2L, 5);
     }
 
     @Test
@@ -161,31 +170,46 @@ class RenterReviewServiceTest {
 
     @Test
     void testGetReviewsByRenterId_ShouldReturnReviews() {
-        RenterReview review2 = new RenterReview(booking, 4, "Good!");
-        review2.setId(2L);
-        review2.setCreatedAt(LocalDateTime.now());
-        
-        when(renterReviewRepository.findByRenterId(2L)).thenReturn(Arrays.asList(renterReview, review2));
+        when(renterReviewRepository.findFeedByRenterId(2L, Pageable.unpaged()))
+                .thenReturn(Arrays.asList(response(2L, 4, LocalDateTime.now()), response(1L, 5, LocalDateTime.now())));
 
         List<RenterReviewResponse> reviews = renterReviewService.getReviewsByRenterId(2L);
 
         assertEquals(2, reviews.size());
-        verify(renterReviewRepository, times(1)).findByRenterId(2L);
+        verify(renterReviewRepository, times(1)).findFeedByRenterId(2L, Pageable.unpaged());
+    }
+
+    @Test
+    void testGetReviewFeedByRenterId_ShouldPageWithCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(renterReviewRepository.findFeedByRenterId(2L, PageRequest.ofSize(2)))
+                .thenReturn(List.of(response(5L, 5, createdAt), response(4L, 3, createdAt)));
+        when(renterReviewRepository.findFeedByRenterIdBefore(2L, createdAt, 5L, PageRequest.ofSize(2)))
+                .thenReturn(List.of(response(4L, 3, createdAt)));
+
+        KeysetPage<RenterReviewResponse> first = renterReviewService.getReviewFeedByRenterId(2L, null, 1);
+        KeysetPage<RenterReviewResponse> second = renterReviewService.getReviewFeedByRenterId(2L, first.getNextCursor(), 1);
+
+        assertEquals(5L, first.getContent().get(0).getId());
+        assertTrue(first.isHasMore());
+        assertEquals(4L, second.getContent().get(0).getId());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
     }
 
     @Test
     void testGetAverageScoreByRenterId_ShouldReturnAverage() {
-        when(renterReviewRepository.getAverageScoreByRenterId(2L)).thenReturn(4.5);
+        when(ratingSummaryService.averageForRenter(2L)).thenReturn(4.5);
 
         Double average = renterReviewService.getAverageScoreByRenterId(2L);
 
         assertEquals(4.5, average);
-        verify(renterReviewRepository, times(1)).getAverageScoreByRenterId(2L);
+        verify(ratingSummaryService, times(1)).averageForRenter(2L);
     }
 
     @Test
     void testGetAverageScoreByRenterId_WithNoReviews_ShouldReturnZero() {
-        when(renterReviewRepository.getAverageScoreByRenterId(2L)).thenReturn(null);
+        when(ratingSummaryService.averageForRenter(2L)).thenReturn(0.0);
 
         Double average = renterReviewService.getAverageScoreByRenterId(2L);
 
@@ -353,4 +377,8 @@ class RenterReviewServiceTest {
         assertNotNull(response);
         verify(renterReviewRepository, times(1)).save(any(RenterReview.class));
     }
+
+    private static RenterReviewResponse response(Long id, int score, LocalDateTime createdAt) {
+        return new RenterReviewResponse(id, id, 2L, "jane_doe", 1L, "Yamaha Piano", 1L, score, null, createdAt);
+    }
 }
@@ -1,6 +1,9 @@
 package com.example.OLSHEETS.unit;
 
 import com.example.OLSHEETS.boundary.ReviewController;
+import com.example.OLSHEETS.dto.KeysetPage;
+import com.example.OLSHEETS.dto.RatingAverage;
+import com.example.OLSHEETS.dto.RatingBatchRequest;
 import com.example.OLSHEETS.dto.ReviewRequest;
 import com.example.OLSHEETS.dto.ReviewResponse;
 import com.example.OLSHEETS.security.JwtUtil;
@@ -134,6 +137,30 @@ class ReviewControllerTest {
         verify(reviewService, times(1)).getReviewsByItemId(1L);
     }
 
+    @Test
+    void testGetReviewFeedByItem_ShouldReturnPageWithClampedSize() throws Exception {
+        when(reviewService.getReviewFeedByItemId(1L, "abc", 100))
+                .thenReturn(new KeysetPage<>(List.of(reviewResponse1), "def", true));
+
+        mockMvc.perform(get("/api/reviews/item/1/feed")
+                        .param("cursor", "abc")
+                        .param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(1)))
+                .andExpect(jsonPath("$.nextCursor", is("def")))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+    }
+
+    @Test
+    void testGetReviewFeedByItem_WithMalformedCursor_ShouldReturnBadRequest() throws Exception {
+        when(reviewService.getReviewFeedByItemId(1L, "bad", 20))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/reviews/item/1/feed").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetAverageScore_ShouldReturnAverage() throws Exception {
         when(reviewService.getAverageScoreByItemId(1L)).thenReturn(4.5);
@@ -157,6 +184,36 @@ class ReviewControllerTest {
         verify(reviewService, times(1)).getAverageScoreByItemId(1L);
     }
 
+    @Test
+    void testGetAverageScores_ShouldReturnOneEntryPerItem() throws Exception {
+        when(reviewService.getAverageScoresByItemIds(List.of(1L, 2L))).thenReturn(List.of(
+                new RatingAverage(1L, 4, 4.5),
+                new RatingAverage(2L, 0, 0.0)));
+
+        mockMvc.perform(post("/api/reviews/averages")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RatingBatchRequest(List.of(1L, 2L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].reviewCount", is(4)))
+                .andExpect(jsonPath("$[0].averageScore", is(4.5)))
+                .andExpect(jsonPath("$[1].reviewCount", is(0)));
+
+        verify(reviewService, times(1)).getAverageScoresByItemIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void testGetAverageScores_WithTooManyIds_ShouldReturnBadRequest() throws Exception {
+        when(reviewService.getAverageScoresByItemIds(any()))
+                .thenThrow(new IllegalArgumentException("At most 100 ids per request"));
+
+        mockMvc.perform(post("/api/reviews/averages")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RatingBatchRequest(List.of(1L)))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetReviewByBooking_WithExistingReview_ShouldReturnReview() throws Exception {
         when(reviewService.getReviewByBookingId(1L)).thenReturn(reviewResponse1);
@@ -1,10 +1,13 @@
 package com.example.OLSHEETS.unit;
 
 import com.example.OLSHEETS.data.*;
+import com.example.OLSHEETS.dto.KeysetPage;
+import com.example.OLSHEETS.dto.ReviewCursor;
 import com.example.OLSHEETS.dto.ReviewRequest;
 import com.example.OLSHEETS.dto.ReviewResponse;
 import com.example.OLSHEETS.repository.BookingRepository;
 import com.example.OLSHEETS.repository.ReviewRepository;
+import com.example.OLSHEETS.service.RatingSummaryService;
 import com.example.OLSHEETS.service.ReviewService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +15,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -32,6 +37,9 @@ class ReviewServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private RatingSummaryService ratingSummaryService;
+
     @InjectMocks
     private ReviewService reviewService;
 
@@ -73,6 +81,7 @@ class ReviewServiceTest {
         assertEquals(1L, response.getId());
         assertEquals(5, response.getScore());
         verify(reviewRepository, times(1)).save(any(Review.class));
+        verify(ratingSummaryService, times(1)).recordItemReview(1L, 5);
     }
 
     @Test
@@ -156,31 +165,66 @@ class ReviewServiceTest {
 
     @Test
     void testGetReviewsByItemId_ShouldReturnReviews() {
-        Review review2 = new Review(booking, 4, "Good!");
-        review2.setId(2L);
-        review2.setCreatedAt(LocalDateTime.now());
-        
-        when(reviewRepository.findByItemId(1L)).thenReturn(Arrays.asList(review, review2));
+        when(reviewRepository.findFeedByItemId(1L, Pageable.unpaged()))
+                .thenReturn(Arrays.asList(response(2L, 4), response(1L, 5)));
 
         List<ReviewResponse> reviews = reviewService.getReviewsByItemId(1L);
 
         assertEquals(2, reviews.size());
-        verify(reviewRepository, times(1)).findByItemId(1L);
+        verify(reviewRepository, times(1)).findFeedByItemId(1L, Pageable.unpaged());
+    }
+
+    @Test
+    void testGetReviewFeedByItemId_FirstPage_ShouldReturnCursorToLastReview() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(reviewRepository.findFeedByItemId(1L, PageRequest.ofSize(3))).thenReturn(List.of(
+                response(9L, 5, createdAt), response(8L, 4, createdAt), response(7L, 3, createdAt.minusDays(1))));
+
+        KeysetPage<ReviewResponse> page = reviewService.getReviewFeedByItemId(1L, null, 2);
+
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasMore());
+        ReviewCursor next = ReviewCursor.decode(page.getNextCursor());
+        assertEquals(createdAt, next.getCreatedAt());
+        assertEquals(8L, next.getId());
+    }
+
+    @Test
+    void testGetReviewFeedByItemId_WithCursor_ShouldContinueAfterIt() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        String cursor = new ReviewCursor(createdAt, 8L).encode();
+        when(reviewRepository.findFeedByItemIdBefore(1L, createdAt, 8L, PageRequest.ofSize(3)))
+                .thenReturn(List.of(response(7L, 3, createdAt.minusDays(1))));
+
+        KeysetPage<ReviewResponse> page = reviewService.getReviewFeedByItemId(1L, cursor, 2);
+
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetReviewFeedByItemId_WithMalformedCursor_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () ->
+            reviewService.getReviewFeedByItemId(1L, "not-a-cursor", 20)
+        );
+
+        verifyNoInteractions(reviewRepository);
     }
 
     @Test
     void testGetAverageScoreByItemId_ShouldReturnAverage() {
-        when(reviewRepository.getAverageScoreByItemId(1L)).thenReturn(4.5);
+        when(ratingSummaryService.averageForItem(1L)).thenReturn(4.5);
 
         Double average = reviewService.getAverageScoreByItemId(1L);
 
         assertEquals(4.5, average);
-        verify(reviewRepository, times(1)).getAverageScoreByItemId(1L);
+        verify(ratingSummaryService, times(1)).averageForItem(1L);
     }
 
     @Test
     void testGetAverageScoreByItemId_WithNoReviews_ShouldReturnZero() {
-        when(reviewRepository.getAverageScoreByItemId(1L)).thenReturn(null);
+        when(ratingSummaryService.averageForItem(1L)).thenReturn(0.0);
 
         Double average = reviewService.getAverageScoreByItemId(1L);
 
@@ -344,4 +388,12 @@ class ReviewServiceTest {
         assertNotNull(response);
         verify(reviewRepository, times(1)).save(any(Review.class));
     }
+
+    private static ReviewResponse response(Long id, int score) {
+        return response(id, score, LocalDateTime.now());
+    }
+
+    private static ReviewResponse response(Long id, int score, LocalDateTime createdAt) {
+        return new ReviewResponse(id, id, 1L, "Yamaha Piano", 1L, "john_doe", score, null, createdAt);
+    }
 }
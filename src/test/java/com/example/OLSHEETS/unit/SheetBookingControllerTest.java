@@ -4,6 +4,7 @@ import com.example.OLSHEETS.boundary.SheetBookingController;
 import com.example.OLSHEETS.data.MusicSheet;
 import com.example.OLSHEETS.data.SheetBooking;
 import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.SheetBookingView;
 import com.example.OLSHEETS.service.SheetBookingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -84,11 +85,16 @@ class SheetBookingControllerTest {
 
     @Test
     void whenGetBookingsByRenter_thenReturn200() throws Exception {
-        when(bookingService.getBookingsByRenter(100L)).thenReturn(List.of(booking));
+        SheetBookingView view = new SheetBookingView(1L, 1L, "Moonlight Sonata", 5.00, 1L, "owner1", "Owner One",
+                100L, "tester", "tester", booking.getStartDate(), booking.getEndDate(), booking.getStatus());
+        when(bookingService.getBookingsByRenter(100L)).thenReturn(List.of(view));
 
         mockMvc.perform(get("/api/sheets/bookings/renter/100"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$[0].renter.id").value(100));
+            .andExpect(jsonPath("$[0].renter.id").value(100))
+            .andExpect(jsonPath("$[0].renter.email").doesNotExist())
+            .andExpect(jsonPath("$[0].musicSheet.name").value("Moonlight Sonata"))
+            .andExpect(jsonPath("$[0].musicSheet.owner.id").value(1));
     }
 
     @Test
@@ -4,6 +4,7 @@ import com.example.OLSHEETS.data.MusicSheet;
 import com.example.OLSHEETS.data.SheetBooking;
 import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.data.BookingStatus;
+import com.example.OLSHEETS.dto.SheetBookingView;
 import com.example.OLSHEETS.repository.MusicSheetRepository;
 import com.example.OLSHEETS.repository.SheetBookingRepository;
 import com.example.OLSHEETS.service.SheetBookingService;
@@ -97,9 +98,9 @@ class SheetBookingServiceTest {
 
     @Test
     void whenGetBookingsByRenter_thenReturnBookings() {
-        when(bookingRepository.findByRenterId(100L)).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByRenterId(100L)).thenReturn(List.of(view(booking)));
 
-        List<SheetBooking> bookings = bookingService.getBookingsByRenter(100L);
+        List<SheetBookingView> bookings = bookingService.getBookingsByRenter(100L);
 
         assertThat(bookings).hasSize(1);
         assertThat(bookings.get(0).getRenter().getId()).isEqualTo(100L);
@@ -133,32 +134,37 @@ class SheetBookingServiceTest {
     @Test
     void whenGetAllBookings_thenReturnAllBookings() {
         User user2 = new User("tester2", "tester2@example.com", "Test User Two", "password123");
+        user2.setId(200L);
         SheetBooking booking2 = new SheetBooking(sheet, user2, LocalDate.now().plusDays(5), LocalDate.now().plusDays(7));
-        when(bookingRepository.findAll()).thenReturn(List.of(booking, booking2));
+        booking2.setId(2L);
+        List<SheetBookingView> views = List.of(view(booking), view(booking2));
+        when(bookingRepository.findAllViews()).thenReturn(views);
 
-        List<SheetBooking> bookings = bookingService.getAllBookings();
+        List<SheetBookingView> bookings = bookingService.getAllBookings();
 
         assertThat(bookings).hasSize(2);
-        assertThat(bookings).containsExactly(booking, booking2);
-        verify(bookingRepository, times(1)).findAll();
+        assertThat(bookings).containsExactlyElementsOf(views);
+        verify(bookingRepository, times(1)).findAllViews();
+        verify(bookingRepository, never()).findAll();
     }
 
     @Test
     void whenGetBookingsBySheet_thenReturnBookings() {
-        when(sheetRepository.findById(1L)).thenReturn(Optional.of(sheet));
-        when(bookingRepository.findByMusicSheet(sheet)).thenReturn(List.of(booking));
+        when(sheetRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.findViewsBySheetId(1L)).thenReturn(List.of(view(booking)));
 
-        List<SheetBooking> bookings = bookingService.getBookingsBySheet(1L);
+        List<SheetBookingView> bookings = bookingService.getBookingsBySheet(1L);
 
         assertThat(bookings).hasSize(1);
-        assertThat(bookings.get(0)).isEqualTo(booking);
-        verify(sheetRepository, times(1)).findById(1L);
-        verify(bookingRepository, times(1)).findByMusicSheet(sheet);
+        assertThat(bookings.get(0).getId()).isEqualTo(1L);
+        assertThat(bookings.get(0).getMusicSheet().getOwner().getId()).isEqualTo(1L);
+        verify(sheetRepository, never()).findById(anyLong());
+        verify(bookingRepository, times(1)).findViewsBySheetId(1L);
     }
 
     @Test
     void whenGetBookingsBySheetForNonExistentSheet_thenThrowException() {
-        when(sheetRepository.findById(999L)).thenReturn(Optional.empty());
+        when(sheetRepository.existsById(999L)).thenReturn(false);
 
         assertThatThrownBy(() -> bookingService.getBookingsBySheet(999L))
             .isInstanceOf(IllegalArgumentException.class)
@@ -177,11 +183,21 @@ class SheetBookingServiceTest {
 
     @Test
     void whenGetBookingsByRenterWithNoBookings_thenReturnEmptyList() {
-        when(bookingRepository.findByRenterId(999L)).thenReturn(List.of());
+        when(bookingRepository.findViewsByRenterId(999L)).thenReturn(List.of());
 
-        List<SheetBooking> bookings = bookingService.getBookingsByRenter(999L);
+        List<SheetBookingView> bookings = bookingService.getBookingsByRenter(999L);
 
         assertThat(bookings).isEmpty();
-        verify(bookingRepository, times(1)).findByRenterId(999L);
+        verify(bookingRepository, times(1)).findViewsByRenterId(999L);
+    }
+
+    private static SheetBookingView view(SheetBooking booking) {
+        MusicSheet sheet = booking.getMusicSheet();
+        User owner = sheet.getOwner();
+        User renter = booking.getRenter();
+        return new SheetBookingView(booking.getId(), sheet.getId(), sheet.getName(), sheet.getPrice(),
+                owner.getId(), owner.getUsername(), owner.getName(),
+                renter.getId(), renter.getUsername(), renter.getName(),
+                booking.getStartDate(), booking.getEndDate(), booking.getStatus());
     }
 }
@@ -3,6 +3,7 @@ package com.example.OLSHEETS.unit;
 import com.example.OLSHEETS.boundary.SheetsController;
 import com.example.OLSHEETS.data.MusicSheet;
 import com.example.OLSHEETS.data.User;
+import com.example.OLSHEETS.dto.MusicSheetListing;
 import com.example.OLSHEETS.dto.MusicSheetRegistrationRequest;
 import com.example.OLSHEETS.repository.UserRepository;
 import com.example.OLSHEETS.service.ProductsService;
@@ -61,33 +62,18 @@ class SheetsControllerTest {
     @MockitoBean
     private UserRepository userRepository;
 
-    private MusicSheet sheet1;
-    private MusicSheet sheet2;
+    private MusicSheetListing sheet1;
+    private MusicSheetListing sheet2;
     private User owner1;
 
     @BeforeEach
     void setUp() {
         owner1 = new User("owner1", "owner1@example.com", "Owner One", "password123");
         owner1.setId(1L);
-        sheet1 = new MusicSheet();
-        sheet1.setId(1L);
-        sheet1.setName("Moonlight Sonata");
-        sheet1.setComposer("Beethoven");
-        sheet1.setCategory("CLASSICAL");
-        sheet1.setDescription("Piano Sonata No. 14");
-        sheet1.setPrice(9.99);
-        sheet1.setOwner(owner1);
-
-        User owner2 = new User("owner2", "owner2@example.com", "Owner Two", "password123");
-        owner2.setId(2L);
-        sheet2 = new MusicSheet();
-        sheet2.setId(2L);
-        sheet2.setName("Bohemian Rhapsody");
-        sheet2.setComposer("Freddie Mercury");
-        sheet2.setCategory("ROCK");
-        sheet2.setDescription("Queen masterpiece");
-        sheet2.setPrice(12.99);
-        sheet2.setOwner(owner2);
+        sheet1 = new MusicSheetListing(1L, "Moonlight Sonata", "Piano Sonata No. 14", 9.99,
+                1L, "owner1", "Owner One", "Beethoven", null, "CLASSICAL", null);
+        sheet2 = new MusicSheetListing(2L, "Bohemian Rhapsody", "Queen masterpiece", 12.99,
+                2L, "owner2", "Owner Two", "Freddie Mercury", null, "ROCK", null);
 
         // Setup authentication
         Authentication auth = mock(Authentication.class);
@@ -99,7 +85,7 @@ class SheetsControllerTest {
 
     @Test
     void testSearchSheets_WithMatchingResults_ShouldReturnSheetsList() throws Exception {
-        List<MusicSheet> sheets = Collections.singletonList(sheet1);
+        List<MusicSheetListing> sheets = Collections.singletonList(sheet1);
         when(productsService.searchMusicSheetsByName("Moonlight")).thenReturn(sheets);
 
         mockMvc.perform(get("/api/sheets/search")
@@ -129,9 +115,24 @@ class SheetsControllerTest {
         verify(productsService, times(1)).searchMusicSheetsByName("Symphony");
     }
 
+    @Test
+    void testSearchSheets_WithFuzzy_ShouldUseFuzzySearch() throws Exception {
+        when(productsService.fuzzySearchMusicSheets("Beethovn")).thenReturn(Collections.singletonList(sheet1));
+
+        mockMvc.perform(get("/api/sheets/search")
+                        .param("name", "Beethovn")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].composer", is("Beethoven")));
+
+        verify(productsService).fuzzySearchMusicSheets("Beethovn");
+        verify(productsService, never()).searchMusicSheetsByName(anyString());
+    }
+
     @Test
     void testSearchSheets_WithMultipleResults_ShouldReturnAllSheets() throws Exception {
-        List<MusicSheet> sheets = Arrays.asList(sheet1, sheet2);
+        List<MusicSheetListing> sheets = Arrays.asList(sheet1, sheet2);
         when(productsService.searchMusicSheetsByName("a")).thenReturn(sheets);
 
         mockMvc.perform(get("/api/sheets/search")
@@ -145,7 +146,7 @@ class SheetsControllerTest {
 
     @Test
     void testFilterByCategory_WithMatchingResults_ShouldReturnSheetsList() throws Exception {
-        List<MusicSheet> sheets = Collections.singletonList(sheet1);
+        List<MusicSheetListing> sheets = Collections.singletonList(sheet1);
         when(productsService.filterMusicSheetsByCategory("CLASSICAL")).thenReturn(sheets);
 
         mockMvc.perform(get("/api/sheets/filter/category")
@@ -175,7 +176,7 @@ class SheetsControllerTest {
 
     @Test
     void testFilterByCategory_WithRockCategory_ShouldReturnRockSheets() throws Exception {
-        List<MusicSheet> sheets = Collections.singletonList(sheet2);
+        List<MusicSheetListing> sheets = Collections.singletonList(sheet2);
         when(productsService.filterMusicSheetsByCategory("ROCK")).thenReturn(sheets);
 
         mockMvc.perform(get("/api/sheets/filter/category")
@@ -192,7 +193,7 @@ class SheetsControllerTest {
 
     @Test
     void testSearchSheets_VerifyAllFieldsReturned() throws Exception {
-        List<MusicSheet> sheets = Collections.singletonList(sheet1);
+        List<MusicSheetListing> sheets = Collections.singletonList(sheet1);
         when(productsService.searchMusicSheetsByName("Sonata")).thenReturn(sheets);
 
         mockMvc.perform(get("/api/sheets/search")
@@ -204,7 +205,11 @@ class SheetsControllerTest {
                 .andExpect(jsonPath("$[0].category", is("CLASSICAL")))
                 .andExpect(jsonPath("$[0].description", is("Piano Sonata No. 14")))
                 .andExpect(jsonPath("$[0].price", is(9.99)))
-                .andExpect(jsonPath("$[0].owner.id", is(1)));
+                .andExpect(jsonPath("$[0].owner.id", is(1)))
+                .andExpect(jsonPath("$[0].owner.email").doesNotExist())
+                .andExpect(jsonPath("$[0].ownerId", is(1)))
+                .andExpect(jsonPath("$[0].title", is("Moonlight Sonata")))
+                .andExpect(jsonPath("$[0].itemType", is("MUSICSHEET")));
     }
 
     @Test
@@ -0,0 +1,91 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.data.InstrumentFamily;
+import com.example.OLSHEETS.data.InstrumentType;
+import com.example.OLSHEETS.data.ItemKind;
+import com.example.OLSHEETS.dto.ItemBookingCount;
+import com.example.OLSHEETS.dto.Suggestion;
+import com.example.OLSHEETS.repository.BookingRepository;
+import com.example.OLSHEETS.repository.InstrumentRepository;
+import com.example.OLSHEETS.repository.MusicSheetRepository;
+import com.example.OLSHEETS.repository.SheetBookingRepository;
+import com.example.OLSHEETS.search.CatalogDocument;
+import com.example.OLSHEETS.service.SuggestService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestServiceTest {
+
+    @Mock
+    private InstrumentRepository instrumentRepository;
+
+    @Mock
+    private MusicSheetRepository musicSheetRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private SheetBookingRepository sheetBookingRepository;
+
+    private SimpleMeterRegistry registry;
+    private SuggestService suggestService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        suggestService = new SuggestService(instrumentRepository, musicSheetRepository,
+                bookingRepository, sheetBookingRepository, 0, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggestService.shutdown();
+    }
+
+    @Test
+    void whenRebuilt_thenSuggestionsRankedByBookings() {
+        when(instrumentRepository.findCatalogDocumentsAfter(eq(0L), any())).thenReturn(List.of(
+                new CatalogDocument(1L, "Cello Classic", null, 20.0, InstrumentType.ACOUSTIC, InstrumentFamily.STRING)));
+        when(musicSheetRepository.findCatalogDocumentsAfter(eq(0L), any())).thenReturn(List.of(
+                new CatalogDocument(2L, "Cello Suite No. 1", null, 5.0, "Bach", "Cello", "Classical"),
+                new CatalogDocument(3L, "Clair de Lune", null, 5.0, "Debussy", "Piano", "Classical")));
+        when(bookingRepository.countGroupedByItem()).thenReturn(List.of(new ItemBookingCount(1L, 2L)));
+        when(sheetBookingRepository.countGroupedByMusicSheet()).thenReturn(List.of(
+                new ItemBookingCount(2L, 5L), new ItemBookingCount(3L, 1L)));
+
+        int entries = suggestService.rebuild();
+
+        assertThat(entries).isEqualTo(6);
+        assertThat(suggestService.suggest("c", 10)).extracting(Suggestion::getText)
+                .containsExactly("Classical", "Cello Suite No. 1", "Cello Classic", "Clair de Lune");
+        assertThat(suggestService.suggest("bac", 10)).extracting(Suggestion::getField)
+                .containsExactly(Suggestion.Field.COMPOSER);
+        assertThat(suggestService.suggest("c", ItemKind.INSTRUMENT, 10)).extracting(Suggestion::getText)
+                .containsExactly("Cello Classic");
+        assertThat(suggestService.suggest("c", ItemKind.MUSIC_SHEET, 10)).extracting(Suggestion::getText)
+                .containsExactly("Classical", "Cello Suite No. 1", "Clair de Lune");
+        assertThat(registry.get("catalog.suggest.entries").gauge().value()).isEqualTo(6);
+        assertThat(registry.get("catalog.suggest.memory").gauge().value()).isPositive();
+        assertThat(registry.get("catalog.suggest.rebuild").timer().count()).isEqualTo(1);
+        assertThat(registry.get("catalog.suggest.latency").timer().count()).isEqualTo(4);
+    }
+
+    @Test
+    void whenNotBuiltYet_thenNoSuggestions() {
+        assertThat(suggestService.suggest("cello", 10)).isEmpty();
+    }
+}
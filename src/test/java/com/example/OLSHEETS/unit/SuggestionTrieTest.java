@@ -0,0 +1,99 @@
+package com.example.OLSHEETS.unit;
+
+import com.example.OLSHEETS.dto.Suggestion;
+import com.example.OLSHEETS.search.SuggestionTrie;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    @Test
+    void whenPrefixMatches_thenMostPopularFirst() {
+        SuggestionTrie trie = SuggestionTrie.builder()
+                .add("Moonlight Sonata", Suggestion.Field.NAME, 3)
+                .add("Mozart", Suggestion.Field.COMPOSER, 10)
+                .add("Morning Mood", Suggestion.Field.NAME, 1)
+                .add("Nocturne", Suggestion.Field.NAME, 50)
+                .build();
+
+        List<Suggestion> suggestions = trie.suggest("mo", 10);
+
+        assertThat(suggestions).extracting(Suggestion::getText)
+                .containsExactly("Mozart", "Moonlight Sonata", "Morning Mood");
+        assertThat(suggestions.get(0).getField()).isEqualTo(Suggestion.Field.COMPOSER);
+        assertThat(suggestions.get(0).getPopularity()).isEqualTo(10);
+    }
+
+    @Test
+    void whenPrefixMatchesLaterWord_thenSuggestedOnce() {
+        SuggestionTrie trie = SuggestionTrie.builder()
+                .add("Piano Sonata Sonatina", Suggestion.Field.NAME, 1)
+                .build();
+
+        assertThat(trie.suggest("sona", 10)).extracting(Suggestion::getText)
+                .containsExactly("Piano Sonata Sonatina");
+    }
+
+    @Test
+    void whenPrefixHasAccentsOrCase_thenFolded() {
+        SuggestionTrie trie = SuggestionTrie.builder()
+                .add("Dvořák", Suggestion.Field.COMPOSER, 1)
+                .build();
+
+        assertThat(trie.suggest("DVOR", 10)).extracting(Suggestion::getText).containsExactly("Dvořák");
+        assertThat(trie.suggest("dvořá", 10)).extracting(Suggestion::getText).containsExactly("Dvořák");
+    }
+
+    @Test
+    void whenPrefixEndsInsideEdge_thenStillMatches() {
+        SuggestionTrie trie = SuggestionTrie.builder()
+                .add("Stratocaster", Suggestion.Field.NAME, 1)
+                .add("Steinway", Suggestion.Field.NAME, 2)
+                .build();
+
+        assertThat(trie.suggest("stra", 10)).extracting(Suggestion::getText).containsExactly("Stratocaster");
+        assertThat(trie.suggest("st", 10)).extracting(Suggestion::getText).containsExactly("Steinway", "Stratocaster");
+        assertThat(trie.suggest("strb", 10)).isEmpty();
+        assertThat(trie.suggest("stratocasters", 10)).isEmpty();
+    }
+
+    @Test
+    void whenSameTextAddedTwice_thenMergedWithSummedWeight() {
+        SuggestionTrie trie = SuggestionTrie.builder()
+                .add("Chopin", Suggestion.Field.COMPOSER, 2)
+                .add("chopin", Suggestion.Field.COMPOSER, 3)
+                .add("Chopin", Suggestion.Field.NAME, 1)
+                .build();
+
+        List<Suggestion> suggestions = trie.suggest("cho", 10);
+
+        assertThat(trie.size()).isEqualTo(2);
+        assertThat(suggestions).extracting(Suggestion::getField)
+                .containsExactly(Suggestion.Field.COMPOSER, Suggestion.Field.NAME);
+        assertThat(suggestions.get(0).getPopularity()).isEqualTo(5);
+    }
+
+    @Test
+    void whenLimitReached_thenStops() {
+        SuggestionTrie.Builder builder = SuggestionTrie.builder();
+        for (int i = 0; i < 50; i++) {
+            builder.add("Etude " + i, Suggestion.Field.NAME, i);
+        }
+
+        List<Suggestion> suggestions = builder.build().suggest("etude", 3);
+
+        assertThat(suggestions).extracting(Suggestion::getPopularity).containsExactly(49L, 48L, 47L);
+    }
+
+    @Test
+    void whenEmpty_thenNoSuggestions() {
+        SuggestionTrie trie = SuggestionTrie.empty();
+
+        assertThat(trie.suggest("a", 10)).isEmpty();
+        assertThat(trie.suggest("", 10)).isEmpty();
+        assertThat(trie.estimatedBytes()).isPositive();
+    }
+}
@@ -2,8 +2,10 @@ package com.example.OLSHEETS.unit;
 
 import com.example.OLSHEETS.data.User;
 import com.example.OLSHEETS.dto.SignupRequest;
+import com.example.OLSHEETS.exception.ServiceOverloadedException;
 import com.example.OLSHEETS.exception.UserAlreadyExistsException;
 import com.example.OLSHEETS.repository.UserRepository;
+import com.example.OLSHEETS.security.PasswordHashingExecutor;
 import com.example.OLSHEETS.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,11 +13,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -139,5 +143,20 @@ class UserServiceTest {
     void testGetPasswordEncoder() {
         assertNotNull(userService.getPasswordEncoder());
     }
-}
 
+    @Test
+    void testAuthenticateUser_HashingSaturated_PropagatesOverload() {
+        PasswordHashingExecutor saturated = mock(PasswordHashingExecutor.class);
+        when(saturated.submit(eq("matches"), any()))
+                .thenThrow(new ServiceOverloadedException("Authentication is busy, please retry shortly", 1));
+        ReflectionTestUtils.setField(userService, "passwordHashing", saturated);
+
+        User user = new User();
+        user.setUsername("testuser");
+        user.setPassword("$2a$10$hash");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        assertThrows(ServiceOverloadedException.class,
+                () -> userService.authenticateUser("testuser", "password123"));
+    }
+}